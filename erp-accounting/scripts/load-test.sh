@@ -0,0 +1,34 @@
+#!/usr/bin/env sh
+# Load test: fill the database with synthetic tenants, then replay a traffic mix against a
+# running service and print latency percentiles and throughput per scenario.
+#
+# Generation is skipped with GENERATE=false, so the same data set can be reused across runs.
+# Any extra arguments go to the driver, e.g. --mix=dashboard:50,post-journal:50 --duration=300.
+#
+# Usage: scripts/load-test.sh [driver args...]    (run from erp-accounting/, service already up)
+# Env:   DB_URL, DB_USER, DB_PASSWORD, TENANTS (default: 50), INVOICES (per tenant, default: 5000),
+#        WORKERS (default: 4), BASE_URL (default: http://localhost:8085), GENERATE (default: true)
+set -eu
+
+DB_URL=${DB_URL:-jdbc:postgresql://localhost:5432/erp}
+DB_USER=${DB_USER:-erp}
+DB_PASSWORD=${DB_PASSWORD:-erp}
+TENANTS=${TENANTS:-50}
+INVOICES=${INVOICES:-5000}
+WORKERS=${WORKERS:-4}
+BASE_URL=${BASE_URL:-http://localhost:8085}
+GENERATE=${GENERATE:-true}
+
+mvn -q test-compile
+
+if [ "$GENERATE" = "true" ]; then
+    echo "Generating $TENANTS tenants of $INVOICES invoices..."
+    mvn -q exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.erp.accounting.load.SyntheticDataGenerator \
+        -Dexec.args="--url=$DB_URL --user=$DB_USER --password=$DB_PASSWORD --tenants=$TENANTS --invoices=$INVOICES --workers=$WORKERS"
+fi
+
+curl -sf "$BASE_URL/api/v1/health" > /dev/null || { echo "Service not reachable at $BASE_URL"; exit 1; }
+
+echo "Running load test against $BASE_URL..."
+mvn -q exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.erp.accounting.load.LoadTestDriver \
+    -Dexec.args="--base-url=$BASE_URL $*"
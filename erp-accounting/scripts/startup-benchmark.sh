@@ -0,0 +1,90 @@
+#!/usr/bin/env sh
+# Startup benchmark: default build vs fast-startup build (AOT + AppCDS + lazy init).
+#
+# For each variant, starts the service RUNS times against a running database and records:
+#   ready_ms  - process launch to first 200 from /api/v1/health
+#   first_ms  - latency of the first real request (GET /api/v1/tenants) once ready
+#   spring_s  - "Started AccountingApplication in ..." as logged by Spring Boot
+# and prints the median of each. Runs are sequential on a quiet machine; the first run of each
+# variant is a discarded warm-up for the OS page cache.
+#
+# Usage: scripts/startup-benchmark.sh [runs]    (run from erp-accounting/)
+# Env:   SPRING_PROFILES_ACTIVE_BASE (default: local), PORT (default: 8085), WORK (output dir)
+set -eu
+
+RUNS=${1:-5}
+PORT=${PORT:-8085}
+BASE_PROFILE=${SPRING_PROFILES_ACTIVE_BASE:-local}
+# Outside target/, which each mvn clean wipes
+WORK=${WORK:-/tmp/erp-startup-benchmark}
+JVM_OPTS="-Xms512m -Xmx1024m -XX:+UseG1GC --add-opens=java.base/java.nio=ALL-UNNAMED"
+
+rm -rf "$WORK"
+mkdir -p "$WORK/default" "$WORK/fast"
+
+echo "Building default jar..."
+mvn -q clean package -DskipTests
+cp target/accounting-*.jar "$WORK/default/app.jar"
+
+echo "Building fast-startup jar and CDS archive..."
+mvn -q clean package -Pfast-startup -DskipTests
+cp target/accounting-*.jar "$WORK/fast/app.jar"
+(cd "$WORK/fast" && jar -xf app.jar)
+FAST_CP="$WORK/fast/BOOT-INF/classes:$WORK/fast/BOOT-INF/lib/*"
+java $JVM_OPTS -XX:ArchiveClassesAtExit="$WORK/fast/app.jsa" -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -cp "$FAST_CP" com.erp.accounting.AccountingApplication \
+    --spring.profiles.active="$BASE_PROFILE,fast-startup" > "$WORK/fast/training.log" 2>&1 || true
+[ -f "$WORK/fast/app.jsa" ] || { echo "CDS training run failed, see $WORK/fast/training.log"; exit 1; }
+
+now_ms() {
+    date +%s%3N
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR % 2) print v[(NR + 1) / 2]; else print (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+# run_once <variant> <log> <command...>
+run_once() {
+    variant=$1
+    log=$2
+    shift 2
+    start=$(now_ms)
+    "$@" --server.port="$PORT" > "$log" 2>&1 &
+    pid=$!
+    until curl -sf "http://localhost:$PORT/api/v1/health" > /dev/null; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$variant exited during startup, see $log"
+            exit 1
+        fi
+        sleep 0.02
+    done
+    ready=$(( $(now_ms) - start ))
+    first=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT/api/v1/tenants" | awk '{ printf "%d", $1 * 1000 }')
+    spring=$(sed -n 's/.*Started AccountingApplication in \([0-9.]*\) seconds.*/\1/p' "$log")
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$ready $first $spring"
+}
+
+bench() {
+    variant=$1
+    shift
+    results="$WORK/$variant/results.txt"
+    : > "$results"
+    run_once "$variant" "$WORK/$variant/warmup.log" "$@" > /dev/null
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        run_once "$variant" "$WORK/$variant/run-$i.log" "$@" >> "$results"
+        i=$((i + 1))
+    done
+    printf '%-8s ready_ms=%-7s first_ms=%-6s spring_s=%s\n' "$variant" \
+        "$(cut -d' ' -f1 "$results" | median)" \
+        "$(cut -d' ' -f2 "$results" | median)" \
+        "$(cut -d' ' -f3 "$results" | median)"
+}
+
+echo "Median of $RUNS runs:"
+bench default java $JVM_OPTS -jar "$WORK/default/app.jar" --spring.profiles.active="$BASE_PROFILE"
+bench fast java $JVM_OPTS -XX:SharedArchiveFile="$WORK/fast/app.jsa" -Dspring.aot.enabled=true \
+    -cp "$FAST_CP" com.erp.accounting.AccountingApplication --spring.profiles.active="$BASE_PROFILE,fast-startup"
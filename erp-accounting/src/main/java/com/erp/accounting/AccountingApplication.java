@@ -2,8 +2,10 @@ package com.erp.accounting;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AccountingApplication {
     public static void main(String[] args) {
         SpringApplication.run(AccountingApplication.class, args);
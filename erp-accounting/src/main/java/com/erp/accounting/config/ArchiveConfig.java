@@ -0,0 +1,21 @@
+package com.erp.accounting.config;
+
+import com.erp.accounting.util.ArchiveStore;
+import com.erp.accounting.util.FileArchiveStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.nio.file.Path;
+
+/**
+ * Storage for ledger archive segments, a directory ({@code erp.archive.dir}) that may be a mounted
+ * bucket. An object store client only needs to implement {@link ArchiveStore} and be returned here.
+ */
+@Configuration
+public class ArchiveConfig {
+
+    @Bean
+    public ArchiveStore archiveStore(@Value("${erp.archive.dir:archive}") Path dir) {
+        return new FileArchiveStore(dir);
+    }
+}
@@ -0,0 +1,43 @@
+package com.erp.accounting.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+
+/**
+ * Lazy initialization for the fast-startup profile (see application-fast-startup.yml).
+ * <p>
+ * Controllers, services and repositories are created by the first request that needs them. Kept
+ * eager: beans with @Scheduled methods, which nothing else would create, and the DataSource and
+ * JPA EntityManagerFactory, so the deferred JPA bootstrap runs while the web server starts rather
+ * than inside the first request.
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, definition, beanType) -> beanType != null
+            && (DataSource.class.isAssignableFrom(beanType)
+                || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType)
+                || hasScheduledMethods(beanType));
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(beanType))) {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package com.erp.accounting.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public TenantRateLimiter tenantRateLimiter(RateLimitProperties properties,
+                                               ObjectProvider<StringRedisTemplate> redisTemplate) {
+        return new TenantRateLimiter(properties, properties.redisEnabled() ? redisTemplate.getIfAvailable() : null);
+    }
+
+    // After Spring Security, so the principal is known, and ahead of ReadConsistencyFilter, so
+    // rejected requests never touch the data source
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(TenantRateLimiter tenantRateLimiter,
+                                                                   RateLimitProperties properties,
+                                                                   ObjectMapper objectMapper) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+            new FilterRegistrationBean<>(new RateLimitFilter(tenantRateLimiter, properties, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,140 @@
+package com.erp.accounting.config;
+
+import com.erp.accounting.config.TenantRateLimiter.Permit;
+import com.erp.accounting.config.TenantRateLimiter.RequestClass;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies {@link TenantRateLimiter} to API requests. Behind the gateway every request comes from
+ * the same address, so callers are identified by the tenant the gateway names in
+ * erp.rate-limit.tenant-header, believed only when the peer is one of erp.rate-limit.trusted-proxies.
+ * Otherwise the authenticated principal, and for anonymous requests the client address, is the
+ * caller; never a tenant id the client itself sends (X-Tenant-Id, tenantId), which it could vary
+ * to get a fresh budget. It runs after Spring Security so the principal is known. Paths listed in
+ * erp.rate-limit.report-paths are REPORT requests, other GETs are LIST and the rest WRITE.
+ * Rejected requests get 429 with Retry-After before any database work is done.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final TenantRateLimiter limiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public RateLimitFilter(TenantRateLimiter limiter, RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.limiter = limiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.trustedProxies = properties.trustedProxies().stream().map(IpAddressMatcher::new).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !properties.enabled()
+            || properties.excludedPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Permit permit = limiter.tryAcquire(clientKey(request), requestClass(request));
+        if (!permit.granted()) {
+            reject(request, response, permit);
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Streaming responses hold their slot until the stream completes
+                request.getAsyncContext().addListener(new ReleaseOnComplete(permit));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                permit.release();
+            }
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String tenant = request.getHeader(properties.tenantHeader());
+        if (tenant != null && trustedProxies.stream().anyMatch(proxy -> proxy.matches(request))) {
+            try {
+                return "tenant:" + UUID.fromString(tenant.trim());
+            } catch (IllegalArgumentException e) {
+                // Not a tenant id; fall through to the caller's own identity
+            }
+        }
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && principal.getName() != null && !principal.getName().isBlank()) {
+            return "user:" + principal.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private RequestClass requestClass(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (properties.reportPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return RequestClass.REPORT;
+        }
+        return switch (request.getMethod()) {
+            case "GET", "HEAD", "OPTIONS" -> RequestClass.LIST;
+            default -> RequestClass.WRITE;
+        };
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, Permit permit) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        body.put("message", permit.reason());
+        body.put("path", request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(permit.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private record ReleaseOnComplete(Permit permit) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
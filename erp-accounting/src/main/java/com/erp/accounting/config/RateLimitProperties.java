@@ -0,0 +1,46 @@
+package com.erp.accounting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.List;
+
+/**
+ * Per-client limits enforced by {@link RateLimitFilter}, one set per request class. Each client
+ * (tenant, authenticated principal, or address when anonymous; see the filter) gets a token bucket
+ * (ratePerSecond, burst) and a cap on requests in flight (maxConcurrent) per class, and at most
+ * maxConcurrent requests in flight across all classes. Keep that total below the connection pool
+ * size so one client cannot drain it.
+ * <p>
+ * tenantHeader names the header the gateway sets to the caller's tenant; it is only believed on
+ * requests arriving from trustedProxies (addresses or CIDR ranges).
+ * With redisEnabled the buckets are shared by all nodes; in-flight caps are always per node,
+ * like the pool they protect.
+ */
+@ConfigurationProperties("erp.rate-limit")
+public record RateLimitProperties(
+    boolean enabled,
+    boolean redisEnabled,
+    Limit write,
+    Limit list,
+    Limit report,
+    List<String> reportPaths,
+    List<String> excludedPaths,
+    long idleEvictSeconds,
+    int maxConcurrent,
+    String tenantHeader,
+    List<String> trustedProxies
+) {
+    public RateLimitProperties {
+        write = write != null ? write : new Limit(20, 40, 4);
+        list = list != null ? list : new Limit(50, 100, 6);
+        report = report != null ? report : new Limit(2, 10, 2);
+        reportPaths = reportPaths != null ? reportPaths : List.of();
+        excludedPaths = excludedPaths != null ? excludedPaths : List.of("/api/v1/health");
+        idleEvictSeconds = idleEvictSeconds > 0 ? idleEvictSeconds : 600;
+        maxConcurrent = maxConcurrent > 0 ? maxConcurrent : 8;
+        tenantHeader = tenantHeader != null ? tenantHeader : "X-Gateway-Tenant-Id";
+        trustedProxies = trustedProxies != null ? trustedProxies : List.of();
+    }
+
+    public record Limit(double ratePerSecond, int burst, int maxConcurrent) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.erp.accounting.config;
+
+/**
+ * Per-request routing state, set by {@link ReadConsistencyFilter}.
+ * <p>
+ * requiredLsn is the primary WAL position the client last wrote at (from the
+ * X-Consistency-Token header); a replica may serve the request only once it has replayed that
+ * far. Once a request opens a read-write transaction it is pinned to the primary so its own
+ * later reads see its writes.
+ */
+public final class ReadConsistency {
+    private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+    private ReadConsistency() {
+    }
+
+    static final class State {
+        final long requiredLsn;
+        final boolean readRequest;
+        boolean pinnedToPrimary;
+
+        State(long requiredLsn, boolean readRequest) {
+            this.requiredLsn = requiredLsn;
+            this.readRequest = readRequest;
+        }
+    }
+
+    static void begin(long requiredLsn, boolean readRequest) {
+        CURRENT.set(new State(requiredLsn, readRequest));
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static State current() {
+        return CURRENT.get();
+    }
+
+    /** Parses a PostgreSQL LSN ("16/B374D848") into a comparable number; -1 if absent or invalid. */
+    public static long parseLsn(String lsn) {
+        if (lsn == null) {
+            return -1;
+        }
+        int slash = lsn.indexOf('/');
+        if (slash < 0) {
+            return -1;
+        }
+        try {
+            return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static String formatLsn(long lsn) {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+}
@@ -0,0 +1,69 @@
+package com.erp.accounting.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Carries read-your-writes tokens. Successful writes return the primary's WAL position in
+ * X-Consistency-Token; a client that sends it back on later reads is only served by replicas
+ * that have replayed at least that far.
+ */
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+    public static final String TOKEN_HEADER = "X-Consistency-Token";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public ReadConsistencyFilter(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        ReadConsistency.begin(ReadConsistency.parseLsn(request.getHeader(TOKEN_HEADER)), read);
+        try {
+            if (read) {
+                chain.doFilter(request, response);
+                return;
+            }
+            TokenResponse tokenResponse = new TokenResponse(response);
+            chain.doFilter(request, tokenResponse);
+            if (!response.isCommitted()) {
+                tokenResponse.addToken();
+            }
+        } finally {
+            ReadConsistency.end();
+        }
+    }
+
+    // Adds the token just before the response commits; the write transaction has ended by then
+    private class TokenResponse extends OnCommittedResponseWrapper {
+        private boolean added;
+
+        TokenResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addToken();
+        }
+
+        void addToken() {
+            if (added || getStatus() >= 400) {
+                return;
+            }
+            added = true;
+            long lsn = routingDataSource.currentPrimaryLsn();
+            if (lsn >= 0) {
+                setHeader(TOKEN_HEADER, ReadConsistency.formatLsn(lsn));
+            }
+        }
+    }
+}
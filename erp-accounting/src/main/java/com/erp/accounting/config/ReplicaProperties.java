@@ -0,0 +1,24 @@
+package com.erp.accounting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.List;
+
+/**
+ * Read replicas behind {@link ReplicaRoutingDataSource}. With no replicas configured every
+ * connection goes to the primary (spring.datasource).
+ */
+@ConfigurationProperties("erp.datasource")
+public record ReplicaProperties(
+    List<Replica> replicas,
+    long maxLagMs,
+    long checkIntervalMs
+) {
+    public ReplicaProperties {
+        replicas = replicas != null ? replicas : List.of();
+        maxLagMs = maxLagMs > 0 ? maxLagMs : 5000;
+        checkIntervalMs = checkIntervalMs > 0 ? checkIntervalMs : 1000;
+    }
+
+    public record Replica(String name, String url, String username, String password, int maximumPoolSize) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.erp.accounting.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only work to a replica and everything else to the primary.
+ * <p>
+ * A connection is read-only work when it is taken inside a read-only transaction, or outside
+ * any transaction while serving a GET. A replica is eligible while its replay lag is within
+ * {@code erp.datasource.max-lag-ms} and it has replayed the request's consistency token;
+ * otherwise the primary serves the read. Replica state is polled, never checked per request.
+ * Must sit behind a LazyConnectionDataSourceProxy so the key is resolved after the transaction's
+ * read-only flag is set.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<ReplicaNode> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    static final class ReplicaNode {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy;
+        volatile long replayLsn = -1;
+        volatile long lagMs = Long.MAX_VALUE;
+
+        ReplicaNode(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMs) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream().map(e -> new ReplicaNode(e.getKey(), e.getValue())).toList();
+        this.maxLagMs = maxLagMs;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        ReadConsistency.State state = ReadConsistency.current();
+        if (!isReadOnlyWork(state)) {
+            if (state != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                state.pinnedToPrimary = true;
+            }
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || (state != null && state.pinnedToPrimary)) {
+            return PRIMARY;
+        }
+        long requiredLsn = state != null ? state.requiredLsn : -1;
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaNode node = replicas.get((start + i) % replicas.size());
+            if (node.healthy && node.lagMs <= maxLagMs && node.replayLsn >= requiredLsn) {
+                return node.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private static boolean isReadOnlyWork(ReadConsistency.State state) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return state != null && state.readRequest;
+    }
+
+    /**
+     * Polls replay position and lag of each replica. A server that is not in recovery (e.g. the
+     * primary listed as a local stand-in) counts as fully caught up.
+     */
+    @Scheduled(fixedDelayString = "${erp.datasource.check-interval-ms:1000}")
+    public void refreshReplicaState() {
+        for (ReplicaNode node : replicas) {
+            try (Connection con = node.dataSource.getConnection();
+                 Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery(
+                     "SELECT pg_is_in_recovery(), " +
+                     "(CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn() ELSE pg_current_wal_lsn() END)::text, " +
+                     "CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                     "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END")) {
+                rs.next();
+                node.replayLsn = ReadConsistency.parseLsn(rs.getString(2));
+                node.lagMs = rs.getLong(3);
+                if (!node.healthy) {
+                    log.info("Replica {} is available (lag {} ms)", node.name, node.lagMs);
+                }
+                node.healthy = true;
+            } catch (SQLException e) {
+                if (node.healthy) {
+                    log.warn("Replica {} is unavailable, reads fall back to the primary: {}", node.name, e.getMessage());
+                }
+                node.healthy = false;
+            }
+        }
+    }
+
+    /** Closes the replica pools, which are not beans of their own. */
+    public void close() throws Exception {
+        for (ReplicaNode node : replicas) {
+            if (node.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /** Current primary WAL position, used as the read-your-writes token after a write. */
+    public long currentPrimaryLsn() {
+        try (Connection con = primary.getConnection();
+             Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+            rs.next();
+            return ReadConsistency.parseLsn(rs.getString(1));
+        } catch (SQLException e) {
+            log.warn("Could not read primary WAL position: {}", e.getMessage());
+            return -1;
+        }
+    }
+}
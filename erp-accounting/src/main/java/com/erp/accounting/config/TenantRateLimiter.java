@@ -0,0 +1,186 @@
+package com.erp.accounting.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets and in-flight caps per (client, request class), under a cap on everything the
+ * client has in flight.
+ * <p>
+ * A request must first get an in-flight slot, of the client and then of its class, and only then
+ * takes a token, so requests turned away by a concurrency cap do not also spend the caller's
+ * rate budget.
+ * <p>
+ * Buckets live in this process, or in Redis when a template is supplied: a Lua script refills
+ * and takes a token atomically against the Redis clock, so every node draws from the same
+ * bucket. If Redis is unreachable the local bucket is used, which at worst lets a tenant through
+ * at the per-node rate on each node. Entries idle for {@code idleEvictSeconds} are dropped.
+ */
+@Slf4j
+public class TenantRateLimiter {
+    public enum RequestClass {
+        WRITE, LIST, REPORT
+    }
+
+    /** A granted permit must be released when the request ends; a denied one says when to retry. */
+    public record Permit(boolean granted, long retryAfterSeconds, String reason, List<Semaphore> held) {
+        public void release() {
+            for (Semaphore semaphore : held) {
+                semaphore.release();
+            }
+        }
+    }
+
+    // Returns 0 if a token was taken, else milliseconds until one is available
+    private static final RedisScript<Long> TAKE_TOKEN = new DefaultRedisScript<>(
+        "local rate = tonumber(ARGV[1]) " +
+        "local burst = tonumber(ARGV[2]) " +
+        "local t = redis.call('TIME') " +
+        "local now = t[1] * 1000 + math.floor(t[2] / 1000) " +
+        "local b = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+        "local tokens = tonumber(b[1]) or burst " +
+        "local ts = tonumber(b[2]) or now " +
+        "tokens = math.min(burst, tokens + math.max(0, now - ts) * rate / 1000) " +
+        "local wait = 0 " +
+        "if tokens >= 1 then tokens = tokens - 1 else wait = math.ceil((1 - tokens) * 1000 / rate) end " +
+        "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now) " +
+        "redis.call('PEXPIRE', KEYS[1], math.ceil(burst * 1000 / rate) + 1000) " +
+        "return wait",
+        Long.class);
+
+    private final RateLimitProperties properties;
+    private final StringRedisTemplate redis;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Slots> clients = new ConcurrentHashMap<>();
+    private volatile long redisRetryAt;
+
+    public TenantRateLimiter(RateLimitProperties properties, StringRedisTemplate redis) {
+        this.properties = properties;
+        this.redis = redis;
+    }
+
+    public Permit tryAcquire(String clientKey, RequestClass requestClass) {
+        RateLimitProperties.Limit limit = limit(requestClass);
+        String key = clientKey + "|" + requestClass;
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry(limit));
+        Slots client = clients.computeIfAbsent(clientKey, k -> new Slots(properties.maxConcurrent()));
+        client.lastUsed = System.nanoTime();
+
+        if (!client.inFlight.tryAcquire()) {
+            return new Permit(false, 1, "More than " + properties.maxConcurrent() + " requests in progress", List.of());
+        }
+        if (!entry.inFlight.tryAcquire()) {
+            client.inFlight.release();
+            return new Permit(false, 1,
+                "More than " + limit.maxConcurrent() + " " + requestClass + " requests in progress", List.of());
+        }
+        long waitMillis = takeToken(key, entry, limit);
+        if (waitMillis > 0) {
+            entry.inFlight.release();
+            client.inFlight.release();
+            return new Permit(false, Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMillis + 999)),
+                "Rate limit of " + limit.ratePerSecond() + " " + requestClass + " requests/s exceeded", List.of());
+        }
+        return new Permit(true, 0, null, List.of(entry.inFlight, client.inFlight));
+    }
+
+    private long takeToken(String key, Entry entry, RateLimitProperties.Limit limit) {
+        if (redis != null && System.currentTimeMillis() >= redisRetryAt) {
+            try {
+                Long wait = redis.execute(TAKE_TOKEN, List.of("erp:rate-limit:" + key),
+                    String.valueOf(limit.ratePerSecond()), String.valueOf(limit.burst()));
+                entry.lastUsed = System.nanoTime();
+                return wait != null ? wait : 0;
+            } catch (RuntimeException e) {
+                // Fall back for a while rather than paying a connect timeout on every request
+                redisRetryAt = System.currentTimeMillis() + 30_000;
+                log.warn("Rate limit store unavailable, using local buckets for 30 s: {}", e.getMessage());
+            }
+        }
+        return entry.bucket.tryTake(System.nanoTime());
+    }
+
+    private RateLimitProperties.Limit limit(RequestClass requestClass) {
+        return switch (requestClass) {
+            case WRITE -> properties.write();
+            case LIST -> properties.list();
+            case REPORT -> properties.report();
+        };
+    }
+
+    /**
+     * Drops idle entries with nothing in flight. A request that looked an entry up just before it
+     * was dropped still releases into the old semaphore, so the cap can briefly be exceeded by one.
+     */
+    @Scheduled(fixedDelayString = "${erp.rate-limit.idle-evict-seconds:600}", timeUnit = TimeUnit.SECONDS)
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(properties.idleEvictSeconds());
+        entries.entrySet().removeIf(e -> e.getValue().isIdle(cutoff));
+        clients.entrySet().removeIf(e -> e.getValue().isIdle(cutoff));
+    }
+
+    private static final class Slots {
+        final Semaphore inFlight;
+        final int maxConcurrent;
+        volatile long lastUsed = System.nanoTime();
+
+        Slots(int maxConcurrent) {
+            this.inFlight = new Semaphore(maxConcurrent);
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        boolean isIdle(long cutoff) {
+            return lastUsed < cutoff && inFlight.availablePermits() == maxConcurrent;
+        }
+    }
+
+    private static final class Entry {
+        final TokenBucket bucket;
+        final Semaphore inFlight;
+        final int maxConcurrent;
+        volatile long lastUsed = System.nanoTime();
+
+        Entry(RateLimitProperties.Limit limit) {
+            this.bucket = new TokenBucket(limit.ratePerSecond(), limit.burst());
+            this.inFlight = new Semaphore(limit.maxConcurrent());
+            this.maxConcurrent = limit.maxConcurrent();
+        }
+
+        boolean isIdle(long cutoff) {
+            return lastUsed < cutoff && bucket.lastRefill < cutoff && inFlight.availablePermits() == maxConcurrent;
+        }
+    }
+
+    private static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double ratePerSecond, int burst) {
+            this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = burst;
+            this.tokens = burst;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /** Takes a token and returns 0, or returns the milliseconds until one is available. */
+        synchronized long tryTake(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano / TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.ArchiveRunResult;
+import com.erp.accounting.service.LedgerArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+    private final LedgerArchiveService ledgerArchiveService;
+
+    /** Archives one tenant now, up to the retention cut-off unless an earlier month is given. */
+    @PostMapping("/run")
+    public ResponseEntity<ArchiveRunResult> archive(@RequestParam UUID tenantId,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate through) {
+        return ResponseEntity.ok(ledgerArchiveService.archive(tenantId, through != null ? through : ledgerArchiveService.cutoff()));
+    }
+}
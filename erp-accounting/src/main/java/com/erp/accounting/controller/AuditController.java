@@ -0,0 +1,39 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.ChainVerificationResult;
+import com.erp.accounting.dto.ConsistencyCheckResult;
+import com.erp.accounting.entity.ConsistencyCheck;
+import com.erp.accounting.entity.ConsistencyDiff;
+import com.erp.accounting.service.ConsistencyCheckService;
+import com.erp.accounting.service.LedgerChainVerifier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/audit")
+@RequiredArgsConstructor
+public class AuditController {
+    private final LedgerChainVerifier ledgerChainVerifier;
+    private final ConsistencyCheckService consistencyCheckService;
+    
+    @PostMapping("/ledger-chain/verify")
+    public ResponseEntity<List<ChainVerificationResult>> verifyLedgerChain(@RequestParam(required = false) UUID tenantId,
+                                                                           @RequestParam(defaultValue = "false") boolean full) {
+        return ResponseEntity.ok(ledgerChainVerifier.verify(tenantId, full));
+    }
+    
+    @PostMapping("/consistency/run")
+    public ResponseEntity<List<ConsistencyCheckResult>> runConsistencyChecks(@RequestParam(required = false) UUID tenantId,
+                                                                             @RequestParam(defaultValue = "false") boolean full) {
+        return ResponseEntity.ok(consistencyCheckService.run(tenantId, full));
+    }
+    
+    @GetMapping("/consistency/diffs")
+    public ResponseEntity<List<ConsistencyDiff>> getConsistencyDiffs(@RequestParam UUID tenantId,
+                                                                     @RequestParam(required = false) ConsistencyCheck check) {
+        return ResponseEntity.ok(consistencyCheckService.getOpenDiffs(tenantId, check));
+    }
+}
@@ -0,0 +1,67 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.B2BAcknowledgement;
+import com.erp.accounting.dto.B2BSyncRunResult;
+import com.erp.accounting.entity.B2BSyncMap;
+import com.erp.accounting.entity.B2BSyncStatus;
+import com.erp.accounting.repository.B2BSyncMapRepository;
+import com.erp.accounting.service.B2BSyncDispatcher;
+import com.erp.accounting.service.B2BSyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/b2b-sync")
+@RequiredArgsConstructor
+public class B2BSyncController {
+    private final B2BSyncMapRepository b2bSyncMapRepository;
+    private final B2BSyncService b2bSyncService;
+    private final B2BSyncDispatcher b2bSyncDispatcher;
+    
+    /** Documents a tenant sent (as seller) or received (as buyer), optionally by status. */
+    @GetMapping
+    public ResponseEntity<List<B2BSyncMap>> getDocuments(@RequestParam UUID tenantId,
+                                                         @RequestParam(defaultValue = "seller") String role,
+                                                         @RequestParam(required = false) B2BSyncStatus status) {
+        boolean buyer = "buyer".equalsIgnoreCase(role);
+        if (status != null) {
+            return ResponseEntity.ok(buyer
+                ? b2bSyncMapRepository.findByBuyerTenantIdAndSyncStatus(tenantId, status)
+                : b2bSyncMapRepository.findBySellerTenantIdAndSyncStatus(tenantId, status));
+        }
+        return ResponseEntity.ok(buyer
+            ? b2bSyncMapRepository.findByBuyerTenantId(tenantId)
+            : b2bSyncMapRepository.findBySellerTenantId(tenantId));
+    }
+    
+    @GetMapping("/{syncId}")
+    public ResponseEntity<B2BSyncMap> getDocumentById(@PathVariable UUID syncId) {
+        return b2bSyncMapRepository.findById(syncId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /** Buyer accepts or rejects delivered documents in bulk. */
+    @PostMapping("/acknowledgements")
+    public ResponseEntity<Map<String, Integer>> acknowledge(@RequestBody B2BAcknowledgement acknowledgement) {
+        return ResponseEntity.ok(Map.of("updated", b2bSyncService.acknowledge(acknowledgement)));
+    }
+    
+    @PostMapping("/{syncId}/retry")
+    public ResponseEntity<Void> retry(@PathVariable UUID syncId) {
+        if (!b2bSyncService.retry(syncId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
+    /** Runs the dispatcher now on this node instead of waiting for the next poll. */
+    @PostMapping("/dispatch")
+    public ResponseEntity<B2BSyncRunResult> dispatch() {
+        return ResponseEntity.ok(b2bSyncDispatcher.dispatch());
+    }
+}
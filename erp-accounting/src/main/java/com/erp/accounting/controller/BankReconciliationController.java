@@ -0,0 +1,50 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.ReconciliationSummary;
+import com.erp.accounting.dto.StatementImportResult;
+import com.erp.accounting.entity.BankStatementLine;
+import com.erp.accounting.entity.MatchedType;
+import com.erp.accounting.service.BankReconciliationService;
+import com.erp.accounting.service.BankStatementParser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/bank-reconciliation")
+@RequiredArgsConstructor
+public class BankReconciliationController {
+    private final BankReconciliationService bankReconciliationService;
+    
+    @PostMapping("/statements")
+    public ResponseEntity<StatementImportResult> importStatement(@RequestParam UUID tenantId,
+                                                                 @RequestParam(required = false) UUID bankId,
+                                                                 @RequestParam BankStatementParser.Format format,
+                                                                 InputStream body) {
+        StatementImportResult result = bankReconciliationService.importStatement(tenantId, bankId, format, body);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+    
+    @PostMapping("/match")
+    public ResponseEntity<ReconciliationSummary> match(@RequestParam UUID tenantId,
+                                                       @RequestParam(required = false) UUID glAccountId,
+                                                       @RequestParam(defaultValue = "3") int windowDays) {
+        return ResponseEntity.ok(bankReconciliationService.match(tenantId, glAccountId, windowDays));
+    }
+    
+    @GetMapping("/review")
+    public ResponseEntity<List<BankStatementLine>> getReviewQueue(@RequestParam UUID tenantId) {
+        return ResponseEntity.ok(bankReconciliationService.getReviewQueue(tenantId));
+    }
+    
+    @PostMapping("/lines/{id}/resolve")
+    public ResponseEntity<BankStatementLine> resolve(@PathVariable UUID id,
+                                                     @RequestParam(required = false) MatchedType matchedType,
+                                                     @RequestParam(required = false) UUID matchedId) {
+        return ResponseEntity.ok(bankReconciliationService.resolve(id, matchedType, matchedId));
+    }
+}
@@ -0,0 +1,71 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.BudgetAlert;
+import com.erp.accounting.dto.BudgetVariance;
+import com.erp.accounting.entity.Budget;
+import com.erp.accounting.service.BudgetService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/budgets")
+@RequiredArgsConstructor
+public class BudgetController {
+    private final BudgetService budgetService;
+
+    @GetMapping
+    public ResponseEntity<List<Budget>> getBudgets(@RequestParam UUID tenantId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(budgetService.budgets(tenantId, from, to));
+    }
+
+    /** Creates the budget for the account and month, or replaces the existing one. */
+    @PutMapping
+    public ResponseEntity<Budget> saveBudget(@RequestBody Budget budget) {
+        return ResponseEntity.ok(budgetService.save(budget));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteBudget(@PathVariable UUID id) {
+        if (!budgetService.delete(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Budget against actual for every budgeted account; defaults to the current month. */
+    @GetMapping("/variance")
+    public ResponseEntity<List<BudgetVariance>> getVariance(@RequestParam UUID tenantId,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        return ResponseEntity.ok(budgetService.variance(tenantId, start, to != null ? to : start));
+    }
+
+    @GetMapping("/alerts")
+    public ResponseEntity<List<BudgetAlert>> getAlerts(@RequestParam UUID tenantId,
+                                                       @RequestParam(defaultValue = "true") boolean open) {
+        return ResponseEntity.ok(budgetService.alerts(tenantId, open));
+    }
+
+    @PostMapping("/alerts/{id}/acknowledge")
+    public ResponseEntity<Void> acknowledgeAlert(@PathVariable UUID id) {
+        if (!budgetService.acknowledge(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Recomputes the tenant's monthly actuals from the ledger and its archive. */
+    @PostMapping("/actuals/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildActuals(@RequestParam UUID tenantId) {
+        return ResponseEntity.ok(Map.of("rows", budgetService.rebuildActuals(tenantId)));
+    }
+}
@@ -1,11 +1,22 @@
 package com.erp.accounting.controller;
 
+import com.erp.accounting.dto.AccountBalance;
+import com.erp.accounting.dto.AccountTreeNode;
+import com.erp.accounting.dto.ReferenceDelta;
 import com.erp.accounting.entity.ChartOfAccounts;
 import com.erp.accounting.repository.ChartOfAccountsRepository;
+import com.erp.accounting.service.AccountHierarchyService;
+import com.erp.accounting.service.ReferenceDataVersionService;
+import com.erp.accounting.service.ReferenceDataVersionService.Dataset;
+import com.erp.accounting.service.ReferenceDataVersionService.Listing;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,15 +25,33 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ChartOfAccountsController {
     private final ChartOfAccountsRepository chartOfAccountsRepository;
+    private final AccountHierarchyService accountHierarchyService;
+    private final ReferenceDataVersionService referenceDataVersionService;
     
     @GetMapping
-    public ResponseEntity<List<ChartOfAccounts>> getAllAccounts(@RequestParam(required = false) UUID tenantId) {
+    public ResponseEntity<List<ChartOfAccounts>> getAllAccounts(
+            @RequestParam(required = false) UUID tenantId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         if (tenantId != null) {
-            return ResponseEntity.ok(chartOfAccountsRepository.findByTenantId(tenantId));
+            Listing<ChartOfAccounts> listing = referenceDataVersionService.list(tenantId, Dataset.ACCOUNTS, ifNoneMatch,
+                () -> chartOfAccountsRepository.findByTenantId(tenantId));
+            if (listing.notModified()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(listing.etag()).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            return ResponseEntity.ok().eTag(listing.etag()).varyBy(HttpHeaders.ACCEPT).cacheControl(CacheControl.noCache())
+                .body(listing.rows());
         }
         return ResponseEntity.ok(chartOfAccountsRepository.findAll());
     }
     
+    @GetMapping("/changes")
+    public ResponseEntity<ReferenceDelta<ChartOfAccounts>> getAccountChanges(@RequestParam UUID tenantId,
+                                                                             @RequestParam long since) {
+        return ResponseEntity.ok(referenceDataVersionService.delta(tenantId, Dataset.ACCOUNTS, since,
+            version -> chartOfAccountsRepository.findByTenantIdAndRowVersionGreaterThanOrderByRowVersion(tenantId, version),
+            ChartOfAccounts::getRowVersion));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ChartOfAccounts> getAccountById(@PathVariable UUID id) {
         return chartOfAccountsRepository.findById(id)
@@ -32,7 +61,29 @@ public class ChartOfAccountsController {
     
     @PostMapping
     public ResponseEntity<ChartOfAccounts> createAccount(@RequestBody ChartOfAccounts account) {
-        ChartOfAccounts saved = chartOfAccountsRepository.save(account);
+        ChartOfAccounts saved = accountHierarchyService.createAccount(account);
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
+    
+    @PutMapping("/{id}/parent")
+    public ResponseEntity<ChartOfAccounts> moveAccount(@PathVariable UUID id,
+                                                       @RequestParam(required = false) UUID parentAccountId) {
+        return ResponseEntity.ok(accountHierarchyService.moveAccount(id, parentAccountId));
+    }
+    
+    @GetMapping("/tree")
+    public ResponseEntity<List<AccountTreeNode>> getAccountTree(
+            @RequestParam UUID tenantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(accountHierarchyService.getTree(tenantId, from, to));
+    }
+    
+    @GetMapping("/{id}/rollup")
+    public ResponseEntity<AccountBalance> getRollup(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(accountHierarchyService.getRollup(id, from, to));
+    }
 }
@@ -0,0 +1,61 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.entity.Customer;
+import com.erp.accounting.event.CatalogChangedEvent;
+import com.erp.accounting.repository.CustomerRepository;
+import com.erp.accounting.service.SearchIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/customers")
+@RequiredArgsConstructor
+public class CustomerController {
+    private final CustomerRepository customerRepository;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @GetMapping
+    public ResponseEntity<List<Customer>> getCustomers(@RequestParam UUID tenantId) {
+        return ResponseEntity.ok(customerRepository.findByTenantId(tenantId));
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<Customer> getCustomerById(@PathVariable UUID id) {
+        return customerRepository.findById(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<List<Customer>> searchCustomers(@RequestParam UUID tenantId,
+                                                          @RequestParam String q,
+                                                          @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchIndexService.searchCustomers(tenantId, q, limit));
+    }
+    
+    @PostMapping
+    public ResponseEntity<Customer> createCustomer(@RequestBody Customer customer) {
+        Customer saved = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getTenantId(), saved));
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<Customer> updateCustomer(@PathVariable UUID id, @RequestBody Customer customer) {
+        UUID previousTenantId = customerRepository.findById(id).map(Customer::getTenantId).orElse(null);
+        if (previousTenantId == null) {
+            return ResponseEntity.notFound().build();
+        }
+        customer.setCustomerId(id);
+        Customer saved = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getTenantId(), saved,
+            previousTenantId.equals(saved.getTenantId()) ? null : previousTenantId));
+        return ResponseEntity.ok(saved);
+    }
+}
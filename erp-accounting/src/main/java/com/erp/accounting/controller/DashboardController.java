@@ -0,0 +1,25 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.TenantKpis;
+import com.erp.accounting.service.DashboardKpiService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+    private final DashboardKpiService dashboardKpiService;
+    
+    @GetMapping("/kpis")
+    public ResponseEntity<TenantKpis> getKpis(@RequestParam UUID tenantId) {
+        return ResponseEntity.ok(dashboardKpiService.getKpis(tenantId));
+    }
+    
+    @PostMapping("/kpis/rebuild")
+    public ResponseEntity<TenantKpis> rebuildKpis(@RequestParam UUID tenantId) {
+        return ResponseEntity.ok(dashboardKpiService.rebuild(tenantId));
+    }
+}
@@ -0,0 +1,69 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.DimensionPivot;
+import com.erp.accounting.entity.Dimension;
+import com.erp.accounting.entity.DimensionType;
+import com.erp.accounting.repository.DimensionRepository;
+import com.erp.accounting.service.DimensionIndexService;
+import com.erp.accounting.service.DimensionIndexService.Axis;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/dimensions")
+@RequiredArgsConstructor
+public class DimensionController {
+    private final DimensionRepository dimensionRepository;
+    private final DimensionIndexService dimensionIndexService;
+
+    @GetMapping
+    public ResponseEntity<List<Dimension>> getDimensions(@RequestParam UUID tenantId,
+                                                         @RequestParam(required = false) DimensionType type) {
+        return ResponseEntity.ok(type != null
+            ? dimensionRepository.findByTenantIdAndDimensionTypeOrderByCode(tenantId, type)
+            : dimensionRepository.findByTenantIdOrderByDimensionTypeAscCodeAsc(tenantId));
+    }
+
+    @PostMapping
+    public ResponseEntity<Dimension> createDimension(@RequestBody Dimension dimension) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(dimensionRepository.save(dimension));
+    }
+
+    /**
+     * Posting totals for the period by rows and, optionally, columns. Each id list given limits
+     * its dimension to those values.
+     */
+    @GetMapping("/pivot")
+    public ResponseEntity<DimensionPivot> getPivot(@RequestParam UUID tenantId,
+                                                   @RequestParam Axis rows,
+                                                   @RequestParam(required = false) Axis columns,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                   @RequestParam(required = false) List<UUID> accountId,
+                                                   @RequestParam(required = false) List<UUID> branchId,
+                                                   @RequestParam(required = false) List<UUID> costCenterId,
+                                                   @RequestParam(required = false) List<UUID> projectId) {
+        Map<Axis, List<UUID>> filters = new EnumMap<>(Axis.class);
+        if (accountId != null) {
+            filters.put(Axis.ACCOUNT, accountId);
+        }
+        if (branchId != null) {
+            filters.put(Axis.BRANCH, branchId);
+        }
+        if (costCenterId != null) {
+            filters.put(Axis.COST_CENTER, costCenterId);
+        }
+        if (projectId != null) {
+            filters.put(Axis.PROJECT, projectId);
+        }
+        return ResponseEntity.ok(dimensionIndexService.pivot(tenantId, rows, columns, from, to, filters));
+    }
+}
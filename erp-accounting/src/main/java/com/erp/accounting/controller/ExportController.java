@@ -0,0 +1,35 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.ExportResult;
+import com.erp.accounting.service.AnalyticsExportService;
+import com.erp.accounting.service.AnalyticsExportService.Dataset;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/exports")
+@RequiredArgsConstructor
+public class ExportController {
+    private final AnalyticsExportService analyticsExportService;
+    
+    @PostMapping("/{dataset}")
+    public ResponseEntity<ExportResult> exportRange(@PathVariable Dataset dataset,
+                                                    @RequestParam UUID tenantId,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportResult result = analyticsExportService.exportRange(tenantId, dataset, from, to);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+    
+    @PostMapping("/{dataset}/incremental")
+    public ResponseEntity<ExportResult> exportIncremental(@PathVariable Dataset dataset,
+                                                          @RequestParam UUID tenantId) {
+        ExportResult result = analyticsExportService.exportIncremental(tenantId, dataset);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+}
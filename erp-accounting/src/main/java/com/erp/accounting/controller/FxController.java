@@ -0,0 +1,41 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.entity.FxRate;
+import com.erp.accounting.service.FxRateService;
+import com.erp.accounting.service.FxRevaluationService;
+import com.erp.accounting.service.FxRevaluationService.RevaluationSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/fx")
+@RequiredArgsConstructor
+public class FxController {
+    private final FxRateService fxRateService;
+    private final FxRevaluationService fxRevaluationService;
+    
+    @GetMapping("/rates")
+    public ResponseEntity<BigDecimal> getRate(@RequestParam String from,
+                                              @RequestParam String to,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return fxRateService.findRate(from, to, date != null ? date : LocalDate.now())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping("/rates")
+    public ResponseEntity<Map<String, Integer>> saveRates(@RequestBody List<FxRate> rates) {
+        return ResponseEntity.ok(Map.of("saved", fxRateService.saveRates(rates)));
+    }
+    
+    @PostMapping("/revaluations")
+    public ResponseEntity<RevaluationSummary> revalue(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(fxRevaluationService.revalue(asOf));
+    }
+}
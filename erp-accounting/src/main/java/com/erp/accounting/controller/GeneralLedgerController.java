@@ -2,9 +2,12 @@ package com.erp.accounting.controller;
 
 import com.erp.accounting.entity.GeneralLedger;
 import com.erp.accounting.repository.GeneralLedgerRepository;
+import com.erp.accounting.service.LedgerArchiveService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,11 +16,17 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class GeneralLedgerController {
     private final GeneralLedgerRepository generalLedgerRepository;
+    private final LedgerArchiveService ledgerArchiveService;
     
+    /** With a tenant, rows of archived periods are included. */
     @GetMapping
-    public ResponseEntity<List<GeneralLedger>> getGeneralLedger(@RequestParam(required = false) UUID tenantId) {
+    public ResponseEntity<List<GeneralLedger>> getGeneralLedger(
+            @RequestParam(required = false) UUID tenantId,
+            @RequestParam(required = false) UUID accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         if (tenantId != null) {
-            return ResponseEntity.ok(generalLedgerRepository.findByTenantId(tenantId));
+            return ResponseEntity.ok(ledgerArchiveService.generalLedger(tenantId, accountId, from, to));
         }
         return ResponseEntity.ok(generalLedgerRepository.findAll());
     }
@@ -1,12 +1,20 @@
 package com.erp.accounting.controller;
 
+import com.erp.accounting.dto.BatchAllocation;
+import com.erp.accounting.dto.FefoAllocationRequest;
 import com.erp.accounting.entity.InventoryBalance;
+import com.erp.accounting.entity.InventoryBatchBalance;
 import com.erp.accounting.entity.InventoryLedger;
 import com.erp.accounting.repository.InventoryBalanceRepository;
 import com.erp.accounting.repository.InventoryLedgerRepository;
+import com.erp.accounting.service.InventoryBatchService;
+import com.erp.accounting.service.LedgerArchiveService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,6 +24,8 @@ import java.util.UUID;
 public class InventoryController {
     private final InventoryBalanceRepository inventoryBalanceRepository;
     private final InventoryLedgerRepository inventoryLedgerRepository;
+    private final InventoryBatchService inventoryBatchService;
+    private final LedgerArchiveService ledgerArchiveService;
     
     @GetMapping("/balance")
     public ResponseEntity<List<InventoryBalance>> getInventoryBalance(@RequestParam(required = false) UUID tenantId) {
@@ -25,11 +35,39 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryBalanceRepository.findAll());
     }
     
+    /** With a tenant, movements of archived periods are included. */
     @GetMapping("/movements")
-    public ResponseEntity<List<InventoryLedger>> getInventoryMovements(@RequestParam(required = false) UUID tenantId) {
+    public ResponseEntity<List<InventoryLedger>> getInventoryMovements(
+            @RequestParam(required = false) UUID tenantId,
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         if (tenantId != null) {
-            return ResponseEntity.ok(inventoryLedgerRepository.findByTenantId(tenantId));
+            return ResponseEntity.ok(ledgerArchiveService.inventoryMovements(tenantId, productId, from, to));
         }
         return ResponseEntity.ok(inventoryLedgerRepository.findAll());
     }
+    
+    @PostMapping("/movements")
+    public ResponseEntity<InventoryLedger> recordMovement(@RequestBody InventoryLedger movement) {
+        InventoryLedger saved = inventoryBatchService.recordMovement(movement);
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+    
+    @GetMapping("/batches")
+    public ResponseEntity<List<InventoryBatchBalance>> getBatches(@RequestParam UUID tenantId,
+                                                                  @RequestParam UUID productId) {
+        return ResponseEntity.ok(inventoryBatchService.getBatches(tenantId, productId));
+    }
+    
+    @GetMapping("/batches/expiring")
+    public ResponseEntity<List<InventoryBatchBalance>> getExpiringBatches(@RequestParam UUID tenantId,
+                                                                          @RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(inventoryBatchService.getExpiring(tenantId, days));
+    }
+    
+    @PostMapping("/allocate")
+    public ResponseEntity<List<BatchAllocation>> allocateFefo(@RequestBody FefoAllocationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(inventoryBatchService.allocateFefo(request));
+    }
 }
@@ -2,6 +2,7 @@ package com.erp.accounting.controller;
 
 import com.erp.accounting.entity.Invoice;
 import com.erp.accounting.repository.InvoiceRepository;
+import com.erp.accounting.service.InvoiceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +15,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class InvoiceController {
     private final InvoiceRepository invoiceRepository;
+    private final InvoiceService invoiceService;
     
     @GetMapping
     public ResponseEntity<List<Invoice>> getAllInvoices(@RequestParam(required = false) UUID tenantId) {
@@ -32,7 +34,8 @@ public class InvoiceController {
     
     @PostMapping
     public ResponseEntity<Invoice> createInvoice(@RequestBody Invoice invoice) {
-        Invoice saved = invoiceRepository.save(invoice);
+        Invoice saved = invoiceService.create(invoice, List.of());
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 }
+
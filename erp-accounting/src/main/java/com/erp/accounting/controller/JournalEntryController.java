@@ -1,7 +1,9 @@
 package com.erp.accounting.controller;
 
+import com.erp.accounting.dto.JournalPostingRequest;
 import com.erp.accounting.entity.JournalEntry;
 import com.erp.accounting.repository.JournalEntryRepository;
+import com.erp.accounting.service.JournalPostingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +16,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class JournalEntryController {
     private final JournalEntryRepository journalEntryRepository;
+    private final JournalPostingService journalPostingService;
     
     @GetMapping
     public ResponseEntity<List<JournalEntry>> getAllJournalEntries(@RequestParam(required = false) UUID tenantId) {
@@ -35,4 +38,9 @@ public class JournalEntryController {
         JournalEntry saved = journalEntryRepository.save(entry);
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
+    
+    @PostMapping("/post")
+    public ResponseEntity<JournalEntry> postJournal(@RequestBody JournalPostingRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(journalPostingService.post(request));
+    }
 }
@@ -0,0 +1,66 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.MigrationReport;
+import com.erp.accounting.dto.MigrationStageResult;
+import com.erp.accounting.entity.MigrationJob;
+import com.erp.accounting.repository.TenantRepository;
+import com.erp.accounting.service.MigrationLoaderService;
+import com.erp.accounting.service.MigrationLoaderService.SourceKind;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/tenants/{tenantId}/migrations")
+@RequiredArgsConstructor
+public class MigrationController {
+    private final MigrationLoaderService migrationLoaderService;
+    private final TenantRepository tenantRepository;
+    
+    @PostMapping
+    public ResponseEntity<MigrationJob> createMigration(@PathVariable UUID tenantId,
+                                                        @RequestParam(required = false) String sourceSystem,
+                                                        @RequestParam(required = false) UUID userId) {
+        if (!tenantRepository.existsById(tenantId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(migrationLoaderService.create(tenantId, sourceSystem, userId));
+    }
+    
+    @GetMapping
+    public ResponseEntity<List<MigrationJob>> getMigrations(@PathVariable UUID tenantId) {
+        return ResponseEntity.ok(migrationLoaderService.getJobs(tenantId));
+    }
+    
+    @GetMapping("/{jobId}")
+    public ResponseEntity<MigrationReport> getMigration(@PathVariable UUID tenantId, @PathVariable UUID jobId) {
+        return ResponseEntity.ok(migrationLoaderService.getReport(tenantId, jobId));
+    }
+    
+    @PutMapping(value = "/{jobId}/files/{kind}", consumes = "text/csv")
+    public ResponseEntity<MigrationStageResult> stageFile(@PathVariable UUID tenantId, @PathVariable UUID jobId,
+                                                          @PathVariable String kind, InputStream body) {
+        SourceKind sourceKind;
+        try {
+            sourceKind = SourceKind.valueOf(kind.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        MigrationStageResult result = migrationLoaderService.stage(tenantId, jobId, sourceKind, body);
+        if (!result.errors().isEmpty()) {
+            return ResponseEntity.unprocessableEntity().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    /** Queues the job for the loader; poll the job for progress. */
+    @PostMapping("/{jobId}/start")
+    public ResponseEntity<MigrationJob> startMigration(@PathVariable UUID tenantId, @PathVariable UUID jobId) {
+        return ResponseEntity.accepted().body(migrationLoaderService.start(tenantId, jobId));
+    }
+}
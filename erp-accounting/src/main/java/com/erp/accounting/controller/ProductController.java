@@ -0,0 +1,84 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.ReferenceDelta;
+import com.erp.accounting.entity.Product;
+import com.erp.accounting.event.CatalogChangedEvent;
+import com.erp.accounting.repository.ProductRepository;
+import com.erp.accounting.service.ReferenceDataVersionService;
+import com.erp.accounting.service.ReferenceDataVersionService.Dataset;
+import com.erp.accounting.service.ReferenceDataVersionService.Listing;
+import com.erp.accounting.service.SearchIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+public class ProductController {
+    private final ProductRepository productRepository;
+    private final SearchIndexService searchIndexService;
+    private final ReferenceDataVersionService referenceDataVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @GetMapping
+    public ResponseEntity<List<Product>> getProducts(
+            @RequestParam UUID tenantId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Listing<Product> listing = referenceDataVersionService.list(tenantId, Dataset.PRODUCTS, ifNoneMatch,
+            () -> productRepository.findByTenantId(tenantId));
+        if (listing.notModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(listing.etag()).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(listing.etag()).varyBy(HttpHeaders.ACCEPT).cacheControl(CacheControl.noCache())
+            .body(listing.rows());
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<ReferenceDelta<Product>> getProductChanges(@RequestParam UUID tenantId,
+                                                                     @RequestParam long since) {
+        return ResponseEntity.ok(referenceDataVersionService.delta(tenantId, Dataset.PRODUCTS, since,
+            version -> productRepository.findByTenantIdAndRowVersionGreaterThanOrderByRowVersion(tenantId, version),
+            Product::getRowVersion));
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<Product> getProductById(@PathVariable UUID id) {
+        return productRepository.findById(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam UUID tenantId,
+                                                        @RequestParam String q,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchIndexService.searchProducts(tenantId, q, limit));
+    }
+    
+    @PostMapping
+    public ResponseEntity<Product> createProduct(@RequestBody Product product) {
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getTenantId(), saved));
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<Product> updateProduct(@PathVariable UUID id, @RequestBody Product product) {
+        UUID previousTenantId = productRepository.findById(id).map(Product::getTenantId).orElse(null);
+        if (previousTenantId == null) {
+            return ResponseEntity.notFound().build();
+        }
+        product.setProductId(id);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getTenantId(), saved,
+            previousTenantId.equals(saved.getTenantId()) ? null : previousTenantId));
+        return ResponseEntity.ok(saved);
+    }
+}
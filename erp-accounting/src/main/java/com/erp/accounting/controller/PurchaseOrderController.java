@@ -0,0 +1,105 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.GoodsReceiptRequest;
+import com.erp.accounting.dto.POLineMatch;
+import com.erp.accounting.dto.PurchaseOrderRequest;
+import com.erp.accounting.dto.SupplierInvoiceRequest;
+import com.erp.accounting.dto.ThreeWayMatchResult;
+import com.erp.accounting.entity.GoodsReceipt;
+import com.erp.accounting.entity.POStatus;
+import com.erp.accounting.entity.PurchaseOrder;
+import com.erp.accounting.entity.PurchaseOrderLine;
+import com.erp.accounting.entity.SupplierInvoice;
+import com.erp.accounting.repository.GoodsReceiptRepository;
+import com.erp.accounting.repository.PurchaseOrderLineRepository;
+import com.erp.accounting.repository.PurchaseOrderRepository;
+import com.erp.accounting.repository.SupplierInvoiceRepository;
+import com.erp.accounting.service.PurchaseOrderService;
+import com.erp.accounting.service.ThreeWayMatchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/purchase-orders")
+@RequiredArgsConstructor
+public class PurchaseOrderController {
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderLineRepository purchaseOrderLineRepository;
+    private final GoodsReceiptRepository goodsReceiptRepository;
+    private final SupplierInvoiceRepository supplierInvoiceRepository;
+    private final PurchaseOrderService purchaseOrderService;
+    private final ThreeWayMatchService threeWayMatchService;
+    
+    @GetMapping
+    public ResponseEntity<List<PurchaseOrder>> getPurchaseOrders(@RequestParam UUID tenantId,
+                                                                 @RequestParam(required = false) POStatus status) {
+        if (status != null) {
+            return ResponseEntity.ok(purchaseOrderRepository.findByTenantIdAndStatus(tenantId, status));
+        }
+        return ResponseEntity.ok(purchaseOrderRepository.findByTenantId(tenantId));
+    }
+    
+    @GetMapping("/{poId}")
+    public ResponseEntity<PurchaseOrder> getPurchaseOrderById(@PathVariable UUID poId) {
+        return purchaseOrderRepository.findById(poId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/{poId}/lines")
+    public ResponseEntity<List<PurchaseOrderLine>> getLines(@PathVariable UUID poId) {
+        return ResponseEntity.ok(purchaseOrderLineRepository.findByPoIdOrderByLineNumber(poId));
+    }
+    
+    @PostMapping
+    public ResponseEntity<PurchaseOrder> createPurchaseOrder(@RequestBody PurchaseOrderRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(purchaseOrderService.create(request));
+    }
+    
+    /** Manual steps only: CONFIRMED from DRAFT, PAID from INVOICED. */
+    @PutMapping("/{poId}/status")
+    public ResponseEntity<PurchaseOrder> updateStatus(@PathVariable UUID poId, @RequestParam POStatus status) {
+        return ResponseEntity.ok(purchaseOrderService.updateStatus(poId, status));
+    }
+    
+    @GetMapping("/{poId}/receipts")
+    public ResponseEntity<List<GoodsReceipt>> getReceipts(@PathVariable UUID poId) {
+        return ResponseEntity.ok(goodsReceiptRepository.findByPoId(poId));
+    }
+    
+    @PostMapping("/{poId}/receipts")
+    public ResponseEntity<GoodsReceipt> receive(@PathVariable UUID poId, @RequestBody GoodsReceiptRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(purchaseOrderService.receive(poId, request));
+    }
+    
+    @GetMapping("/{poId}/supplier-invoices")
+    public ResponseEntity<List<SupplierInvoice>> getSupplierInvoices(@PathVariable UUID poId) {
+        return ResponseEntity.ok(supplierInvoiceRepository.findByPoId(poId));
+    }
+    
+    @PostMapping("/{poId}/supplier-invoices")
+    public ResponseEntity<SupplierInvoice> addSupplierInvoice(@PathVariable UUID poId,
+                                                              @RequestBody SupplierInvoiceRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(purchaseOrderService.addSupplierInvoice(poId, request));
+    }
+    
+    @GetMapping("/{poId}/match")
+    public ResponseEntity<List<POLineMatch>> getMatch(@PathVariable UUID poId) {
+        return ResponseEntity.ok(threeWayMatchService.getResults(poId));
+    }
+    
+    @GetMapping("/match/exceptions")
+    public ResponseEntity<List<POLineMatch>> getMatchExceptions(@RequestParam UUID tenantId) {
+        return ResponseEntity.ok(threeWayMatchService.getExceptions(tenantId));
+    }
+    
+    /** Runs the nightly match now over all open purchase orders. */
+    @PostMapping("/match")
+    public ResponseEntity<ThreeWayMatchResult> runMatch() {
+        return ResponseEntity.ok(threeWayMatchService.matchOpenOrders());
+    }
+}
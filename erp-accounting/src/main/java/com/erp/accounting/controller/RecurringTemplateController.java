@@ -0,0 +1,56 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.RecurringRunResult;
+import com.erp.accounting.entity.RecurringTemplate;
+import com.erp.accounting.repository.RecurringTemplateRepository;
+import com.erp.accounting.service.RecurringDocumentScheduler;
+import com.erp.accounting.service.RecurringDocumentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/recurring-templates")
+@RequiredArgsConstructor
+public class RecurringTemplateController {
+    private final RecurringTemplateRepository recurringTemplateRepository;
+    private final RecurringDocumentService recurringDocumentService;
+    private final RecurringDocumentScheduler recurringDocumentScheduler;
+    
+    @GetMapping
+    public ResponseEntity<List<RecurringTemplate>> getTemplates(@RequestParam UUID tenantId) {
+        return ResponseEntity.ok(recurringTemplateRepository.findByTenantId(tenantId));
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<RecurringTemplate> getTemplateById(@PathVariable UUID id) {
+        return recurringTemplateRepository.findById(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping
+    public ResponseEntity<RecurringTemplate> createTemplate(@RequestBody RecurringTemplate template) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(recurringDocumentService.createTemplate(template));
+    }
+    
+    @PutMapping("/{id}/active")
+    public ResponseEntity<Void> setActive(@PathVariable UUID id, @RequestParam boolean active) {
+        if (!recurringDocumentService.setActive(id, active)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
+    /** Runs the scheduler now on this node, e.g. to catch up after an outage or to backfill a date. */
+    @PostMapping("/run")
+    public ResponseEntity<RecurringRunResult> run(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(recurringDocumentScheduler.run(asOf != null ? asOf : LocalDate.now()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.service.StatementExportService;
+import com.erp.accounting.service.StatementExportService.Format;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class StatementController {
+    private final StatementExportService statementExportService;
+
+    @GetMapping("/customers/{customerId}/statement")
+    public ResponseEntity<StreamingResponseBody> getCustomerStatement(@PathVariable UUID customerId,
+                                                                      @RequestParam UUID tenantId,
+                                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                      @RequestParam(defaultValue = "CSV") Format format) {
+        StreamingResponseBody body = statementExportService.customerStatement(tenantId, customerId, from, to, format);
+        return download("statement_" + customerId + "_" + from + "_" + to, format, body);
+    }
+
+    @GetMapping("/chart-of-accounts/{accountId}/ledger")
+    public ResponseEntity<StreamingResponseBody> getAccountLedger(@PathVariable UUID accountId,
+                                                                  @RequestParam UUID tenantId,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                  @RequestParam(defaultValue = "CSV") Format format) {
+        StreamingResponseBody body = statementExportService.accountLedger(tenantId, accountId, from, to, format);
+        return download("ledger_" + accountId + "_" + from + "_" + to, format, body);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> download(String name, Format format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .contentType(format.mediaType)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(name + "." + format.extension).build().toString())
+            .body(body);
+    }
+}
@@ -0,0 +1,36 @@
+package com.erp.accounting.controller;
+
+import com.erp.accounting.dto.SyncBatch;
+import com.erp.accounting.dto.SyncPushResult;
+import com.erp.accounting.dto.SyncWrite;
+import com.erp.accounting.service.MobileSyncService;
+import com.erp.accounting.service.MobileSyncService.EntityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/sync")
+@RequiredArgsConstructor
+public class SyncController {
+    private final MobileSyncService mobileSyncService;
+
+    /** Changes after since for the subscribed types (all when none are given); since=0 for a first sync. */
+    @GetMapping
+    public ResponseEntity<SyncBatch> getChanges(@RequestParam UUID tenantId,
+                                                @RequestParam(defaultValue = "0") long since,
+                                                @RequestParam(required = false) Set<EntityType> types,
+                                                @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(mobileSyncService.changes(tenantId, since, types, limit));
+    }
+
+    @PostMapping
+    public ResponseEntity<SyncPushResult> pushWrites(@RequestParam UUID tenantId,
+                                                     @RequestParam String deviceId,
+                                                     @RequestBody List<SyncWrite> writes) {
+        return ResponseEntity.ok(mobileSyncService.apply(tenantId, deviceId, writes));
+    }
+}
@@ -1,12 +1,25 @@
 package com.erp.accounting.controller;
 
+import com.erp.accounting.dto.ImportResult;
+import com.erp.accounting.dto.ProvisioningResult;
+import com.erp.accounting.dto.ReferenceDelta;
 import com.erp.accounting.entity.Tenant;
 import com.erp.accounting.repository.TenantRepository;
+import com.erp.accounting.service.BulkImportService;
+import com.erp.accounting.service.BulkImportService.ImportKind;
+import com.erp.accounting.service.ReferenceDataVersionService;
+import com.erp.accounting.service.ReferenceDataVersionService.Dataset;
+import com.erp.accounting.service.ReferenceDataVersionService.Listing;
+import com.erp.accounting.service.TenantProvisioningService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @RestController
@@ -14,10 +27,27 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TenantController {
     private final TenantRepository tenantRepository;
+    private final TenantProvisioningService tenantProvisioningService;
+    private final BulkImportService bulkImportService;
+    private final ReferenceDataVersionService referenceDataVersionService;
     
     @GetMapping
-    public ResponseEntity<List<Tenant>> getAllTenants() {
-        return ResponseEntity.ok(tenantRepository.findAll());
+    public ResponseEntity<List<Tenant>> getAllTenants(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Listing<Tenant> listing = referenceDataVersionService.list(ReferenceDataVersionService.GLOBAL, Dataset.TENANTS,
+            ifNoneMatch, tenantRepository::findAll);
+        if (listing.notModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(listing.etag()).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(listing.etag()).varyBy(HttpHeaders.ACCEPT).cacheControl(CacheControl.noCache())
+            .body(listing.rows());
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<ReferenceDelta<Tenant>> getTenantChanges(@RequestParam long since) {
+        return ResponseEntity.ok(referenceDataVersionService.delta(ReferenceDataVersionService.GLOBAL,
+            Dataset.TENANTS, since, tenantRepository::findByRowVersionGreaterThanOrderByRowVersion,
+            Tenant::getRowVersion));
     }
     
     @GetMapping("/{id}")
@@ -32,4 +62,32 @@ public class TenantController {
         Tenant saved = tenantRepository.save(tenant);
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
+    
+    @PostMapping("/provision")
+    public ResponseEntity<ProvisioningResult> provisionTenant(@RequestBody Tenant tenant) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(tenantProvisioningService.provision(List.of(tenant)));
+    }
+    
+    @PostMapping("/provision/batch")
+    public ResponseEntity<ProvisioningResult> provisionTenants(@RequestBody List<Tenant> tenants) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(tenantProvisioningService.provision(tenants));
+    }
+    
+    @PostMapping(value = "/{id}/import/{kind}", consumes = "text/csv")
+    public ResponseEntity<ImportResult> importCsv(@PathVariable UUID id, @PathVariable String kind, InputStream body) {
+        ImportKind importKind;
+        try {
+            importKind = ImportKind.valueOf(kind.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!tenantRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        ImportResult result = bulkImportService.importCsv(id, importKind, body);
+        if (!result.errors().isEmpty()) {
+            return ResponseEntity.unprocessableEntity().body(result);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
 }
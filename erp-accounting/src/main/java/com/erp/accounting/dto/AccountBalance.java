@@ -0,0 +1,15 @@
+package com.erp.accounting.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Rolled-up totals for an account and all of its descendants. {@code balance} is debit minus credit.
+ */
+public record AccountBalance(
+    UUID accountId,
+    BigDecimal totalDebit,
+    BigDecimal totalCredit,
+    BigDecimal balance
+) {
+}
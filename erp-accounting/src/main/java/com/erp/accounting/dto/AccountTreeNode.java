@@ -0,0 +1,22 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.entity.AccountType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One account in a tenant's chart-of-accounts tree with roll-up totals over its subtree.
+ */
+public record AccountTreeNode(
+    UUID accountId,
+    String accountCode,
+    String accountName,
+    AccountType accountType,
+    int level,
+    BigDecimal totalDebit,
+    BigDecimal totalCredit,
+    BigDecimal balance,
+    List<AccountTreeNode> children
+) {
+}
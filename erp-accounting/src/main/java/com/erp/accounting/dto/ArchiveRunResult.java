@@ -0,0 +1,20 @@
+package com.erp.accounting.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Rows moved to cold storage for one tenant by one run; everything dated before archivedThrough
+ * is now eligible for the archive. postingsStopped says why postings were held back, if they were.
+ */
+public record ArchiveRunResult(
+    UUID tenantId,
+    LocalDate archivedThrough,
+    int segments,
+    long generalLedgerRows,
+    long postingRows,
+    long inventoryRows,
+    long bytes,
+    String postingsStopped
+) {
+}
@@ -0,0 +1,16 @@
+package com.erp.accounting.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A buyer's verdict on any number of delivered documents, applied with one statement per list.
+ * reason is recorded against the rejected ones.
+ */
+public record B2BAcknowledgement(
+    UUID buyerTenantId,
+    List<UUID> accepted,
+    List<UUID> rejected,
+    String reason
+) {
+}
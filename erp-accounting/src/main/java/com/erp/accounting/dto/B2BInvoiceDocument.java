@@ -0,0 +1,31 @@
+package com.erp.accounting.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The seller's invoice as the buyer sees it, stored in b2b_sync_map.edi_payload. Products are
+ * identified by code, since product ids belong to the seller tenant.
+ */
+public record B2BInvoiceDocument(
+    String sellerGstin,
+    String sellerName,
+    String invoiceNumber,
+    LocalDate invoiceDate,
+    LocalDate dueDate,
+    String currencyCode,
+    BigDecimal subtotal,
+    BigDecimal totalTax,
+    BigDecimal totalAmount,
+    List<Line> lines
+) {
+    public record Line(
+        String productCode,
+        String productName,
+        int quantity,
+        BigDecimal unitPrice,
+        BigDecimal lineTotal
+    ) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.erp.accounting.dto;
+
+/**
+ * Outcome of one dispatcher pass on this node. retried documents are back in the queue with a
+ * back-off; rejected ones ran out of attempts.
+ */
+public record B2BSyncRunResult(
+    int claimed,
+    int delivered,
+    int retried,
+    int rejected,
+    long elapsedMs
+) {
+}
@@ -0,0 +1,17 @@
+package com.erp.accounting.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Quantity drawn from one batch by a FEFO allocation, with the ledger row that recorded it.
+ */
+public record BatchAllocation(
+    String batchNumber,
+    LocalDate expiryDate,
+    int quantity,
+    BigDecimal unitCost,
+    UUID ledgerId
+) {
+}
@@ -0,0 +1,20 @@
+package com.erp.accounting.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** A budget's actual reaching thresholdPct of the budget; actual is the value at the time. */
+public record BudgetAlert(
+    UUID alertId,
+    UUID budgetId,
+    UUID accountId,
+    LocalDate periodMonth,
+    BigDecimal thresholdPct,
+    BigDecimal budget,
+    BigDecimal actual,
+    LocalDateTime raisedAt,
+    LocalDateTime acknowledgedAt
+) {
+}
@@ -0,0 +1,23 @@
+package com.erp.accounting.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Budget against actual for one account subtree and month. actual is signed by the account's
+ * normal side, so a positive variance (budget - actual) is headroom for cost and shortfall
+ * for income accounts. utilisationPct is null for a zero budget.
+ */
+public record BudgetVariance(
+    UUID budgetId,
+    UUID accountId,
+    String accountCode,
+    String accountName,
+    LocalDate periodMonth,
+    BigDecimal budget,
+    BigDecimal actual,
+    BigDecimal variance,
+    BigDecimal utilisationPct
+) {
+}
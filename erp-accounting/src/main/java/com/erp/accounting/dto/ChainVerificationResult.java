@@ -0,0 +1,17 @@
+package com.erp.accounting.dto;
+
+import java.util.UUID;
+
+/**
+ * Outcome of checking one tenant's posting hash chain up to the head seen when the run started.
+ * brokenAtSeq is the first chain position that failed, with the reason.
+ */
+public record ChainVerificationResult(
+    UUID tenantId,
+    long headSeq,
+    long rowsVerified,
+    boolean valid,
+    Long brokenAtSeq,
+    String reason
+) {
+}
@@ -0,0 +1,20 @@
+package com.erp.accounting.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outcome of one check for one tenant. found is the number of open discrepancies among the
+ * entities rechecked, resolved the number that were open before and are now consistent.
+ * checkedSince is null for a full run.
+ */
+public record ConsistencyCheckResult(
+    UUID tenantId,
+    String check,
+    LocalDateTime checkedSince,
+    int found,
+    int resolved,
+    long elapsedMs,
+    String error
+) {
+}
@@ -0,0 +1,32 @@
+package com.erp.accounting.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Posting totals for one period grouped by a row dimension and, optionally, a column dimension.
+ * Row and column values are dimension (or account) ids; null collects untagged postings.
+ * from is moved forward to the archive cut-off when the period reaches into archived months.
+ */
+public record DimensionPivot(
+    UUID tenantId,
+    String rows,
+    String columns,
+    LocalDate from,
+    LocalDate to,
+    long postings,
+    List<Cell> cells
+) {
+    /** net is debit - credit. */
+    public record Cell(
+        UUID row,
+        UUID column,
+        BigDecimal debit,
+        BigDecimal credit,
+        BigDecimal net,
+        int postings
+    ) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.erp.accounting.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One written export file. For incremental exports exportedThroughTxid is the new watermark:
+ * every transaction below it had finished when the export's snapshot was taken.
+ */
+public record ExportResult(
+    UUID tenantId,
+    String dataset,
+    String file,
+    long rows,
+    long bytes,
+    LocalDateTime exportedFrom,
+    LocalDateTime exportedThrough,
+    Long exportedThroughTxid
+) {
+}
@@ -0,0 +1,17 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.entity.TransactionType;
+import java.util.UUID;
+
+/**
+ * Outgoing movement to be picked first-expiry-first-out across a product's batches.
+ */
+public record FefoAllocationRequest(
+    UUID tenantId,
+    UUID productId,
+    int quantity,
+    TransactionType transactionType,
+    String referenceId,
+    String referenceType
+) {
+}
@@ -0,0 +1,12 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.entity.GoodsReceipt;
+import com.erp.accounting.entity.GoodsReceiptLine;
+import java.util.List;
+
+/** A goods receipt and the quantities received per PO line (poLineId). */
+public record GoodsReceiptRequest(
+    GoodsReceipt receipt,
+    List<GoodsReceiptLine> lines
+) {
+}
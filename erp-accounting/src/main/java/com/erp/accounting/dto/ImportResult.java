@@ -0,0 +1,15 @@
+package com.erp.accounting.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. When {@code errors} is non-empty nothing was written.
+ */
+public record ImportResult(
+    long rowsRead,
+    long rowsImported,
+    List<RowError> errors
+) {
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.entity.JournalEntry;
+import com.erp.accounting.entity.Posting;
+import java.util.List;
+
+/**
+ * Journal header plus its debit/credit legs. Legs may carry a transactionCurrency and
+ * transactionAmount; their base-currency amount is filled in at posting time.
+ */
+public record JournalPostingRequest(
+    JournalEntry entry,
+    List<Posting> postings
+) {
+}
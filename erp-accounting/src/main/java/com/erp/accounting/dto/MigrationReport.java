@@ -0,0 +1,20 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.entity.MigrationJob;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A migration job with the staging progress of each source file and its first errors.
+ */
+public record MigrationReport(
+    MigrationJob job,
+    List<FileProgress> files,
+    List<Error> errors
+) {
+    public record FileProgress(String kind, long rowsRead, long rowsStaged, LocalDateTime completedAt) {
+    }
+
+    public record Error(String kind, String check, Long line, String message) {
+    }
+}
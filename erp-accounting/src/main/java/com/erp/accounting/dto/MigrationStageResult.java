@@ -0,0 +1,17 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.dto.ImportResult.RowError;
+import java.util.List;
+
+/**
+ * Outcome of streaming one source file into staging. rowsSkipped are records already staged by an
+ * earlier, interrupted upload of the same file; errors holds the first rejected rows, if any.
+ */
+public record MigrationStageResult(
+    String kind,
+    long rowsRead,
+    long rowsSkipped,
+    long rowsStaged,
+    List<RowError> errors
+) {
+}
@@ -0,0 +1,21 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.entity.POMatchStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** Latest three-way match outcome for one product on a PO, as stored in po_match_results. */
+public record POLineMatch(
+    UUID poId,
+    UUID productId,
+    int quantityOrdered,
+    int quantityReceived,
+    int quantityInvoiced,
+    BigDecimal orderedUnitPrice,
+    BigDecimal invoicedAmount,
+    POMatchStatus status,
+    String reason,
+    LocalDateTime matchedAt
+) {
+}
@@ -0,0 +1,15 @@
+package com.erp.accounting.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One bank statement entry as read from a file. Credits are positive, debits negative.
+ */
+public record ParsedStatementLine(
+    LocalDate valueDate,
+    BigDecimal amount,
+    String description,
+    String reference
+) {
+}
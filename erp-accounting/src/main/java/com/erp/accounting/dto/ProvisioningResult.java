@@ -0,0 +1,13 @@
+package com.erp.accounting.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tenants created by a provisioning call and the number of template accounts cloned into them.
+ */
+public record ProvisioningResult(
+    List<UUID> tenantIds,
+    int accountsCreated
+) {
+}
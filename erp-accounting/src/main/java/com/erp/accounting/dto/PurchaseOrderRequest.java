@@ -0,0 +1,15 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.entity.PurchaseOrder;
+import com.erp.accounting.entity.PurchaseOrderLine;
+import java.util.List;
+
+/**
+ * Purchase order header plus its lines. Line totals, GST and the header amounts are computed
+ * from quantities and unit prices when the order is created.
+ */
+public record PurchaseOrderRequest(
+    PurchaseOrder order,
+    List<PurchaseOrderLine> lines
+) {
+}
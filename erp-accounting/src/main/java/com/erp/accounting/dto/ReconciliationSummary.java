@@ -0,0 +1,12 @@
+package com.erp.accounting.dto;
+
+/**
+ * Counts from one auto-reconciliation run over a tenant's pending statement lines.
+ */
+public record ReconciliationSummary(
+    int linesProcessed,
+    int matchedToInvoices,
+    int matchedToLedger,
+    int sentToReview
+) {
+}
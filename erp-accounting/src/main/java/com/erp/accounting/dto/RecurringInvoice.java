@@ -0,0 +1,16 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.entity.Invoice;
+import com.erp.accounting.entity.InvoiceLine;
+import java.util.List;
+
+/**
+ * Payload of an INVOICE recurring template. Each occurrence is dated on its run date and, if
+ * dueInDays is set, falls due that many days later.
+ */
+public record RecurringInvoice(
+    Invoice invoice,
+    List<InvoiceLine> lines,
+    Integer dueInDays
+) {
+}
@@ -0,0 +1,16 @@
+package com.erp.accounting.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of one scheduler pass on this node. failedTemplates were released with a back-off
+ * and keep their error in recurring_templates.last_error.
+ */
+public record RecurringRunResult(
+    LocalDate asOf,
+    int templatesProcessed,
+    int documentsGenerated,
+    int failedTemplates,
+    long elapsedMs
+) {
+}
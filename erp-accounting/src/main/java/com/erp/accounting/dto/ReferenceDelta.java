@@ -0,0 +1,16 @@
+package com.erp.accounting.dto;
+
+import java.util.List;
+
+/**
+ * Reference rows written after sinceVersion. Clients pass version back as the next since.
+ * full is set when since was ahead of the server (e.g. after a restore) and changes holds every row.
+ */
+public record ReferenceDelta<T>(
+    String dataset,
+    long sinceVersion,
+    long version,
+    boolean full,
+    List<T> changes
+) {
+}
@@ -0,0 +1,12 @@
+package com.erp.accounting.dto;
+
+import java.util.UUID;
+
+/**
+ * Identifier and size of an imported bank statement.
+ */
+public record StatementImportResult(
+    UUID importId,
+    long linesImported
+) {
+}
@@ -0,0 +1,12 @@
+package com.erp.accounting.dto;
+
+import com.erp.accounting.entity.SupplierInvoice;
+import com.erp.accounting.entity.SupplierInvoiceLine;
+import java.util.List;
+
+/** A supplier's bill against a PO. Lines name the product billed, not our PO line. */
+public record SupplierInvoiceRequest(
+    SupplierInvoice invoice,
+    List<SupplierInvoiceLine> lines
+) {
+}
@@ -0,0 +1,25 @@
+package com.erp.accounting.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Entities of the requested types written after sinceToken, oldest first. Clients pass token back
+ * as the next since; more means another request is needed to catch up. full is set when the
+ * client's token can no longer be served incrementally (its tombstones were purged, or the server
+ * was restored behind it): the client drops its local copy and applies changes from scratch.
+ */
+public record SyncBatch(
+    UUID tenantId,
+    long sinceToken,
+    long token,
+    boolean full,
+    boolean more,
+    List<Change> changes
+) {
+    /** An upsert carries the entity's current state in data; a tombstone only its id. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Change(String type, UUID id, long token, Boolean deleted, Object data) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.erp.accounting.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of each write of an offline batch, in request order. A CONFLICT leaves the server copy
+ * untouched and returns it (or no data if it was deleted) for the device to rebase on.
+ */
+public record SyncPushResult(
+    UUID tenantId,
+    List<Result> results
+) {
+    public enum Status { APPLIED, DUPLICATE, CONFLICT, REJECTED }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result(String mutationId, Status status, UUID id, Long token, Object data, String message) {
+    }
+}
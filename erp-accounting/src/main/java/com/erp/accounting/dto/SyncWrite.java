@@ -0,0 +1,19 @@
+package com.erp.accounting.dto;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One write made on a device while offline. mutationId is unique per device and makes resending
+ * a batch safe. Updates and deletes carry the token at which the device last saw the entity in
+ * baseToken; creates leave id empty and get the server id back.
+ */
+public record SyncWrite(
+    String mutationId,
+    String type,
+    UUID id,
+    Long baseToken,
+    boolean delete,
+    Map<String, Object> data
+) {
+}
@@ -0,0 +1,26 @@
+package com.erp.accounting.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Dashboard KPI snapshot for one tenant, read from the precomputed KPI tables.
+ */
+public record TenantKpis(
+    UUID tenantId,
+    BigDecimal outstandingReceivables,
+    BigDecimal stockValue,
+    List<DailySales> dailySales,
+    List<RankedEntry> topCustomers,
+    List<RankedEntry> topProducts,
+    LocalDateTime generatedAt
+) {
+    public record DailySales(LocalDate date, BigDecimal salesAmount, int invoiceCount) {
+    }
+
+    public record RankedEntry(UUID id, BigDecimal amount) {
+    }
+}
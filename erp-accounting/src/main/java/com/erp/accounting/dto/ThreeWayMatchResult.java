@@ -0,0 +1,14 @@
+package com.erp.accounting.dto;
+
+/**
+ * Outcome of one matcher run over the open POs. matched POs moved to INVOICED; exceptions have
+ * at least one quantity, price or unordered-item mismatch; the rest are awaiting goods or bills.
+ */
+public record ThreeWayMatchResult(
+    int purchaseOrders,
+    int matched,
+    int awaiting,
+    int exceptions,
+    long elapsedMs
+) {
+}
@@ -0,0 +1,84 @@
+package com.erp.accounting.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+/**
+ * One seller invoice mirrored, or waiting to be mirrored, into a buyer tenant. ediPayload is the
+ * B2BInvoiceDocument snapshot taken when the invoice was created. Rows are written and advanced
+ * by B2BSyncService and B2BSyncDispatcher; this mapping is read-only.
+ */
+@Entity
+@Table(name = "b2b_sync_map")
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class B2BSyncMap {
+    
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID syncId;
+    
+    @Column(name = "seller_tenant_id", nullable = false)
+    private UUID sellerTenantId;
+    
+    @Column(nullable = false, length = 100)
+    private String sellerInvoiceId;
+    
+    @Column(nullable = false)
+    private LocalDate sellerInvoiceDate;
+    
+    @Column(name = "buyer_tenant_id", nullable = false)
+    private UUID buyerTenantId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private B2BSyncStatus syncStatus;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "JSONB")
+    private JsonNode ediPayload;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal sellerAmount;
+    
+    @Column(precision = 15, scale = 2)
+    private BigDecimal buyerAmount;
+    
+    @Column(precision = 15, scale = 2)
+    private BigDecimal variance;
+    
+    @Column(columnDefinition = "TEXT")
+    private String varianceReason;
+    
+    // The buyer's supplier_invoices row
+    @Column(name = "buyer_document_id")
+    private UUID buyerDocumentId;
+    
+    @Column(nullable = false)
+    private Integer attempts;
+    
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime acknowledgedAt;
+    
+    @Column
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,69 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = "bank_statement_lines", indexes = {
+    @Index(name = "idx_statement_tenant_status", columnList = "tenant_id, status, value_date"),
+    @Index(name = "idx_statement_import", columnList = "import_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BankStatementLine {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID lineId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Column(name = "bank_id")
+    private UUID bankId;
+    
+    @Column(name = "import_id", nullable = false)
+    private UUID importId;
+    
+    @Column(nullable = false)
+    private LocalDate valueDate;
+    
+    // Signed: credits (money in) positive, debits negative
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(length = 500)
+    private String description;
+    
+    @Column(length = 140)
+    private String reference;
+    
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatementLineStatus status = StatementLineStatus.PENDING;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private MatchedType matchedType;
+    
+    @Column
+    private UUID matchedId;
+    
+    @Column(length = 50)
+    private String matchRule;
+    
+    @Column
+    private LocalDateTime matchedAt;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,54 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+/**
+ * Budgeted amount for an account and everything below it in the chart, for one month
+ * (periodMonth is the first day). alertThresholdPct raises an early alert before the 100% one.
+ */
+@Entity
+@Table(name = "budgets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Budget {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID budgetId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+    
+    @Column(nullable = false)
+    private LocalDate periodMonth;
+    
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal amount;
+    
+    @Builder.Default
+    @Column(nullable = false, precision = 5, scale = 2)
+    private BigDecimal alertThresholdPct = new BigDecimal("80");
+    
+    @Column(length = 500)
+    private String notes;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column
+    private LocalDateTime updatedAt;
+}
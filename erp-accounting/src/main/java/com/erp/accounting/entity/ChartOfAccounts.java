@@ -13,6 +13,7 @@ import java.util.*;
     @UniqueConstraint(columnNames = {"tenant_id", "account_code"})
 }, indexes = {
     @Index(name = "idx_chart_tenant", columnList = "tenant_id"),
+    @Index(name = "idx_chart_parent", columnList = "parent_account_id"),
     @Index(name = "idx_chart_type", columnList = "account_type")
 })
 @Data
@@ -45,15 +46,25 @@ public class ChartOfAccounts {
     @Column(length = 100)
     private String accountSubtype;
     
+    @Column(name = "parent_account_id")
+    private UUID parentAccountId;
+    
+    // Maintained by the database from parent_account_id (see account_level_function)
+    @Column(insertable = false, updatable = false)
+    private Integer hierarchyLevel;
+    
+    @Builder.Default
     @Column(nullable = false)
     private Boolean gstApplicable = false;
     
     @Column(precision = 5, scale = 2)
     private BigDecimal defaultGstRate;
     
+    @Builder.Default
     @Column(nullable = false)
     private Boolean allowManualEntries = true;
     
+    @Builder.Default
     @Column(nullable = false)
     private Boolean isActive = true;
     
@@ -67,4 +78,8 @@ public class ChartOfAccounts {
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime updatedAt;
+    
+    // Version of the last write to this row, assigned by the database (see chart_version_trigger)
+    @Column(insertable = false, updatable = false)
+    private Long rowVersion;
 }
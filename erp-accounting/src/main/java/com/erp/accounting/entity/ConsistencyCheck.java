@@ -0,0 +1,5 @@
+package com.erp.accounting.entity;
+
+public enum ConsistencyCheck {
+    JOURNAL_TOTALS, GL_POSTINGS, INVOICE_TOTALS, INVENTORY_BALANCE
+}
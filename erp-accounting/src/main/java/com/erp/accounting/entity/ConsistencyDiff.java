@@ -0,0 +1,54 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+/**
+ * A stored aggregate that disagrees with its detail rows. expected is recomputed from the detail
+ * rows, actual is what is stored. Maintained by ConsistencyCheckService; read-only here.
+ */
+@Entity
+@Table(name = "consistency_diffs")
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConsistencyDiff {
+    
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID diffId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private ConsistencyCheck checkName;
+    
+    @Column(nullable = false, length = 100)
+    private String entityKey;
+    
+    @Column(nullable = false, length = 100)
+    private String attribute;
+    
+    @Column(precision = 18, scale = 2)
+    private BigDecimal expected;
+    
+    @Column(precision = 18, scale = 2)
+    private BigDecimal actual;
+    
+    @Column(nullable = false)
+    private LocalDateTime firstSeenAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime lastSeenAt;
+    
+    @Column
+    private LocalDateTime resolvedAt;
+}
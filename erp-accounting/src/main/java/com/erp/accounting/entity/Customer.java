@@ -45,15 +45,19 @@ public class Customer {
     @Column(columnDefinition = "JSONB")
     private Map<String, Object> shippingAddress;
     
+    @Builder.Default
     @Column(precision = 15, scale = 2)
     private BigDecimal creditLimit = BigDecimal.ZERO;
     
+    @Builder.Default
     @Column(precision = 15, scale = 2)
     private BigDecimal creditUsed = BigDecimal.ZERO;
     
+    @Builder.Default
     @Column(nullable = false)
     private Boolean gstApplicable = true;
     
+    @Builder.Default
     @Column(nullable = false)
     private Boolean isActive = true;
     
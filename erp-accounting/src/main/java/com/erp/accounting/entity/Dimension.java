@@ -0,0 +1,48 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import jakarta.persistence.*;
+import java.time.*;
+import java.util.UUID;
+
+/** A branch, cost centre or project that postings can be tagged with. */
+@Entity
+@Table(name = "dimensions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Dimension {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID dimensionId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DimensionType dimensionType;
+    
+    @Column(nullable = false, length = 50)
+    private String code;
+    
+    @Column(nullable = false, length = 255)
+    private String name;
+    
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean isActive = true;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column
+    private LocalDateTime updatedAt;
+}
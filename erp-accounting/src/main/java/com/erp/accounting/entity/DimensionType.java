@@ -0,0 +1,5 @@
+package com.erp.accounting.entity;
+
+public enum DimensionType {
+    BRANCH, COST_CENTER, PROJECT
+}
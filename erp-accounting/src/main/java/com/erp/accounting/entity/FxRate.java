@@ -0,0 +1,42 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+/** One unit of baseCurrency = rate units of quoteCurrency, effective from rateDate. */
+@Entity
+@Table(name = "fx_rates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FxRate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID rateId;
+    
+    @Column(nullable = false, length = 3)
+    private String baseCurrency;
+    
+    @Column(nullable = false, length = 3)
+    private String quoteCurrency;
+    
+    @Column(nullable = false)
+    private LocalDate rateDate;
+    
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal rate;
+    
+    @Column(length = 50)
+    private String source;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -29,6 +29,7 @@ public class GeneralLedger {
     @Column(nullable = false)
     private LocalDate transactionDate;
     
+    @Builder.Default
     @Column(nullable = false)
     private LocalDate postingDate = LocalDate.now();
     
@@ -39,9 +40,32 @@ public class GeneralLedger {
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal amount;
     
+    @Column(length = 3)
+    private String transactionCurrency;
+    
+    @Column(precision = 15, scale = 2)
+    private BigDecimal transactionAmount;
+    
+    @Column(precision = 18, scale = 8)
+    private BigDecimal exchangeRate;
+    
     @Column(length = 500)
     private String description;
     
+    @Column(name = "journal_id")
+    private UUID journalId;
+    
+    // Analytical dimensions (see Dimension); null when the line is not tagged
+    @Column(name = "branch_id")
+    private UUID branchId;
+    
+    @Column(name = "cost_center_id")
+    private UUID costCenterId;
+    
+    @Column(name = "project_id")
+    private UUID projectId;
+    
+    @Builder.Default
     @Column(nullable = false)
     private Boolean isPosted = false;
     
@@ -0,0 +1,41 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import jakarta.persistence.*;
+import java.time.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = "goods_receipts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GoodsReceipt {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID receiptId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Column(name = "po_id", nullable = false)
+    private UUID poId;
+    
+    @Column(nullable = false, length = 50)
+    private String receiptNumber;
+    
+    @Builder.Default
+    @Column(nullable = false)
+    private LocalDate receiptDate = LocalDate.now();
+    
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
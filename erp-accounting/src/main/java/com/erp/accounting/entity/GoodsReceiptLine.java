@@ -0,0 +1,50 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import jakarta.persistence.*;
+import java.time.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = "goods_receipt_lines")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GoodsReceiptLine {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID receiptLineId;
+    
+    @Column(name = "receipt_id", nullable = false)
+    private UUID receiptId;
+    
+    @Column(name = "po_id", nullable = false)
+    private UUID poId;
+    
+    @Column(name = "po_line_id", nullable = false)
+    private UUID poLineId;
+    
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+    
+    @Column(nullable = false)
+    private Integer quantityReceived;
+    
+    @Column(length = 100)
+    private String batchNumber;
+    
+    @Column
+    private LocalDate expiryDate;
+    
+    // The inventory_ledger PURCHASE movement written for this line
+    @Column(name = "ledger_id")
+    private UUID ledgerId;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -7,6 +7,10 @@ import java.math.BigDecimal;
 import java.time.*;
 import java.util.UUID;
 
+/**
+ * Stock of one product across all its batches, kept by InventoryBatchService in the
+ * transaction of each movement. inventoryValue is the sum of unit_cost x (in - out).
+ */
 @Entity
 @Table(name = "inventory_balance")
 @Data
@@ -14,40 +18,27 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 public class InventoryBalance {
-    
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     @Column(columnDefinition = "UUID")
     private UUID balanceId;
-    
+
     @Column(name = "tenant_id", nullable = false)
     private UUID tenantId;
-    
+
     @Column(name = "product_id", nullable = false)
     private UUID productId;
-    
+
+    @Builder.Default
     @Column(nullable = false)
-    private Integer currentQuantity = 0;
-    
-    @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal availableQuantity = BigDecimal.ZERO;
-    
-    @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal reservedQuantity = BigDecimal.ZERO;
-    
+    private Integer quantityOnHand = 0;
+
+    @Builder.Default
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal totalValue = BigDecimal.ZERO;
-    
-    @Column(precision = 15, scale = 2)
-    private BigDecimal averageCost = BigDecimal.ZERO;
-    
-    @Column
-    private LocalDate lastMovementDate;
-    
-    @Column
-    private LocalDate nextReorderDate;
-    
+    private BigDecimal inventoryValue = BigDecimal.ZERO;
+
     @UpdateTimestamp
-    @Column(nullable = false)
+    @Column
     private LocalDateTime lastUpdated;
 }
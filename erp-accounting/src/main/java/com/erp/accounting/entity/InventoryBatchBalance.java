@@ -0,0 +1,50 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = "inventory_batch_balance", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"tenant_id", "product_id", "batch_number"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryBatchBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID batchBalanceId;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Column(name = "batch_number", nullable = false, length = 100)
+    private String batchNumber;
+
+    @Column
+    private LocalDate expiryDate;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer quantityOnHand = 0;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal unitCost;
+
+    @Column
+    private LocalDateTime lastMovementDate;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime lastUpdated;
+}
@@ -34,9 +34,11 @@ public class InventoryLedger {
     @Column(nullable = false)
     private TransactionType transactionType;
     
+    @Builder.Default
     @Column(nullable = false)
     private Integer quantityIn = 0;
     
+    @Builder.Default
     @Column(nullable = false)
     private Integer quantityOut = 0;
     
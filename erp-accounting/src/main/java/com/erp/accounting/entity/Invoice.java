@@ -30,6 +30,7 @@ public class Invoice {
     @Column(nullable = false, length = 50)
     private String invoiceNumber;
     
+    @Builder.Default
     @Column(nullable = false)
     private LocalDate invoiceDate = LocalDate.now();
     
@@ -39,31 +40,51 @@ public class Invoice {
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal subtotal;
     
+    @Builder.Default
     @Column(precision = 15, scale = 2)
     private BigDecimal cgstAmount = BigDecimal.ZERO;
     
+    @Builder.Default
     @Column(precision = 15, scale = 2)
     private BigDecimal sgstAmount = BigDecimal.ZERO;
     
+    @Builder.Default
     @Column(precision = 15, scale = 2)
     private BigDecimal igstAmount = BigDecimal.ZERO;
     
+    @Builder.Default
     @Column(precision = 15, scale = 2)
     private BigDecimal totalTax = BigDecimal.ZERO;
     
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal totalAmount;
     
+    @Column(length = 3)
+    private String currencyCode;
+    
+    @Column(precision = 18, scale = 8)
+    private BigDecimal exchangeRate;
+    
+    // totalAmount converted to the tenant's base currency at exchangeRate
+    @Column(precision = 15, scale = 2)
+    private BigDecimal baseTotalAmount;
+    
+    // Rate used by the last period-end revaluation, if any
+    @Column(precision = 18, scale = 8)
+    private BigDecimal revaluationRate;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private InvoiceStatus status; // InvoiceStatus enum
     
+    @Builder.Default
     @Column(precision = 15, scale = 2)
     private BigDecimal amountPaid = BigDecimal.ZERO;
     
     @Column(precision = 15, scale = 2)
     private BigDecimal outstanding;
     
+    @Builder.Default
     @Column(nullable = false)
     private Boolean isPosted = false;
     
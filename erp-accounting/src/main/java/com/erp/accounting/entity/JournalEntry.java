@@ -27,6 +27,7 @@ public class JournalEntry {
     @Column(nullable = false, length = 50)
     private String entryNumber;
     
+    @Builder.Default
     @Column(nullable = false)
     private LocalDate entryDate = LocalDate.now();
     
@@ -37,12 +38,15 @@ public class JournalEntry {
     @Column(nullable = false)
     private JournalStatus status;
     
+    @Builder.Default
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal totalDebit = BigDecimal.ZERO;
     
+    @Builder.Default
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal totalCredit = BigDecimal.ZERO;
     
+    @Builder.Default
     @Column(nullable = false)
     private Boolean isBalanced = false;
     
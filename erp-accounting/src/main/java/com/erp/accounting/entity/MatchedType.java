@@ -0,0 +1,5 @@
+package com.erp.accounting.entity;
+
+public enum MatchedType {
+    INVOICE, GENERAL_LEDGER
+}
@@ -0,0 +1,65 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import jakarta.persistence.*;
+import java.time.*;
+import java.util.UUID;
+
+/**
+ * A bulk load of a tenant's history from a legacy system. checkpoint is the last step the
+ * runner committed. Maintained by MigrationLoaderService; read-only here.
+ */
+@Entity
+@Table(name = "migration_jobs")
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MigrationJob {
+    
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID jobId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Column(length = 50)
+    private String sourceSystem;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MigrationJobStatus status;
+    
+    @Column(length = 30)
+    private String checkpoint;
+    
+    @Column(nullable = false)
+    private UUID createdBy;
+    
+    @Column(nullable = false)
+    private Integer errorCount;
+    
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(length = 100)
+    private String leaseOwner;
+    
+    @Column
+    private LocalDateTime leaseExpiresAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime updatedAt;
+    
+    @Column
+    private LocalDateTime startedAt;
+    
+    @Column
+    private LocalDateTime finishedAt;
+}
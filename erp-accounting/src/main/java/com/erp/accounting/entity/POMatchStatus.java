@@ -0,0 +1,9 @@
+package com.erp.accounting.entity;
+
+/**
+ * Three-way match outcome for one PO line, in increasing order of severity. A PO takes the
+ * most severe outcome among its lines.
+ */
+public enum POMatchStatus {
+    MATCHED, AWAITING_INVOICE, AWAITING_RECEIPT, PRICE_MISMATCH, QUANTITY_MISMATCH, UNORDERED_ITEM
+}
@@ -2,6 +2,7 @@ package com.erp.accounting.entity;
 
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.*;
@@ -9,6 +10,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "postings")
+@Immutable
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,12 +38,41 @@ public class Posting {
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal amount;
     
+    @Column(length = 3)
+    private String transactionCurrency;
+    
+    @Column(precision = 15, scale = 2)
+    private BigDecimal transactionAmount;
+    
+    @Column(precision = 18, scale = 8)
+    private BigDecimal exchangeRate;
+    
     @Column(nullable = false)
     private Integer lineNumber;
     
     @Column(length = 500)
     private String lineDescription;
     
+    // Analytical dimensions (see Dimension); null when the line is not tagged
+    @Column(name = "branch_id")
+    private UUID branchId;
+    
+    @Column(name = "cost_center_id")
+    private UUID costCenterId;
+    
+    @Column(name = "project_id")
+    private UUID projectId;
+    
+    // Hash chain, assigned by the database on insert (posting_chain_trigger)
+    @Column(insertable = false, updatable = false)
+    private Long chainSeq;
+    
+    @Column(length = 64, insertable = false, updatable = false)
+    private String prevHash;
+    
+    @Column(length = 64, insertable = false, updatable = false)
+    private String rowHash;
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
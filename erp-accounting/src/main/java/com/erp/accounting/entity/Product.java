@@ -48,9 +48,11 @@ public class Product {
     @Column(nullable = false, precision = 5, scale = 2)
     private BigDecimal gstRate;
     
+    @Builder.Default
     @Column(length = 20, nullable = false)
     private String unitOfMeasure = "PIECE";
     
+    @Builder.Default
     @Column(nullable = false)
     private Boolean isActive = true;
     
@@ -61,4 +63,8 @@ public class Product {
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime updatedAt;
+    
+    // Version of the last write to this row, assigned by the database (see products_version_trigger)
+    @Column(insertable = false, updatable = false)
+    private Long rowVersion;
 }
@@ -0,0 +1,97 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+/**
+ * Purchase order header. Status moves DRAFT → CONFIRMED by hand, to RECEIVED once every line is
+ * fully received, to INVOICED when the three-way match passes, and to PAID by hand.
+ */
+@Entity
+@Table(name = "purchase_orders")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseOrder {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "po_id", columnDefinition = "UUID")
+    private UUID poId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Column(name = "supplier_id", nullable = false)
+    private UUID supplierId;
+    
+    @Column(name = "po_number", nullable = false, length = 50)
+    private String poNumber;
+    
+    @Builder.Default
+    @Column(name = "po_date", nullable = false)
+    private LocalDate poDate = LocalDate.now();
+    
+    @Column
+    private LocalDate expectedDeliveryDate;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal subtotal;
+    
+    @Builder.Default
+    @Column(precision = 15, scale = 2)
+    private BigDecimal cgstAmount = BigDecimal.ZERO;
+    
+    @Builder.Default
+    @Column(precision = 15, scale = 2)
+    private BigDecimal sgstAmount = BigDecimal.ZERO;
+    
+    @Builder.Default
+    @Column(precision = 15, scale = 2)
+    private BigDecimal igstAmount = BigDecimal.ZERO;
+    
+    @Builder.Default
+    @Column(precision = 15, scale = 2)
+    private BigDecimal totalTax = BigDecimal.ZERO;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalAmount;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private POStatus status;
+    
+    // Running total over all lines, kept by goods receipts
+    @Builder.Default
+    @Column
+    private Integer goodsReceivedQty = 0;
+    
+    @Builder.Default
+    @Column
+    private Boolean isPosted = false;
+    
+    @Column(name = "journal_id")
+    private UUID journalId;
+    
+    // Worst line outcome of the last three-way match, written by ThreeWayMatchService
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, insertable = false, updatable = false)
+    private POMatchStatus matchStatus;
+    
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime matchedAt;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,54 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = "po_lines")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseOrderLine {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID lineId;
+    
+    @Column(name = "po_id", nullable = false)
+    private UUID poId;
+    
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+    
+    @Column(nullable = false)
+    private Integer lineNumber;
+    
+    @Column(nullable = false)
+    private Integer quantityOrdered;
+    
+    // Maintained by goods receipts with an atomic increment
+    @Column(insertable = false, updatable = false)
+    private Integer quantityReceived;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal unitPrice;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal lineTotal;
+    
+    @Column(precision = 5, scale = 2)
+    private BigDecimal gstRate;
+    
+    @Column(precision = 15, scale = 2)
+    private BigDecimal gstAmount;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
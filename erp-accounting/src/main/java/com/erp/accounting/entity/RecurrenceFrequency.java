@@ -0,0 +1,5 @@
+package com.erp.accounting.entity;
+
+public enum RecurrenceFrequency {
+    DAILY, WEEKLY, MONTHLY, QUARTERLY, YEARLY
+}
@@ -0,0 +1,89 @@
+package com.erp.accounting.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+import jakarta.persistence.*;
+import java.time.*;
+import java.util.UUID;
+
+/**
+ * A journal or invoice generated on a schedule. payload is a JournalPostingRequest (JOURNAL) or
+ * RecurringInvoice (INVOICE); documents are numbered numberPrefix-yyyyMMdd.
+ */
+@Entity
+@Table(name = "recurring_templates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurringTemplate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID templateId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecurringDocumentType documentType;
+    
+    @Column(nullable = false, length = 255)
+    private String name;
+    
+    @Column(nullable = false, length = 30)
+    private String numberPrefix;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecurrenceFrequency frequency;
+    
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer intervalCount = 1;
+    
+    @Column(nullable = false)
+    private LocalDate startDate;
+    
+    @Column
+    private LocalDate endDate;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "JSONB")
+    private JsonNode payload;
+    
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean isActive = true;
+    
+    // Schedule and claim state below are maintained by RecurringDocumentScheduler
+    @Column(nullable = false)
+    private LocalDate nextRunDate;
+    
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Integer occurrenceCount = 0;
+    
+    @Column(insertable = false, updatable = false)
+    private LocalDate lastRunDate;
+    
+    @Column(insertable = false, updatable = false)
+    private Integer failureCount;
+    
+    @Column(insertable = false, updatable = false, columnDefinition = "TEXT")
+    private String lastError;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,56 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = "supplier_invoices")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SupplierInvoice {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID supplierInvoiceId;
+    
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+    
+    @Column(name = "supplier_id", nullable = false)
+    private UUID supplierId;
+    
+    // Null for bills mirrored from a seller tenant without a PO
+    @Column(name = "po_id")
+    private UUID poId;
+    
+    @Column(nullable = false, length = 50)
+    private String invoiceNumber;
+    
+    @Builder.Default
+    @Column(nullable = false)
+    private LocalDate invoiceDate = LocalDate.now();
+    
+    @Column
+    private LocalDate dueDate;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal subtotal;
+    
+    @Builder.Default
+    @Column(precision = 15, scale = 2)
+    private BigDecimal totalTax = BigDecimal.ZERO;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalAmount;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,47 @@
+package com.erp.accounting.entity;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = "supplier_invoice_lines")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SupplierInvoiceLine {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID lineId;
+    
+    @Column(name = "supplier_invoice_id", nullable = false)
+    private UUID supplierInvoiceId;
+    
+    @Column(name = "po_id")
+    private UUID poId;
+    
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+    
+    @Column(nullable = false)
+    private Integer lineNumber;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal unitPrice;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal lineTotal;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -61,12 +61,15 @@ public class Tenant {
     @Column
     private LocalDate fiscalYearStart;
     
+    @Builder.Default
     @Column(length = 3, nullable = false)
     private String currency = "INR";
     
+    @Builder.Default
     @Column(length = 2, nullable = false)
     private String countryCode = "IN";
     
+    @Builder.Default
     @Column(length = 100, nullable = false)
     private String timezone = "Asia/Kolkata";
     
@@ -78,6 +81,7 @@ public class Tenant {
     @Column
     private BigDecimal reorderThreshold;
     
+    @Builder.Default
     @Column(nullable = false)
     private Boolean isActive = true;
     
@@ -88,6 +92,10 @@ public class Tenant {
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime updatedAt;
+    
+    // Version of the last write to this row, assigned by the database (see tenants_version_trigger)
+    @Column(insertable = false, updatable = false)
+    private Long rowVersion;
 
     // Relationships disabled for now to avoid circular dependency issues    
     // @OneToMany(mappedBy = "tenant", cascade = CascadeType.ALL, orphanRemoval = true)
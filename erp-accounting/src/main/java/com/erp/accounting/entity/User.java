@@ -50,9 +50,11 @@ public class User {
     @Column(nullable = false)
     private UserRole role;
     
+    @Builder.Default
     @Column(columnDefinition = "JSONB")
     private List<String> permissions = new ArrayList<>();
     
+    @Builder.Default
     @Column(nullable = false)
     private Boolean isActive = true;
     
@@ -0,0 +1,14 @@
+package com.erp.accounting.event;
+
+import java.util.UUID;
+
+/**
+ * Published when products or customers are written. {@code record} is the saved Product or
+ * Customer, or null when many rows changed at once (bulk import). {@code previousTenantId} is the
+ * tenant the record belonged to before the write, when that was a different tenant.
+ */
+public record CatalogChangedEvent(UUID tenantId, Object record, UUID previousTenantId) implements TenantScopedEvent {
+    public CatalogChangedEvent(UUID tenantId, Object record) {
+        this(tenantId, record, null);
+    }
+}
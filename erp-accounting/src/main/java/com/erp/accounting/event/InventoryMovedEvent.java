@@ -0,0 +1,14 @@
+package com.erp.accounting.event;
+
+import com.erp.accounting.entity.InventoryLedger;
+import java.util.UUID;
+
+/**
+ * Published for every stock movement written to the inventory ledger.
+ */
+public record InventoryMovedEvent(InventoryLedger movement) implements TenantScopedEvent {
+    @Override
+    public UUID tenantId() {
+        return movement.getTenantId();
+    }
+}
@@ -0,0 +1,14 @@
+package com.erp.accounting.event;
+
+import com.erp.accounting.entity.Invoice;
+import java.util.UUID;
+
+/**
+ * Published after an invoice has been saved for the first time.
+ */
+public record InvoiceCreatedEvent(Invoice invoice) implements TenantScopedEvent {
+    @Override
+    public UUID tenantId() {
+        return invoice.getTenantId();
+    }
+}
@@ -0,0 +1,11 @@
+package com.erp.accounting.event;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Published when a payment is applied to an invoice, reducing its outstanding amount.
+ * {@code amount} is in the invoice's currency.
+ */
+public record InvoicePaymentEvent(UUID tenantId, UUID invoiceId, BigDecimal amount) implements TenantScopedEvent {
+}
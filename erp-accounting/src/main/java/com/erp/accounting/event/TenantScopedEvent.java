@@ -0,0 +1,10 @@
+package com.erp.accounting.event;
+
+import java.util.UUID;
+
+/**
+ * Write event that belongs to one tenant. Listeners use it to invalidate per-tenant caches.
+ */
+public interface TenantScopedEvent {
+    UUID tenantId();
+}
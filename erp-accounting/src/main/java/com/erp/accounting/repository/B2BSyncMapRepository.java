@@ -0,0 +1,18 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.B2BSyncMap;
+import com.erp.accounting.entity.B2BSyncStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface B2BSyncMapRepository extends JpaRepository<B2BSyncMap, UUID> {
+    List<B2BSyncMap> findBySellerTenantId(UUID sellerTenantId);
+    List<B2BSyncMap> findBySellerTenantIdAndSyncStatus(UUID sellerTenantId, B2BSyncStatus syncStatus);
+    List<B2BSyncMap> findByBuyerTenantId(UUID buyerTenantId);
+    List<B2BSyncMap> findByBuyerTenantIdAndSyncStatus(UUID buyerTenantId, B2BSyncStatus syncStatus);
+    Optional<B2BSyncMap> findBySellerTenantIdAndSellerInvoiceId(UUID sellerTenantId, String sellerInvoiceId);
+}
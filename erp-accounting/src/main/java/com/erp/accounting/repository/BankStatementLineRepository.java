@@ -0,0 +1,20 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.BankStatementLine;
+import com.erp.accounting.entity.MatchedType;
+import com.erp.accounting.entity.StatementLineStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+public interface BankStatementLineRepository extends JpaRepository<BankStatementLine, UUID> {
+    List<BankStatementLine> findByTenantIdAndStatusOrderByValueDateAsc(UUID tenantId, StatementLineStatus status);
+
+    @Query("SELECT l.matchedId FROM BankStatementLine l WHERE l.tenantId = :tenantId AND l.matchedType = :type")
+    Set<UUID> findMatchedIds(@Param("tenantId") UUID tenantId, @Param("type") MatchedType type);
+}
@@ -0,0 +1,15 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.Budget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BudgetRepository extends JpaRepository<Budget, UUID> {
+    List<Budget> findByTenantIdAndPeriodMonthBetweenOrderByPeriodMonth(UUID tenantId, LocalDate from, LocalDate to);
+    Optional<Budget> findByAccountIdAndPeriodMonth(UUID accountId, LocalDate periodMonth);
+}
@@ -2,7 +2,13 @@ package com.erp.accounting.repository;
 
 import com.erp.accounting.entity.ChartOfAccounts;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 import java.util.UUID;
@@ -10,6 +16,75 @@ import java.util.UUID;
 @Repository
 public interface ChartOfAccountsRepository extends JpaRepository<ChartOfAccounts, UUID> {
     List<ChartOfAccounts> findByTenantId(UUID tenantId);
+    List<ChartOfAccounts> findByTenantIdAndRowVersionGreaterThanOrderByRowVersion(UUID tenantId, Long rowVersion);
     List<ChartOfAccounts> findByTenantIdAndAccountType(UUID tenantId, String accountType);
     Optional<ChartOfAccounts> findByTenantIdAndAccountCode(UUID tenantId, String accountCode);
+
+    /**
+     * Clones the coa_templates rows matching each tenant's business type into its chart of accounts
+     * in one set-based statement. Accounts the tenant already has (same code) are left untouched.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO accounting.chart_of_accounts " +
+                   "(account_id, tenant_id, account_code, account_name, account_description, account_type, account_subtype, " +
+                   "gst_applicable, default_gst_rate, normal_balance, allow_manual_entries, is_active, created_at, updated_at) " +
+                   "SELECT gen_random_uuid(), t.tenant_id, c.account_code, c.account_name, c.account_description, c.account_type, " +
+                   "c.account_subtype, c.gst_applicable, c.default_gst_rate, c.normal_balance, TRUE, TRUE, now(), now() " +
+                   "FROM accounting.tenants t " +
+                   "JOIN accounting.coa_templates c ON c.business_type IS NULL OR c.business_type = t.business_type " +
+                   "WHERE t.tenant_id IN (:tenantIds) " +
+                   "ON CONFLICT (tenant_id, account_code) DO NOTHING",
+           nativeQuery = true)
+    int cloneTemplates(@Param("tenantIds") Collection<UUID> tenantIds);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM accounting.account_closure " +
+                   "WHERE ancestor_id = :ancestorId AND descendant_id = :descendantId)",
+           nativeQuery = true)
+    boolean isDescendant(@Param("ancestorId") UUID ancestorId, @Param("descendantId") UUID descendantId);
+
+    /**
+     * Debit/credit totals for one account and everything beneath it: a single join of
+     * account_closure to general_ledger on (account_id, transaction_date).
+     */
+    @Query(value = "SELECT c.ancestor_id AS accountId, " +
+                   "COALESCE(SUM(CASE WHEN gl.entry_type = 'DEBIT' THEN gl.amount END), 0) AS totalDebit, " +
+                   "COALESCE(SUM(CASE WHEN gl.entry_type = 'CREDIT' THEN gl.amount END), 0) AS totalCredit " +
+                   "FROM accounting.account_closure c " +
+                   "JOIN accounting.general_ledger gl ON gl.account_id = c.descendant_id " +
+                   "WHERE c.ancestor_id = :accountId AND gl.transaction_date BETWEEN :from AND :to " +
+                   "GROUP BY c.ancestor_id",
+           nativeQuery = true)
+    Optional<AccountRollup> rollup(@Param("accountId") UUID accountId,
+                                   @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to);
+
+    /** Roll-up totals for every account of a tenant that has activity in its subtree. */
+    @Query(value = "SELECT c.ancestor_id AS accountId, " +
+                   "COALESCE(SUM(CASE WHEN gl.entry_type = 'DEBIT' THEN gl.amount END), 0) AS totalDebit, " +
+                   "COALESCE(SUM(CASE WHEN gl.entry_type = 'CREDIT' THEN gl.amount END), 0) AS totalCredit " +
+                   "FROM accounting.account_closure c " +
+                   "JOIN accounting.general_ledger gl ON gl.account_id = c.descendant_id " +
+                   "WHERE c.tenant_id = :tenantId AND gl.transaction_date BETWEEN :from AND :to " +
+                   "GROUP BY c.ancestor_id",
+           nativeQuery = true)
+    List<AccountRollup> rollupAll(@Param("tenantId") UUID tenantId,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to);
+
+    /** Every ancestor of the given accounts, each account included as its own ancestor. */
+    @Query(value = "SELECT ancestor_id AS ancestorId, descendant_id AS descendantId FROM accounting.account_closure " +
+                   "WHERE descendant_id IN (:accountIds)",
+           nativeQuery = true)
+    List<AccountLink> findAncestors(@Param("accountIds") Collection<UUID> accountIds);
+
+    interface AccountLink {
+        UUID getAncestorId();
+        UUID getDescendantId();
+    }
+
+    interface AccountRollup {
+        UUID getAccountId();
+        BigDecimal getTotalDebit();
+        BigDecimal getTotalCredit();
+    }
 }
@@ -0,0 +1,14 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.ConsistencyCheck;
+import com.erp.accounting.entity.ConsistencyDiff;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ConsistencyDiffRepository extends JpaRepository<ConsistencyDiff, UUID> {
+    List<ConsistencyDiff> findByTenantIdAndResolvedAtIsNullOrderByFirstSeenAt(UUID tenantId);
+    List<ConsistencyDiff> findByTenantIdAndCheckNameAndResolvedAtIsNullOrderByFirstSeenAt(UUID tenantId, ConsistencyCheck checkName);
+}
@@ -0,0 +1,14 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.Dimension;
+import com.erp.accounting.entity.DimensionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DimensionRepository extends JpaRepository<Dimension, UUID> {
+    List<Dimension> findByTenantIdOrderByDimensionTypeAscCodeAsc(UUID tenantId);
+    List<Dimension> findByTenantIdAndDimensionTypeOrderByCode(UUID tenantId, DimensionType dimensionType);
+}
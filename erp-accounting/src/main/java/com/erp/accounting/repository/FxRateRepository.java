@@ -0,0 +1,10 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.UUID;
+
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, UUID> {
+}
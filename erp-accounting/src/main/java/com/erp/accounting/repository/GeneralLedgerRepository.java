@@ -3,6 +3,7 @@ package com.erp.accounting.repository;
 import com.erp.accounting.entity.GeneralLedger;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,4 +11,7 @@ import java.util.UUID;
 public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, UUID> {
     List<GeneralLedger> findByTenantId(UUID tenantId);
     List<GeneralLedger> findByTenantIdAndAccountId(UUID tenantId, UUID accountId);
+    List<GeneralLedger> findByTenantIdAndTransactionDateBetween(UUID tenantId, LocalDate from, LocalDate to);
+    List<GeneralLedger> findByTenantIdAndAccountIdAndTransactionDateBetween(UUID tenantId, UUID accountId,
+                                                                           LocalDate from, LocalDate to);
 }
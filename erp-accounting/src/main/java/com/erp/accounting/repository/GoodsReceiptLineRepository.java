@@ -0,0 +1,12 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.GoodsReceiptLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GoodsReceiptLineRepository extends JpaRepository<GoodsReceiptLine, UUID> {
+    List<GoodsReceiptLine> findByReceiptId(UUID receiptId);
+}
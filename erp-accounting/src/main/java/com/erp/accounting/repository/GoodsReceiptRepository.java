@@ -0,0 +1,12 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.GoodsReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GoodsReceiptRepository extends JpaRepository<GoodsReceipt, UUID> {
+    List<GoodsReceipt> findByPoId(UUID poId);
+}
@@ -2,7 +2,11 @@ package com.erp.accounting.repository;
 
 import com.erp.accounting.entity.InventoryBalance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.List;
 import java.util.UUID;
@@ -11,4 +15,17 @@ import java.util.UUID;
 public interface InventoryBalanceRepository extends JpaRepository<InventoryBalance, UUID> {
     List<InventoryBalance> findByTenantId(UUID tenantId);
     Optional<InventoryBalance> findByTenantIdAndProductId(UUID tenantId, UUID productId);
+
+    /** Applies signed quantity and value deltas to a product's balance, creating the row on its first movement. */
+    @Modifying
+    @Query(value = "INSERT INTO accounting.inventory_balance (balance_id, tenant_id, product_id, quantity_on_hand, inventory_value, last_updated) " +
+                   "VALUES (gen_random_uuid(), :tenantId, :productId, :quantity, :value, now()) " +
+                   "ON CONFLICT (tenant_id, product_id) DO UPDATE SET " +
+                   "quantity_on_hand = inventory_balance.quantity_on_hand + EXCLUDED.quantity_on_hand, " +
+                   "inventory_value = inventory_balance.inventory_value + EXCLUDED.inventory_value, last_updated = now()",
+           nativeQuery = true)
+    int applyMovement(@Param("tenantId") UUID tenantId,
+                      @Param("productId") UUID productId,
+                      @Param("quantity") int quantity,
+                      @Param("value") BigDecimal value);
 }
@@ -0,0 +1,76 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.InventoryBatchBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InventoryBatchBalanceRepository extends JpaRepository<InventoryBatchBalance, UUID> {
+    List<InventoryBatchBalance> findByTenantIdAndProductId(UUID tenantId, UUID productId);
+
+    /**
+     * Batches of a product that can still be picked, earliest expiry first (FEFO).
+     * Rows are locked so concurrent allocations cannot draw the same stock twice.
+     * Served by idx_batch_fefo.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM InventoryBatchBalance b WHERE b.tenantId = :tenantId AND b.productId = :productId " +
+           "AND b.quantityOnHand > 0 AND (b.expiryDate IS NULL OR b.expiryDate >= :asOf) " +
+           "ORDER BY b.expiryDate ASC NULLS LAST, b.batchNumber ASC")
+    List<InventoryBatchBalance> findAllocatableForUpdate(@Param("tenantId") UUID tenantId,
+                                                         @Param("productId") UUID productId,
+                                                         @Param("asOf") LocalDate asOf);
+
+    /** Tenant's batches with stock expiring in [from, to]. Served by idx_batch_expiry. */
+    @Query("SELECT b FROM InventoryBatchBalance b WHERE b.tenantId = :tenantId AND b.quantityOnHand > 0 " +
+           "AND b.expiryDate BETWEEN :from AND :to ORDER BY b.expiryDate ASC")
+    List<InventoryBatchBalance> findExpiring(@Param("tenantId") UUID tenantId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    /**
+     * Platform-wide near-expiry summary for the daily alert job: one row per tenant,
+     * aggregated in the database off idx_batch_expiry.
+     */
+    @Query("SELECT b.tenantId AS tenantId, COUNT(b) AS batchCount, SUM(b.quantityOnHand) AS totalQuantity, " +
+           "MIN(b.expiryDate) AS earliestExpiry FROM InventoryBatchBalance b WHERE b.quantityOnHand > 0 " +
+           "AND b.expiryDate BETWEEN :from AND :to GROUP BY b.tenantId")
+    List<ExpirySummary> summarizeExpiring(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    interface ExpirySummary {
+        UUID getTenantId();
+        Long getBatchCount();
+        Long getTotalQuantity();
+        LocalDate getEarliestExpiry();
+    }
+
+    /**
+     * Applies a signed quantity delta to a batch in one statement, creating the batch row on first receipt.
+     * The CHECK (quantity_on_hand >= 0) constraint rejects outgoing movements that would overdraw a batch.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO accounting.inventory_batch_balance " +
+                   "(batch_balance_id, tenant_id, product_id, batch_number, expiry_date, quantity_on_hand, unit_cost, last_movement_date, last_updated) " +
+                   "VALUES (gen_random_uuid(), :tenantId, :productId, :batchNumber, CAST(:expiryDate AS DATE), :delta, CAST(:unitCost AS NUMERIC), now(), now()) " +
+                   "ON CONFLICT (tenant_id, product_id, batch_number) DO UPDATE SET " +
+                   "quantity_on_hand = inventory_batch_balance.quantity_on_hand + EXCLUDED.quantity_on_hand, " +
+                   "expiry_date = COALESCE(inventory_batch_balance.expiry_date, EXCLUDED.expiry_date), " +
+                   "unit_cost = COALESCE(EXCLUDED.unit_cost, inventory_batch_balance.unit_cost), " +
+                   "last_movement_date = now(), last_updated = now()",
+           nativeQuery = true)
+    int applyMovement(@Param("tenantId") UUID tenantId,
+                      @Param("productId") UUID productId,
+                      @Param("batchNumber") String batchNumber,
+                      @Param("expiryDate") LocalDate expiryDate,
+                      @Param("delta") int delta,
+                      @Param("unitCost") BigDecimal unitCost);
+}
@@ -3,6 +3,7 @@ package com.erp.accounting.repository;
 import com.erp.accounting.entity.InventoryLedger;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,4 +11,7 @@ import java.util.UUID;
 public interface InventoryLedgerRepository extends JpaRepository<InventoryLedger, UUID> {
     List<InventoryLedger> findByTenantId(UUID tenantId);
     List<InventoryLedger> findByTenantIdAndProductId(UUID tenantId, UUID productId);
+    List<InventoryLedger> findByTenantIdAndTransactionDateBetween(UUID tenantId, LocalDateTime from, LocalDateTime to);
+    List<InventoryLedger> findByTenantIdAndProductIdAndTransactionDateBetween(UUID tenantId, UUID productId,
+                                                                             LocalDateTime from, LocalDateTime to);
 }
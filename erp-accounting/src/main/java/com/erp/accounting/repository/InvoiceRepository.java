@@ -1,8 +1,10 @@
 package com.erp.accounting.repository;
 
 import com.erp.accounting.entity.Invoice;
+import com.erp.accounting.entity.InvoiceStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 import java.util.UUID;
@@ -11,6 +13,7 @@ import java.util.UUID;
 public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
     List<Invoice> findByTenantId(UUID tenantId);
     List<Invoice> findByTenantIdAndStatus(UUID tenantId, String status);
+    List<Invoice> findByTenantIdAndStatusIn(UUID tenantId, Collection<InvoiceStatus> statuses);
     List<Invoice> findByTenantIdAndCustomerId(UUID tenantId, UUID customerId);
     Optional<Invoice> findByTenantIdAndInvoiceNumber(UUID tenantId, String invoiceNumber);
 }
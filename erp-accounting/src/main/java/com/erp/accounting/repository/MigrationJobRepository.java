@@ -0,0 +1,14 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.MigrationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface MigrationJobRepository extends JpaRepository<MigrationJob, UUID> {
+    List<MigrationJob> findByTenantIdOrderByCreatedAtDesc(UUID tenantId);
+    Optional<MigrationJob> findByJobIdAndTenantId(UUID jobId, UUID tenantId);
+}
@@ -10,5 +10,6 @@ import java.util.UUID;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
     List<Product> findByTenantId(UUID tenantId);
+    List<Product> findByTenantIdAndRowVersionGreaterThanOrderByRowVersion(UUID tenantId, Long rowVersion);
     Optional<Product> findByTenantIdAndProductCode(UUID tenantId, String productCode);
 }
@@ -0,0 +1,22 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.PurchaseOrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PurchaseOrderLineRepository extends JpaRepository<PurchaseOrderLine, UUID> {
+    List<PurchaseOrderLine> findByPoIdOrderByLineNumber(UUID poId);
+
+    /** Native, since quantityReceived is read-only on the entity. */
+    @Modifying
+    @Query(value = "UPDATE accounting.po_lines SET quantity_received = COALESCE(quantity_received, 0) + :quantity " +
+                   "WHERE line_id = :lineId",
+           nativeQuery = true)
+    int addReceived(@Param("lineId") UUID lineId, @Param("quantity") int quantity);
+}
@@ -0,0 +1,24 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.POStatus;
+import com.erp.accounting.entity.PurchaseOrder;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, UUID> {
+    List<PurchaseOrder> findByTenantId(UUID tenantId);
+    List<PurchaseOrder> findByTenantIdAndStatus(UUID tenantId, POStatus status);
+
+    // Receipts, supplier invoices and the matcher all lock the header, so they never interleave on one PO
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PurchaseOrder p WHERE p.poId = :poId")
+    Optional<PurchaseOrder> findByIdForUpdate(@Param("poId") UUID poId);
+}
@@ -0,0 +1,19 @@
+package com.erp.accounting.repository;
+
+import com.erp.accounting.entity.RecurringTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RecurringTemplateRepository extends JpaRepository<RecurringTemplate, UUID> {
+    List<RecurringTemplate> findByTenantId(UUID tenantId);
+
+    @Modifying
+    @Query("UPDATE RecurringTemplate t SET t.isActive = :active WHERE t.templateId = :templateId")
+    int setActive(@Param("templateId") UUID templateId, @Param("active") boolean active);
+}
@@ -15,5 +15,18 @@ package com.erp.accounting.repository;
 // - InvoiceLineRepository.java
 // - InventoryLedgerRepository.java
 // - InventoryBalanceRepository.java
+// - InventoryBatchBalanceRepository.java
+// - BankStatementLineRepository.java
+// - FxRateRepository.java
+// - RecurringTemplateRepository.java
+// - PurchaseOrderRepository.java
+// - PurchaseOrderLineRepository.java
+// - GoodsReceiptRepository.java
+// - GoodsReceiptLineRepository.java
+// - SupplierInvoiceRepository.java
+// - SupplierInvoiceLineRepository.java
+// - B2BSyncMapRepository.java
+// - ConsistencyDiffRepository.java
+// - MigrationJobRepository.java
 // ============================================================================
 
@@ -11,4 +11,5 @@ import java.util.UUID;
 public interface TenantRepository extends JpaRepository<Tenant, UUID> {
     Optional<Tenant> findByGstin(String gstin);
     List<Tenant> findByIsActiveTrue();
+    List<Tenant> findByRowVersionGreaterThanOrderByRowVersion(Long rowVersion);
 }
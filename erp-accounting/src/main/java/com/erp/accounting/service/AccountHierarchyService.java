@@ -0,0 +1,157 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.AccountBalance;
+import com.erp.accounting.dto.AccountTreeNode;
+import com.erp.accounting.entity.ChartOfAccounts;
+import com.erp.accounting.repository.ChartOfAccountsRepository;
+import com.erp.accounting.repository.ChartOfAccountsRepository.AccountLink;
+import com.erp.accounting.repository.ChartOfAccountsRepository.AccountRollup;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Parent/child structure of the chart of accounts and roll-up balances over it.
+ * The account_closure table is maintained by database triggers; this service validates
+ * parent changes and reads roll-ups with a single closure-to-GL join. Archived ledger rows are
+ * added from their block totals and rolled up to the same ancestors.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountHierarchyService {
+    // Bounds used when a report does not restrict the date range
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    private final ChartOfAccountsRepository chartOfAccountsRepository;
+    private final EntityManager entityManager;
+    private final LedgerArchiveService ledgerArchiveService;
+
+    @Transactional
+    public ChartOfAccounts createAccount(ChartOfAccounts account) {
+        if (account.getParentAccountId() != null) {
+            requireParentInTenant(account.getParentAccountId(), account.getTenantId());
+        }
+        return saveAndReload(account);
+    }
+
+    @Transactional
+    public ChartOfAccounts moveAccount(UUID accountId, UUID newParentId) {
+        ChartOfAccounts account = chartOfAccountsRepository.findById(accountId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found"));
+        if (newParentId != null) {
+            requireParentInTenant(newParentId, account.getTenantId());
+            if (chartOfAccountsRepository.isDescendant(accountId, newParentId)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "An account cannot be moved under itself or one of its descendants");
+            }
+        }
+        account.setParentAccountId(newParentId);
+        return saveAndReload(account);
+    }
+
+    @Transactional(readOnly = true)
+    public AccountBalance getRollup(UUID accountId, LocalDate from, LocalDate to) {
+        LocalDate start = orEarliest(from);
+        LocalDate end = orLatest(to);
+        BigDecimal[] totals = chartOfAccountsRepository.rollup(accountId, start, end)
+            .map(rollup -> new BigDecimal[] {rollup.getTotalDebit(), rollup.getTotalCredit()})
+            .orElse(new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+        BigDecimal[] archived = chartOfAccountsRepository.findById(accountId)
+            .map(account -> archivedRollups(account.getTenantId(), start, end).get(accountId))
+            .orElse(null);
+        BigDecimal debit = archived != null ? totals[0].add(archived[0]) : totals[0];
+        BigDecimal credit = archived != null ? totals[1].add(archived[1]) : totals[1];
+        return new AccountBalance(accountId, debit, credit, debit.subtract(credit));
+    }
+
+    /**
+     * Whole chart as a tree with roll-up totals on every node: one query for the accounts,
+     * one for the roll-ups, then a linear in-memory assembly.
+     */
+    @Transactional(readOnly = true)
+    public List<AccountTreeNode> getTree(UUID tenantId, LocalDate from, LocalDate to) {
+        List<ChartOfAccounts> accounts = new ArrayList<>(chartOfAccountsRepository.findByTenantId(tenantId));
+        LocalDate start = orEarliest(from);
+        LocalDate end = orLatest(to);
+        Map<UUID, BigDecimal[]> rollups = archivedRollups(tenantId, start, end);
+        for (AccountRollup rollup : chartOfAccountsRepository.rollupAll(tenantId, start, end)) {
+            add(rollups, rollup.getAccountId(), new BigDecimal[] {rollup.getTotalDebit(), rollup.getTotalCredit()});
+        }
+
+        accounts.sort(Comparator.comparing(ChartOfAccounts::getAccountCode));
+        Map<UUID, AccountTreeNode> nodes = new HashMap<>(accounts.size() * 2);
+        for (ChartOfAccounts account : accounts) {
+            BigDecimal[] rollup = rollups.get(account.getAccountId());
+            BigDecimal debit = rollup != null ? rollup[0] : BigDecimal.ZERO;
+            BigDecimal credit = rollup != null ? rollup[1] : BigDecimal.ZERO;
+            nodes.put(account.getAccountId(), new AccountTreeNode(account.getAccountId(), account.getAccountCode(),
+                account.getAccountName(), account.getAccountType(),
+                account.getHierarchyLevel() != null ? account.getHierarchyLevel() : 0,
+                debit, credit, debit.subtract(credit), new ArrayList<>()));
+        }
+
+        List<AccountTreeNode> roots = new ArrayList<>();
+        for (ChartOfAccounts account : accounts) {
+            AccountTreeNode node = nodes.get(account.getAccountId());
+            AccountTreeNode parent = account.getParentAccountId() != null ? nodes.get(account.getParentAccountId()) : null;
+            if (parent != null) {
+                parent.children().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        return roots;
+    }
+
+    // hierarchy_level and row_version are set by triggers; re-read them so the caller sees the stored row
+    private ChartOfAccounts saveAndReload(ChartOfAccounts account) {
+        ChartOfAccounts saved = chartOfAccountsRepository.saveAndFlush(account);
+        entityManager.refresh(saved);
+        return saved;
+    }
+
+    private void requireParentInTenant(UUID parentId, UUID tenantId) {
+        ChartOfAccounts parent = chartOfAccountsRepository.findById(parentId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parent account not found"));
+        if (!parent.getTenantId().equals(tenantId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parent account belongs to another tenant");
+        }
+    }
+
+    // Archived {debit, credit} per account, added to every ancestor through account_closure
+    private Map<UUID, BigDecimal[]> archivedRollups(UUID tenantId, LocalDate from, LocalDate to) {
+        Map<UUID, BigDecimal[]> archived = ledgerArchiveService.archivedTotals(tenantId, from, to);
+        Map<UUID, BigDecimal[]> rollups = new HashMap<>();
+        if (!archived.isEmpty()) {
+            for (AccountLink link : chartOfAccountsRepository.findAncestors(archived.keySet())) {
+                add(rollups, link.getAncestorId(), archived.get(link.getDescendantId()));
+            }
+        }
+        return rollups;
+    }
+
+    private static void add(Map<UUID, BigDecimal[]> totals, UUID accountId, BigDecimal[] amounts) {
+        totals.merge(accountId, amounts.clone(),
+            (current, more) -> new BigDecimal[] {current[0].add(more[0]), current[1].add(more[1])});
+    }
+
+    private static LocalDate orEarliest(LocalDate date) {
+        return date != null ? date : EARLIEST;
+    }
+
+    private static LocalDate orLatest(LocalDate date) {
+        return date != null ? date : LATEST;
+    }
+}
@@ -0,0 +1,212 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ExportResult;
+import com.erp.accounting.util.ArrowExportWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Columnar exports of ledger history for erp-ml.
+ * <p>
+ * Rows are read through a server-side cursor and written straight into Arrow IPC record
+ * batches, so neither the JVM nor the OLTP path holds more than one batch. Exports are either
+ * by business date range or incremental since the tenant's watermark.
+ * <p>
+ * Incremental exports are ordered by created_txid, the id of the inserting transaction, rather
+ * than by created_at: a row's created_at is taken before its transaction commits, so a clock
+ * watermark can pass rows that become visible later. Each run reads its horizon, the oldest
+ * transaction still in flight, in the same read-only transaction as the rows; every id below
+ * it has finished, so the range [watermark, horizon) is complete and the horizon becomes the
+ * next watermark. Rows written before created_txid existed are picked up once by created_at.
+ * Delivery is at-least-once and consumers should de-duplicate on the row id.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsExportService {
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public enum Dataset {
+        GENERAL_LEDGER(
+            "SELECT gl_id::text AS gl_id, account_id::text AS account_id, journal_id::text AS journal_id, " +
+            "transaction_date, posting_date, entry_type::text AS entry_type, amount, transaction_currency, " +
+            "transaction_amount, exchange_rate, description, reference_id, reference_type, is_posted, created_at " +
+            "FROM accounting.general_ledger WHERE tenant_id = ? ",
+            "transaction_date", "created_at", "created_txid"),
+        INVOICE_LINES(
+            "SELECT l.line_id::text AS line_id, l.invoice_id::text AS invoice_id, i.customer_id::text AS customer_id, " +
+            "i.invoice_date, i.status::text AS invoice_status, l.product_id::text AS product_id, l.line_number, " +
+            "l.quantity, l.unit_price, l.line_total, l.gst_rate, l.gst_amount, i.currency_code, i.exchange_rate, " +
+            "l.created_at FROM accounting.invoice_lines l JOIN accounting.invoices i ON i.invoice_id = l.invoice_id " +
+            "WHERE i.tenant_id = ? ",
+            "i.invoice_date", "l.created_at", "l.created_txid"),
+        INVENTORY_LEDGER(
+            "SELECT ledger_id::text AS ledger_id, product_id::text AS product_id, transaction_date, " +
+            "transaction_type::text AS transaction_type, quantity_in, quantity_out, unit_cost, batch_number, " +
+            "expiry_date, reference_id, reference_type, created_at " +
+            "FROM accounting.inventory_ledger WHERE tenant_id = ? ",
+            "transaction_date::date", "created_at", "created_txid");
+
+        private final String select;
+        private final String businessDate;
+        private final String createdAt;
+        private final String createdTxid;
+
+        Dataset(String select, String businessDate, String createdAt, String createdTxid) {
+            this.select = select;
+            this.businessDate = businessDate;
+            this.createdAt = createdAt;
+            this.createdTxid = createdTxid;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${erp.export.dir:exports}")
+    private Path exportDir;
+
+    @Value("${erp.export.batch-rows:65536}")
+    private int batchRows;
+
+    @Value("${erp.export.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${erp.export.memory-limit-bytes:268435456}")
+    private long memoryLimit;
+
+    /** Nightly incremental export of every dataset for active tenants; disabled unless a cron is set. */
+    @Scheduled(cron = "${erp.export.cron:-}")
+    public void exportAllIncremental() {
+        List<UUID> tenants = jdbcTemplate.queryForList(
+            "SELECT tenant_id FROM accounting.tenants WHERE is_active", UUID.class);
+        for (UUID tenantId : tenants) {
+            for (Dataset dataset : Dataset.values()) {
+                try {
+                    exportIncremental(tenantId, dataset);
+                } catch (RuntimeException e) {
+                    log.error("Incremental {} export failed for tenant {}", dataset, tenantId, e);
+                }
+            }
+        }
+    }
+
+    public ExportResult exportRange(UUID tenantId, Dataset dataset, LocalDate from, LocalDate to) {
+        String sql = dataset.select + "AND " + dataset.businessDate + " BETWEEN ? AND ?";
+        String name = dataset.name().toLowerCase(Locale.ROOT) + "_" + from + "_" + to;
+        long[] written = readOnly().execute(status ->
+            write(tenantId, dataset, name, sql, Date.valueOf(from), Date.valueOf(to)));
+        return new ExportResult(tenantId, dataset.name(), file(tenantId, dataset, name).toString(), written[0], written[1],
+            from.atStartOfDay(), to.atStartOfDay(), null);
+    }
+
+    public ExportResult exportIncremental(UUID tenantId, Dataset dataset) {
+        Watermark from = jdbcTemplate.query(
+            "SELECT exported_through, exported_txid FROM accounting.analytics_export_watermarks " +
+            "WHERE tenant_id = ? AND dataset = ?",
+            (rs, n) -> new Watermark(rs.getTimestamp(1).toLocalDateTime(), rs.getObject(2, Long.class)),
+            tenantId, dataset.name())
+            .stream().findFirst().orElse(new Watermark(BEGINNING, null));
+
+        // Horizon and rows come from one read-only transaction, and so from one node
+        Watermark[] through = new Watermark[1];
+        String[] name = new String[1];
+        long[] written = readOnly().execute(status -> {
+            through[0] = jdbcTemplate.queryForObject(
+                "SELECT LOCALTIMESTAMP, txid_snapshot_xmin(txid_current_snapshot())",
+                (rs, n) -> new Watermark(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)));
+            long fromTxid = from.txid() != null ? from.txid() : 0;
+            if (through[0].txid() <= fromTxid) {
+                return null;
+            }
+            name[0] = dataset.name().toLowerCase(Locale.ROOT) + "_" + fromTxid + "_" + through[0].txid();
+            String range = dataset.createdTxid + " >= ? AND " + dataset.createdTxid + " < ?";
+            if (from.txid() != null) {
+                return write(tenantId, dataset, name[0], dataset.select + "AND " + range, fromTxid, through[0].txid());
+            }
+            // First run since created_txid was added: older rows have none and are taken by created_at
+            return write(tenantId, dataset, name[0], dataset.select + "AND (" + range + " OR (" + dataset.createdTxid +
+                " IS NULL AND " + dataset.createdAt + " > ?))", fromTxid, through[0].txid(), Timestamp.valueOf(from.at()));
+        });
+        if (written == null) {
+            return new ExportResult(tenantId, dataset.name(), null, 0, 0, from.at(), from.at(), from.txid());
+        }
+        String file = file(tenantId, dataset, name[0]).toString();
+
+        jdbcTemplate.update(
+            "INSERT INTO accounting.analytics_export_watermarks (tenant_id, dataset, exported_through, exported_txid, " +
+            "last_file, last_row_count, updated_at) VALUES (?, ?, ?, ?, ?, ?, now()) ON CONFLICT (tenant_id, dataset) " +
+            "DO UPDATE SET exported_through = EXCLUDED.exported_through, exported_txid = EXCLUDED.exported_txid, " +
+            "last_file = EXCLUDED.last_file, last_row_count = EXCLUDED.last_row_count, updated_at = now()",
+            tenantId, dataset.name(), Timestamp.valueOf(through[0].at()), through[0].txid(), file, written[0]);
+        return new ExportResult(tenantId, dataset.name(), file, written[0], written[1], from.at(), through[0].at(),
+            through[0].txid());
+    }
+
+    // The cursor only streams inside a transaction; otherwise the driver buffers the whole result
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    /**
+     * Streams the query into a temporary file and moves it into place once complete, so
+     * readers never see a partial file. Must run inside a transaction. Returns {rows, bytes}.
+     */
+    private long[] write(UUID tenantId, Dataset dataset, String name, String sql, Object from, Object to,
+                         Object... extra) {
+        Path target = file(tenantId, dataset, name);
+        Path partial = target.resolveSibling(target.getFileName() + ".partial");
+        try {
+            Files.createDirectories(target.getParent());
+            Files.deleteIfExists(partial);
+            Map<String, String> metadata = Map.of("tenant_id", tenantId.toString(), "dataset", dataset.name(),
+                "from", from.toString(), "to", to.toString());
+            Long rows = jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(fetchSize);
+                ps.setObject(1, tenantId);
+                ps.setObject(2, from);
+                ps.setObject(3, to);
+                for (int i = 0; i < extra.length; i++) {
+                    ps.setObject(4 + i, extra[i]);
+                }
+                return ps;
+            }, new ArrowExportWriter(partial, batchRows, memoryLimit, metadata));
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long bytes = Files.size(target);
+            log.info("Exported {} {} rows for tenant {} to {} ({} bytes)", rows, dataset, tenantId, target, bytes);
+            return new long[] {rows != null ? rows : 0, bytes};
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path file(UUID tenantId, Dataset dataset, String name) {
+        return exportDir.resolve(tenantId.toString()).resolve(dataset.name().toLowerCase(Locale.ROOT)).resolve(name + ".arrow");
+    }
+
+    private record Watermark(LocalDateTime at, Long txid) {
+    }
+}
@@ -0,0 +1,354 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.B2BInvoiceDocument;
+import com.erp.accounting.dto.B2BSyncRunResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Delivers queued B2B documents into buyer tenants as supplier invoices, on every node.
+ * <p>
+ * Claiming works like {@link RecurringDocumentScheduler}: each worker leases up to
+ * {@code erp.b2b.batch-size} due rows with FOR UPDATE SKIP LOCKED and delivers them in one
+ * transaction. The batch resolves suppliers, products and already-recorded bills for all its
+ * documents with one set-based query each. It writes headers and lines as two JDBC batches and
+ * acknowledges every delivered row with a single UPDATE fenced on the lease. A failed batch is
+ * retried one document per transaction. A document that still fails, or names a product the
+ * buyer does not stock, goes back to the queue with an exponential back-off and is REJECTED
+ * after {@code erp.b2b.max-attempts}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class B2BSyncDispatcher {
+    private static final String CLAIM =
+        "UPDATE accounting.b2b_sync_map SET lease_owner = ?, lease_expires_at = now() + make_interval(secs => ?) " +
+        "WHERE sync_id IN (SELECT sync_id FROM accounting.b2b_sync_map " +
+        "WHERE sync_status = 'PENDING' AND next_attempt_at <= now() " +
+        "AND (lease_expires_at IS NULL OR lease_expires_at < now()) " +
+        "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+        "RETURNING sync_id, buyer_tenant_id, edi_payload::text AS payload";
+
+    private static final String SUPPLIERS =
+        "SELECT tenant_id, gstin, supplier_id FROM accounting.suppliers WHERE tenant_id = ANY (?) AND gstin = ANY (?)";
+
+    // The no-op update makes RETURNING yield the id when the supplier already exists
+    private static final String ADD_SUPPLIER =
+        "INSERT INTO accounting.suppliers (tenant_id, supplier_name, supplier_type, gstin) VALUES (?, ?, 'B2B', ?) " +
+        "ON CONFLICT (tenant_id, gstin) DO UPDATE SET gstin = EXCLUDED.gstin RETURNING supplier_id";
+
+    private static final String PRODUCTS =
+        "SELECT tenant_id, product_code, product_id FROM accounting.products " +
+        "WHERE tenant_id = ANY (?) AND product_code = ANY (?)";
+
+    // Bills the buyer already has, e.g. keyed by hand before the seller came onto the platform
+    private static final String EXISTING_BILLS =
+        "SELECT tenant_id, supplier_id, invoice_number, supplier_invoice_id, total_amount " +
+        "FROM accounting.supplier_invoices WHERE tenant_id = ANY (?) AND invoice_number = ANY (?)";
+
+    private static final String INSERT_BILL =
+        "INSERT INTO accounting.supplier_invoices (supplier_invoice_id, tenant_id, supplier_id, invoice_number, " +
+        "invoice_date, due_date, subtotal, total_tax, total_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_BILL_LINE =
+        "INSERT INTO accounting.supplier_invoice_lines (supplier_invoice_id, product_id, line_number, quantity, " +
+        "unit_price, line_total) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String ACKNOWLEDGE =
+        "UPDATE accounting.b2b_sync_map m SET sync_status = 'ACKNOWLEDGED', acknowledged_at = now(), " +
+        "buyer_document_id = a.document_id, buyer_amount = a.amount, variance = m.seller_amount - a.amount, " +
+        "lease_owner = NULL, lease_expires_at = NULL, last_error = NULL " +
+        "FROM unnest(?::uuid[], ?::uuid[], ?::numeric[]) AS a(sync_id, document_id, amount) " +
+        "WHERE m.sync_id = a.sync_id AND m.lease_owner = ?";
+
+    // Back-off doubles per attempt from retry-base-seconds, capped at one day
+    private static final String FAIL =
+        "UPDATE accounting.b2b_sync_map SET attempts = attempts + 1, last_error = ?, " +
+        "lease_owner = NULL, lease_expires_at = NULL, " +
+        "next_attempt_at = now() + make_interval(secs => LEAST(power(2, LEAST(attempts, 16)) * ?, 86400)), " +
+        "sync_status = CASE WHEN attempts + 1 >= ? THEN 'REJECTED' ELSE sync_status END " +
+        "WHERE sync_id = ? AND lease_owner = ? RETURNING sync_status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${erp.b2b.batch-size:500}")
+    private int batchSize;
+
+    @Value("${erp.b2b.workers:4}")
+    private int workers;
+
+    @Value("${erp.b2b.lease-seconds:120}")
+    private int leaseSeconds;
+
+    @Value("${erp.b2b.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${erp.b2b.retry-base-seconds:30}")
+    private int retryBaseSeconds;
+
+    @Value("${erp.b2b.node-id:}")
+    private String nodeId;
+
+    @Scheduled(fixedDelayString = "${erp.b2b.poll-interval-ms:5000}",
+               initialDelayString = "${erp.b2b.poll-interval-ms:5000}")
+    public void dispatchDue() {
+        B2BSyncRunResult result = dispatch();
+        if (result.claimed() > 0) {
+            log.info("B2B sync: {} claimed, {} delivered, {} retried, {} rejected in {} ms",
+                result.claimed(), result.delivered(), result.retried(), result.rejected(), result.elapsedMs());
+        }
+    }
+
+    /** Delivers everything due that this node manages to claim. */
+    public B2BSyncRunResult dispatch() {
+        long start = System.currentTimeMillis();
+        List<Future<int[]>> futures = new ArrayList<>(workers);
+        int[] totals = new int[4];
+        try (ExecutorService pool = Executors.newFixedThreadPool(workers)) {
+            for (int i = 0; i < workers; i++) {
+                futures.add(pool.submit(this::drain));
+            }
+            for (Future<int[]> future : futures) {
+                int[] counts = future.get();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += counts[i];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("B2B sync run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("B2B sync run failed", e.getCause());
+        }
+        return new B2BSyncRunResult(totals[0], totals[1], totals[2], totals[3], System.currentTimeMillis() - start);
+    }
+
+    // One worker: claim and deliver batches until the queue has nothing due and unclaimed
+    private int[] drain() {
+        int[] counts = new int[4];
+        while (true) {
+            String leaseToken = nodeId() + ":" + UUID.randomUUID();
+            List<Queued> batch = jdbcTemplate.query(CLAIM, this::queued, leaseToken, leaseSeconds, batchSize);
+            if (batch.isEmpty()) {
+                return counts;
+            }
+            counts[0] += batch.size();
+            try {
+                add(counts, transactionTemplate.execute(status -> deliver(batch, leaseToken)));
+            } catch (RuntimeException batchFailure) {
+                log.warn("B2B batch of {} failed ({}); retrying documents one by one",
+                    batch.size(), batchFailure.getMessage());
+                for (Queued queued : batch) {
+                    try {
+                        add(counts, transactionTemplate.execute(status -> deliver(List.of(queued), leaseToken)));
+                    } catch (LeaseLostException e) {
+                        log.warn("Lease on B2B document {} expired before commit", queued.syncId());
+                    } catch (RuntimeException e) {
+                        log.error("B2B document {} failed", queued.syncId(), e);
+                        add(counts, fail(queued.syncId(), String.valueOf(e.getMessage()), leaseToken));
+                    }
+                }
+            }
+        }
+    }
+
+    /** Delivers claimed documents in the caller's transaction; returns {0, delivered, retried, rejected}. */
+    private int[] deliver(List<Queued> batch, String leaseToken) {
+        int[] counts = new int[4];
+        Map<UUID, B2BInvoiceDocument> documents = new HashMap<>();
+        for (Queued queued : batch) {
+            try {
+                documents.put(queued.syncId(), objectMapper.readValue(queued.payload(), B2BInvoiceDocument.class));
+            } catch (JsonProcessingException e) {
+                add(counts, fail(queued.syncId(), "Unreadable payload: " + e.getOriginalMessage(), leaseToken));
+            }
+        }
+        if (documents.isEmpty()) {
+            return counts;
+        }
+
+        Set<UUID> buyers = new HashSet<>();
+        Set<String> gstins = new HashSet<>();
+        Set<String> productCodes = new HashSet<>();
+        Set<String> invoiceNumbers = new HashSet<>();
+        for (Queued queued : batch) {
+            B2BInvoiceDocument document = documents.get(queued.syncId());
+            if (document != null) {
+                buyers.add(queued.buyerTenantId());
+                gstins.add(document.sellerGstin());
+                invoiceNumbers.add(document.invoiceNumber());
+                document.lines().forEach(line -> productCodes.add(String.valueOf(line.productCode())));
+            }
+        }
+        UUID[] buyerIds = buyers.toArray(UUID[]::new);
+
+        Map<String, UUID> suppliers = new HashMap<>();
+        jdbcTemplate.query(con -> arrayStatement(con, SUPPLIERS, buyerIds, gstins.toArray(String[]::new)),
+            (RowCallbackHandler) rs -> suppliers.put(key(rs.getObject(1, UUID.class), rs.getString(2)),
+                rs.getObject(3, UUID.class)));
+        Map<String, UUID> products = new HashMap<>();
+        jdbcTemplate.query(con -> arrayStatement(con, PRODUCTS, buyerIds, productCodes.toArray(String[]::new)),
+            (RowCallbackHandler) rs -> products.put(key(rs.getObject(1, UUID.class), rs.getString(2)),
+                rs.getObject(3, UUID.class)));
+        Map<String, Object[]> existing = new HashMap<>();
+        jdbcTemplate.query(con -> arrayStatement(con, EXISTING_BILLS, buyerIds, invoiceNumbers.toArray(String[]::new)),
+            (RowCallbackHandler) rs -> existing.put(
+                key(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class) + "/" + rs.getString(3)),
+                new Object[] {rs.getObject(4, UUID.class), rs.getBigDecimal(5)}));
+
+        List<Object[]> bills = new ArrayList<>();
+        List<Object[]> billLines = new ArrayList<>();
+        List<UUID> ackSyncIds = new ArrayList<>();
+        List<UUID> ackDocumentIds = new ArrayList<>();
+        List<BigDecimal> ackAmounts = new ArrayList<>();
+        for (Queued queued : batch) {
+            B2BInvoiceDocument document = documents.get(queued.syncId());
+            if (document == null) {
+                continue;
+            }
+            UUID buyer = queued.buyerTenantId();
+            List<String> unmapped = document.lines().stream()
+                .map(B2BInvoiceDocument.Line::productCode)
+                .filter(code -> !products.containsKey(key(buyer, String.valueOf(code))))
+                .distinct()
+                .toList();
+            if (!unmapped.isEmpty()) {
+                add(counts, fail(queued.syncId(), "Buyer has no products with codes " + unmapped, leaseToken));
+                continue;
+            }
+            UUID supplierId = suppliers.computeIfAbsent(key(buyer, document.sellerGstin()), k ->
+                jdbcTemplate.queryForObject(ADD_SUPPLIER, UUID.class, buyer, document.sellerName(), document.sellerGstin()));
+
+            Object[] already = existing.get(key(buyer, supplierId + "/" + document.invoiceNumber()));
+            if (already != null) {
+                ackSyncIds.add(queued.syncId());
+                ackDocumentIds.add((UUID) already[0]);
+                ackAmounts.add((BigDecimal) already[1]);
+                counts[1]++;
+                continue;
+            }
+            UUID billId = UUID.randomUUID();
+            BigDecimal tax = document.totalTax() != null ? document.totalTax() : BigDecimal.ZERO;
+            bills.add(new Object[] {billId, buyer, supplierId, document.invoiceNumber(),
+                Date.valueOf(document.invoiceDate()),
+                document.dueDate() != null ? Date.valueOf(document.dueDate()) : null,
+                document.subtotal(), tax, document.totalAmount()});
+            int lineNumber = 1;
+            for (B2BInvoiceDocument.Line line : document.lines()) {
+                UUID productId = products.get(key(buyer, String.valueOf(line.productCode())));
+                billLines.add(new Object[] {billId, productId, lineNumber++,
+                    line.quantity(), line.unitPrice(), line.lineTotal()});
+            }
+            // Guards against the same invoice number appearing twice in one batch
+            existing.put(key(buyer, supplierId + "/" + document.invoiceNumber()),
+                new Object[] {billId, document.totalAmount()});
+            ackSyncIds.add(queued.syncId());
+            ackDocumentIds.add(billId);
+            ackAmounts.add(document.totalAmount());
+            counts[1]++;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_BILL, bills);
+        jdbcTemplate.batchUpdate(INSERT_BILL_LINE, billLines);
+        if (!ackSyncIds.isEmpty()) {
+            int acknowledged = jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(ACKNOWLEDGE);
+                ps.setArray(1, con.createArrayOf("uuid", ackSyncIds.toArray(UUID[]::new)));
+                ps.setArray(2, con.createArrayOf("uuid", ackDocumentIds.toArray(UUID[]::new)));
+                ps.setArray(3, con.createArrayOf("numeric", ackAmounts.toArray(BigDecimal[]::new)));
+                ps.setString(4, leaseToken);
+                return ps;
+            });
+            if (acknowledged != ackSyncIds.size()) {
+                throw new LeaseLostException();
+            }
+        }
+        return counts;
+    }
+
+    // Releases the row with a back-off; counts it as retried or, out of attempts, rejected
+    private int[] fail(UUID syncId, String error, String leaseToken) {
+        List<String> status = jdbcTemplate.queryForList(FAIL, String.class,
+            error, retryBaseSeconds, maxAttempts, syncId, leaseToken);
+        int[] counts = new int[4];
+        if (!status.isEmpty()) {
+            counts["REJECTED".equals(status.get(0)) ? 3 : 2]++;
+        }
+        return counts;
+    }
+
+    private static void add(int[] totals, int[] counts) {
+        if (counts != null) {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counts[i];
+            }
+        }
+    }
+
+    private static PreparedStatement arrayStatement(Connection con, String sql, UUID[] tenants,
+                                                    String[] values) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql);
+        ps.setArray(1, con.createArrayOf("uuid", tenants));
+        ps.setArray(2, con.createArrayOf("varchar", values));
+        return ps;
+    }
+
+    private static String key(UUID tenantId, String value) {
+        return tenantId + "|" + value;
+    }
+
+    private Queued queued(ResultSet rs, int rowNum) throws SQLException {
+        return new Queued(rs.getObject("sync_id", UUID.class), rs.getObject("buyer_tenant_id", UUID.class),
+            rs.getString("payload"));
+    }
+
+    private String nodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            try {
+                nodeId = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                nodeId = UUID.randomUUID().toString();
+            }
+        }
+        return nodeId;
+    }
+
+    private record Queued(UUID syncId, UUID buyerTenantId, String payload) {
+    }
+
+    /** The claim expired and another node took the document; this transaction must not commit. */
+    private static class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super("B2B document lease lost", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.B2BAcknowledgement;
+import com.erp.accounting.dto.B2BInvoiceDocument;
+import com.erp.accounting.entity.Customer;
+import com.erp.accounting.entity.Invoice;
+import com.erp.accounting.entity.InvoiceLine;
+import com.erp.accounting.entity.InvoiceStatus;
+import com.erp.accounting.entity.Product;
+import com.erp.accounting.entity.Tenant;
+import com.erp.accounting.event.InvoiceCreatedEvent;
+import com.erp.accounting.repository.CustomerRepository;
+import com.erp.accounting.repository.InvoiceLineRepository;
+import com.erp.accounting.repository.ProductRepository;
+import com.erp.accounting.repository.TenantRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Queues invoices raised to customers that are themselves tenants, and applies the buyer's
+ * acknowledgements. Delivery into the buyer tenant is done by {@link B2BSyncDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+public class B2BSyncService {
+    private static final String ENQUEUE =
+        "INSERT INTO accounting.b2b_sync_map (seller_tenant_id, seller_invoice_id, seller_invoice_date, " +
+        "buyer_tenant_id, edi_payload, seller_amount) VALUES (?, ?, ?, ?, ?::jsonb, ?) " +
+        "ON CONFLICT (seller_tenant_id, seller_invoice_id) DO NOTHING";
+
+    private static final String ACCEPT =
+        "UPDATE accounting.b2b_sync_map SET sync_status = 'COMPLETED', completed_at = now() " +
+        "WHERE buyer_tenant_id = ? AND sync_id = ANY (?) AND sync_status = 'ACKNOWLEDGED'";
+
+    private static final String REJECT =
+        "UPDATE accounting.b2b_sync_map SET sync_status = 'REJECTED', variance_reason = ?, completed_at = now() " +
+        "WHERE buyer_tenant_id = ? AND sync_id = ANY (?) AND sync_status = 'ACKNOWLEDGED'";
+
+    private static final String RETRY =
+        "UPDATE accounting.b2b_sync_map SET sync_status = 'PENDING', attempts = 0, next_attempt_at = now(), " +
+        "last_error = NULL WHERE sync_id = ? AND (sync_status = 'PENDING' OR " +
+        "(sync_status = 'REJECTED' AND buyer_document_id IS NULL))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantRepository tenantRepository;
+    private final CustomerRepository customerRepository;
+    private final InvoiceLineRepository invoiceLineRepository;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Queues the invoice in the seller's transaction when the customer's GSTIN belongs to another
+     * active tenant, so an invoice is never saved without its sync row or the other way round.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onInvoiceCreated(InvoiceCreatedEvent event) {
+        Invoice invoice = event.invoice();
+        if (invoice.getStatus() == null || invoice.getStatus() == InvoiceStatus.DRAFT) {
+            return;
+        }
+        Optional<Tenant> buyer = customerRepository.findById(invoice.getCustomerId())
+            .map(Customer::getGstin)
+            .filter(gstin -> !gstin.isBlank())
+            .flatMap(tenantRepository::findByGstin)
+            .filter(tenant -> Boolean.TRUE.equals(tenant.getIsActive()))
+            .filter(tenant -> !tenant.getTenantId().equals(invoice.getTenantId()));
+        if (buyer.isEmpty()) {
+            return;
+        }
+        Tenant seller = tenantRepository.findById(invoice.getTenantId())
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tenant not found"));
+
+        List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceId(invoice.getInvoiceId());
+        Map<UUID, Product> products = productRepository
+            .findAllById(lines.stream().map(InvoiceLine::getProductId).distinct().toList())
+            .stream()
+            .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        List<B2BInvoiceDocument.Line> documentLines = lines.stream()
+            .map(line -> {
+                Product product = products.get(line.getProductId());
+                return new B2BInvoiceDocument.Line(
+                    product != null ? product.getProductCode() : null,
+                    product != null ? product.getProductName() : null,
+                    line.getQuantity(), line.getUnitPrice(), line.getLineTotal());
+            })
+            .toList();
+        B2BInvoiceDocument document = new B2BInvoiceDocument(seller.getGstin(), seller.getBusinessName(),
+            invoice.getInvoiceNumber(), invoice.getInvoiceDate(), invoice.getDueDate(), invoice.getCurrencyCode(),
+            invoice.getSubtotal(), invoice.getTotalTax(), invoice.getTotalAmount(), documentLines);
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise B2B document for invoice " + invoice.getInvoiceId(), e);
+        }
+        jdbcTemplate.update(ENQUEUE, invoice.getTenantId(), invoice.getInvoiceId().toString(),
+            Date.valueOf(invoice.getInvoiceDate()), buyer.get().getTenantId(), payload, invoice.getTotalAmount());
+    }
+
+    /** Applies a buyer's accept and reject lists; returns how many documents changed. */
+    @Transactional
+    public int acknowledge(B2BAcknowledgement acknowledgement) {
+        if (acknowledgement.buyerTenantId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "buyerTenantId is required");
+        }
+        int changed = 0;
+        if (acknowledgement.accepted() != null && !acknowledgement.accepted().isEmpty()) {
+            UUID[] ids = acknowledgement.accepted().toArray(UUID[]::new);
+            changed += jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(ACCEPT);
+                ps.setObject(1, acknowledgement.buyerTenantId());
+                ps.setArray(2, con.createArrayOf("uuid", ids));
+                return ps;
+            });
+        }
+        if (acknowledgement.rejected() != null && !acknowledgement.rejected().isEmpty()) {
+            UUID[] ids = acknowledgement.rejected().toArray(UUID[]::new);
+            changed += jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(REJECT);
+                ps.setString(1, acknowledgement.reason());
+                ps.setObject(2, acknowledgement.buyerTenantId());
+                ps.setArray(3, con.createArrayOf("uuid", ids));
+                return ps;
+            });
+        }
+        return changed;
+    }
+
+    /** Requeues a document whose delivery gave up, e.g. once the buyer has added missing products. */
+    @Transactional
+    public boolean retry(UUID syncId) {
+        return jdbcTemplate.update(RETRY, syncId) > 0;
+    }
+}
@@ -0,0 +1,340 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ReconciliationSummary;
+import com.erp.accounting.dto.StatementImportResult;
+import com.erp.accounting.entity.BalanceType;
+import com.erp.accounting.entity.BankStatementLine;
+import com.erp.accounting.entity.GeneralLedger;
+import com.erp.accounting.entity.Invoice;
+import com.erp.accounting.entity.InvoiceStatus;
+import com.erp.accounting.entity.MatchedType;
+import com.erp.accounting.entity.StatementLineStatus;
+import com.erp.accounting.event.InvoicePaymentEvent;
+import com.erp.accounting.repository.BankStatementLineRepository;
+import com.erp.accounting.repository.GeneralLedgerRepository;
+import com.erp.accounting.repository.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Bank statement import and auto-reconciliation.
+ * <p>
+ * Each match run builds hash indexes over the tenant's open invoices (by normalised invoice
+ * number and by outstanding amount) and over the bank account's GL rows (by signed amount),
+ * then probes them once per statement line, so a run is O(lines + candidates). Lines that do
+ * not resolve to exactly one candidate go to the REVIEW queue.
+ * <p>
+ * Statement amounts are in the tenant's base currency. Invoices are compared on their
+ * outstanding amount at the invoice's exchange rate, and payments are converted back to the
+ * invoice currency before they are applied.
+ */
+@Service
+@RequiredArgsConstructor
+public class BankReconciliationService {
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final Set<InvoiceStatus> OPEN_STATUSES =
+        EnumSet.of(InvoiceStatus.SENT, InvoiceStatus.PARTIAL, InvoiceStatus.OVERDUE);
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[\\s,;:()]+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Z0-9]");
+
+    private static final String SELECT_CASH_ACCOUNTS =
+        "SELECT bank_id, cash_gl_account_id FROM accounting.bank_accounts WHERE tenant_id = ?";
+
+    private static final String INSERT_LINE =
+        "INSERT INTO accounting.bank_statement_lines (line_id, tenant_id, bank_id, import_id, value_date, amount, " +
+        "description, reference, status, created_at) VALUES (gen_random_uuid(), ?, ?, ?, ?, ?, ?, ?, 'PENDING', now())";
+
+    private final BankStatementLineRepository bankStatementLineRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final GeneralLedgerRepository generalLedgerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public StatementImportResult importStatement(UUID tenantId, UUID bankId, BankStatementParser.Format format,
+                                                 InputStream file) {
+        UUID importId = UUID.randomUUID();
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        long[] count = {0};
+        try {
+            BankStatementParser.parse(format, file, line -> {
+                batch.add(new Object[] {
+                    tenantId, bankId, importId, Date.valueOf(line.valueDate()), line.amount(),
+                    line.description(), line.reference()
+                });
+                count[0]++;
+                if (batch.size() == INSERT_BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(INSERT_LINE, batch);
+                    batch.clear();
+                }
+            });
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_LINE, batch);
+        }
+        return new StatementImportResult(importId, count[0]);
+    }
+
+    /**
+     * Matches the tenant's PENDING lines. Credits are tried against open invoices first
+     * (reference, then unique outstanding amount); any line is then tried against GL rows of
+     * {@code glAccountId}, or of its bank account's cash GL account when none is given, with
+     * the same amount within {@code windowDays} of the value date.
+     */
+    @Transactional
+    public ReconciliationSummary match(UUID tenantId, UUID glAccountId, int windowDays) {
+        List<BankStatementLine> lines =
+            bankStatementLineRepository.findByTenantIdAndStatusOrderByValueDateAsc(tenantId, StatementLineStatus.PENDING);
+        if (lines.isEmpty()) {
+            return new ReconciliationSummary(0, 0, 0, 0);
+        }
+
+        Map<String, Invoice> invoicesByNumber = new HashMap<>();
+        Map<Long, List<Invoice>> invoicesByOutstanding = new HashMap<>();
+        for (Invoice invoice : invoiceRepository.findByTenantIdAndStatusIn(tenantId, OPEN_STATUSES)) {
+            invoicesByNumber.put(normalize(invoice.getInvoiceNumber()), invoice);
+            invoicesByOutstanding.computeIfAbsent(cents(baseOutstanding(invoice)), k -> new ArrayList<>()).add(invoice);
+        }
+
+        Map<UUID, UUID> cashAccountByBank = new HashMap<>();
+        if (glAccountId == null) {
+            jdbcTemplate.query(SELECT_CASH_ACCOUNTS, rs -> {
+                cashAccountByBank.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class));
+            }, tenantId);
+        }
+        // One amount index per GL account the lines reconcile against
+        Map<UUID, Map<Long, List<GeneralLedger>>> ledgerByAccount = new HashMap<>();
+        LocalDate from = lines.get(0).getValueDate().minusDays(windowDays);
+        LocalDate to = lines.get(lines.size() - 1).getValueDate().plusDays(windowDays);
+        Set<UUID> alreadyMatched = null;
+        for (BankStatementLine line : lines) {
+            UUID accountId = glAccountId != null ? glAccountId : cashAccountByBank.get(line.getBankId());
+            if (accountId == null || ledgerByAccount.containsKey(accountId)) {
+                continue;
+            }
+            if (alreadyMatched == null) {
+                alreadyMatched = bankStatementLineRepository.findMatchedIds(tenantId, MatchedType.GENERAL_LEDGER);
+            }
+            Map<Long, List<GeneralLedger>> byAmount = new HashMap<>();
+            for (GeneralLedger gl : generalLedgerRepository
+                    .findByTenantIdAndAccountIdAndTransactionDateBetween(tenantId, accountId, from, to)) {
+                if (!alreadyMatched.contains(gl.getGlId())) {
+                    // A debit to the bank account is money in, matching a positive statement line
+                    long key = gl.getEntryType() == BalanceType.DEBIT ? cents(gl.getAmount()) : -cents(gl.getAmount());
+                    byAmount.computeIfAbsent(key, k -> new ArrayList<>()).add(gl);
+                }
+            }
+            ledgerByAccount.put(accountId, byAmount);
+        }
+
+        Set<UUID> usedLedger = new HashSet<>();
+        int toInvoices = 0;
+        int toLedger = 0;
+        int toReview = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (BankStatementLine line : lines) {
+            long key = cents(line.getAmount());
+            UUID accountId = glAccountId != null ? glAccountId : cashAccountByBank.get(line.getBankId());
+            Map<Long, List<GeneralLedger>> ledgerByAmount = accountId != null ? ledgerByAccount.get(accountId) : Map.of();
+            if (key > 0 && matchInvoice(line, key, invoicesByNumber, invoicesByOutstanding)) {
+                toInvoices++;
+            } else if (matchLedger(line, key, windowDays, ledgerByAmount, usedLedger)) {
+                toLedger++;
+            } else {
+                line.setStatus(StatementLineStatus.REVIEW);
+                toReview++;
+                continue;
+            }
+            line.setStatus(StatementLineStatus.MATCHED);
+            line.setMatchedAt(now);
+        }
+        return new ReconciliationSummary(lines.size(), toInvoices, toLedger, toReview);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BankStatementLine> getReviewQueue(UUID tenantId) {
+        return bankStatementLineRepository.findByTenantIdAndStatusOrderByValueDateAsc(tenantId, StatementLineStatus.REVIEW);
+    }
+
+    /** Manual resolution from the review queue: pair with a document, or ignore when both are null. */
+    @Transactional
+    public BankStatementLine resolve(UUID lineId, MatchedType matchedType, UUID matchedId) {
+        BankStatementLine line = bankStatementLineRepository.findById(lineId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Statement line not found"));
+        if (line.getStatus() == StatementLineStatus.MATCHED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Statement line is already matched");
+        }
+        if (matchedType == null || matchedId == null) {
+            line.setStatus(StatementLineStatus.IGNORED);
+            return line;
+        }
+        if (matchedType == MatchedType.INVOICE) {
+            Invoice invoice = invoiceRepository.findById(matchedId)
+                .filter(i -> i.getTenantId().equals(line.getTenantId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invoice not found"));
+            applyPayment(invoice, line.getAmount());
+        }
+        line.setStatus(StatementLineStatus.MATCHED);
+        line.setMatchedType(matchedType);
+        line.setMatchedId(matchedId);
+        line.setMatchRule("MANUAL");
+        line.setMatchedAt(LocalDateTime.now());
+        return line;
+    }
+
+    private boolean matchInvoice(BankStatementLine line, long key, Map<String, Invoice> byNumber,
+                                 Map<Long, List<Invoice>> byOutstanding) {
+        // 1. Invoice number quoted in the reference or narrative; partial payments allowed
+        Invoice byReference = findReferencedInvoice(line, byNumber);
+        if (byReference != null && cents(baseOutstanding(byReference)) >= key) {
+            applyPayment(byReference, line.getAmount());
+            setMatch(line, MatchedType.INVOICE, byReference.getInvoiceId(), "INVOICE_REFERENCE");
+            return true;
+        }
+        // 2. Exactly one open invoice, issued on or before the value date, with this outstanding amount.
+        //    Entries go stale as payments are applied, so re-check the live outstanding.
+        List<Invoice> candidates = byOutstanding.get(key);
+        if (candidates == null) {
+            return false;
+        }
+        Invoice only = null;
+        for (Invoice candidate : candidates) {
+            if (cents(baseOutstanding(candidate)) == key && !candidate.getInvoiceDate().isAfter(line.getValueDate())) {
+                if (only != null) {
+                    return false;
+                }
+                only = candidate;
+            }
+        }
+        if (only == null) {
+            return false;
+        }
+        applyPayment(only, line.getAmount());
+        setMatch(line, MatchedType.INVOICE, only.getInvoiceId(), "INVOICE_AMOUNT");
+        return true;
+    }
+
+    private boolean matchLedger(BankStatementLine line, long key, int windowDays,
+                                Map<Long, List<GeneralLedger>> byAmount, Set<UUID> used) {
+        List<GeneralLedger> candidates = byAmount.get(key);
+        if (candidates == null) {
+            return false;
+        }
+        GeneralLedger best = null;
+        long bestDistance = Long.MAX_VALUE;
+        boolean tie = false;
+        for (GeneralLedger candidate : candidates) {
+            if (used.contains(candidate.getGlId())) {
+                continue;
+            }
+            long distance = Math.abs(ChronoUnit.DAYS.between(candidate.getTransactionDate(), line.getValueDate()));
+            if (distance > windowDays) {
+                continue;
+            }
+            if (distance < bestDistance) {
+                best = candidate;
+                bestDistance = distance;
+                tie = false;
+            } else if (distance == bestDistance) {
+                tie = true;
+            }
+        }
+        if (best == null || tie) {
+            return false;
+        }
+        used.add(best.getGlId());
+        setMatch(line, MatchedType.GENERAL_LEDGER, best.getGlId(), "LEDGER_AMOUNT_DATE");
+        return true;
+    }
+
+    private Invoice findReferencedInvoice(BankStatementLine line, Map<String, Invoice> byNumber) {
+        for (String text : new String[] {line.getReference(), line.getDescription()}) {
+            if (text == null) {
+                continue;
+            }
+            for (String token : TOKEN_SEPARATORS.split(text)) {
+                Invoice invoice = byNumber.get(normalize(token));
+                if (invoice != null) {
+                    return invoice;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Applies a base-currency receipt to the invoice in the invoice's own currency. */
+    private void applyPayment(Invoice invoice, BigDecimal baseAmount) {
+        // A receipt equal to the converted outstanding settles it exactly, whatever the rounding
+        BigDecimal amount = cents(baseAmount) == cents(baseOutstanding(invoice))
+            ? outstanding(invoice)
+            : toInvoiceCurrency(invoice, baseAmount);
+        BigDecimal paid = invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO;
+        BigDecimal remaining = outstanding(invoice).subtract(amount);
+        invoice.setAmountPaid(paid.add(amount));
+        invoice.setOutstanding(remaining);
+        invoice.setStatus(remaining.signum() <= 0 ? InvoiceStatus.PAID : InvoiceStatus.PARTIAL);
+        eventPublisher.publishEvent(new InvoicePaymentEvent(invoice.getTenantId(), invoice.getInvoiceId(), amount));
+    }
+
+    private static void setMatch(BankStatementLine line, MatchedType type, UUID id, String rule) {
+        line.setMatchedType(type);
+        line.setMatchedId(id);
+        line.setMatchRule(rule);
+    }
+
+    private static BigDecimal outstanding(Invoice invoice) {
+        if (invoice.getOutstanding() != null) {
+            return invoice.getOutstanding();
+        }
+        BigDecimal paid = invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO;
+        return invoice.getTotalAmount().subtract(paid);
+    }
+
+    private static BigDecimal baseOutstanding(Invoice invoice) {
+        BigDecimal outstanding = outstanding(invoice);
+        if (invoice.getExchangeRate() == null) {
+            return outstanding;
+        }
+        return outstanding.multiply(invoice.getExchangeRate()).setScale(FxRateService.AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal toInvoiceCurrency(Invoice invoice, BigDecimal baseAmount) {
+        if (invoice.getExchangeRate() == null) {
+            return baseAmount;
+        }
+        return baseAmount.divide(invoice.getExchangeRate(), FxRateService.AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static String normalize(String value) {
+        return NON_ALPHANUMERIC.matcher(value.toUpperCase(Locale.ROOT)).replaceAll("");
+    }
+}
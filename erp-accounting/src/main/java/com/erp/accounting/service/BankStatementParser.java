@@ -0,0 +1,258 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ParsedStatementLine;
+import com.erp.accounting.util.CsvReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Stream parsers for bank statement files. Each entry is handed to the sink as soon as it
+ * has been read, so the caller decides how much to buffer.
+ */
+public final class BankStatementParser {
+
+    public enum Format {
+        CSV, MT940, CAMT053
+    }
+
+    private static final List<DateTimeFormatter> CSV_DATE_FORMATS = List.of(
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+        DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+        DateTimeFormatter.ofPattern("dd.MM.yyyy"));
+
+    // :61:YYMMDD[MMDD](R)C|D[funds code]amount N<type><customer ref>[//bank ref]
+    private static final Pattern MT940_61 =
+        Pattern.compile("^:61:(\\d{6})(\\d{4})?(R?[CD])([A-Z])?(\\d+,\\d{0,2})[A-Z]([A-Z0-9]{3})([^/]*)(?://(.*))?$");
+
+    private BankStatementParser() {
+    }
+
+    public static void parse(Format format, InputStream in, Consumer<ParsedStatementLine> sink) throws IOException {
+        switch (format) {
+            case CSV -> parseCsv(in, sink);
+            case MT940 -> parseMt940(in, sink);
+            case CAMT053 -> parseCamt053(in, sink);
+        }
+    }
+
+    /**
+     * Header-driven CSV: value_date|date, description|narration, reference|ref, and either
+     * a signed amount column or separate debit|withdrawal / credit|deposit columns.
+     */
+    static void parseCsv(InputStream in, Consumer<ParsedStatementLine> sink) throws IOException {
+        try (CsvReader reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<String> header = reader.next();
+            if (header == null) {
+                return;
+            }
+            Map<String, Integer> index = CsvReader.indexHeader(header);
+            Integer date = first(index, "value_date", "date", "txn_date", "transaction_date");
+            Integer description = first(index, "description", "narration", "particulars");
+            Integer reference = first(index, "reference", "ref", "cheque_no", "utr");
+            Integer amount = first(index, "amount");
+            Integer debit = first(index, "debit", "withdrawal");
+            Integer credit = first(index, "credit", "deposit");
+            if (date == null || (amount == null && debit == null && credit == null)) {
+                throw new IOException("CSV statement needs a date column and an amount or debit/credit columns");
+            }
+            List<String> row;
+            while ((row = reader.next()) != null) {
+                BigDecimal value;
+                if (amount != null) {
+                    value = decimal(cell(row, amount));
+                } else {
+                    BigDecimal deposited = decimal(cell(row, credit));
+                    BigDecimal withdrawn = decimal(cell(row, debit));
+                    value = (deposited != null ? deposited : BigDecimal.ZERO)
+                        .subtract(withdrawn != null ? withdrawn : BigDecimal.ZERO);
+                }
+                if (value == null) {
+                    throw new IOException("Missing amount on line " + reader.recordLine());
+                }
+                sink.accept(new ParsedStatementLine(csvDate(cell(row, date), reader.recordLine()), value,
+                    cell(row, description), cell(row, reference)));
+            }
+        }
+    }
+
+    /** SWIFT MT940: one entry per :61: field, narrative from the following :86: field. */
+    static void parseMt940(InputStream in, Consumer<ParsedStatementLine> sink) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ParsedStatementLine pending = null;
+        StringBuilder narrative = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(":61:")) {
+                emit(pending, narrative, sink);
+                pending = parseMt940Entry(line);
+                narrative = null;
+            } else if (line.startsWith(":86:") && pending != null) {
+                narrative = new StringBuilder(line.substring(4).trim());
+            } else if (line.startsWith(":") || line.startsWith("-}")) {
+                emit(pending, narrative, sink);
+                pending = null;
+                narrative = null;
+            } else if (narrative != null) {
+                narrative.append(' ').append(line.trim());
+            }
+        }
+        emit(pending, narrative, sink);
+    }
+
+    private static ParsedStatementLine parseMt940Entry(String line) throws IOException {
+        Matcher m = MT940_61.matcher(line.trim());
+        if (!m.matches()) {
+            throw new IOException("Unrecognised :61: field: " + line);
+        }
+        String yymmdd = m.group(1);
+        LocalDate valueDate = LocalDate.of(2000 + Integer.parseInt(yymmdd.substring(0, 2)),
+            Integer.parseInt(yymmdd.substring(2, 4)), Integer.parseInt(yymmdd.substring(4, 6)));
+        BigDecimal amount = new BigDecimal(m.group(5).replace(',', '.'));
+        // D and RC reduce the balance; C and RD increase it
+        String mark = m.group(3);
+        if (mark.equals("D") || mark.equals("RC")) {
+            amount = amount.negate();
+        }
+        String reference = m.group(7).trim();
+        if (reference.isEmpty() || reference.equals("NONREF")) {
+            reference = m.group(8) != null ? m.group(8).trim() : null;
+        }
+        return new ParsedStatementLine(valueDate, amount, null, reference);
+    }
+
+    private static void emit(ParsedStatementLine entry, StringBuilder narrative, Consumer<ParsedStatementLine> sink) {
+        if (entry != null) {
+            sink.accept(new ParsedStatementLine(entry.valueDate(), entry.amount(),
+                narrative != null ? truncate(narrative.toString(), 500) : null, entry.reference()));
+        }
+    }
+
+    /** ISO 20022 camt.053: one entry per Ntry element, read with StAX so the document is never held in memory. */
+    static void parseCamt053(InputStream in, Consumer<ParsedStatementLine> sink) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            boolean inEntry = false;
+            boolean inValueDate = false;
+            BigDecimal amount = null;
+            String indicator = null;
+            LocalDate valueDate = null;
+            String reference = null;
+            StringBuilder description = new StringBuilder();
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if (name.equals("Ntry")) {
+                        inEntry = true;
+                        amount = null;
+                        indicator = null;
+                        valueDate = null;
+                        reference = null;
+                        description.setLength(0);
+                    } else if (!inEntry) {
+                        continue;
+                    } else if (name.equals("ValDt") || (name.equals("BookgDt") && valueDate == null)) {
+                        inValueDate = true;
+                    } else if (name.equals("Amt") && amount == null) {
+                        amount = new BigDecimal(xml.getElementText().trim());
+                    } else if (name.equals("CdtDbtInd") && indicator == null) {
+                        indicator = xml.getElementText().trim();
+                    } else if ((name.equals("Dt") || name.equals("DtTm")) && inValueDate) {
+                        valueDate = LocalDate.parse(xml.getElementText().trim().substring(0, 10));
+                    } else if ((name.equals("AcctSvcrRef") || name.equals("EndToEndId") || name.equals("NtryRef"))
+                            && reference == null) {
+                        String text = xml.getElementText().trim();
+                        reference = text.equals("NOTPROVIDED") ? null : text;
+                    } else if (name.equals("Ustrd") || name.equals("AddtlNtryInf")) {
+                        if (!description.isEmpty()) {
+                            description.append(' ');
+                        }
+                        description.append(xml.getElementText().trim());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if (name.equals("ValDt") || name.equals("BookgDt")) {
+                        inValueDate = false;
+                    } else if (name.equals("Ntry") && inEntry) {
+                        inEntry = false;
+                        if (amount == null || valueDate == null) {
+                            throw new IOException("camt.053 entry without amount or date");
+                        }
+                        sink.accept(new ParsedStatementLine(valueDate,
+                            "DBIT".equals(indicator) ? amount.negate() : amount,
+                            description.isEmpty() ? null : truncate(description.toString(), 500), reference));
+                    }
+                }
+            }
+            xml.close();
+        } catch (XMLStreamException | DateTimeParseException e) {
+            throw new IOException("Invalid camt.053 document: " + e.getMessage(), e);
+        }
+    }
+
+    private static Integer first(Map<String, Integer> index, String... names) {
+        for (String name : names) {
+            Integer i = index.get(name);
+            if (i != null) {
+                return i;
+            }
+        }
+        return null;
+    }
+
+    private static String cell(List<String> row, Integer i) {
+        if (i == null || i >= row.size()) {
+            return null;
+        }
+        String value = row.get(i).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static BigDecimal decimal(String value) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid amount " + value);
+        }
+    }
+
+    private static LocalDate csvDate(String value, long line) throws IOException {
+        if (value != null) {
+            for (DateTimeFormatter format : CSV_DATE_FORMATS) {
+                try {
+                    return LocalDate.parse(value, format);
+                } catch (DateTimeParseException ignored) {
+                    // try the next format
+                }
+            }
+        }
+        throw new IOException("Invalid date '" + value + "' on line " + line);
+    }
+
+    private static String truncate(String value, int max) {
+        return value.length() <= max ? value : value.substring(0, max);
+    }
+}
@@ -0,0 +1,187 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.BudgetAlert;
+import com.erp.accounting.dto.BudgetVariance;
+import com.erp.accounting.entity.Budget;
+import com.erp.accounting.entity.ChartOfAccounts;
+import com.erp.accounting.repository.BudgetRepository;
+import com.erp.accounting.repository.ChartOfAccountsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Budgets per account and month, compared with actuals that the database keeps as GL rows are
+ * inserted (account_period_actuals, see 029_budgets.sql). A variance screen for a whole chart is
+ * one indexed join per month range; nothing reads general_ledger.
+ * <p>
+ * Alerts are raised by the same trigger when a post takes a budget to its threshold. Two posts
+ * to different children of a budgeted parent that commit at the same time can each miss the
+ * other's amount, so a nightly sweep re-checks the current month.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BudgetService {
+    private static final BigDecimal DEFAULT_THRESHOLD = new BigDecimal("80");
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    private static final String VARIANCE =
+        "SELECT b.budget_id, b.account_id, a.account_code, a.account_name, b.period_month, b.amount, " +
+        "COALESCE(SUM(CASE WHEN a.account_type IN ('ASSET', 'EXPENSE') THEN x.debit - x.credit " +
+        "ELSE x.credit - x.debit END), 0) AS actual " +
+        "FROM accounting.budgets b " +
+        "JOIN accounting.chart_of_accounts a ON a.account_id = b.account_id " +
+        "JOIN accounting.account_closure c ON c.ancestor_id = b.account_id " +
+        "LEFT JOIN accounting.account_period_actuals x ON x.account_id = c.descendant_id AND x.period_month = b.period_month " +
+        "WHERE b.tenant_id = ? AND b.period_month BETWEEN ? AND ? " +
+        "GROUP BY b.budget_id, a.account_id ORDER BY a.account_code, b.period_month";
+
+    private static final String ALERTS =
+        "SELECT alert_id, budget_id, account_id, period_month, threshold_pct, budget_amount, actual_amount, " +
+        "raised_at, acknowledged_at FROM accounting.budget_alerts WHERE tenant_id = ? ";
+
+    // After a budget change, open alerts it no longer deserves go so they can fire again later
+    private static final String WITHDRAW =
+        "DELETE FROM accounting.budget_alerts l USING accounting.budgets b " +
+        "WHERE l.budget_id = ? AND b.budget_id = l.budget_id AND l.acknowledged_at IS NULL " +
+        "AND (l.threshold_pct NOT IN (b.alert_threshold_pct, 100) " +
+        "OR accounting.budget_actual(b.account_id, b.period_month) < b.amount * l.threshold_pct / 100)";
+
+    private static final RowMapper<BudgetAlert> ALERT_MAPPER = (rs, i) -> new BudgetAlert(
+        rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getObject(3, UUID.class),
+        rs.getDate(4).toLocalDate(), rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getBigDecimal(7),
+        rs.getTimestamp(8).toLocalDateTime(),
+        rs.getTimestamp(9) != null ? rs.getTimestamp(9).toLocalDateTime() : null);
+
+    private final BudgetRepository budgetRepository;
+    private final ChartOfAccountsRepository chartOfAccountsRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Creates or replaces the budget for the account and month (any day of the month may be given)
+     * and brings its alerts in line with the new amount.
+     */
+    @Transactional
+    public Budget save(Budget budget) {
+        if (budget.getAccountId() == null || budget.getPeriodMonth() == null || budget.getAmount() == null
+                || budget.getAmount().signum() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A budget needs an account, a month and an amount >= 0");
+        }
+        ChartOfAccounts account = chartOfAccountsRepository.findById(budget.getAccountId())
+            .filter(a -> a.getTenantId().equals(budget.getTenantId()))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found"));
+        BigDecimal threshold = budget.getAlertThresholdPct() != null ? budget.getAlertThresholdPct() : DEFAULT_THRESHOLD;
+        if (threshold.signum() <= 0 || threshold.compareTo(HUNDRED) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "alertThresholdPct must be in (0, 100]");
+        }
+
+        LocalDate month = budget.getPeriodMonth().withDayOfMonth(1);
+        Budget target = budgetRepository.findByAccountIdAndPeriodMonth(account.getAccountId(), month)
+            .orElseGet(() -> Budget.builder().tenantId(account.getTenantId()).accountId(account.getAccountId())
+                .periodMonth(month).build());
+        target.setAmount(budget.getAmount());
+        target.setAlertThresholdPct(threshold);
+        target.setNotes(budget.getNotes());
+        Budget saved = budgetRepository.saveAndFlush(target);
+
+        jdbcTemplate.update(WITHDRAW, saved.getBudgetId());
+        raiseAlerts(List.of(saved.getBudgetId()));
+        return saved;
+    }
+
+    @Transactional
+    public boolean delete(UUID budgetId) {
+        if (!budgetRepository.existsById(budgetId)) {
+            return false;
+        }
+        budgetRepository.deleteById(budgetId);
+        return true;
+    }
+
+    public List<Budget> budgets(UUID tenantId, LocalDate from, LocalDate to) {
+        return budgetRepository.findByTenantIdAndPeriodMonthBetweenOrderByPeriodMonth(tenantId,
+            from.withDayOfMonth(1), to.withDayOfMonth(1));
+    }
+
+    /** Budget against actual for every budgeted account in the months from..to. */
+    public List<BudgetVariance> variance(UUID tenantId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(VARIANCE, (rs, i) -> {
+            BigDecimal budget = rs.getBigDecimal(6);
+            BigDecimal actual = rs.getBigDecimal(7);
+            BigDecimal utilisation = budget.signum() == 0 ? null
+                : actual.multiply(HUNDRED).divide(budget, 2, RoundingMode.HALF_UP);
+            return new BudgetVariance(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getString(3),
+                rs.getString(4), rs.getDate(5).toLocalDate(), budget, actual, budget.subtract(actual), utilisation);
+        }, tenantId, Date.valueOf(from.withDayOfMonth(1)), Date.valueOf(to.withDayOfMonth(1)));
+    }
+
+    public List<BudgetAlert> alerts(UUID tenantId, boolean openOnly) {
+        String sql = ALERTS + (openOnly ? "AND acknowledged_at IS NULL " : "") + "ORDER BY raised_at DESC";
+        return jdbcTemplate.query(sql, ALERT_MAPPER, tenantId);
+    }
+
+    public boolean acknowledge(UUID alertId) {
+        return jdbcTemplate.update("UPDATE accounting.budget_alerts SET acknowledged_at = now() " +
+            "WHERE alert_id = ? AND acknowledged_at IS NULL", alertId) > 0;
+    }
+
+    /** Re-checks this month's budgets for every tenant; catches alerts missed by concurrent posts. */
+    @Scheduled(cron = "${erp.budget.alert-sweep-cron:0 45 3 * * *}")
+    public void sweepAlerts() {
+        List<UUID> budgetIds = jdbcTemplate.queryForList(
+            "SELECT budget_id FROM accounting.budgets WHERE period_month = ?", UUID.class,
+            Date.valueOf(LocalDate.now().withDayOfMonth(1)));
+        int raised = raiseAlerts(budgetIds);
+        if (raised > 0) {
+            log.warn("Budget sweep raised {} alerts missed at posting time", raised);
+        }
+    }
+
+    /**
+     * Recomputes a tenant's monthly actuals from the hot ledger and archived ledger blocks, to
+     * backfill or correct drift. Posts must not run for the tenant meanwhile.
+     */
+    @Transactional
+    public int rebuildActuals(UUID tenantId) {
+        jdbcTemplate.update("DELETE FROM accounting.account_period_actuals WHERE tenant_id = ?", tenantId);
+        return jdbcTemplate.update(
+            "INSERT INTO accounting.account_period_actuals (account_id, period_month, tenant_id, debit, credit) " +
+            "SELECT account_id, period_month, ?, SUM(debit), SUM(credit) FROM (" +
+            " SELECT account_id, date_trunc('month', transaction_date)::date AS period_month, " +
+            " CASE WHEN entry_type = 'DEBIT' THEN amount ELSE 0 END AS debit, " +
+            " CASE WHEN entry_type = 'CREDIT' THEN amount ELSE 0 END AS credit " +
+            " FROM accounting.general_ledger WHERE tenant_id = ? " +
+            " UNION ALL SELECT k.key_id, s.period_month, k.total_in, k.total_out " +
+            " FROM accounting.archive_segment_keys k JOIN accounting.archive_segments s ON s.segment_id = k.segment_id " +
+            " WHERE k.tenant_id = ? AND k.dataset = 'GENERAL_LEDGER') t " +
+            "WHERE EXISTS (SELECT 1 FROM accounting.chart_of_accounts a WHERE a.account_id = t.account_id) " +
+            "GROUP BY account_id, period_month",
+            tenantId, tenantId, tenantId);
+    }
+
+    private int raiseAlerts(List<UUID> budgetIds) {
+        if (budgetIds.isEmpty()) {
+            return 0;
+        }
+        List<Integer> raised = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT accounting.raise_budget_alerts(?)");
+            ps.setArray(1, con.createArrayOf("uuid", budgetIds.toArray()));
+            return ps;
+        }, (rs, i) -> rs.getInt(1));
+        return raised.get(0);
+    }
+}
@@ -0,0 +1,278 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ImportResult;
+import com.erp.accounting.dto.ImportResult.RowError;
+import com.erp.accounting.entity.AccountType;
+import com.erp.accounting.entity.BalanceType;
+import com.erp.accounting.event.CatalogChangedEvent;
+import com.erp.accounting.util.CsvReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Streaming CSV import of accounts, products and customers for onboarding.
+ * Rows are validated as they are read and inserted a batch at a time, so memory stays
+ * bounded by the batch size. Rows already present for the tenant (same code, or for
+ * customers the same GSTIN or name) are skipped and not counted as imported. The import
+ * is all-or-nothing: any invalid row rolls back the whole file and the errors are
+ * reported instead.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+    // Bind parameters per statement allowed by the PostgreSQL wire protocol
+    private static final int MAX_PARAMETERS = 32767;
+
+    // Each batch is one multi-row statement (%s is the VALUES rows); rows already present are skipped
+    private static final String INSERT_ACCOUNT =
+        "INSERT INTO accounting.chart_of_accounts (account_id, tenant_id, account_code, account_name, account_description, " +
+        "account_type, account_subtype, gst_applicable, default_gst_rate, normal_balance, allow_manual_entries, is_active, " +
+        "created_at, updated_at) VALUES %s ON CONFLICT (tenant_id, account_code) DO NOTHING";
+    private static final String ACCOUNT_ROW =
+        "(gen_random_uuid(), ?, ?, ?, ?, CAST(? AS accounting.account_type_enum), ?, ?, ?, " +
+        "CAST(? AS accounting.balance_type_enum), TRUE, TRUE, now(), now())";
+
+    private static final String INSERT_PRODUCT =
+        "INSERT INTO accounting.products (product_id, tenant_id, product_code, product_name, product_description, category, " +
+        "hsn_code, cost_price, selling_price, gst_rate, unit_of_measure, is_active, created_at, updated_at) " +
+        "VALUES %s ON CONFLICT (tenant_id, product_code) DO NOTHING";
+    private static final String PRODUCT_ROW = "(gen_random_uuid(), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, now(), now())";
+
+    // Customers have no unique key: an existing customer is one with the same GSTIN or, without one, the same name
+    private static final String INSERT_CUSTOMER =
+        "INSERT INTO accounting.customers (customer_id, tenant_id, customer_name, customer_type, phone, email, gstin, " +
+        "credit_limit, credit_used, gst_applicable, is_active, created_at, updated_at) " +
+        "SELECT gen_random_uuid(), v.tenant_id, v.customer_name, v.customer_type, v.phone, v.email, v.gstin, " +
+        "v.credit_limit, 0, v.gst_applicable, TRUE, now(), now() " +
+        "FROM (VALUES %s) v(tenant_id, customer_name, customer_type, phone, email, gstin, credit_limit, gst_applicable) " +
+        "WHERE NOT EXISTS (SELECT 1 FROM accounting.customers c WHERE c.tenant_id = v.tenant_id AND " +
+        "CASE WHEN v.gstin IS NOT NULL THEN c.gstin = v.gstin ELSE c.customer_name = v.customer_name END)";
+    private static final String CUSTOMER_ROW =
+        "(CAST(? AS UUID), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), " +
+        "CAST(? AS VARCHAR), CAST(? AS NUMERIC), CAST(? AS BOOLEAN))";
+
+    public enum ImportKind {
+        ACCOUNTS, PRODUCTS, CUSTOMERS
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${erp.import.batch-size:1000}")
+    private int batchSize;
+
+    @Transactional
+    public ImportResult importCsv(UUID tenantId, ImportKind kind, InputStream csv) {
+        List<RowError> errors = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        Set<String> seenKeys = new HashSet<>();
+        long rowsRead = 0;
+        long rowsImported = 0;
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV is empty");
+            }
+            Row row = new Row(CsvReader.indexHeader(header));
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                rowsRead++;
+                row.fields = fields;
+                try {
+                    Object[] args = switch (kind) {
+                        case ACCOUNTS -> bindAccount(tenantId, row, seenKeys);
+                        case PRODUCTS -> bindProduct(tenantId, row, seenKeys);
+                        case CUSTOMERS -> bindCustomer(tenantId, row, seenKeys);
+                    };
+                    // Once a row has failed nothing will be committed; keep validating but stop writing
+                    if (errors.isEmpty()) {
+                        batch.add(args);
+                        if (batch.size() == batchSize) {
+                            rowsImported += flush(kind, batch);
+                        }
+                    }
+                } catch (IllegalArgumentException e) {
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(new RowError(reader.recordLine(), e.getMessage()));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (!errors.isEmpty()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new ImportResult(rowsRead, 0, errors);
+        }
+        rowsImported += flush(kind, batch);
+        if (kind != ImportKind.ACCOUNTS && rowsImported > 0) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(tenantId, null));
+        }
+        return new ImportResult(rowsRead, rowsImported, errors);
+    }
+
+    /**
+     * Writes the batch as multi-row INSERTs, whose update count is the rows actually inserted.
+     * A JDBC batch cannot be used for the count: under reWriteBatchedInserts it reports
+     * SUCCESS_NO_INFO for every row, including those skipped as already present.
+     */
+    private long flush(ImportKind kind, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        String sql = switch (kind) {
+            case ACCOUNTS -> INSERT_ACCOUNT;
+            case PRODUCTS -> INSERT_PRODUCT;
+            case CUSTOMERS -> INSERT_CUSTOMER;
+        };
+        String row = switch (kind) {
+            case ACCOUNTS -> ACCOUNT_ROW;
+            case PRODUCTS -> PRODUCT_ROW;
+            case CUSTOMERS -> CUSTOMER_ROW;
+        };
+        int rowsPerStatement = MAX_PARAMETERS / batch.get(0).length;
+        long written = 0;
+        for (int from = 0; from < batch.size(); from += rowsPerStatement) {
+            List<Object[]> rows = batch.subList(from, Math.min(batch.size(), from + rowsPerStatement));
+            String values = String.join(", ", Collections.nCopies(rows.size(), row));
+            written += jdbcTemplate.update(String.format(sql, values),
+                rows.stream().flatMap(Arrays::stream).toArray());
+        }
+        batch.clear();
+        return written;
+    }
+
+    private Object[] bindAccount(UUID tenantId, Row row, Set<String> seenKeys) {
+        String code = row.required("account_code");
+        if (!seenKeys.add(code)) {
+            throw new IllegalArgumentException("Duplicate account_code " + code);
+        }
+        AccountType type = row.enumValue("account_type", AccountType.class);
+        BalanceType normal = row.has("normal_balance")
+            ? row.enumValue("normal_balance", BalanceType.class)
+            : (type == AccountType.ASSET || type == AccountType.EXPENSE ? BalanceType.DEBIT : BalanceType.CREDIT);
+        return new Object[] {
+            tenantId, code, row.required("account_name"), row.optional("account_description"), type.name(),
+            row.optional("account_subtype"), row.bool("gst_applicable", false), row.decimal("default_gst_rate", false),
+            normal.name()
+        };
+    }
+
+    private Object[] bindProduct(UUID tenantId, Row row, Set<String> seenKeys) {
+        String code = row.required("product_code");
+        if (!seenKeys.add(code)) {
+            throw new IllegalArgumentException("Duplicate product_code " + code);
+        }
+        String uom = row.optional("unit_of_measure");
+        return new Object[] {
+            tenantId, code, row.required("product_name"), row.optional("product_description"), row.optional("category"),
+            row.required("hsn_code"), row.decimal("cost_price", true), row.decimal("selling_price", true),
+            row.decimal("gst_rate", true), uom != null ? uom : "PIECE"
+        };
+    }
+
+    private Object[] bindCustomer(UUID tenantId, Row row, Set<String> seenKeys) {
+        String gstin = row.optional("gstin");
+        if (gstin != null && gstin.length() != 15) {
+            throw new IllegalArgumentException("gstin must be 15 characters");
+        }
+        String name = row.required("customer_name");
+        if (gstin != null ? !seenKeys.add("gstin:" + gstin) : !seenKeys.add("name:" + name)) {
+            throw new IllegalArgumentException(gstin != null ? "Duplicate gstin " + gstin : "Duplicate customer_name " + name);
+        }
+        BigDecimal creditLimit = row.decimal("credit_limit", false);
+        return new Object[] {
+            tenantId, name, row.required("customer_type"), row.optional("phone"),
+            row.optional("email"), gstin, creditLimit != null ? creditLimit : BigDecimal.ZERO, row.bool("gst_applicable", true)
+        };
+    }
+
+    /** Current CSV record with header-name lookups and typed, validating accessors. */
+    private static final class Row {
+        private final Map<String, Integer> header;
+        private List<String> fields;
+
+        private Row(Map<String, Integer> header) {
+            this.header = header;
+        }
+
+        boolean has(String column) {
+            return optional(column) != null;
+        }
+
+        String optional(String column) {
+            Integer i = header.get(column);
+            if (i == null || i >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(i).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        String required(String column) {
+            String value = optional(column);
+            if (value == null) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+            return value;
+        }
+
+        BigDecimal decimal(String column, boolean required) {
+            String value = required ? required(column) : optional(column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not a number: " + value);
+            }
+        }
+
+        boolean bool(String column, boolean defaultValue) {
+            String value = optional(column);
+            if (value == null) {
+                return defaultValue;
+            }
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "true", "yes", "y", "1" -> true;
+                case "false", "no", "n", "0" -> false;
+                default -> throw new IllegalArgumentException(column + " is not a boolean: " + value);
+            };
+        }
+
+        <E extends Enum<E>> E enumValue(String column, Class<E> type) {
+            String value = required(column);
+            try {
+                return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(column + " has unknown value " + value);
+            }
+        }
+    }
+}
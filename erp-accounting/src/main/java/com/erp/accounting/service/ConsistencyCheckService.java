@@ -0,0 +1,253 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ConsistencyCheckResult;
+import com.erp.accounting.entity.ConsistencyCheck;
+import com.erp.accounting.entity.ConsistencyDiff;
+import com.erp.accounting.repository.ConsistencyDiffRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Checks stored aggregates against the rows they are derived from (see migration 025 for the
+ * invariants). Each (tenant, check) is one set-based statement that recomputes the aggregates for
+ * the entities in scope, upserts discrepancies into consistency_diffs and resolves open diffs for
+ * entities that are consistent again. A full run scopes every entity; an incremental run only
+ * those with detail or header rows written by transactions at or after the tenant's watermark
+ * for that check (see migration 034). The statement also reads its horizon, the oldest
+ * transaction still running: everything below it has finished and was visible to the check, so
+ * the horizon is the next watermark and rows of long transactions are never passed over.
+ * Tenant-check pairs run in parallel on a bounded pool.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConsistencyCheckService {
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // A table whose rows put an entity id in scope, and the columns that say when and by which
+    // transaction they were written
+    private record Source(String select, String changedAt, String changedTxid) {
+    }
+
+    // checkedTxid is null until the check has run since migration 034
+    private record Watermark(LocalDateTime checkedThrough, Long checkedTxid) {
+    }
+
+    private record Definition(List<Source> sources, String found) {
+    }
+
+    private static final Map<ConsistencyCheck, Definition> CHECKS = new EnumMap<>(Map.of(
+        ConsistencyCheck.JOURNAL_TOTALS, new Definition(
+            List.of(
+                new Source("SELECT journal_id FROM accounting.journal_entries WHERE tenant_id = :tenant", "updated_at",
+                    "changed_txid"),
+                new Source("SELECT journal_id FROM accounting.postings WHERE tenant_id = :tenant", "created_at", "created_txid")),
+            "SELECT j.journal_id::text AS entity_key, v.attribute, v.expected, v.actual " +
+            "FROM accounting.journal_entries j " +
+            "LEFT JOIN (SELECT journal_id, SUM(amount) FILTER (WHERE posting_type = 'DEBIT') AS debit, " +
+            "SUM(amount) FILTER (WHERE posting_type = 'CREDIT') AS credit FROM accounting.postings " +
+            "WHERE tenant_id = :tenant AND journal_id IN (SELECT id FROM scope) GROUP BY journal_id) p " +
+            "ON p.journal_id = j.journal_id " +
+            "CROSS JOIN LATERAL (VALUES ('total_debit', COALESCE(p.debit, 0), j.total_debit), " +
+            "('total_credit', COALESCE(p.credit, 0), j.total_credit)) v(attribute, expected, actual) " +
+            "WHERE j.tenant_id = :tenant AND j.journal_id IN (SELECT id FROM scope) AND j.status <> 'DRAFT' " +
+            "AND j.archived_at IS NULL AND v.expected <> v.actual"),
+        ConsistencyCheck.GL_POSTINGS, new Definition(
+            List.of(
+                new Source("SELECT journal_id FROM accounting.postings WHERE tenant_id = :tenant", "created_at", "created_txid"),
+                new Source("SELECT journal_id FROM accounting.general_ledger WHERE tenant_id = :tenant " +
+                    "AND journal_id IS NOT NULL", "created_at", "created_txid")),
+            "SELECT COALESCE(p.journal_id, g.journal_id)::text AS entity_key, " +
+            "COALESCE(p.account_id, g.account_id)::text || ':' || COALESCE(p.side, g.side) AS attribute, " +
+            "COALESCE(p.amount, 0) AS expected, COALESCE(g.amount, 0) AS actual " +
+            "FROM (SELECT journal_id, account_id, posting_type::text AS side, SUM(amount) AS amount " +
+            "FROM accounting.postings WHERE tenant_id = :tenant AND journal_id IN (SELECT id FROM scope) " +
+            "GROUP BY 1, 2, 3) p " +
+            "FULL JOIN (SELECT journal_id, account_id, entry_type::text AS side, SUM(amount) AS amount " +
+            "FROM accounting.general_ledger WHERE tenant_id = :tenant AND journal_id IN (SELECT id FROM scope) " +
+            "GROUP BY 1, 2, 3) g ON g.journal_id = p.journal_id AND g.account_id = p.account_id AND g.side = p.side " +
+            "WHERE COALESCE(p.amount, 0) <> COALESCE(g.amount, 0)"),
+        ConsistencyCheck.INVOICE_TOTALS, new Definition(
+            List.of(
+                new Source("SELECT invoice_id FROM accounting.invoices WHERE tenant_id = :tenant", "updated_at", "changed_txid"),
+                new Source("SELECT l.invoice_id FROM accounting.invoice_lines l " +
+                    "JOIN accounting.invoices i ON i.invoice_id = l.invoice_id WHERE i.tenant_id = :tenant", "l.created_at",
+                    "l.created_txid")),
+            // Invoices without lines, or lines without GST amounts, only get the header check
+            "SELECT i.invoice_id::text AS entity_key, v.attribute, v.expected, v.actual " +
+            "FROM accounting.invoices i " +
+            "LEFT JOIN (SELECT invoice_id, SUM(line_total) AS subtotal, SUM(gst_amount) AS tax " +
+            "FROM accounting.invoice_lines WHERE invoice_id IN (SELECT id FROM scope) GROUP BY invoice_id) l " +
+            "ON l.invoice_id = i.invoice_id " +
+            "CROSS JOIN LATERAL (VALUES ('subtotal', l.subtotal, i.subtotal), " +
+            "('total_tax', l.tax, COALESCE(i.total_tax, 0)), " +
+            "('total_amount', i.subtotal + COALESCE(i.total_tax, 0), i.total_amount)) v(attribute, expected, actual) " +
+            "WHERE i.tenant_id = :tenant AND i.invoice_id IN (SELECT id FROM scope) " +
+            "AND v.expected IS NOT NULL AND v.expected <> v.actual"),
+        ConsistencyCheck.INVENTORY_BALANCE, new Definition(
+            List.of(
+                new Source("SELECT product_id FROM accounting.inventory_ledger WHERE tenant_id = :tenant", "created_at",
+                    "created_txid"),
+                new Source("SELECT product_id FROM accounting.inventory_balance WHERE tenant_id = :tenant", "last_updated",
+                    "changed_txid")),
+            "SELECT COALESCE(l.product_id, b.product_id)::text AS entity_key, 'quantity_on_hand' AS attribute, " +
+            "COALESCE(l.quantity, 0) AS expected, COALESCE(b.quantity, 0) AS actual " +
+            // Archived movements count through their per-product block totals
+            "FROM (SELECT product_id, SUM(quantity) AS quantity FROM (" +
+            "SELECT product_id, COALESCE(quantity_in, 0) - COALESCE(quantity_out, 0) AS quantity " +
+            "FROM accounting.inventory_ledger WHERE tenant_id = :tenant AND product_id IN (SELECT id FROM scope) " +
+            "UNION ALL SELECT key_id, total_in - total_out FROM accounting.archive_segment_keys " +
+            "WHERE tenant_id = :tenant AND dataset = 'INVENTORY_LEDGER' AND key_id IN (SELECT id FROM scope)) m " +
+            "GROUP BY product_id) l " +
+            "FULL JOIN (SELECT product_id, quantity_on_hand AS quantity FROM accounting.inventory_balance " +
+            "WHERE tenant_id = :tenant AND product_id IN (SELECT id FROM scope)) b ON b.product_id = l.product_id " +
+            "WHERE COALESCE(l.quantity, 0) <> COALESCE(b.quantity, 0)")));
+
+    // Upserts what was found and resolves open diffs in scope that were not; returns {found, resolved, horizon}
+    private static final String RUN =
+        "WITH params AS (SELECT ?::uuid AS tenant_id, ?::bigint AS since_txid, ?::timestamp AS since_at, " +
+        "?::text AS check_name, txid_snapshot_xmin(txid_current_snapshot()) AS horizon), " +
+        "scope (id) AS (%s), " +
+        "found AS (%s), " +
+        "upserted AS (INSERT INTO accounting.consistency_diffs (tenant_id, check_name, entity_key, attribute, expected, actual) " +
+        "SELECT (SELECT tenant_id FROM params), (SELECT check_name FROM params), entity_key, attribute, expected, actual " +
+        "FROM found ON CONFLICT (tenant_id, check_name, entity_key, attribute) WHERE resolved_at IS NULL " +
+        "DO UPDATE SET expected = EXCLUDED.expected, actual = EXCLUDED.actual, last_seen_at = now() RETURNING 1), " +
+        "resolved AS (UPDATE accounting.consistency_diffs d SET resolved_at = now() " +
+        "WHERE d.tenant_id = (SELECT tenant_id FROM params) AND d.check_name = (SELECT check_name FROM params) " +
+        "AND d.resolved_at IS NULL AND d.entity_key IN (SELECT id::text FROM scope) " +
+        "AND NOT EXISTS (SELECT 1 FROM found f WHERE f.entity_key = d.entity_key AND f.attribute = d.attribute) " +
+        "RETURNING 1) " +
+        "SELECT (SELECT count(*) FROM upserted), (SELECT count(*) FROM resolved), (SELECT horizon FROM params)";
+
+    private static final String SAVE_WATERMARK =
+        "INSERT INTO accounting.consistency_check_watermarks (tenant_id, check_name, checked_through, checked_txid, " +
+        "last_run_at, last_found) VALUES (?, ?, LOCALTIMESTAMP, ?, now(), ?) ON CONFLICT (tenant_id, check_name) DO UPDATE SET " +
+        "checked_through = EXCLUDED.checked_through, checked_txid = EXCLUDED.checked_txid, last_run_at = now(), " +
+        "last_found = EXCLUDED.last_found";
+
+    private static final Map<ConsistencyCheck, String> FULL_SQL = compile(false);
+    private static final Map<ConsistencyCheck, String> INCREMENTAL_SQL = compile(true);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConsistencyDiffRepository consistencyDiffRepository;
+
+    @Value("${erp.consistency.workers:4}")
+    private int workers;
+
+    @Scheduled(cron = "${erp.consistency.cron:0 30 3 * * *}")
+    public void checkAllIncremental() {
+        logFailures(run(null, false));
+    }
+
+    @Scheduled(cron = "${erp.consistency.full-cron:-}")
+    public void checkAllFull() {
+        logFailures(run(null, true));
+    }
+
+    /** Checks one tenant, or every tenant when tenantId is null. */
+    public List<ConsistencyCheckResult> run(UUID tenantId, boolean full) {
+        List<UUID> tenants = tenantId != null
+            ? List.of(tenantId)
+            : jdbcTemplate.queryForList("SELECT tenant_id FROM accounting.tenants", UUID.class);
+        try (ExecutorService pool = Executors.newFixedThreadPool(workers)) {
+            List<Future<ConsistencyCheckResult>> futures = new ArrayList<>(tenants.size() * CHECKS.size());
+            for (UUID tenant : tenants) {
+                Map<ConsistencyCheck, Watermark> watermarks = full ? Map.of() : watermarks(tenant);
+                for (ConsistencyCheck check : CHECKS.keySet()) {
+                    Watermark since = full ? null : watermarks.getOrDefault(check, new Watermark(BEGINNING, null));
+                    futures.add(pool.submit(() -> check(tenant, check, since)));
+                }
+            }
+            List<ConsistencyCheckResult> results = new ArrayList<>(futures.size());
+            for (Future<ConsistencyCheckResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consistency check interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Consistency check failed", e.getCause());
+        }
+    }
+
+    public List<ConsistencyDiff> getOpenDiffs(UUID tenantId, ConsistencyCheck check) {
+        return check != null
+            ? consistencyDiffRepository.findByTenantIdAndCheckNameAndResolvedAtIsNullOrderByFirstSeenAt(tenantId, check)
+            : consistencyDiffRepository.findByTenantIdAndResolvedAtIsNullOrderByFirstSeenAt(tenantId);
+    }
+
+    private ConsistencyCheckResult check(UUID tenantId, ConsistencyCheck check, Watermark since) {
+        long started = System.currentTimeMillis();
+        String sql = since != null ? INCREMENTAL_SQL.get(check) : FULL_SQL.get(check);
+        // Rows without a transaction id predate migration 034 and are taken by time, on the first run only
+        Long sinceTxid = since == null ? null : since.checkedTxid() != null ? since.checkedTxid() : 0L;
+        Timestamp sinceAt = since != null && since.checkedTxid() == null ? Timestamp.valueOf(since.checkedThrough()) : null;
+        LocalDateTime checkedSince = since != null ? since.checkedThrough() : null;
+        try {
+            long[] counts = transactionTemplate.execute(status -> {
+                long[] result = jdbcTemplate.queryForObject(sql,
+                    (rs, n) -> new long[] {rs.getInt(1), rs.getInt(2), rs.getLong(3)},
+                    tenantId, sinceTxid, sinceAt, check.name());
+                jdbcTemplate.update(SAVE_WATERMARK, tenantId, check.name(), result[2], (int) result[0]);
+                return result;
+            });
+            return new ConsistencyCheckResult(tenantId, check.name(), checkedSince, (int) counts[0], (int) counts[1],
+                System.currentTimeMillis() - started, null);
+        } catch (RuntimeException e) {
+            log.error("{} check failed for tenant {}", check, tenantId, e);
+            return new ConsistencyCheckResult(tenantId, check.name(), checkedSince, 0, 0,
+                System.currentTimeMillis() - started, e.getMessage());
+        }
+    }
+
+    private Map<ConsistencyCheck, Watermark> watermarks(UUID tenantId) {
+        return jdbcTemplate.query(
+            "SELECT check_name, checked_through, checked_txid FROM accounting.consistency_check_watermarks WHERE tenant_id = ?",
+            (rs, n) -> Map.entry(ConsistencyCheck.valueOf(rs.getString(1)),
+                new Watermark(rs.getTimestamp(2).toLocalDateTime(), rs.getObject(3, Long.class))),
+            tenantId).stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private void logFailures(List<ConsistencyCheckResult> results) {
+        for (ConsistencyCheckResult result : results) {
+            if (result.found() > 0) {
+                log.warn("{} found {} discrepancies for tenant {}", result.check(), result.found(), result.tenantId());
+            }
+        }
+    }
+
+    private static Map<ConsistencyCheck, String> compile(boolean incremental) {
+        Map<ConsistencyCheck, String> compiled = new EnumMap<>(ConsistencyCheck.class);
+        CHECKS.forEach((check, definition) -> {
+            String scope = definition.sources().stream()
+                .map(source -> incremental
+                    ? source.select() + " AND (" + source.changedTxid() + " >= (SELECT since_txid FROM params) OR (" +
+                        source.changedTxid() + " IS NULL AND " + source.changedAt() + " > (SELECT since_at FROM params)))"
+                    : source.select())
+                .collect(Collectors.joining(" UNION "));
+            String sql = RUN.formatted(scope, definition.found());
+            compiled.put(check, sql.replace(":tenant", "(SELECT tenant_id FROM params)"));
+        });
+        return compiled;
+    }
+}
@@ -0,0 +1,219 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.TenantKpis;
+import com.erp.accounting.dto.TenantKpis.DailySales;
+import com.erp.accounting.dto.TenantKpis.RankedEntry;
+import com.erp.accounting.entity.InventoryLedger;
+import com.erp.accounting.entity.Invoice;
+import com.erp.accounting.entity.InvoiceStatus;
+import com.erp.accounting.entity.TransactionType;
+import com.erp.accounting.event.InventoryMovedEvent;
+import com.erp.accounting.event.InvoiceCreatedEvent;
+import com.erp.accounting.event.InvoicePaymentEvent;
+import com.erp.accounting.event.TenantScopedEvent;
+import com.erp.accounting.service.LedgerArchiveService.Dataset;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Dashboard KPIs served from compact per-tenant summary tables.
+ * <p>
+ * Write events apply deltas to tenant_kpi_summary / tenant_kpi_daily / tenant_kpi_rank in the
+ * writer's transaction, so a dashboard read is three small indexed queries instead of full-table
+ * scans. Snapshots are cached in process and dropped when the tenant's next write commits; the TTL
+ * bounds staleness for writes that landed on another node.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardKpiService {
+    private static final String CUSTOMER = "CUSTOMER";
+    private static final String PRODUCT = "PRODUCT";
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+
+    private static final String UPSERT_SUMMARY =
+        "INSERT INTO accounting.tenant_kpi_summary (tenant_id, outstanding_ar, stock_value, updated_at) " +
+        "VALUES (?, ?, ?, now()) ON CONFLICT (tenant_id) DO UPDATE SET " +
+        "outstanding_ar = tenant_kpi_summary.outstanding_ar + EXCLUDED.outstanding_ar, " +
+        "stock_value = tenant_kpi_summary.stock_value + EXCLUDED.stock_value, updated_at = now()";
+
+    // Payments arrive in the invoice's currency; convert at the invoice's rate like its outstanding
+    private static final String UPSERT_PAYMENT =
+        "INSERT INTO accounting.tenant_kpi_summary (tenant_id, outstanding_ar, stock_value, updated_at) " +
+        "SELECT tenant_id, -ROUND(? * COALESCE(exchange_rate, 1), 2), 0, now() FROM accounting.invoices " +
+        "WHERE invoice_id = ? ON CONFLICT (tenant_id) DO UPDATE SET " +
+        "outstanding_ar = tenant_kpi_summary.outstanding_ar + EXCLUDED.outstanding_ar, updated_at = now()";
+
+    private static final String UPSERT_DAILY =
+        "INSERT INTO accounting.tenant_kpi_daily (tenant_id, kpi_date, sales_amount, invoice_count) " +
+        "VALUES (?, ?, ?, ?) ON CONFLICT (tenant_id, kpi_date) DO UPDATE SET " +
+        "sales_amount = tenant_kpi_daily.sales_amount + EXCLUDED.sales_amount, " +
+        "invoice_count = tenant_kpi_daily.invoice_count + EXCLUDED.invoice_count";
+
+    private static final String UPSERT_RANK =
+        "INSERT INTO accounting.tenant_kpi_rank (tenant_id, dimension, entity_id, amount) " +
+        "VALUES (?, ?, ?, ?) ON CONFLICT (tenant_id, dimension, entity_id) DO UPDATE SET " +
+        "amount = tenant_kpi_rank.amount + EXCLUDED.amount";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerArchiveService ledgerArchiveService;
+    private final Map<UUID, CachedKpis> cache = new ConcurrentHashMap<>();
+
+    @Value("${erp.dashboard.days:30}")
+    private int days;
+
+    @Value("${erp.dashboard.top-n:10}")
+    private int topN;
+
+    @Value("${erp.dashboard.cache-ttl-seconds:30}")
+    private long cacheTtlSeconds;
+
+    public TenantKpis getKpis(UUID tenantId) {
+        CachedKpis cached = cache.get(tenantId);
+        if (cached != null && cached.expiresAt().isAfter(LocalDateTime.now())) {
+            return cached.kpis();
+        }
+        TenantKpis kpis = load(tenantId);
+        cache.put(tenantId, new CachedKpis(kpis, kpis.generatedAt().plusSeconds(cacheTtlSeconds)));
+        return kpis;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onInvoiceCreated(InvoiceCreatedEvent event) {
+        Invoice invoice = event.invoice();
+        if (invoice.getStatus() == null || invoice.getStatus() == InvoiceStatus.DRAFT) {
+            return;
+        }
+        UUID tenantId = invoice.getTenantId();
+        BigDecimal total = invoice.getBaseTotalAmount() != null ? invoice.getBaseTotalAmount() : invoice.getTotalAmount();
+        jdbcTemplate.update(UPSERT_DAILY, tenantId, Date.valueOf(invoice.getInvoiceDate()), total, 1);
+        jdbcTemplate.update(UPSERT_SUMMARY, tenantId, toBase(invoice, outstanding(invoice)), BigDecimal.ZERO);
+        jdbcTemplate.update(UPSERT_RANK, tenantId, CUSTOMER, invoice.getCustomerId(), total);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onInvoicePayment(InvoicePaymentEvent event) {
+        jdbcTemplate.update(UPSERT_PAYMENT, event.amount(), event.invoiceId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onInventoryMoved(InventoryMovedEvent event) {
+        InventoryLedger movement = event.movement();
+        int in = movement.getQuantityIn() != null ? movement.getQuantityIn() : 0;
+        int out = movement.getQuantityOut() != null ? movement.getQuantityOut() : 0;
+        if (movement.getUnitCost() != null && in != out) {
+            BigDecimal valueDelta = movement.getUnitCost().multiply(BigDecimal.valueOf((long) in - out));
+            jdbcTemplate.update(UPSERT_SUMMARY, movement.getTenantId(), BigDecimal.ZERO, valueDelta);
+        }
+        if (movement.getTransactionType() == TransactionType.SALE && out > 0) {
+            jdbcTemplate.update(UPSERT_RANK, movement.getTenantId(), PRODUCT, movement.getProductId(), BigDecimal.valueOf(out));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void evict(TenantScopedEvent event) {
+        cache.remove(event.tenantId());
+    }
+
+    /**
+     * Recomputes a tenant's KPI rows from the base tables in a few set-based statements.
+     * Used for backfill and to correct drift. Stock value is the sum of inventory_balance.inventory_value,
+     * which holds unit_cost x (in - out) per product, the basis onInventoryMoved applies. Archive
+     * block totals mix every movement type, so archived sales are read from the blocks themselves.
+     */
+    @Transactional
+    public TenantKpis rebuild(UUID tenantId) {
+        jdbcTemplate.update("DELETE FROM accounting.tenant_kpi_daily WHERE tenant_id = ?", tenantId);
+        jdbcTemplate.update("DELETE FROM accounting.tenant_kpi_rank WHERE tenant_id = ?", tenantId);
+        jdbcTemplate.update("DELETE FROM accounting.tenant_kpi_summary WHERE tenant_id = ?", tenantId);
+
+        jdbcTemplate.update(
+            "INSERT INTO accounting.tenant_kpi_daily (tenant_id, kpi_date, sales_amount, invoice_count) " +
+            "SELECT tenant_id, invoice_date, SUM(COALESCE(base_total_amount, total_amount)), COUNT(*) FROM accounting.invoices " +
+            "WHERE tenant_id = ? AND status <> 'DRAFT' GROUP BY tenant_id, invoice_date", tenantId);
+        jdbcTemplate.update(
+            "INSERT INTO accounting.tenant_kpi_rank (tenant_id, dimension, entity_id, amount) " +
+            "SELECT tenant_id, 'CUSTOMER', customer_id, SUM(COALESCE(base_total_amount, total_amount)) FROM accounting.invoices " +
+            "WHERE tenant_id = ? AND status <> 'DRAFT' GROUP BY tenant_id, customer_id", tenantId);
+        jdbcTemplate.update(
+            "INSERT INTO accounting.tenant_kpi_rank (tenant_id, dimension, entity_id, amount) " +
+            "SELECT tenant_id, 'PRODUCT', product_id, SUM(quantity_out) FROM accounting.inventory_ledger " +
+            "WHERE tenant_id = ? AND transaction_type = 'SALE' GROUP BY tenant_id, product_id", tenantId);
+        Map<UUID, Long> archivedSales = new HashMap<>();
+        try (Stream<JsonNode> rows = ledgerArchiveService.archived(tenantId, Dataset.INVENTORY_LEDGER, null,
+                EARLIEST, LocalDate.now())) {
+            rows.filter(row -> TransactionType.SALE.name().equals(row.path("transactionType").asText()))
+                .forEach(row -> archivedSales.merge(UUID.fromString(row.get("productId").asText()),
+                    row.path("quantityOut").asLong(), Long::sum));
+        }
+        jdbcTemplate.batchUpdate(UPSERT_RANK, archivedSales.entrySet().stream()
+            .map(sold -> new Object[] {tenantId, PRODUCT, sold.getKey(), BigDecimal.valueOf(sold.getValue())})
+            .toList());
+        jdbcTemplate.update(
+            "INSERT INTO accounting.tenant_kpi_summary (tenant_id, outstanding_ar, stock_value, updated_at) SELECT ?, " +
+            "(SELECT COALESCE(SUM(ROUND(COALESCE(outstanding, total_amount - COALESCE(amount_paid, 0)) * COALESCE(exchange_rate, 1), 2)), 0) " +
+            " FROM accounting.invoices WHERE tenant_id = ? AND status NOT IN ('DRAFT', 'PAID')), " +
+            "(SELECT COALESCE(SUM(inventory_value), 0) FROM accounting.inventory_balance WHERE tenant_id = ?), now()",
+            tenantId, tenantId, tenantId);
+
+        cache.remove(tenantId);
+        return load(tenantId);
+    }
+
+    private TenantKpis load(UUID tenantId) {
+        List<BigDecimal[]> summary = jdbcTemplate.query(
+            "SELECT outstanding_ar, stock_value FROM accounting.tenant_kpi_summary WHERE tenant_id = ?",
+            (rs, i) -> new BigDecimal[] {rs.getBigDecimal(1), rs.getBigDecimal(2)}, tenantId);
+        List<DailySales> daily = jdbcTemplate.query(
+            "SELECT kpi_date, sales_amount, invoice_count FROM accounting.tenant_kpi_daily " +
+            "WHERE tenant_id = ? AND kpi_date >= ? ORDER BY kpi_date",
+            (rs, i) -> new DailySales(rs.getDate(1).toLocalDate(), rs.getBigDecimal(2), rs.getInt(3)),
+            tenantId, Date.valueOf(LocalDate.now().minusDays(days)));
+        BigDecimal[] totals = summary.isEmpty() ? new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO} : summary.get(0);
+        return new TenantKpis(tenantId, totals[0], totals[1], daily, top(tenantId, CUSTOMER), top(tenantId, PRODUCT),
+            LocalDateTime.now());
+    }
+
+    private List<RankedEntry> top(UUID tenantId, String dimension) {
+        return jdbcTemplate.query(
+            "SELECT entity_id, amount FROM accounting.tenant_kpi_rank " +
+            "WHERE tenant_id = ? AND dimension = ? ORDER BY amount DESC LIMIT ?",
+            (rs, i) -> new RankedEntry(rs.getObject(1, UUID.class), rs.getBigDecimal(2)),
+            tenantId, dimension, topN);
+    }
+
+    private static BigDecimal outstanding(Invoice invoice) {
+        if (invoice.getOutstanding() != null) {
+            return invoice.getOutstanding();
+        }
+        BigDecimal paid = invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO;
+        return invoice.getTotalAmount().subtract(paid);
+    }
+
+    // KPI tables are kept in the tenant's base currency
+    private static BigDecimal toBase(Invoice invoice, BigDecimal amount) {
+        if (invoice.getExchangeRate() == null) {
+            return amount;
+        }
+        return amount.multiply(invoice.getExchangeRate()).setScale(FxRateService.AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private record CachedKpis(TenantKpis kpis, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.DimensionPivot;
+import com.erp.accounting.util.PostingBitmapIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Slice-and-dice totals of postings by account, branch, cost centre and project.
+ * <p>
+ * Each node keeps a {@link PostingBitmapIndex} per tenant, built on first use and brought up to
+ * date before each query by reading only the postings above the last chain sequence it holds;
+ * chain_seq is handed out in commit order (018), so nothing committed can be skipped. A pivot is
+ * then bitmap unions and intersections plus one pass over the matching postings, with no SQL
+ * aggregation. Postings are never updated, so the index never has to revisit a row.
+ * <p>
+ * Archived months (027) are not reloaded: periods are cut at the tenant's archive cut-off.
+ * Indexes unused for erp.dimensions.idle-evict-minutes are dropped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DimensionIndexService {
+    public enum Axis { ACCOUNT, BRANCH, COST_CENTER, PROJECT }
+
+    private static final String CATCH_UP =
+        "SELECT p.chain_seq, p.account_id, p.branch_id, p.cost_center_id, p.project_id, p.posting_type, p.amount, " +
+        "j.entry_date FROM accounting.postings p JOIN accounting.journal_entries j ON j.journal_id = p.journal_id " +
+        "WHERE p.tenant_id = ? AND p.chain_seq > ? ORDER BY p.chain_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${erp.dimensions.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${erp.dimensions.idle-evict-minutes:30}")
+    private long idleEvictMinutes;
+
+    /**
+     * Totals of postings dated from..to grouped by rows and, when given, columns. filters limits
+     * each listed axis to the given values (any of them); an empty list matches nothing.
+     */
+    public DimensionPivot pivot(UUID tenantId, Axis rows, Axis columns, LocalDate from, LocalDate to,
+                                Map<Axis, ? extends Collection<UUID>> filters) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (rows == columns) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "rows and columns must be different dimensions");
+        }
+        List<LocalDate> archivedThrough = jdbcTemplate.queryForList(
+            "SELECT archived_through FROM accounting.ledger_archive_state WHERE tenant_id = ?", LocalDate.class, tenantId);
+        LocalDate start = archivedThrough.isEmpty() || from.isAfter(archivedThrough.get(0)) ? from : archivedThrough.get(0);
+        if (start.isAfter(to)) {
+            return new DimensionPivot(tenantId, rows.name(), columns != null ? columns.name() : null, start, to, 0, List.of());
+        }
+
+        Entry entry = entries.computeIfAbsent(tenantId, id -> new Entry());
+        entry.lastUsed = System.nanoTime();
+        catchUp(tenantId, entry);
+
+        Map<Integer, Collection<UUID>> axisFilters = new HashMap<>();
+        filters.forEach((axis, values) -> axisFilters.put(axis.ordinal(), values));
+        List<PostingBitmapIndex.Cell> slice;
+        entry.lock.readLock().lock();
+        try {
+            slice = entry.index.slice(rows.ordinal(), columns != null ? columns.ordinal() : -1, start, to, axisFilters);
+        } finally {
+            entry.lock.readLock().unlock();
+        }
+
+        List<DimensionPivot.Cell> cells = new ArrayList<>(slice.size());
+        long postings = 0;
+        for (PostingBitmapIndex.Cell cell : slice) {
+            cells.add(new DimensionPivot.Cell(cell.row(), cell.column(), BigDecimal.valueOf(cell.debitCents(), 2),
+                BigDecimal.valueOf(cell.creditCents(), 2), BigDecimal.valueOf(cell.debitCents() - cell.creditCents(), 2),
+                cell.postings()));
+            postings += cell.postings();
+        }
+        return new DimensionPivot(tenantId, rows.name(), columns != null ? columns.name() : null, start, to, postings, cells);
+    }
+
+    @Scheduled(fixedDelayString = "${erp.dimensions.idle-evict-minutes:30}", timeUnit = TimeUnit.MINUTES)
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(idleEvictMinutes);
+        entries.values().removeIf(e -> e.lastUsed < cutoff);
+    }
+
+    /** Adds the tenant's postings committed since the index was last brought up to date. */
+    private void catchUp(UUID tenantId, Entry entry) {
+        List<Long> head = jdbcTemplate.queryForList(
+            "SELECT last_seq FROM accounting.ledger_chain_head WHERE tenant_id = ?", Long.class, tenantId);
+        if (head.isEmpty() || head.get(0) <= lastSeq(entry)) {
+            return;
+        }
+        entry.lock.writeLock().lock();
+        try {
+            long before = entry.index.size();
+            long lastSeq = entry.index.lastSeq();
+            if (head.get(0) <= lastSeq) {
+                return;
+            }
+            UUID[] tags = new UUID[PostingBitmapIndex.AXES];
+            RowCallbackHandler handler = rs -> {
+                for (int axis = 0; axis < PostingBitmapIndex.AXES; axis++) {
+                    tags[axis] = rs.getObject(2 + axis, UUID.class);
+                }
+                entry.index.add(rs.getLong(1), tags, "DEBIT".equals(rs.getString(6)), rs.getBigDecimal(7),
+                    rs.getDate(8).toLocalDate());
+            };
+            // The cursor only streams inside a transaction; otherwise the driver buffers the whole result
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(CATCH_UP);
+                ps.setFetchSize(fetchSize);
+                ps.setObject(1, tenantId);
+                ps.setLong(2, lastSeq);
+                return ps;
+            }, handler));
+            long added = entry.index.size() - before;
+            if (added >= fetchSize) {
+                entry.index.optimize();
+                log.info("Loaded {} postings into the dimension index for tenant {}", added, tenantId);
+            }
+        } finally {
+            entry.lock.writeLock().unlock();
+        }
+    }
+
+    private static long lastSeq(Entry entry) {
+        entry.lock.readLock().lock();
+        try {
+            return entry.index.lastSeq();
+        } finally {
+            entry.lock.readLock().unlock();
+        }
+    }
+
+    private static final class Entry {
+        final PostingBitmapIndex index = new PostingBitmapIndex();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        volatile long lastUsed = System.nanoTime();
+    }
+}
@@ -0,0 +1,36 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.repository.InventoryBatchBalanceRepository;
+import com.erp.accounting.repository.InventoryBatchBalanceRepository.ExpirySummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily near-expiry alert. Aggregates per tenant in the database so the job's
+ * cost depends on the number of tenants, not the number of batches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpiryAlertJob {
+    private final InventoryBatchBalanceRepository inventoryBatchBalanceRepository;
+
+    @Value("${erp.inventory.expiry-alert-days:30}")
+    private int alertDays;
+
+    @Scheduled(cron = "${erp.inventory.expiry-alert-cron:0 0 6 * * *}")
+    public void run() {
+        LocalDate today = LocalDate.now();
+        List<ExpirySummary> summaries = inventoryBatchBalanceRepository.summarizeExpiring(today, today.plusDays(alertDays));
+        for (ExpirySummary summary : summaries) {
+            log.warn("Tenant {} has {} batches ({} units) expiring within {} days, earliest on {}",
+                summary.getTenantId(), summary.getBatchCount(), summary.getTotalQuantity(),
+                alertDays, summary.getEarliestExpiry());
+        }
+    }
+}
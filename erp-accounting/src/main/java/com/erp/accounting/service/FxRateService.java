@@ -0,0 +1,147 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.entity.FxRate;
+import com.erp.accounting.repository.FxRateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * FX rates served from memory. The whole fx_rates table is held as one date-ordered map per
+ * currency pair, so a lookup is a floor search on the pair's map ("latest rate on or before the
+ * transaction date") and never touches the database. Writes go to the table and, once committed,
+ * into the map; a periodic reload picks up rates written by other nodes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FxRateService {
+    public static final int RATE_SCALE = 8;
+    public static final int AMOUNT_SCALE = 2;
+
+    private static final String UPSERT_RATE =
+        "INSERT INTO accounting.fx_rates (base_currency, quote_currency, rate_date, rate, source) " +
+        "VALUES (?, ?, ?, ?, ?) ON CONFLICT (base_currency, quote_currency, rate_date) " +
+        "DO UPDATE SET rate = EXCLUDED.rate, source = EXCLUDED.source";
+
+    private final FxRateRepository fxRateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Map<String, NavigableMap<LocalDate, BigDecimal>> rates;
+
+    /** Amount converted at a rate, with the rate kept for the dual-amount columns. */
+    public record Conversion(BigDecimal rate, BigDecimal amount) {
+    }
+
+    /**
+     * Rate converting one unit of {@code from} into {@code to} on {@code date}: the latest direct
+     * quote on or before that date, else the inverse of the latest reverse quote.
+     */
+    public Optional<BigDecimal> findRate(String from, String to, LocalDate date) {
+        if (from.equalsIgnoreCase(to)) {
+            return Optional.of(BigDecimal.ONE);
+        }
+        Map<String, NavigableMap<LocalDate, BigDecimal>> snapshot = snapshot();
+        Map.Entry<LocalDate, BigDecimal> direct = floor(snapshot, from, to, date);
+        if (direct != null) {
+            return Optional.of(direct.getValue());
+        }
+        Map.Entry<LocalDate, BigDecimal> inverse = floor(snapshot, to, from, date);
+        if (inverse != null) {
+            return Optional.of(BigDecimal.ONE.divide(inverse.getValue(), MathContext.DECIMAL64)
+                .setScale(RATE_SCALE, RoundingMode.HALF_UP));
+        }
+        return Optional.empty();
+    }
+
+    public BigDecimal getRate(String from, String to, LocalDate date) {
+        return findRate(from, to, date).orElseThrow(() -> new ResponseStatusException(
+            HttpStatus.UNPROCESSABLE_ENTITY, "No " + from + "/" + to + " rate on or before " + date));
+    }
+
+    public Conversion convert(BigDecimal amount, String from, String to, LocalDate date) {
+        BigDecimal rate = getRate(from, to, date);
+        return new Conversion(rate, amount.multiply(rate).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP));
+    }
+
+    /** Upserts rates in one JDBC batch; the in-memory index sees them after commit. */
+    @Transactional
+    public int saveRates(List<FxRate> batch) {
+        for (FxRate rate : batch) {
+            if (rate.getRate() == null || rate.getRate().signum() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "rate must be positive");
+            }
+            rate.setBaseCurrency(rate.getBaseCurrency().toUpperCase(Locale.ROOT));
+            rate.setQuoteCurrency(rate.getQuoteCurrency().toUpperCase(Locale.ROOT));
+        }
+        jdbcTemplate.batchUpdate(UPSERT_RATE, batch, batch.size(), (ps, rate) -> {
+            ps.setString(1, rate.getBaseCurrency());
+            ps.setString(2, rate.getQuoteCurrency());
+            ps.setDate(3, Date.valueOf(rate.getRateDate()));
+            ps.setBigDecimal(4, rate.getRate());
+            ps.setString(5, rate.getSource());
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Map<String, NavigableMap<LocalDate, BigDecimal>> snapshot = snapshot();
+                batch.forEach(rate -> index(snapshot, rate));
+            }
+        });
+        return batch.size();
+    }
+
+    @Scheduled(fixedDelayString = "${erp.fx.reload-interval-ms:300000}",
+        initialDelayString = "${erp.fx.reload-interval-ms:300000}")
+    public void reload() {
+        Map<String, NavigableMap<LocalDate, BigDecimal>> fresh = new ConcurrentHashMap<>();
+        List<FxRate> all = fxRateRepository.findAll();
+        all.forEach(rate -> index(fresh, rate));
+        rates = fresh;
+        log.debug("Loaded {} FX rates for {} currency pairs", all.size(), fresh.size());
+    }
+
+    private Map<String, NavigableMap<LocalDate, BigDecimal>> snapshot() {
+        if (rates == null) {
+            synchronized (this) {
+                if (rates == null) {
+                    reload();
+                }
+            }
+        }
+        return rates;
+    }
+
+    private static Map.Entry<LocalDate, BigDecimal> floor(Map<String, NavigableMap<LocalDate, BigDecimal>> snapshot,
+                                                          String base, String quote, LocalDate date) {
+        NavigableMap<LocalDate, BigDecimal> series = snapshot.get(key(base, quote));
+        return series != null ? series.floorEntry(date) : null;
+    }
+
+    private static void index(Map<String, NavigableMap<LocalDate, BigDecimal>> target, FxRate rate) {
+        target.computeIfAbsent(key(rate.getBaseCurrency(), rate.getQuoteCurrency()), k -> new ConcurrentSkipListMap<>())
+            .put(rate.getRateDate(), rate.getRate());
+    }
+
+    private static String key(String base, String quote) {
+        return base.toUpperCase(Locale.ROOT) + "/" + quote.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,122 @@
+package com.erp.accounting.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Period-end revaluation of open foreign-currency receivables.
+ * <p>
+ * Work is grouped by (invoice currency, tenant base currency) pair, so each closing rate is
+ * looked up once from {@link FxRateService}. Within a pair, tenants are processed in chunks and
+ * each chunk is two set-based statements in its own transaction: insert the gain/loss rows into
+ * fx_revaluations, then move the invoices' revaluation_rate to the closing rate.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FxRevaluationService {
+    private static final String OPEN_FOREIGN =
+        "i.currency_code IS NOT NULL AND i.currency_code <> t.currency AND i.status NOT IN ('DRAFT', 'PAID') ";
+
+    private static final String INSERT_REVALUATIONS =
+        "INSERT INTO accounting.fx_revaluations (tenant_id, invoice_id, revaluation_date, currency_code, " +
+        "previous_rate, new_rate, outstanding_amount, gain_loss) " +
+        "SELECT i.tenant_id, i.invoice_id, ?, i.currency_code, COALESCE(i.revaluation_rate, i.exchange_rate, 1), ?, " +
+        "COALESCE(i.outstanding, i.total_amount - COALESCE(i.amount_paid, 0)), " +
+        "ROUND(COALESCE(i.outstanding, i.total_amount - COALESCE(i.amount_paid, 0)) " +
+        "      * (? - COALESCE(i.revaluation_rate, i.exchange_rate, 1)), 2) " +
+        "FROM accounting.invoices i JOIN accounting.tenants t ON t.tenant_id = i.tenant_id " +
+        "WHERE " + OPEN_FOREIGN + "AND i.currency_code = ? AND t.currency = ? AND i.tenant_id = ANY (?) " +
+        "AND COALESCE(i.revaluation_rate, i.exchange_rate, 1) <> ?";
+
+    private static final String UPDATE_RATES =
+        "UPDATE accounting.invoices i SET revaluation_rate = ? FROM accounting.tenants t " +
+        "WHERE t.tenant_id = i.tenant_id AND " + OPEN_FOREIGN +
+        "AND i.currency_code = ? AND t.currency = ? AND i.tenant_id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FxRateService fxRateService;
+
+    @Value("${erp.fx.revaluation-tenant-batch:200}")
+    private int tenantBatch;
+
+    public record RevaluationSummary(LocalDate asOf, int invoicesRevalued, List<String> missingRates) {
+    }
+
+    /** Month-end run: revalues as of the last day of the month that just closed. */
+    @Scheduled(cron = "${erp.fx.revaluation-cron:0 30 0 1 * *}")
+    public void revalueClosedMonth() {
+        RevaluationSummary summary = revalue(LocalDate.now().withDayOfMonth(1).minusDays(1));
+        log.info("FX revaluation as of {}: {} invoices revalued", summary.asOf(), summary.invoicesRevalued());
+    }
+
+    public RevaluationSummary revalue(LocalDate asOf) {
+        List<String[]> pairs = jdbcTemplate.query(
+            "SELECT DISTINCT i.currency_code, t.currency FROM accounting.invoices i " +
+            "JOIN accounting.tenants t ON t.tenant_id = i.tenant_id WHERE " + OPEN_FOREIGN,
+            (rs, n) -> new String[] {rs.getString(1), rs.getString(2)});
+
+        int revalued = 0;
+        List<String> missing = new ArrayList<>();
+        for (String[] pair : pairs) {
+            String foreign = pair[0];
+            String base = pair[1];
+            Optional<BigDecimal> closingRate = fxRateService.findRate(foreign, base, asOf);
+            if (closingRate.isEmpty()) {
+                missing.add(foreign + "/" + base);
+                continue;
+            }
+            List<UUID> tenants = jdbcTemplate.queryForList(
+                "SELECT DISTINCT i.tenant_id FROM accounting.invoices i JOIN accounting.tenants t ON t.tenant_id = i.tenant_id " +
+                "WHERE " + OPEN_FOREIGN + "AND i.currency_code = ? AND t.currency = ?", UUID.class, foreign, base);
+            for (int from = 0; from < tenants.size(); from += tenantBatch) {
+                UUID[] chunk = tenants.subList(from, Math.min(from + tenantBatch, tenants.size())).toArray(UUID[]::new);
+                revalued += revalueChunk(asOf, foreign, base, closingRate.get(), chunk);
+            }
+        }
+        if (!missing.isEmpty()) {
+            log.warn("FX revaluation as of {} skipped pairs without a closing rate: {}", asOf, missing);
+        }
+        return new RevaluationSummary(asOf, revalued, missing);
+    }
+
+    private int revalueChunk(LocalDate asOf, String foreign, String base, BigDecimal rate, UUID[] tenantIds) {
+        Integer rows = transactionTemplate.execute(status -> {
+            int inserted = jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_REVALUATIONS);
+                ps.setDate(1, Date.valueOf(asOf));
+                ps.setBigDecimal(2, rate);
+                ps.setBigDecimal(3, rate);
+                ps.setString(4, foreign);
+                ps.setString(5, base);
+                ps.setArray(6, con.createArrayOf("uuid", tenantIds));
+                ps.setBigDecimal(7, rate);
+                return ps;
+            });
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(UPDATE_RATES);
+                ps.setBigDecimal(1, rate);
+                ps.setString(2, foreign);
+                ps.setString(3, base);
+                ps.setArray(4, con.createArrayOf("uuid", tenantIds));
+                return ps;
+            });
+            return inserted;
+        });
+        return rows != null ? rows : 0;
+    }
+}
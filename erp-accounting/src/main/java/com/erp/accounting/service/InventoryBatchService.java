@@ -0,0 +1,134 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.BatchAllocation;
+import com.erp.accounting.dto.FefoAllocationRequest;
+import com.erp.accounting.entity.InventoryBatchBalance;
+import com.erp.accounting.entity.InventoryLedger;
+import com.erp.accounting.entity.TransactionType;
+import com.erp.accounting.event.InventoryMovedEvent;
+import com.erp.accounting.repository.InventoryBalanceRepository;
+import com.erp.accounting.repository.InventoryBatchBalanceRepository;
+import com.erp.accounting.repository.InventoryLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps batch-level stock in inventory_batch_balance and per-product stock in inventory_balance
+ * in step with inventory_ledger, and serves first-expiry-first-out (FEFO) picking and near-expiry
+ * lookups from the batch balances.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryBatchService {
+    private final InventoryLedgerRepository inventoryLedgerRepository;
+    private final InventoryBatchBalanceRepository inventoryBatchBalanceRepository;
+    private final InventoryBalanceRepository inventoryBalanceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Records a movement and applies it to its product and batch balances in the same transaction.
+     * Movements without a batch number have no batch balance.
+     */
+    @Transactional
+    public InventoryLedger recordMovement(InventoryLedger movement) {
+        InventoryLedger saved = inventoryLedgerRepository.save(movement);
+        int delta = nullToZero(saved.getQuantityIn()) - nullToZero(saved.getQuantityOut());
+        inventoryBalanceRepository.applyMovement(saved.getTenantId(), saved.getProductId(), delta,
+            value(saved.getUnitCost(), delta));
+        if (saved.getBatchNumber() != null) {
+            try {
+                inventoryBatchBalanceRepository.applyMovement(saved.getTenantId(), saved.getProductId(),
+                    saved.getBatchNumber(), saved.getExpiryDate(), delta, saved.getUnitCost());
+            } catch (DataIntegrityViolationException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Movement would overdraw batch " + saved.getBatchNumber());
+            }
+        }
+        eventPublisher.publishEvent(new InventoryMovedEvent(saved));
+        return saved;
+    }
+
+    /**
+     * Draws the requested quantity from the product's unexpired batches, earliest expiry first,
+     * writing one ledger row per batch touched. Fails without side effects if stock is short.
+     */
+    @Transactional
+    public List<BatchAllocation> allocateFefo(FefoAllocationRequest request) {
+        if (request.quantity() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "quantity must be positive");
+        }
+        TransactionType type = request.transactionType() != null ? request.transactionType() : TransactionType.SALE;
+        List<InventoryBatchBalance> batches = inventoryBatchBalanceRepository
+            .findAllocatableForUpdate(request.tenantId(), request.productId(), LocalDate.now());
+
+        int remaining = request.quantity();
+        BigDecimal value = BigDecimal.ZERO;
+        List<InventoryLedger> movements = new ArrayList<>();
+        for (InventoryBatchBalance batch : batches) {
+            if (remaining == 0) {
+                break;
+            }
+            int take = Math.min(remaining, batch.getQuantityOnHand());
+            batch.setQuantityOnHand(batch.getQuantityOnHand() - take);
+            remaining -= take;
+            value = value.add(value(batch.getUnitCost(), -take));
+            movements.add(InventoryLedger.builder()
+                .tenantId(request.tenantId())
+                .productId(request.productId())
+                .transactionType(type)
+                .quantityIn(0)
+                .quantityOut(take)
+                .unitCost(batch.getUnitCost())
+                .batchNumber(batch.getBatchNumber())
+                .expiryDate(batch.getExpiryDate())
+                .referenceId(request.referenceId())
+                .referenceType(request.referenceType())
+                .build());
+        }
+        if (remaining > 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Insufficient unexpired stock: short by " + remaining);
+        }
+
+        List<InventoryLedger> saved = inventoryLedgerRepository.saveAll(movements);
+        inventoryBalanceRepository.applyMovement(request.tenantId(), request.productId(), -request.quantity(), value);
+        List<BatchAllocation> allocations = new ArrayList<>(saved.size());
+        for (InventoryLedger row : saved) {
+            eventPublisher.publishEvent(new InventoryMovedEvent(row));
+            allocations.add(new BatchAllocation(row.getBatchNumber(), row.getExpiryDate(),
+                row.getQuantityOut(), row.getUnitCost(), row.getLedgerId()));
+        }
+        return allocations;
+    }
+
+    @Transactional(readOnly = true)
+    public List<InventoryBatchBalance> getBatches(UUID tenantId, UUID productId) {
+        return inventoryBatchBalanceRepository.findByTenantIdAndProductId(tenantId, productId);
+    }
+
+    /** Batches with stock that expire between today and today + days, soonest first. */
+    @Transactional(readOnly = true)
+    public List<InventoryBatchBalance> getExpiring(UUID tenantId, int days) {
+        LocalDate today = LocalDate.now();
+        return inventoryBatchBalanceRepository.findExpiring(tenantId, today, today.plusDays(days));
+    }
+
+    // Same basis as the dashboard stock value: unit cost x signed quantity, nothing for uncosted movements
+    private static BigDecimal value(BigDecimal unitCost, int delta) {
+        return unitCost != null ? unitCost.multiply(BigDecimal.valueOf(delta)) : BigDecimal.ZERO;
+    }
+
+    private static int nullToZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
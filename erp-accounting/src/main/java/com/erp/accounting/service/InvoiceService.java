@@ -0,0 +1,68 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.entity.Invoice;
+import com.erp.accounting.entity.InvoiceLine;
+import com.erp.accounting.entity.Tenant;
+import com.erp.accounting.event.InvoiceCreatedEvent;
+import com.erp.accounting.repository.InvoiceLineRepository;
+import com.erp.accounting.repository.InvoiceRepository;
+import com.erp.accounting.repository.TenantRepository;
+import com.erp.accounting.service.FxRateService.Conversion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Creates invoices with their lines and base-currency amounts, and announces them with
+ * InvoiceCreatedEvent. Used by the invoice API and by recurring invoice generation.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoiceService {
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceLineRepository invoiceLineRepository;
+    private final TenantRepository tenantRepository;
+    private final FxRateService fxRateService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public Invoice create(Invoice invoice, List<InvoiceLine> lines) {
+        applyBaseCurrency(invoice);
+        Invoice saved = invoiceRepository.save(invoice);
+        if (lines != null && !lines.isEmpty()) {
+            for (int i = 0; i < lines.size(); i++) {
+                InvoiceLine line = lines.get(i);
+                line.setInvoiceId(saved.getInvoiceId());
+                if (line.getLineNumber() == null) {
+                    line.setLineNumber(i + 1);
+                }
+            }
+            invoiceLineRepository.saveAll(lines);
+        }
+        eventPublisher.publishEvent(new InvoiceCreatedEvent(saved));
+        return saved;
+    }
+
+    // Invoice amounts stay in the invoice currency; baseTotalAmount is the tenant-currency value
+    private void applyBaseCurrency(Invoice invoice) {
+        String baseCurrency = tenantRepository.findById(invoice.getTenantId())
+            .map(Tenant::getCurrency)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tenant not found"));
+        if (invoice.getCurrencyCode() == null || invoice.getCurrencyCode().equalsIgnoreCase(baseCurrency)) {
+            invoice.setCurrencyCode(baseCurrency);
+            invoice.setExchangeRate(BigDecimal.ONE);
+            invoice.setBaseTotalAmount(invoice.getTotalAmount());
+            return;
+        }
+        Conversion conversion = fxRateService.convert(invoice.getTotalAmount(), invoice.getCurrencyCode(),
+            baseCurrency, invoice.getInvoiceDate());
+        invoice.setCurrencyCode(invoice.getCurrencyCode().toUpperCase());
+        invoice.setExchangeRate(conversion.rate());
+        invoice.setBaseTotalAmount(conversion.amount());
+    }
+}
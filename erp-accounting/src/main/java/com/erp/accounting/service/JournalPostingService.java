@@ -0,0 +1,217 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.JournalPostingRequest;
+import com.erp.accounting.entity.BalanceType;
+import com.erp.accounting.entity.Dimension;
+import com.erp.accounting.entity.DimensionType;
+import com.erp.accounting.entity.GeneralLedger;
+import com.erp.accounting.entity.JournalEntry;
+import com.erp.accounting.entity.JournalStatus;
+import com.erp.accounting.entity.Posting;
+import com.erp.accounting.entity.PostingType;
+import com.erp.accounting.entity.Tenant;
+import com.erp.accounting.repository.DimensionRepository;
+import com.erp.accounting.repository.GeneralLedgerRepository;
+import com.erp.accounting.repository.JournalEntryRepository;
+import com.erp.accounting.repository.PostingRepository;
+import com.erp.accounting.repository.TenantRepository;
+import com.erp.accounting.service.FxRateService.Conversion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Posts a balanced journal: header, postings and the matching general_ledger rows in one
+ * transaction. Every leg is stored in both its transaction currency and the tenant's base
+ * currency; the balance check is done on base amounts, after the rounding of foreign legs that
+ * balance in their own currency has been absorbed.
+ */
+@Service
+@RequiredArgsConstructor
+public class JournalPostingService {
+    private final TenantRepository tenantRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final PostingRepository postingRepository;
+    private final GeneralLedgerRepository generalLedgerRepository;
+    private final FxRateService fxRateService;
+    private final DimensionRepository dimensionRepository;
+
+    @Transactional
+    public JournalEntry post(JournalPostingRequest request) {
+        JournalEntry entry = request.entry();
+        List<Posting> postings = request.postings();
+        if (entry == null || postings == null || postings.size() < 2) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A journal needs a header and at least two postings");
+        }
+        Tenant tenant = tenantRepository.findById(entry.getTenantId())
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tenant not found"));
+        LocalDate entryDate = entry.getEntryDate() != null ? entry.getEntryDate() : LocalDate.now();
+
+        BigDecimal debit = BigDecimal.ZERO;
+        BigDecimal credit = BigDecimal.ZERO;
+        for (int i = 0; i < postings.size(); i++) {
+            Posting posting = postings.get(i);
+            posting.setTenantId(entry.getTenantId());
+            if (posting.getLineNumber() == null) {
+                posting.setLineNumber(i + 1);
+            }
+            toBaseCurrency(posting, tenant.getCurrency(), entryDate);
+        }
+        absorbRounding(postings, tenant.getCurrency());
+        for (Posting posting : postings) {
+            if (posting.getPostingType() == PostingType.DEBIT) {
+                debit = debit.add(posting.getAmount());
+            } else {
+                credit = credit.add(posting.getAmount());
+            }
+        }
+        checkDimensions(entry.getTenantId(), postings);
+        if (debit.compareTo(credit) != 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Journal is not balanced in " + tenant.getCurrency() + ": debit " + debit + ", credit " + credit);
+        }
+
+        entry.setEntryDate(entryDate);
+        entry.setTotalDebit(debit);
+        entry.setTotalCredit(credit);
+        entry.setIsBalanced(true);
+        entry.setStatus(JournalStatus.POSTED);
+        entry.setPostedAt(LocalDateTime.now());
+        JournalEntry saved = journalEntryRepository.save(entry);
+
+        List<GeneralLedger> ledgerRows = new ArrayList<>(postings.size());
+        for (Posting posting : postings) {
+            posting.setJournalId(saved.getJournalId());
+            ledgerRows.add(GeneralLedger.builder()
+                .tenantId(saved.getTenantId())
+                .accountId(posting.getAccountId())
+                .journalId(saved.getJournalId())
+                .transactionDate(entryDate)
+                .postingDate(LocalDate.now())
+                .entryType(posting.getPostingType() == PostingType.DEBIT ? BalanceType.DEBIT : BalanceType.CREDIT)
+                .amount(posting.getAmount())
+                .transactionCurrency(posting.getTransactionCurrency())
+                .transactionAmount(posting.getTransactionAmount())
+                .exchangeRate(posting.getExchangeRate())
+                .branchId(posting.getBranchId())
+                .costCenterId(posting.getCostCenterId())
+                .projectId(posting.getProjectId())
+                .description(posting.getLineDescription() != null ? posting.getLineDescription() : saved.getDescription())
+                .isPosted(true)
+                .build());
+        }
+        postingRepository.saveAll(postings);
+        generalLedgerRepository.saveAll(ledgerRows);
+        return saved;
+    }
+
+    /**
+     * Legs are converted and rounded one at a time, so legs of a currency that balance in that
+     * currency can be a cent or two apart in base currency. The difference is taken up by the
+     * currency's largest leg. Currencies whose legs do not balance on their own (a USD receipt
+     * against an INR leg) are left alone and must balance in base currency as given.
+     */
+    private static void absorbRounding(List<Posting> postings, String baseCurrency) {
+        Map<String, List<Posting>> byCurrency = postings.stream()
+            .collect(Collectors.groupingBy(Posting::getTransactionCurrency, LinkedHashMap::new, Collectors.toList()));
+        byCurrency.forEach((currency, legs) -> {
+            if (currency.equals(baseCurrency) || net(legs, Posting::getTransactionAmount).signum() != 0) {
+                return;
+            }
+            BigDecimal difference = net(legs, Posting::getAmount);
+            if (difference.signum() != 0) {
+                Posting largest = legs.stream().max(Comparator.comparing(Posting::getAmount)).orElseThrow();
+                largest.setAmount(largest.getPostingType() == PostingType.DEBIT
+                    ? largest.getAmount().subtract(difference)
+                    : largest.getAmount().add(difference));
+            }
+        });
+    }
+
+    // Debits less credits
+    private static BigDecimal net(List<Posting> legs, Function<Posting, BigDecimal> amount) {
+        BigDecimal net = BigDecimal.ZERO;
+        for (Posting leg : legs) {
+            net = leg.getPostingType() == PostingType.DEBIT ? net.add(amount.apply(leg)) : net.subtract(amount.apply(leg));
+        }
+        return net;
+    }
+
+    /** Dimension tags must be active values of the tenant's list, of the dimension they are used for. */
+    private void checkDimensions(UUID tenantId, List<Posting> postings) {
+        Set<UUID> ids = new HashSet<>();
+        for (Posting posting : postings) {
+            ids.add(posting.getBranchId());
+            ids.add(posting.getCostCenterId());
+            ids.add(posting.getProjectId());
+        }
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<UUID, Dimension> dimensions = dimensionRepository.findAllById(ids).stream()
+            .filter(d -> d.getTenantId().equals(tenantId) && Boolean.TRUE.equals(d.getIsActive()))
+            .collect(Collectors.toMap(Dimension::getDimensionId, Function.identity()));
+        for (Posting posting : postings) {
+            checkDimension(dimensions, posting, posting.getBranchId(), DimensionType.BRANCH);
+            checkDimension(dimensions, posting, posting.getCostCenterId(), DimensionType.COST_CENTER);
+            checkDimension(dimensions, posting, posting.getProjectId(), DimensionType.PROJECT);
+        }
+    }
+
+    private static void checkDimension(Map<UUID, Dimension> dimensions, Posting posting, UUID id, DimensionType type) {
+        if (id == null) {
+            return;
+        }
+        Dimension dimension = dimensions.get(id);
+        if (dimension == null || dimension.getDimensionType() != type) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Posting line " + posting.getLineNumber() + " has no active " + type + " " + id);
+        }
+    }
+
+    /**
+     * Legs without a transaction currency are taken to be in base currency. Foreign legs get
+     * amount = transactionAmount x rate on the entry date.
+     */
+    private void toBaseCurrency(Posting posting, String baseCurrency, LocalDate date) {
+        if (posting.getTransactionCurrency() == null || posting.getTransactionCurrency().equalsIgnoreCase(baseCurrency)) {
+            if (posting.getAmount() == null) {
+                posting.setAmount(posting.getTransactionAmount());
+            }
+            posting.setTransactionCurrency(baseCurrency);
+            posting.setTransactionAmount(posting.getAmount());
+            posting.setExchangeRate(BigDecimal.ONE);
+        } else {
+            if (posting.getTransactionAmount() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Posting line " + posting.getLineNumber() + " needs a transactionAmount");
+            }
+            Conversion conversion = fxRateService.convert(posting.getTransactionAmount(),
+                posting.getTransactionCurrency(), baseCurrency, date);
+            posting.setTransactionCurrency(posting.getTransactionCurrency().toUpperCase(Locale.ROOT));
+            posting.setExchangeRate(conversion.rate());
+            posting.setAmount(conversion.amount());
+        }
+        if (posting.getAmount() == null || posting.getAmount().signum() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Posting line " + posting.getLineNumber() + " needs a positive amount");
+        }
+    }
+}
@@ -0,0 +1,668 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ArchiveRunResult;
+import com.erp.accounting.entity.GeneralLedger;
+import com.erp.accounting.entity.InventoryLedger;
+import com.erp.accounting.repository.GeneralLedgerRepository;
+import com.erp.accounting.repository.InventoryLedgerRepository;
+import com.erp.accounting.util.ArchiveSegmentWriter;
+import com.erp.accounting.util.ArchiveSegmentWriter.Block;
+import com.erp.accounting.util.ArchiveStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Moves closed-period general_ledger, postings and inventory_ledger rows to cold storage and
+ * serves them back to readers (see migration 027).
+ * <p>
+ * A run archives rows dated before the first of the month {@code erp.archive.retention-months}
+ * ago. Rows leave the hot table through DELETE ... RETURNING and are streamed, by month and key,
+ * into segment files; each file is stored and read back against its SHA-256 before the delete
+ * commits together with the segment's index rows, so a row is always either hot or archived.
+ * General ledger and stock rows go one month per transaction. Postings go as a prefix of the
+ * tenant's hash chain, in chunks of {@code erp.archive.batch-rows} that are rehashed first, up to
+ * the first posting of a journal in an open period; a journal's general ledger rows follow once
+ * all of its postings have gone.
+ * <p>
+ * Reads for a range starting before the tenant's cut-off merge the hot rows with the archived
+ * ones, fetching only the blocks of the requested account or product.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerArchiveService {
+    private static final LocalDate BEGINNING = LocalDate.of(1900, 1, 1);
+    private static final LocalDate END = LocalDate.of(9999, 12, 31);
+
+    public enum Dataset {
+        GENERAL_LEDGER("transactionDate"),
+        POSTINGS("entryDate"),
+        INVENTORY_LEDGER("transactionDate");
+
+        // JSON field that dates a row; date-times are compared on their date
+        private final String dateField;
+
+        Dataset(String dateField) {
+            this.dateField = dateField;
+        }
+    }
+
+    // The archive_* columns give each row's key, date and totals and are not stored with it
+    private static final String MOVE_GENERAL_LEDGER =
+        "WITH moved AS (DELETE FROM accounting.general_ledger g WHERE g.tenant_id = ? " +
+        "AND g.transaction_date >= ? AND g.transaction_date < ? " +
+        "AND NOT EXISTS (SELECT 1 FROM accounting.postings p WHERE p.journal_id = g.journal_id) RETURNING g.*) " +
+        "SELECT m.*, m.account_id AS archive_key, m.transaction_date AS archive_date, " +
+        "CASE WHEN m.entry_type = 'DEBIT' THEN m.amount ELSE 0 END AS archive_in, " +
+        "CASE WHEN m.entry_type = 'CREDIT' THEN m.amount ELSE 0 END AS archive_out " +
+        "FROM moved m ORDER BY archive_key, archive_date, m.created_at, m.gl_id";
+
+    private static final String GENERAL_LEDGER_MONTHS =
+        "SELECT DISTINCT date_trunc('month', g.transaction_date)::date FROM accounting.general_ledger g " +
+        "WHERE g.tenant_id = ? AND g.transaction_date < ? " +
+        "AND NOT EXISTS (SELECT 1 FROM accounting.postings p WHERE p.journal_id = g.journal_id) ORDER BY 1";
+
+    private static final String MOVE_POSTINGS =
+        "WITH moved AS (DELETE FROM accounting.postings p USING accounting.journal_entries j " +
+        "WHERE p.tenant_id = ? AND p.chain_seq > ? AND p.chain_seq <= ? AND j.journal_id = p.journal_id " +
+        "RETURNING p.*, j.entry_date) " +
+        "SELECT m.*, m.account_id AS archive_key, m.entry_date AS archive_date, " +
+        "CASE WHEN m.posting_type = 'DEBIT' THEN m.amount ELSE 0 END AS archive_in, " +
+        "CASE WHEN m.posting_type = 'CREDIT' THEN m.amount ELSE 0 END AS archive_out " +
+        "FROM moved m ORDER BY date_trunc('month', m.entry_date), archive_key, archive_date, m.chain_seq";
+
+    // The chain can be archived up to just before the first posting of an open-period journal
+    private static final String FIRST_OPEN_POSTING =
+        "SELECT MIN(p.chain_seq) FROM accounting.postings p " +
+        "JOIN accounting.journal_entries j ON j.journal_id = p.journal_id " +
+        "WHERE p.tenant_id = ? AND p.chain_seq > ? AND j.entry_date >= ?";
+
+    private static final String MARK_JOURNALS =
+        "UPDATE accounting.journal_entries j SET archived_at = now() " +
+        "WHERE j.journal_id = ANY(?) AND j.archived_at IS NULL " +
+        "AND NOT EXISTS (SELECT 1 FROM accounting.postings p WHERE p.journal_id = j.journal_id)";
+
+    private static final String MOVE_INVENTORY =
+        "WITH moved AS (DELETE FROM accounting.inventory_ledger WHERE tenant_id = ? " +
+        "AND transaction_date >= ? AND transaction_date < ? RETURNING *) " +
+        "SELECT m.*, m.product_id AS archive_key, m.transaction_date::date AS archive_date, " +
+        "COALESCE(m.quantity_in, 0) AS archive_in, COALESCE(m.quantity_out, 0) AS archive_out " +
+        "FROM moved m ORDER BY archive_key, m.transaction_date, m.created_at, m.ledger_id";
+
+    private static final String INVENTORY_MONTHS =
+        "SELECT DISTINCT date_trunc('month', transaction_date)::date FROM accounting.inventory_ledger " +
+        "WHERE tenant_id = ? AND transaction_date < ? ORDER BY 1";
+
+    private static final String UPSERT_STATE =
+        "INSERT INTO accounting.ledger_archive_state (tenant_id, archived_through) VALUES (?, ?) " +
+        "ON CONFLICT (tenant_id) DO UPDATE SET archived_through = " +
+        "GREATEST(ledger_archive_state.archived_through, EXCLUDED.archived_through), updated_at = now()";
+
+    // Serialises archiving per tenant; the row exists once a run has started
+    private static final String LOCK_STATE =
+        "SELECT chain_seq, chain_hash FROM accounting.ledger_archive_state WHERE tenant_id = ? FOR UPDATE";
+
+    private static final String INSERT_SEGMENT =
+        "INSERT INTO accounting.archive_segments (segment_id, tenant_id, dataset, period_month, first_date, last_date, " +
+        "row_count, byte_size, sha256, object_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_BLOCK =
+        "INSERT INTO accounting.archive_segment_keys (segment_id, tenant_id, dataset, key_id, first_date, last_date, " +
+        "row_count, block_offset, block_length, block_crc32, total_in, total_out) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String BLOCKS =
+        "SELECT s.period_month, s.object_key, k.block_offset, k.block_length, k.block_crc32, k.first_date, k.last_date " +
+        "FROM accounting.archive_segment_keys k JOIN accounting.archive_segments s ON s.segment_id = k.segment_id " +
+        "WHERE k.tenant_id = ? AND k.dataset = ? AND k.first_date <= ? AND k.last_date >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ArchiveStore archiveStore;
+    private final LedgerChainVerifier ledgerChainVerifier;
+    private final GeneralLedgerRepository generalLedgerRepository;
+    private final InventoryLedgerRepository inventoryLedgerRepository;
+
+    @Value("${erp.archive.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${erp.archive.batch-rows:100000}")
+    private int batchRows;
+
+    @Value("${erp.archive.fetch-size:5000}")
+    private int fetchSize;
+
+    /** Monthly archival for active tenants; disabled unless a cron is set. */
+    @Scheduled(cron = "${erp.archive.cron:-}")
+    public void archiveAll() {
+        LocalDate through = cutoff();
+        List<UUID> tenants = jdbcTemplate.queryForList(
+            "SELECT tenant_id FROM accounting.tenants WHERE is_active", UUID.class);
+        for (UUID tenantId : tenants) {
+            try {
+                ArchiveRunResult result = archive(tenantId, through);
+                if (result.postingsStopped() != null) {
+                    log.error("Postings of tenant {} not archived: {}", tenantId, result.postingsStopped());
+                }
+            } catch (RuntimeException e) {
+                log.error("Archival failed for tenant {}", tenantId, e);
+            }
+        }
+    }
+
+    /** First day of the earliest month still kept hot. */
+    public LocalDate cutoff() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths);
+    }
+
+    /** Archives rows dated before the first of {@code through}'s month, which must be a closed period. */
+    public ArchiveRunResult archive(UUID tenantId, LocalDate through) {
+        LocalDate cutoff = through.withDayOfMonth(1);
+        if (cutoff.isAfter(cutoff())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Only periods before " + cutoff() + " are closed for archival");
+        }
+        jdbcTemplate.update(UPSERT_STATE, tenantId, Date.valueOf(cutoff));
+
+        Map<Dataset, Moved> moved = new EnumMap<>(Dataset.class);
+        String postingsStopped = archivePostings(tenantId, cutoff, moved);
+        for (LocalDate month : jdbcTemplate.queryForList(GENERAL_LEDGER_MONTHS, LocalDate.class, tenantId, Date.valueOf(cutoff))) {
+            moved.merge(Dataset.GENERAL_LEDGER, moveMonth(tenantId, Dataset.GENERAL_LEDGER, MOVE_GENERAL_LEDGER, month),
+                Moved::plus);
+        }
+        for (LocalDate month : jdbcTemplate.queryForList(INVENTORY_MONTHS, LocalDate.class, tenantId, Date.valueOf(cutoff))) {
+            moved.merge(Dataset.INVENTORY_LEDGER, moveMonth(tenantId, Dataset.INVENTORY_LEDGER, MOVE_INVENTORY, month),
+                Moved::plus);
+        }
+
+        Moved total = moved.values().stream().reduce(Moved.NONE, Moved::plus);
+        log.info("Archived {} rows of tenant {} before {} into {} segments ({} bytes)",
+            total.rows(), tenantId, cutoff, total.segments(), total.bytes());
+        return new ArchiveRunResult(tenantId, cutoff, total.segments(),
+            moved.getOrDefault(Dataset.GENERAL_LEDGER, Moved.NONE).rows(),
+            moved.getOrDefault(Dataset.POSTINGS, Moved.NONE).rows(),
+            moved.getOrDefault(Dataset.INVENTORY_LEDGER, Moved.NONE).rows(),
+            total.bytes(), postingsStopped);
+    }
+
+    /** General ledger rows, hot and archived, by transaction date; null bounds are open. */
+    public List<GeneralLedger> generalLedger(UUID tenantId, UUID accountId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : BEGINNING;
+        LocalDate end = to != null ? to : END;
+        List<GeneralLedger> rows = new ArrayList<>(accountId != null
+            ? generalLedgerRepository.findByTenantIdAndAccountIdAndTransactionDateBetween(tenantId, accountId, start, end)
+            : generalLedgerRepository.findByTenantIdAndTransactionDateBetween(tenantId, start, end));
+        try (Stream<JsonNode> archived = archived(tenantId, Dataset.GENERAL_LEDGER, accountId, start, end)) {
+            archived.forEach(node -> rows.add(convert(node, GeneralLedger.class)));
+        }
+        rows.sort(Comparator.comparing(GeneralLedger::getTransactionDate)
+            .thenComparing(GeneralLedger::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        return rows;
+    }
+
+    /** Stock movements, hot and archived, by transaction date; null bounds are open. */
+    public List<InventoryLedger> inventoryMovements(UUID tenantId, UUID productId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : BEGINNING;
+        LocalDate end = to != null ? to : END;
+        List<InventoryLedger> rows = new ArrayList<>(productId != null
+            ? inventoryLedgerRepository.findByTenantIdAndProductIdAndTransactionDateBetween(tenantId, productId,
+                start.atStartOfDay(), end.atTime(LocalTime.MAX))
+            : inventoryLedgerRepository.findByTenantIdAndTransactionDateBetween(tenantId,
+                start.atStartOfDay(), end.atTime(LocalTime.MAX)));
+        try (Stream<JsonNode> archived = archived(tenantId, Dataset.INVENTORY_LEDGER, productId, start, end)) {
+            archived.forEach(node -> rows.add(convert(node, InventoryLedger.class)));
+        }
+        rows.sort(Comparator.comparing(InventoryLedger::getTransactionDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(InventoryLedger::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        return rows;
+    }
+
+    /**
+     * Archived rows of one key (or all keys when keyId is null) dated in [from, to], as stored:
+     * JSON objects with the table's columns in camelCase. Ordered by date; blocks are fetched a
+     * month at a time as the stream is consumed.
+     */
+    public Stream<JsonNode> archived(UUID tenantId, Dataset dataset, UUID keyId, LocalDate from, LocalDate to) {
+        LocalDate archivedThrough = archivedThrough(tenantId);
+        if (archivedThrough == null || !from.isBefore(archivedThrough)) {
+            return Stream.empty();
+        }
+        Map<LocalDate, List<BlockRef>> months = blocks(tenantId, dataset, keyId, Date.valueOf(to), Date.valueOf(from))
+            .stream()
+            .collect(Collectors.groupingBy(BlockRef::month, LinkedHashMap::new, Collectors.toList()));
+        return months.values().stream().flatMap(blocks -> rows(dataset, blocks, from, to).stream());
+    }
+
+    /** Debits less credits of one account's archived general ledger rows dated before {@code before}. */
+    public BigDecimal archivedNet(UUID tenantId, UUID accountId, LocalDate before) {
+        BigDecimal whole = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(total_in - total_out), 0) FROM accounting.archive_segment_keys " +
+            "WHERE tenant_id = ? AND dataset = ? AND key_id = ? AND last_date < ?",
+            BigDecimal.class, tenantId, Dataset.GENERAL_LEDGER.name(), accountId, Date.valueOf(before));
+        // Blocks spanning the date contribute only their earlier rows
+        Date day = Date.valueOf(before);
+        List<BlockRef> spanning = blocks(tenantId, Dataset.GENERAL_LEDGER, accountId, day, day).stream()
+            .filter(block -> block.firstDate().isBefore(before))
+            .toList();
+        BigDecimal partial = BigDecimal.ZERO;
+        for (JsonNode row : rows(Dataset.GENERAL_LEDGER, spanning, BEGINNING, before.minusDays(1))) {
+            BigDecimal amount = row.get("amount").decimalValue();
+            partial = partial.add("DEBIT".equals(row.get("entryType").asText()) ? amount : amount.negate());
+        }
+        return whole.add(partial);
+    }
+
+    /**
+     * Debit and credit totals of archived general ledger rows dated in [from, to], per account with
+     * any. Blocks inside the range count through their stored totals; only blocks that straddle a
+     * bound are read.
+     */
+    public Map<UUID, BigDecimal[]> archivedTotals(UUID tenantId, LocalDate from, LocalDate to) {
+        Map<UUID, BigDecimal[]> totals = new HashMap<>();
+        LocalDate archivedThrough = archivedThrough(tenantId);
+        if (archivedThrough == null || !from.isBefore(archivedThrough)) {
+            return totals;
+        }
+        jdbcTemplate.query(
+            "SELECT key_id, SUM(total_in), SUM(total_out) FROM accounting.archive_segment_keys " +
+            "WHERE tenant_id = ? AND dataset = ? AND first_date >= ? AND last_date <= ? GROUP BY key_id",
+            (RowCallbackHandler) rs -> totals.put(rs.getObject(1, UUID.class),
+                new BigDecimal[] {rs.getBigDecimal(2), rs.getBigDecimal(3)}),
+            tenantId, Dataset.GENERAL_LEDGER.name(), Date.valueOf(from), Date.valueOf(to));
+        List<BlockRef> straddling = blocks(tenantId, Dataset.GENERAL_LEDGER, null, Date.valueOf(to), Date.valueOf(from))
+            .stream()
+            .filter(block -> block.firstDate().isBefore(from) || block.lastDate().isAfter(to))
+            .toList();
+        for (JsonNode row : rows(Dataset.GENERAL_LEDGER, straddling, from, to)) {
+            BigDecimal amount = row.get("amount").decimalValue();
+            boolean debit = "DEBIT".equals(row.get("entryType").asText());
+            BigDecimal[] account = totals.computeIfAbsent(UUID.fromString(row.get("accountId").asText()),
+                id -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+            account[debit ? 0 : 1] = account[debit ? 0 : 1].add(amount);
+        }
+        return totals;
+    }
+
+    private String archivePostings(UUID tenantId, LocalDate cutoff, Map<Dataset, Moved> moved) {
+        while (true) {
+            List<String> stored = new ArrayList<>();
+            Chunk chunk = inTransaction(stored, status -> {
+                ChainPosition from = lockState(tenantId);
+                Long firstOpen = jdbcTemplate.queryForObject(FIRST_OPEN_POSTING, Long.class,
+                    tenantId, from.seq(), Date.valueOf(cutoff));
+                long bound = firstOpen != null ? firstOpen - 1 : jdbcTemplate.query(
+                    "SELECT last_seq FROM accounting.ledger_chain_head WHERE tenant_id = ?",
+                    (rs, n) -> rs.getLong(1), tenantId).stream().findFirst().orElse(0L);
+                if (bound <= from.seq()) {
+                    return new Chunk(Moved.NONE, false, null);
+                }
+                long to = Math.min(bound, from.seq() + batchRows);
+                String hash = ledgerChainVerifier.rehash(tenantId, from.seq(), from.hash(), to);
+                if (hash == null) {
+                    return new Chunk(Moved.NONE, false,
+                        "posting chain does not verify between seq " + from.seq() + " and " + to);
+                }
+
+                Set<UUID> journals = new HashSet<>();
+                Moved chunkMoved = moveRows(tenantId, Dataset.POSTINGS, stored, journals, MOVE_POSTINGS,
+                    tenantId, from.seq(), to);
+                jdbcTemplate.update("UPDATE accounting.ledger_archive_state SET chain_seq = ?, chain_hash = ?, " +
+                    "updated_at = now() WHERE tenant_id = ?", to, hash, tenantId);
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(MARK_JOURNALS);
+                    ps.setArray(1, con.createArrayOf("uuid", journals.toArray()));
+                    return ps;
+                });
+                return new Chunk(chunkMoved, to < bound, null);
+            });
+            moved.merge(Dataset.POSTINGS, chunk.moved(), Moved::plus);
+            if (!chunk.more()) {
+                return chunk.stopped();
+            }
+        }
+    }
+
+    private Moved moveMonth(UUID tenantId, Dataset dataset, String sql, LocalDate month) {
+        List<String> stored = new ArrayList<>();
+        return inTransaction(stored, status -> {
+            lockState(tenantId);
+            return moveRows(tenantId, dataset, stored, null, sql,
+                tenantId, Date.valueOf(month), Date.valueOf(month.plusMonths(1)));
+        });
+    }
+
+    // Objects stored by a transaction that then rolls back are removed again
+    private <T> T inTransaction(List<String> stored, TransactionCallback<T> work) {
+        try {
+            return transactionTemplate.execute(work);
+        } catch (RuntimeException e) {
+            for (String key : stored) {
+                try {
+                    archiveStore.delete(key);
+                } catch (IOException | RuntimeException cleanup) {
+                    log.warn("Could not remove orphaned archive object {}", key, cleanup);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private ChainPosition lockState(UUID tenantId) {
+        return jdbcTemplate.queryForObject(LOCK_STATE,
+            (rs, n) -> new ChainPosition(rs.getLong(1), rs.getString(2)), tenantId);
+    }
+
+    /** Deletes the rows selected by sql into segments and indexes them; runs inside the caller's transaction. */
+    private Moved moveRows(UUID tenantId, Dataset dataset, List<String> stored, Set<UUID> journals, String sql,
+                           Object... params) {
+        SegmentSink sink = new SegmentSink(tenantId, dataset, stored, journals);
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                return ps;
+            }, sink);
+            sink.complete();
+        } catch (IOException e) {
+            sink.abort();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            sink.abort();
+            throw e;
+        }
+
+        Moved total = Moved.NONE;
+        for (Segment segment : sink.segments) {
+            jdbcTemplate.update(INSERT_SEGMENT, segment.segmentId(), tenantId, dataset.name(), Date.valueOf(segment.month()),
+                Date.valueOf(segment.firstDate()), Date.valueOf(segment.lastDate()), segment.rows(), segment.bytes(),
+                segment.sha256(), segment.objectKey());
+            jdbcTemplate.batchUpdate(INSERT_BLOCK, segment.blocks(), segment.blocks().size(), (ps, block) -> {
+                ps.setObject(1, segment.segmentId());
+                ps.setObject(2, tenantId);
+                ps.setString(3, dataset.name());
+                ps.setObject(4, block.keyId());
+                ps.setDate(5, Date.valueOf(block.firstDate()));
+                ps.setDate(6, Date.valueOf(block.lastDate()));
+                ps.setInt(7, block.rows());
+                ps.setLong(8, block.offset());
+                ps.setInt(9, block.length());
+                ps.setLong(10, block.crc32());
+                ps.setBigDecimal(11, block.totalIn());
+                ps.setBigDecimal(12, block.totalOut());
+            });
+            total = total.plus(new Moved(1, segment.rows(), segment.bytes()));
+        }
+        return total;
+    }
+
+    private List<BlockRef> blocks(UUID tenantId, Dataset dataset, UUID keyId, Date to, Date from) {
+        String sql = BLOCKS + (keyId != null ? " AND k.key_id = ?" : "") +
+            " ORDER BY s.period_month, s.object_key, k.block_offset";
+        Object[] params = keyId != null
+            ? new Object[] {tenantId, dataset.name(), to, from, keyId}
+            : new Object[] {tenantId, dataset.name(), to, from};
+        return jdbcTemplate.query(sql, (rs, n) -> new BlockRef(rs.getDate(1).toLocalDate(), rs.getString(2),
+            rs.getLong(3), rs.getInt(4), rs.getLong(5), rs.getDate(6).toLocalDate(), rs.getDate(7).toLocalDate()), params);
+    }
+
+    // Reads and checks the blocks, keeping rows dated in [from, to] in date order
+    private List<JsonNode> rows(Dataset dataset, List<BlockRef> blocks, LocalDate from, LocalDate to) {
+        String first = from.toString();
+        String last = to.toString();
+        List<JsonNode> rows = new ArrayList<>();
+        for (BlockRef block : blocks) {
+            try {
+                byte[] bytes = archiveStore.read(block.objectKey(), block.offset(), block.length());
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                if (crc.getValue() != block.crc32()) {
+                    throw new IllegalStateException("Archive block at " + block.offset() + " of " + block.objectKey() +
+                        " fails its checksum");
+                }
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        JsonNode row = objectMapper.readTree(line);
+                        String day = day(dataset, row);
+                        if (day.compareTo(first) >= 0 && day.compareTo(last) <= 0) {
+                            rows.add(row);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        rows.sort(Comparator.comparing((JsonNode row) -> row.get(dataset.dateField).asText())
+            .thenComparing(row -> row.path("createdAt").asText()));
+        return rows;
+    }
+
+    private static String day(Dataset dataset, JsonNode row) {
+        return row.get(dataset.dateField).asText().substring(0, 10);
+    }
+
+    private LocalDate archivedThrough(UUID tenantId) {
+        return jdbcTemplate.query("SELECT archived_through FROM accounting.ledger_archive_state WHERE tenant_id = ?",
+            (rs, n) -> rs.getDate(1).toLocalDate(), tenantId).stream().findFirst().orElse(null);
+    }
+
+    private <T> T convert(JsonNode row, Class<T> type) {
+        try {
+            return objectMapper.treeToValue(row, type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void verifyStored(String objectKey, String sha256) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(archiveStore.open(objectKey), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equals(sha256)) {
+            throw new IllegalStateException("Archive object " + objectKey + " does not match what was written");
+        }
+    }
+
+    private static String camelCase(String column) {
+        StringBuilder name = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char c : column.toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+
+    // Dates as ISO strings and enums as their names, so rows read back into the entities
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        if (value == null || value instanceof Number || value instanceof Boolean || value instanceof UUID) {
+            return value;
+        }
+        return rs.getString(column);
+    }
+
+    private record ChainPosition(long seq, String hash) {
+    }
+
+    private record Chunk(Moved moved, boolean more, String stopped) {
+    }
+
+    private record Moved(int segments, long rows, long bytes) {
+        static final Moved NONE = new Moved(0, 0, 0);
+
+        Moved plus(Moved other) {
+            return new Moved(segments + other.segments, rows + other.rows, bytes + other.bytes);
+        }
+    }
+
+    private record Segment(UUID segmentId, LocalDate month, LocalDate firstDate, LocalDate lastDate, long rows,
+                           long bytes, String sha256, String objectKey, List<Block> blocks) {
+    }
+
+    private record BlockRef(LocalDate month, String objectKey, long offset, int length, long crc32, LocalDate firstDate,
+                            LocalDate lastDate) {
+    }
+
+    /** Splits the moved rows into one segment file per month and stores each as it completes. */
+    private class SegmentSink implements RowCallbackHandler {
+        private final UUID tenantId;
+        private final Dataset dataset;
+        private final List<String> stored;
+        private final Set<UUID> journals;
+        private final List<Segment> segments = new ArrayList<>();
+        private String[] names;
+        private LocalDate month;
+        private Path file;
+        private ArchiveSegmentWriter writer;
+
+        SegmentSink(UUID tenantId, Dataset dataset, List<String> stored, Set<UUID> journals) {
+            this.tenantId = tenantId;
+            this.dataset = dataset;
+            this.stored = stored;
+            this.journals = journals;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (names == null) {
+                ResultSetMetaData meta = rs.getMetaData();
+                names = new String[meta.getColumnCount() + 1];
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    String label = meta.getColumnLabel(i);
+                    names[i] = label.startsWith("archive_") ? null : camelCase(label);
+                }
+            }
+            LocalDate date = rs.getDate("archive_date").toLocalDate();
+            try {
+                if (!date.withDayOfMonth(1).equals(month)) {
+                    complete();
+                    month = date.withDayOfMonth(1);
+                    file = Files.createTempFile("archive-", ".seg");
+                    writer = new ArchiveSegmentWriter(file, objectMapper);
+                }
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 1; i < names.length; i++) {
+                    Object value = names[i] != null ? value(rs, i) : null;
+                    if (value != null) {
+                        row.put(names[i], value);
+                    }
+                }
+                if (journals != null) {
+                    journals.add(rs.getObject("journal_id", UUID.class));
+                }
+                writer.add(rs.getObject("archive_key", UUID.class), date,
+                    rs.getBigDecimal("archive_in"), rs.getBigDecimal("archive_out"), row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void complete() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            String sha256 = writer.finish();
+            writer.close();
+            UUID segmentId = UUID.randomUUID();
+            String objectKey = tenantId + "/" + dataset.name().toLowerCase() + "/" + month.toString().substring(0, 7) +
+                "/" + segmentId + ".seg";
+            archiveStore.put(objectKey, file);
+            stored.add(objectKey);
+            verifyStored(objectKey, sha256);
+            Files.delete(file);
+
+            List<Block> blocks = writer.blocks();
+            LocalDate firstDate = blocks.stream().map(Block::firstDate).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDate lastDate = blocks.stream().map(Block::lastDate).max(Comparator.naturalOrder()).orElseThrow();
+            segments.add(new Segment(segmentId, month, firstDate, lastDate, writer.rows(), writer.bytes(), sha256,
+                objectKey, blocks));
+            writer = null;
+            file = null;
+        }
+
+        void abort() {
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                log.warn("Could not remove archive temp file {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ChainVerificationResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Verifies the per-tenant posting hash chains written by posting_chain_trigger.
+ * <p>
+ * Rows are streamed through a server-side cursor in chain order and rehashed here, so memory
+ * stays flat regardless of ledger size. Every {@code erp.audit.chain-segment-size} rows a
+ * checkpoint (segment end hash) is stored. An incremental run only rehashes rows after the last
+ * checkpoint and cross-checks every earlier checkpoint against the stored row hash in one query;
+ * a full run rehashes every segment, each seeded from the previous checkpoint, so segments of
+ * the same tenant verify in parallel too. Postings moved to cold storage are a prefix of the chain
+ * that was rehashed on the way out; verification starts after it, from the seq and hash kept in
+ * ledger_archive_state.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerChainVerifier {
+    static final String GENESIS_HASH = "0".repeat(64);
+
+    private static final String SCAN =
+        "SELECT tenant_id, chain_seq, journal_id, account_id, posting_type, amount, transaction_currency, " +
+        "transaction_amount, exchange_rate, line_number, prev_hash, row_hash FROM accounting.postings " +
+        "WHERE tenant_id = ? AND chain_seq > ? AND chain_seq <= ? ORDER BY chain_seq";
+
+    private static final String UPSERT_CHECKPOINT =
+        "INSERT INTO accounting.ledger_chain_checkpoints (tenant_id, segment_no, first_seq, last_seq, end_hash, verified_at) " +
+        "VALUES (?, ?, ?, ?, ?, now()) ON CONFLICT (tenant_id, segment_no) DO UPDATE SET " +
+        "first_seq = EXCLUDED.first_seq, last_seq = EXCLUDED.last_seq, end_hash = EXCLUDED.end_hash, verified_at = now()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${erp.audit.chain-segment-size:10000}")
+    private int segmentSize;
+
+    @Value("${erp.audit.verify-parallelism:4}")
+    private int parallelism;
+
+    @Value("${erp.audit.fetch-size:1000}")
+    private int fetchSize;
+
+    @Scheduled(cron = "${erp.audit.chain-verify-cron:0 0 3 * * *}")
+    public void verifyAll() {
+        for (ChainVerificationResult result : verify(null, false)) {
+            if (!result.valid()) {
+                log.error("Posting chain for tenant {} broken at {}: {}",
+                    result.tenantId(), result.brokenAtSeq(), result.reason());
+            }
+        }
+    }
+
+    /** Verifies one tenant, or every tenant with postings when tenantId is null. */
+    public List<ChainVerificationResult> verify(UUID tenantId, boolean full) {
+        List<Head> heads = tenantId != null
+            ? jdbcTemplate.query("SELECT tenant_id, last_seq, last_hash FROM accounting.ledger_chain_head WHERE tenant_id = ?",
+                LedgerChainVerifier::head, tenantId)
+            : jdbcTemplate.query("SELECT tenant_id, last_seq, last_hash FROM accounting.ledger_chain_head",
+                LedgerChainVerifier::head);
+
+        List<TenantRun> runs = new ArrayList<>(heads.size());
+        try (ExecutorService pool = Executors.newFixedThreadPool(parallelism)) {
+            for (Head head : heads) {
+                runs.add(plan(head, full, pool));
+            }
+            List<ChainVerificationResult> results = new ArrayList<>(runs.size());
+            for (TenantRun run : runs) {
+                results.add(run.collect());
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Rehashes postings (afterSeq, toSeq] of one tenant from startHash; returns the hash at toSeq,
+     * or null when the chain is broken in that range.
+     */
+    String rehash(UUID tenantId, long afterSeq, String startHash, long toSeq) {
+        RangeResult range = scan(tenantId, afterSeq, startHash, toSeq, false);
+        return range.brokenAt() == null ? range.endHash() : null;
+    }
+
+    private TenantRun plan(Head head, boolean full, ExecutorService pool) {
+        ArchivedPrefix archived = jdbcTemplate.query(
+            "SELECT chain_seq, chain_hash FROM accounting.ledger_archive_state WHERE tenant_id = ?",
+            (rs, n) -> new ArchivedPrefix(rs.getLong(1), rs.getString(2)), head.tenantId())
+            .stream().findFirst().orElse(new ArchivedPrefix(0, GENESIS_HASH));
+        List<Checkpoint> checkpoints = jdbcTemplate.query(
+            "SELECT segment_no, first_seq, last_seq, end_hash FROM accounting.ledger_chain_checkpoints " +
+            "WHERE tenant_id = ? AND last_seq > ? AND last_seq <= ? ORDER BY segment_no",
+            (rs, n) -> new Checkpoint(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4)),
+            head.tenantId(), archived.lastSeq(), head.lastSeq());
+
+        TenantRun run = new TenantRun(head);
+        long afterSeq = archived.lastSeq();
+        String startHash = archived.endHash();
+        run.rowsBefore = afterSeq;
+        if (full) {
+            for (Checkpoint checkpoint : checkpoints) {
+                long from = afterSeq;
+                String seed = startHash;
+                run.ranges.add(pool.submit(() -> scan(head.tenantId(), from, seed, checkpoint.lastSeq(), false)));
+                afterSeq = checkpoint.lastSeq();
+                startHash = checkpoint.endHash();
+            }
+        } else {
+            run.staleCheckpoint = jdbcTemplate.query(
+                "SELECT c.last_seq FROM accounting.ledger_chain_checkpoints c " +
+                "LEFT JOIN accounting.postings p ON p.tenant_id = c.tenant_id AND p.chain_seq = c.last_seq " +
+                "WHERE c.tenant_id = ? AND c.last_seq > ? AND p.row_hash IS DISTINCT FROM c.end_hash " +
+                "ORDER BY c.last_seq LIMIT 1",
+                (rs, n) -> rs.getLong(1), head.tenantId(), archived.lastSeq()).stream().findFirst().orElse(null);
+            if (!checkpoints.isEmpty()) {
+                Checkpoint last = checkpoints.get(checkpoints.size() - 1);
+                afterSeq = last.lastSeq();
+                startHash = last.endHash();
+                run.rowsBefore = afterSeq;
+            }
+        }
+        long tailFrom = afterSeq;
+        String tailSeed = startHash;
+        run.ranges.add(pool.submit(() -> scan(head.tenantId(), tailFrom, tailSeed, head.lastSeq(), true)));
+        return run;
+    }
+
+    /**
+     * Rehashes postings (afterSeq, toSeq] starting from startHash inside one read transaction so
+     * the driver can use a cursor. Completed segments are checkpointed when requested.
+     */
+    private RangeResult scan(UUID tenantId, long afterSeq, String startHash, long toSeq, boolean checkpoint) {
+        return transactionTemplate.execute(status -> {
+            RangeScan range = new RangeScan(afterSeq, startHash);
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SCAN);
+                ps.setFetchSize(fetchSize);
+                ps.setObject(1, tenantId);
+                ps.setLong(2, afterSeq);
+                ps.setLong(3, toSeq);
+                return ps;
+            }, range);
+            if (range.brokenAt == null && range.lastSeq != toSeq) {
+                range.fail(range.lastSeq + 1, "posting missing from chain");
+            }
+            if (checkpoint && !range.checkpoints.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_CHECKPOINT, range.checkpoints, range.checkpoints.size(), (ps, cp) -> {
+                    ps.setObject(1, tenantId);
+                    ps.setLong(2, cp.segmentNo());
+                    ps.setLong(3, cp.firstSeq());
+                    ps.setLong(4, cp.lastSeq());
+                    ps.setString(5, cp.endHash());
+                });
+            }
+            return new RangeResult(range.rows, range.hash, range.brokenAt, range.reason);
+        });
+    }
+
+    /** Canonical payload; must stay identical to accounting.posting_chain_hash(). */
+    static String payload(ResultSet rs) throws SQLException {
+        return String.join("|",
+            rs.getObject("tenant_id", UUID.class).toString(),
+            Long.toString(rs.getLong("chain_seq")),
+            rs.getObject("journal_id", UUID.class).toString(),
+            rs.getObject("account_id", UUID.class).toString(),
+            rs.getString("posting_type"),
+            rs.getBigDecimal("amount").toPlainString(),
+            nullToEmpty(rs.getString("transaction_currency")),
+            plain(rs.getBigDecimal("transaction_amount")),
+            plain(rs.getBigDecimal("exchange_rate")),
+            Integer.toString(rs.getInt("line_number")),
+            rs.getString("prev_hash"));
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static Head head(ResultSet rs, int rowNum) throws SQLException {
+        return new Head(rs.getObject(1, UUID.class), rs.getLong(2), rs.getString(3));
+    }
+
+    private record Head(UUID tenantId, long lastSeq, String lastHash) {
+    }
+
+    private record Checkpoint(long segmentNo, long firstSeq, long lastSeq, String endHash) {
+    }
+
+    private record ArchivedPrefix(long lastSeq, String endHash) {
+    }
+
+    private record RangeResult(long rows, String endHash, Long brokenAt, String reason) {
+    }
+
+    private class RangeScan implements RowCallbackHandler {
+        private final MessageDigest digest;
+        private final List<Checkpoint> checkpoints = new ArrayList<>();
+        private long lastSeq;
+        private String hash;
+        private long rows;
+        private Long brokenAt;
+        private String reason;
+
+        RangeScan(long afterSeq, String startHash) {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            this.lastSeq = afterSeq;
+            this.hash = startHash;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (brokenAt != null) {
+                return;
+            }
+            long seq = rs.getLong("chain_seq");
+            if (seq != lastSeq + 1) {
+                fail(lastSeq + 1, "posting missing from chain");
+                return;
+            }
+            if (!hash.equals(rs.getString("prev_hash"))) {
+                fail(seq, "prev_hash does not match preceding posting");
+                return;
+            }
+            String computed = HexFormat.of().formatHex(digest.digest(payload(rs).getBytes(StandardCharsets.UTF_8)));
+            if (!computed.equals(rs.getString("row_hash"))) {
+                fail(seq, "row contents do not match row_hash");
+                return;
+            }
+            lastSeq = seq;
+            hash = computed;
+            rows++;
+            if (seq % segmentSize == 0) {
+                checkpoints.add(new Checkpoint(seq / segmentSize - 1, seq - segmentSize + 1, seq, computed));
+            }
+        }
+
+        void fail(long seq, String why) {
+            brokenAt = seq;
+            reason = why;
+        }
+    }
+
+    private static class TenantRun {
+        private final Head head;
+        private final List<Future<RangeResult>> ranges = new ArrayList<>();
+        private long rowsBefore;
+        private Long staleCheckpoint;
+
+        TenantRun(Head head) {
+            this.head = head;
+        }
+
+        ChainVerificationResult collect() {
+            long rows = rowsBefore;
+            Long brokenAt = null;
+            String reason = null;
+            if (staleCheckpoint != null) {
+                brokenAt = staleCheckpoint;
+                reason = "row_hash differs from verified checkpoint";
+            }
+            RangeResult last = null;
+            for (Future<RangeResult> future : ranges) {
+                RangeResult range;
+                try {
+                    range = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Chain verification interrupted", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Chain verification failed for tenant " + head.tenantId(), e.getCause());
+                }
+                rows += range.rows();
+                if (brokenAt == null && range.brokenAt() != null) {
+                    brokenAt = range.brokenAt();
+                    reason = range.reason();
+                }
+                last = range;
+            }
+            if (brokenAt == null && last != null && !head.lastHash().equals(last.endHash())) {
+                brokenAt = head.lastSeq();
+                reason = "chain head hash does not match last posting";
+            }
+            return new ChainVerificationResult(head.tenantId(), head.lastSeq(), rows, brokenAt == null, brokenAt, reason);
+        }
+    }
+}
@@ -0,0 +1,854 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ImportResult.RowError;
+import com.erp.accounting.dto.MigrationReport;
+import com.erp.accounting.dto.MigrationStageResult;
+import com.erp.accounting.entity.MigrationJob;
+import com.erp.accounting.entity.MigrationJobStatus;
+import com.erp.accounting.entity.TransactionType;
+import com.erp.accounting.repository.MigrationJobRepository;
+import com.erp.accounting.util.CopyWriter;
+import com.erp.accounting.util.CsvReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a tenant's history from a legacy system (Tally, spreadsheet exports) without going
+ * through JPA; see migration 026 for the job lifecycle.
+ * <p>
+ * Source files are CSV with a header row, one file per {@link SourceKind}. Accounts, products and
+ * customers must already exist (see {@link BulkImportService}); history refers to them by
+ * account_code, product_code and customer_gstin or customer_name. Each file is parsed as it
+ * streams in and COPYed into a staging table without indexes, committing every
+ * {@code erp.migration.chunk-rows} records together with the file's checkpoint; an interrupted
+ * upload is resumed by sending the same file again. Staging tables are logged: an unlogged table
+ * is emptied by crash recovery while its checkpoint survives, and the job would load a partial file.
+ * <p>
+ * A started job is claimed by one node with a lease and run as a series of {@link Step}s, each
+ * committed together with the job's checkpoint: staging indexes and id maps are built once all
+ * rows are in, the set-based validations run in parallel on {@code erp.migration.workers}
+ * connections, and each target table is then filled with a single INSERT ... SELECT. Target
+ * tables are shared by every tenant, so their indexes stay in place; only staging defers index
+ * builds. Stock balances and dashboard KPIs are rebuilt last.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MigrationLoaderService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final String STAGING_SCHEMA = "migration_staging";
+
+    private enum FieldType {
+        TEXT("TEXT"), DATE("DATE"), TIMESTAMP("TIMESTAMP"), DECIMAL("NUMERIC(15, 2)"), INT("INT");
+
+        private final String sqlType;
+
+        FieldType(String sqlType) {
+            this.sqlType = sqlType;
+        }
+    }
+
+    private record Field(String name, FieldType type, boolean required) {
+    }
+
+    private static Field required(String name, FieldType type) {
+        return new Field(name, type, true);
+    }
+
+    private static Field optional(String name, FieldType type) {
+        return new Field(name, type, false);
+    }
+
+    /** Source files, in load order. Staging tables have these columns after source_line. */
+    public enum SourceKind {
+        // One row per debit or credit leg; legs with the same entry_number form a journal
+        JOURNALS(required("entry_number", FieldType.TEXT), required("entry_date", FieldType.DATE),
+            required("account_code", FieldType.TEXT), optional("debit", FieldType.DECIMAL),
+            optional("credit", FieldType.DECIMAL), optional("description", FieldType.TEXT),
+            optional("reference_type", FieldType.TEXT), optional("reference_id", FieldType.TEXT),
+            optional("line_description", FieldType.TEXT)),
+        INVOICES(required("invoice_number", FieldType.TEXT), required("invoice_date", FieldType.DATE),
+            optional("due_date", FieldType.DATE), optional("customer_gstin", FieldType.TEXT),
+            optional("customer_name", FieldType.TEXT), required("subtotal", FieldType.DECIMAL),
+            optional("cgst_amount", FieldType.DECIMAL), optional("sgst_amount", FieldType.DECIMAL),
+            optional("igst_amount", FieldType.DECIMAL), optional("total_tax", FieldType.DECIMAL),
+            required("total_amount", FieldType.DECIMAL), optional("amount_paid", FieldType.DECIMAL),
+            optional("payment_terms", FieldType.TEXT), optional("journal_entry_number", FieldType.TEXT)),
+        INVOICE_LINES(required("invoice_number", FieldType.TEXT), optional("line_number", FieldType.INT),
+            required("product_code", FieldType.TEXT), required("quantity", FieldType.INT),
+            required("unit_price", FieldType.DECIMAL), required("line_total", FieldType.DECIMAL),
+            optional("gst_rate", FieldType.DECIMAL), optional("gst_amount", FieldType.DECIMAL)),
+        STOCK(required("transaction_date", FieldType.TIMESTAMP), required("product_code", FieldType.TEXT),
+            required("transaction_type", FieldType.TEXT), optional("quantity_in", FieldType.INT),
+            optional("quantity_out", FieldType.INT), optional("unit_cost", FieldType.DECIMAL),
+            optional("batch_number", FieldType.TEXT), optional("expiry_date", FieldType.DATE),
+            optional("reference_id", FieldType.TEXT), optional("reference_type", FieldType.TEXT));
+
+        private final List<Field> fields;
+
+        SourceKind(Field... fields) {
+            this.fields = List.of(fields);
+        }
+
+        private int index(String name) {
+            for (int i = 0; i < fields.size(); i++) {
+                if (fields.get(i).name().equals(name)) {
+                    return i + 1;
+                }
+            }
+            throw new IllegalArgumentException(name);
+        }
+    }
+
+    /** Runner steps in order; migration_jobs.checkpoint holds the last one committed. */
+    private enum Step {
+        PREPARE, VALIDATE, JOURNALS, POSTINGS, GENERAL_LEDGER, INVOICES, INVOICE_LINES, INVENTORY_LEDGER, REBUILD
+    }
+
+    // A set-based validation: rows of (source_line, message) for one source kind
+    private record Check(String name, SourceKind kind, String sql) {
+    }
+
+    // Tokens: {journals} {invoices} {invoice_lines} {stock} {journal_ids} {invoice_ids} are staging
+    // tables; :tenant, :user, :currency and :source come from the params CTE
+    private static final List<Check> CHECKS = List.of(
+        new Check("JOURNAL_ACCOUNTS", SourceKind.JOURNALS,
+            "SELECT s.source_line, 'Unknown account_code ' || s.account_code FROM {journals} s " +
+            "WHERE NOT EXISTS (SELECT 1 FROM accounting.chart_of_accounts a " +
+            "WHERE a.tenant_id = :tenant AND a.account_code = s.account_code)"),
+        new Check("JOURNAL_BALANCE", SourceKind.JOURNALS,
+            "SELECT min(source_line), 'Journal ' || entry_number || CASE " +
+            "WHEN count(DISTINCT entry_date) > 1 THEN ' has legs on different dates' " +
+            "ELSE ' does not balance: debit ' || sum(COALESCE(debit, 0)) || ', credit ' || sum(COALESCE(credit, 0)) END " +
+            "FROM {journals} GROUP BY entry_number " +
+            "HAVING count(DISTINCT entry_date) > 1 OR sum(COALESCE(debit, 0)) <> sum(COALESCE(credit, 0))"),
+        new Check("DUPLICATE_JOURNALS", SourceKind.JOURNALS,
+            "SELECT m.first_line, 'Journal ' || m.entry_number || ' already exists' FROM {journal_ids} m " +
+            "JOIN accounting.journal_entries j ON j.tenant_id = :tenant AND j.entry_number = m.entry_number"),
+        new Check("INVOICE_CUSTOMERS", SourceKind.INVOICES,
+            "SELECT s.source_line, 'No single customer matches ' || COALESCE(s.customer_gstin, s.customer_name) " +
+            "FROM {invoices} s JOIN {invoice_ids} m ON m.source_line = s.source_line WHERE m.customer_id IS NULL"),
+        new Check("DUPLICATE_INVOICES", SourceKind.INVOICES,
+            "SELECT s.source_line, 'Duplicate invoice_number ' || s.invoice_number FROM {invoices} s " +
+            "WHERE NOT EXISTS (SELECT 1 FROM {invoice_ids} m WHERE m.source_line = s.source_line) " +
+            "UNION ALL " +
+            "SELECT m.source_line, 'Invoice ' || m.invoice_number || ' already exists' FROM {invoice_ids} m " +
+            "JOIN accounting.invoices i ON i.tenant_id = :tenant AND i.invoice_number = m.invoice_number"),
+        new Check("INVOICE_JOURNALS", SourceKind.INVOICES,
+            "SELECT s.source_line, 'Unknown journal_entry_number ' || s.journal_entry_number FROM {invoices} s " +
+            "WHERE s.journal_entry_number IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM {journal_ids} j WHERE j.entry_number = s.journal_entry_number)"),
+        new Check("INVOICE_TOTALS", SourceKind.INVOICES,
+            "SELECT s.source_line, 'Invoice ' || s.invoice_number || ' lines total ' || l.subtotal || ' + tax ' || " +
+            "l.tax || ', header says ' || s.subtotal || ' + tax ' || s.total_tax FROM {invoices} s " +
+            "JOIN (SELECT invoice_number, sum(line_total) AS subtotal, sum(COALESCE(gst_amount, 0)) AS tax " +
+            "FROM {invoice_lines} GROUP BY invoice_number) l ON l.invoice_number = s.invoice_number " +
+            "WHERE l.subtotal <> s.subtotal OR l.tax <> s.total_tax"),
+        new Check("LINE_INVOICES", SourceKind.INVOICE_LINES,
+            "SELECT l.source_line, 'Line for unknown invoice ' || l.invoice_number FROM {invoice_lines} l " +
+            "WHERE NOT EXISTS (SELECT 1 FROM {invoice_ids} m WHERE m.invoice_number = l.invoice_number)"),
+        new Check("LINE_PRODUCTS", SourceKind.INVOICE_LINES,
+            "SELECT l.source_line, 'Unknown product_code ' || l.product_code FROM {invoice_lines} l " +
+            "WHERE NOT EXISTS (SELECT 1 FROM accounting.products p " +
+            "WHERE p.tenant_id = :tenant AND p.product_code = l.product_code)"),
+        new Check("STOCK_PRODUCTS", SourceKind.STOCK,
+            "SELECT s.source_line, 'Unknown product_code ' || s.product_code FROM {stock} s " +
+            "WHERE NOT EXISTS (SELECT 1 FROM accounting.products p " +
+            "WHERE p.tenant_id = :tenant AND p.product_code = s.product_code)"),
+        // Batch balances may not go negative once the history is added to today's stock
+        new Check("STOCK_BATCHES", SourceKind.STOCK,
+            "SELECT t.first_line, 'Batch ' || t.batch_number || ' of ' || t.product_code || ' would end at ' || " +
+            "(t.quantity + COALESCE(b.quantity_on_hand, 0)) " +
+            "FROM (SELECT product_code, batch_number, min(source_line) AS first_line, " +
+            "sum(COALESCE(quantity_in, 0) - COALESCE(quantity_out, 0)) AS quantity FROM {stock} " +
+            "WHERE batch_number IS NOT NULL GROUP BY product_code, batch_number) t " +
+            "LEFT JOIN accounting.products p ON p.tenant_id = :tenant AND p.product_code = t.product_code " +
+            "LEFT JOIN accounting.inventory_batch_balance b ON b.tenant_id = :tenant AND b.product_id = p.product_id " +
+            "AND b.batch_number = t.batch_number " +
+            "WHERE t.quantity + COALESCE(b.quantity_on_hand, 0) < 0"));
+
+    private static final String PARAMS =
+        "WITH params AS (SELECT ?::uuid AS tenant_id, ?::uuid AS user_id, ?::text AS currency, ?::text AS source) ";
+
+    private static final String RECORD_CHECK =
+        "INSERT INTO accounting.migration_errors (job_id, kind, check_name, source_line, message) " +
+        "SELECT ?, ?, ?, e.source_line, e.message FROM (%s) e(source_line, message) ORDER BY e.source_line LIMIT ?";
+
+    private static final String PREPARE_JOURNAL_IDS =
+        "CREATE TABLE {journal_ids} AS SELECT entry_number, gen_random_uuid() AS journal_id, " +
+        "min(entry_date) AS entry_date, min(source_line) AS first_line FROM {journals} GROUP BY entry_number";
+
+    // The first row of each invoice_number wins; later ones are reported as duplicates
+    private static final String PREPARE_INVOICE_IDS =
+        "CREATE TABLE {invoice_ids} AS SELECT DISTINCT ON (s.invoice_number) s.invoice_number, s.source_line, " +
+        "gen_random_uuid() AS invoice_id, c.customer_id FROM {invoices} s " +
+        "LEFT JOIN LATERAL (SELECT CASE WHEN count(*) = 1 THEN (array_agg(customer_id))[1] END AS customer_id " +
+        "FROM accounting.customers WHERE tenant_id = ? AND CASE WHEN s.customer_gstin IS NOT NULL " +
+        "THEN gstin = s.customer_gstin ELSE customer_name = s.customer_name END) c ON TRUE " +
+        "ORDER BY s.invoice_number, s.source_line";
+
+    private static final Map<Step, String> LOAD_SQL = Map.of(
+        Step.JOURNALS,
+        "INSERT INTO accounting.journal_entries (journal_id, tenant_id, entry_number, entry_date, reference_type, " +
+        "reference_id, description, status, total_debit, total_credit, is_balanced, posted_at, posted_by, created_by, " +
+        "created_at, updated_at) " +
+        "SELECT m.journal_id, :tenant, m.entry_number, m.entry_date, s.reference_type, s.reference_id, " +
+        "COALESCE(s.description, 'Migrated journal ' || m.entry_number), 'POSTED'::accounting.journal_status_enum, s.debit, s.credit, TRUE, " +
+        "m.entry_date::timestamp, :user, :user, now(), now() FROM {journal_ids} m " +
+        "JOIN (SELECT entry_number, max(reference_type) AS reference_type, max(reference_id) AS reference_id, " +
+        "max(description) AS description, sum(COALESCE(debit, 0)) AS debit, sum(COALESCE(credit, 0)) AS credit " +
+        "FROM {journals} GROUP BY entry_number) s ON s.entry_number = m.entry_number",
+        // In date order, so the hash chain trigger links the history the way it happened
+        Step.POSTINGS,
+        "INSERT INTO accounting.postings (tenant_id, journal_id, account_id, posting_type, amount, " +
+        "transaction_currency, transaction_amount, exchange_rate, line_number, line_description, created_at) " +
+        "SELECT :tenant, m.journal_id, a.account_id, " +
+        "(CASE WHEN COALESCE(s.debit, 0) > 0 THEN 'DEBIT' ELSE 'CREDIT' END)::accounting.balance_type_enum, " +
+        "GREATEST(COALESCE(s.debit, 0), COALESCE(s.credit, 0)), :currency, " +
+        "GREATEST(COALESCE(s.debit, 0), COALESCE(s.credit, 0)), 1, " +
+        "row_number() OVER (PARTITION BY s.entry_number ORDER BY s.source_line), s.line_description, now() " +
+        "FROM {journals} s JOIN {journal_ids} m ON m.entry_number = s.entry_number " +
+        "JOIN accounting.chart_of_accounts a ON a.tenant_id = :tenant AND a.account_code = s.account_code " +
+        "ORDER BY m.entry_date, m.entry_number, s.source_line",
+        Step.GENERAL_LEDGER,
+        "INSERT INTO accounting.general_ledger (tenant_id, account_id, transaction_date, posting_date, entry_type, " +
+        "amount, transaction_currency, transaction_amount, exchange_rate, description, reference_id, reference_type, " +
+        "journal_id, is_posted, created_at, posted_at) " +
+        "SELECT p.tenant_id, p.account_id, j.entry_date, j.entry_date, p.posting_type, p.amount, " +
+        "p.transaction_currency, p.transaction_amount, p.exchange_rate, COALESCE(p.line_description, j.description), " +
+        "j.reference_id, j.reference_type, j.journal_id, TRUE, now(), j.posted_at FROM {journal_ids} m " +
+        "JOIN accounting.journal_entries j ON j.journal_id = m.journal_id " +
+        "JOIN accounting.postings p ON p.journal_id = m.journal_id",
+        Step.INVOICES,
+        "INSERT INTO accounting.invoices (invoice_id, tenant_id, customer_id, invoice_number, invoice_date, due_date, " +
+        "subtotal, cgst_amount, sgst_amount, igst_amount, total_tax, total_amount, status, amount_paid, outstanding, " +
+        "payment_terms, notes, is_posted, posted_at, journal_id, currency_code, exchange_rate, base_total_amount, " +
+        "created_at, updated_at) " +
+        "SELECT m.invoice_id, :tenant, m.customer_id, s.invoice_number, s.invoice_date, s.due_date, s.subtotal, " +
+        "COALESCE(s.cgst_amount, 0), COALESCE(s.sgst_amount, 0), COALESCE(s.igst_amount, 0), s.total_tax, " +
+        "s.total_amount, (CASE WHEN COALESCE(s.amount_paid, 0) >= s.total_amount THEN 'PAID' " +
+        "WHEN COALESCE(s.amount_paid, 0) > 0 THEN 'PARTIAL' WHEN s.due_date < CURRENT_DATE THEN 'OVERDUE' " +
+        "ELSE 'SENT' END)::accounting.invoice_status_enum, COALESCE(s.amount_paid, 0), " +
+        "s.total_amount - COALESCE(s.amount_paid, 0), s.payment_terms, 'Migrated from ' || :source, " +
+        "j.journal_id IS NOT NULL, CASE WHEN j.journal_id IS NOT NULL THEN s.invoice_date::timestamp END, " +
+        "j.journal_id, :currency, 1, s.total_amount, now(), now() FROM {invoices} s " +
+        "JOIN {invoice_ids} m ON m.source_line = s.source_line " +
+        "LEFT JOIN {journal_ids} j ON j.entry_number = s.journal_entry_number",
+        Step.INVOICE_LINES,
+        "INSERT INTO accounting.invoice_lines (invoice_id, product_id, line_number, quantity, unit_price, line_total, " +
+        "gst_rate, gst_amount, created_at) " +
+        "SELECT m.invoice_id, p.product_id, " +
+        "COALESCE(l.line_number, row_number() OVER (PARTITION BY l.invoice_number ORDER BY l.source_line)), " +
+        "l.quantity, l.unit_price, l.line_total, l.gst_rate, l.gst_amount, now() FROM {invoice_lines} l " +
+        "JOIN {invoice_ids} m ON m.invoice_number = l.invoice_number " +
+        "JOIN accounting.products p ON p.tenant_id = :tenant AND p.product_code = l.product_code",
+        Step.INVENTORY_LEDGER,
+        "INSERT INTO accounting.inventory_ledger (tenant_id, product_id, transaction_date, transaction_type, " +
+        "quantity_in, quantity_out, unit_cost, batch_number, expiry_date, reference_id, reference_type, created_at, " +
+        "created_by) " +
+        "SELECT :tenant, p.product_id, s.transaction_date, s.transaction_type::accounting.transaction_type_enum, " +
+        "COALESCE(s.quantity_in, 0), COALESCE(s.quantity_out, 0), s.unit_cost, s.batch_number, s.expiry_date, " +
+        "s.reference_id, COALESCE(s.reference_type, 'MIGRATION'), now(), :user FROM {stock} s " +
+        "JOIN accounting.products p ON p.tenant_id = :tenant AND p.product_code = s.product_code " +
+        "ORDER BY s.transaction_date, s.source_line");
+
+    // Recomputes every batch the history touched from the whole ledger
+    private static final String REBUILD_BATCHES =
+        "INSERT INTO accounting.inventory_batch_balance (tenant_id, product_id, batch_number, expiry_date, " +
+        "quantity_on_hand, unit_cost, last_movement_date, last_updated) " +
+        "SELECT l.tenant_id, l.product_id, l.batch_number, max(l.expiry_date), " +
+        "sum(COALESCE(l.quantity_in, 0) - COALESCE(l.quantity_out, 0)), " +
+        "(array_agg(l.unit_cost ORDER BY l.transaction_date DESC) " +
+        "FILTER (WHERE l.quantity_in > 0 AND l.unit_cost IS NOT NULL))[1], max(l.transaction_date), now() " +
+        "FROM accounting.inventory_ledger l WHERE l.tenant_id = :tenant AND (l.product_id, l.batch_number) IN " +
+        "(SELECT p.product_id, s.batch_number FROM {stock} s " +
+        "JOIN accounting.products p ON p.tenant_id = :tenant AND p.product_code = s.product_code) " +
+        "GROUP BY l.tenant_id, l.product_id, l.batch_number " +
+        "ON CONFLICT (tenant_id, product_id, batch_number) DO UPDATE SET expiry_date = EXCLUDED.expiry_date, " +
+        "quantity_on_hand = EXCLUDED.quantity_on_hand, " +
+        "unit_cost = COALESCE(EXCLUDED.unit_cost, inventory_batch_balance.unit_cost), " +
+        "last_movement_date = EXCLUDED.last_movement_date, last_updated = now()";
+
+    // Adds the loaded movements to product balances on the same basis as InventoryBatchService
+    private static final String APPLY_BALANCES =
+        "INSERT INTO accounting.inventory_balance (tenant_id, product_id, quantity_on_hand, inventory_value, last_updated) " +
+        "SELECT :tenant, p.product_id, sum(COALESCE(s.quantity_in, 0) - COALESCE(s.quantity_out, 0)), " +
+        "sum(COALESCE(s.unit_cost * (COALESCE(s.quantity_in, 0) - COALESCE(s.quantity_out, 0)), 0)), now() " +
+        "FROM {stock} s JOIN accounting.products p ON p.tenant_id = :tenant AND p.product_code = s.product_code " +
+        "GROUP BY p.product_id " +
+        "ON CONFLICT (tenant_id, product_id) DO UPDATE SET " +
+        "quantity_on_hand = inventory_balance.quantity_on_hand + EXCLUDED.quantity_on_hand, " +
+        "inventory_value = inventory_balance.inventory_value + EXCLUDED.inventory_value, last_updated = now()";
+
+    private static final String CLAIM =
+        "UPDATE accounting.migration_jobs SET status = 'RUNNING', lease_owner = ?, " +
+        "lease_expires_at = now() + make_interval(mins => ?), started_at = COALESCE(started_at, now()) " +
+        "WHERE job_id = (SELECT job_id FROM accounting.migration_jobs " +
+        "WHERE status = 'QUEUED' OR (status = 'RUNNING' AND lease_expires_at < now()) " +
+        "ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+        "RETURNING job_id, tenant_id, created_by, checkpoint, source_system";
+
+    // Commits a step's checkpoint in the step's transaction, fenced on the lease
+    private static final String CHECKPOINT =
+        "UPDATE accounting.migration_jobs SET checkpoint = ?, lease_expires_at = now() + make_interval(mins => ?) " +
+        "WHERE job_id = ? AND lease_owner = ? AND status = 'RUNNING'";
+
+    private static final String FINISH =
+        "UPDATE accounting.migration_jobs SET status = ?, error_count = error_count + ?, last_error = ?, " +
+        "finished_at = now(), lease_owner = NULL, lease_expires_at = NULL WHERE job_id = ? AND lease_owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MigrationJobRepository migrationJobRepository;
+    private final DashboardKpiService dashboardKpiService;
+
+    @Value("${erp.migration.chunk-rows:50000}")
+    private int chunkRows;
+
+    @Value("${erp.migration.workers:4}")
+    private int workers;
+
+    @Value("${erp.migration.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${erp.migration.lease-minutes:180}")
+    private int leaseMinutes;
+
+    @Value("${erp.migration.node-id:}")
+    private String nodeId;
+
+    /** Opens a migration for a tenant; the history is attributed to userId, or to the tenant's owner. */
+    public MigrationJob create(UUID tenantId, String sourceSystem, UUID userId) {
+        List<UUID> users = userId != null
+            ? jdbcTemplate.queryForList("SELECT user_id FROM accounting.users WHERE user_id = ? AND tenant_id = ?",
+                UUID.class, userId, tenantId)
+            : jdbcTemplate.queryForList("SELECT user_id FROM accounting.users WHERE tenant_id = ? AND role = 'OWNER' " +
+                "ORDER BY created_at LIMIT 1", UUID.class, tenantId);
+        if (users.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                userId != null ? "User does not belong to the tenant" : "Tenant has no owner to attribute the history to");
+        }
+        UUID jobId;
+        try {
+            jobId = jdbcTemplate.queryForObject("INSERT INTO accounting.migration_jobs (tenant_id, source_system, " +
+                "created_by) VALUES (?, ?, ?) RETURNING job_id", UUID.class, tenantId, sourceSystem, users.get(0));
+        } catch (DuplicateKeyException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Tenant already has a migration in progress");
+        }
+        return migrationJobRepository.findById(jobId).orElseThrow();
+    }
+
+    public List<MigrationJob> getJobs(UUID tenantId) {
+        return migrationJobRepository.findByTenantIdOrderByCreatedAtDesc(tenantId);
+    }
+
+    public MigrationReport getReport(UUID tenantId, UUID jobId) {
+        MigrationJob job = requireJob(tenantId, jobId);
+        List<MigrationReport.FileProgress> files = jdbcTemplate.query(
+            "SELECT kind, rows_read, rows_staged, completed_at FROM accounting.migration_files WHERE job_id = ? ORDER BY kind",
+            (rs, n) -> new MigrationReport.FileProgress(rs.getString(1), rs.getLong(2), rs.getLong(3),
+                rs.getObject(4, LocalDateTime.class)),
+            jobId);
+        List<MigrationReport.Error> errors = jdbcTemplate.query(
+            "SELECT kind, check_name, source_line, message FROM accounting.migration_errors WHERE job_id = ? " +
+            "ORDER BY kind, source_line LIMIT ?",
+            (rs, n) -> new MigrationReport.Error(rs.getString(1), rs.getString(2), rs.getObject(3, Long.class),
+                rs.getString(4)),
+            jobId, MAX_REPORTED_ERRORS);
+        return new MigrationReport(job, files, errors);
+    }
+
+    /**
+     * Streams one source file into staging. Records already staged by an earlier upload of the same
+     * file are skipped, so a broken upload is resumed by sending the file again.
+     */
+    public MigrationStageResult stage(UUID tenantId, UUID jobId, SourceKind kind, InputStream csv) {
+        MigrationJob job = requireJob(tenantId, jobId);
+        if (job.getStatus() != MigrationJobStatus.STAGING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job is " + job.getStatus() + ", files can no longer be added");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(createStageTable(jobId, kind));
+            jdbcTemplate.update("INSERT INTO accounting.migration_files (job_id, kind) VALUES (?, ?) " +
+                "ON CONFLICT (job_id, kind) DO NOTHING", jobId, kind.name());
+        });
+        Map<String, Object> file = jdbcTemplate.queryForMap(
+            "SELECT rows_read, completed_at FROM accounting.migration_files WHERE job_id = ? AND kind = ?", jobId, kind.name());
+        if (file.get("completed_at") != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, kind + " is already staged for this job");
+        }
+        long skip = ((Number) file.get("rows_read")).longValue();
+        int errorBudget = Math.max(0, maxErrors - jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM accounting.migration_errors WHERE job_id = ?", Integer.class, jobId));
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV is empty");
+            }
+            Map<String, Integer> columns = CsvReader.indexHeader(header);
+            List<String> missing = kind.fields.stream()
+                .filter(f -> f.required() && !columns.containsKey(f.name()))
+                .map(Field::name)
+                .toList();
+            if (!missing.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing columns " + missing);
+            }
+            for (long i = 0; i < skip; i++) {
+                if (reader.next() == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "File has fewer records than the " + skip + " already staged; is it the same file?");
+                }
+            }
+
+            Chunk totals = new Chunk();
+            List<RowError> reported = new ArrayList<>();
+            boolean done = false;
+            int stored = 0;
+            while (!done) {
+                int budget = Math.max(0, errorBudget - stored);
+                Chunk chunk = transactionTemplate.execute(status -> stageChunk(jobId, kind, reader, columns, budget));
+                totals.read += chunk.read;
+                totals.staged += chunk.staged;
+                totals.rejected += chunk.rejected;
+                stored += chunk.errors.size();
+                for (RowError error : chunk.errors) {
+                    if (reported.size() < MAX_REPORTED_ERRORS) {
+                        reported.add(error);
+                    }
+                }
+                done = chunk.end;
+            }
+            return new MigrationStageResult(kind.name(), skip + totals.read, skip, totals.staged, reported);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Queues a fully staged job, or resumes one whose load failed after validation. */
+    public MigrationJob start(UUID tenantId, UUID jobId) {
+        MigrationJob job = requireJob(tenantId, jobId);
+        if (job.getStatus() == MigrationJobStatus.STAGING) {
+            List<String> incomplete = jdbcTemplate.queryForList(
+                "SELECT kind FROM accounting.migration_files WHERE job_id = ? AND completed_at IS NULL", String.class, jobId);
+            if (!incomplete.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Uploads not finished for " + incomplete);
+            }
+            Integer staged = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM accounting.migration_files WHERE job_id = ?", Integer.class, jobId);
+            if (staged == 0) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "No files staged");
+            }
+        } else if (job.getStatus() != MigrationJobStatus.FAILED || !passed(job.getCheckpoint(), Step.VALIDATE)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job is " + job.getStatus() + " and cannot be started");
+        }
+        try {
+            jdbcTemplate.update("UPDATE accounting.migration_jobs SET status = 'QUEUED', last_error = NULL, " +
+                "finished_at = NULL WHERE job_id = ? AND status = ?", jobId, job.getStatus().name());
+        } catch (DuplicateKeyException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Tenant already has a migration in progress");
+        }
+        return migrationJobRepository.findById(jobId).orElseThrow();
+    }
+
+    @Scheduled(fixedDelayString = "${erp.migration.poll-interval-ms:30000}",
+               initialDelayString = "${erp.migration.poll-interval-ms:30000}")
+    public void runQueued() {
+        while (runNext()) {
+            // one job at a time per node
+        }
+    }
+
+    /** Claims and runs the oldest runnable job; returns false when there was none. */
+    public boolean runNext() {
+        String leaseToken = nodeId() + ":" + UUID.randomUUID();
+        List<Claimed> claimed = jdbcTemplate.query(CLAIM,
+            (rs, n) -> new Claimed(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getObject(3, UUID.class),
+                rs.getString(4), rs.getString(5)),
+            leaseToken, leaseMinutes);
+        if (claimed.isEmpty()) {
+            return false;
+        }
+        run(claimed.get(0), leaseToken);
+        return true;
+    }
+
+    private void run(Claimed job, String leaseToken) {
+        long started = System.currentTimeMillis();
+        String currency = jdbcTemplate.queryForObject(
+            "SELECT currency FROM accounting.tenants WHERE tenant_id = ?", String.class, job.tenantId);
+        Object[] params = {job.tenantId, job.userId, currency, job.sourceSystem != null ? job.sourceSystem : "legacy system"};
+        for (Step step : Step.values()) {
+            if (passed(job.checkpoint, step)) {
+                continue;
+            }
+            long stepStarted = System.currentTimeMillis();
+            try {
+                if (step == Step.VALIDATE) {
+                    int found = validate(job, params);
+                    int rejected = jdbcTemplate.queryForObject(
+                        "SELECT error_count FROM accounting.migration_jobs WHERE job_id = ?", Integer.class, job.jobId);
+                    if (found + rejected > 0) {
+                        dropStaging(job.jobId);
+                        jdbcTemplate.update(FINISH, MigrationJobStatus.FAILED.name(), found,
+                            rejected + " rows rejected while staging, " + found + " validation errors", job.jobId, leaseToken);
+                        log.info("Migration {}: {} rows rejected, {} validation errors", job.jobId, rejected, found);
+                        return;
+                    }
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    relaxCommit();
+                    switch (step) {
+                        case PREPARE -> prepare(job.jobId);
+                        case VALIDATE -> { }
+                        case REBUILD -> {
+                            jdbcTemplate.update(PARAMS + sql(REBUILD_BATCHES, job.jobId), params);
+                            jdbcTemplate.update(PARAMS + sql(APPLY_BALANCES, job.jobId), params);
+                            dashboardKpiService.rebuild(job.tenantId);
+                        }
+                        default -> {
+                            int rows = jdbcTemplate.update(PARAMS + sql(LOAD_SQL.get(step), job.jobId), params);
+                            log.info("Migration {}: {} {} rows", job.jobId, rows, step);
+                        }
+                    }
+                    if (jdbcTemplate.update(CHECKPOINT, step.name(), leaseMinutes, job.jobId, leaseToken) == 0) {
+                        throw new LeaseLostException();
+                    }
+                });
+                log.info("Migration {}: {} done in {} ms", job.jobId, step, System.currentTimeMillis() - stepStarted);
+            } catch (LeaseLostException e) {
+                log.warn("Migration {}: lease lost during {}", job.jobId, step);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Migration {} failed at {}", job.jobId, step, e);
+                jdbcTemplate.update(FINISH, MigrationJobStatus.FAILED.name(), 0, step + ": " + e.getMessage(),
+                    job.jobId, leaseToken);
+                return;
+            }
+        }
+        dropStaging(job.jobId);
+        for (String table : List.of("journal_entries", "postings", "general_ledger", "invoices", "invoice_lines",
+                "inventory_ledger", "inventory_batch_balance", "inventory_balance")) {
+            jdbcTemplate.execute("ANALYZE accounting." + table);
+        }
+        jdbcTemplate.update(FINISH, MigrationJobStatus.COMPLETED.name(), 0, null, job.jobId, leaseToken);
+        log.info("Migration {} for tenant {} completed in {} ms", job.jobId, job.tenantId,
+            System.currentTimeMillis() - started);
+    }
+
+    // Every kind gets a staging table, empty if no file was sent, so every statement can run
+    private void prepare(UUID jobId) {
+        for (SourceKind kind : SourceKind.values()) {
+            jdbcTemplate.execute(createStageTable(jobId, kind));
+        }
+        jdbcTemplate.execute(sql(PREPARE_JOURNAL_IDS, jobId));
+        UUID tenantId = jdbcTemplate.queryForObject(
+            "SELECT tenant_id FROM accounting.migration_jobs WHERE job_id = ?", UUID.class, jobId);
+        jdbcTemplate.update(sql(PREPARE_INVOICE_IDS, jobId), tenantId);
+        // Indexes are built once, after every row is in
+        for (String index : List.of("{journals}(entry_number)", "{invoices}(invoice_number)", "{invoices}(source_line)",
+                "{invoice_lines}(invoice_number)", "{stock}(product_code, batch_number)",
+                "{journal_ids}(entry_number)", "{invoice_ids}(invoice_number)", "{invoice_ids}(source_line)")) {
+            jdbcTemplate.execute(sql("CREATE INDEX ON " + index, jobId));
+        }
+        for (String table : List.of("{journals}", "{invoices}", "{invoice_lines}", "{stock}", "{journal_ids}", "{invoice_ids}")) {
+            jdbcTemplate.execute(sql("ANALYZE " + table, jobId));
+        }
+    }
+
+    // Runs the checks in parallel, each recording its findings; returns how many were recorded
+    private int validate(Claimed job, Object[] params) {
+        jdbcTemplate.update("DELETE FROM accounting.migration_errors WHERE job_id = ? AND check_name <> 'STAGE'", job.jobId);
+        try (ExecutorService pool = Executors.newFixedThreadPool(workers)) {
+            List<Future<Integer>> futures = new ArrayList<>(CHECKS.size());
+            for (Check check : CHECKS) {
+                String sql = PARAMS + String.format(RECORD_CHECK, sql(check.sql(), job.jobId));
+                Object[] args = Arrays.copyOf(params, params.length + 4);
+                args[params.length] = job.jobId;
+                args[params.length + 1] = check.kind().name();
+                args[params.length + 2] = check.name();
+                args[params.length + 3] = maxErrors;
+                futures.add(pool.submit(() -> jdbcTemplate.update(sql, args)));
+            }
+            for (Future<Integer> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Migration validation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Migration validation failed", e.getCause());
+        }
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM accounting.migration_errors " +
+            "WHERE job_id = ? AND check_name <> 'STAGE'", Integer.class, job.jobId);
+    }
+
+    private Chunk stageChunk(UUID jobId, SourceKind kind, CsvReader reader, Map<String, Integer> columns, int errorBudget) {
+        Chunk chunk = jdbcTemplate.execute((ConnectionCallback<Chunk>) con -> {
+            relaxCommit();
+            CopyWriter writer = new CopyWriter(con.unwrap(PGConnection.class).getCopyAPI(),
+                "COPY " + stageTable(jobId, kind) + " FROM STDIN");
+            Chunk result = new Chunk();
+            try {
+                while (result.read < chunkRows) {
+                    List<String> fields = reader.next();
+                    if (fields == null) {
+                        result.end = true;
+                        break;
+                    }
+                    result.read++;
+                    try {
+                        writer.row(parse(kind, reader.recordLine(), columns, fields));
+                        result.staged++;
+                    } catch (IllegalArgumentException e) {
+                        result.rejected++;
+                        if (result.errors.size() < errorBudget) {
+                            result.errors.add(new RowError(reader.recordLine(), e.getMessage()));
+                        }
+                    }
+                }
+                writer.finish();
+            } catch (IOException e) {
+                writer.cancel();
+                throw new UncheckedIOException(e);
+            } catch (SQLException | RuntimeException e) {
+                writer.cancel();
+                throw e;
+            }
+            return result;
+        });
+        if (!chunk.errors.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO accounting.migration_errors (job_id, kind, check_name, source_line, " +
+                "message) VALUES (?, ?, 'STAGE', ?, ?)",
+                chunk.errors.stream().map(e -> new Object[] {jobId, kind.name(), e.line(), e.message()}).toList());
+        }
+        jdbcTemplate.update("UPDATE accounting.migration_files SET rows_read = rows_read + ?, rows_staged = rows_staged + ?, " +
+            "completed_at = CASE WHEN ? THEN now() END WHERE job_id = ? AND kind = ?",
+            chunk.read, chunk.staged, chunk.end, jobId, kind.name());
+        if (chunk.rejected > 0) {
+            jdbcTemplate.update("UPDATE accounting.migration_jobs SET error_count = error_count + ? WHERE job_id = ?",
+                chunk.rejected, jobId);
+        }
+        return chunk;
+    }
+
+    /** Parses and checks one record into staging column order: source_line, then the kind's fields. */
+    private static Object[] parse(SourceKind kind, long line, Map<String, Integer> columns, List<String> fields) {
+        Object[] values = new Object[kind.fields.size() + 1];
+        values[0] = line;
+        for (int i = 0; i < kind.fields.size(); i++) {
+            Field field = kind.fields.get(i);
+            Integer column = columns.get(field.name());
+            String raw = column != null && column < fields.size() ? fields.get(column).trim() : "";
+            if (raw.isEmpty()) {
+                if (field.required()) {
+                    throw new IllegalArgumentException(field.name() + " is required");
+                }
+                continue;
+            }
+            values[i + 1] = convert(field, raw);
+        }
+        switch (kind) {
+            case JOURNALS -> {
+                BigDecimal debit = (BigDecimal) values[kind.index("debit")];
+                BigDecimal credit = (BigDecimal) values[kind.index("credit")];
+                if ((signum(debit) > 0) == (signum(credit) > 0) || signum(debit) < 0 || signum(credit) < 0) {
+                    throw new IllegalArgumentException("Exactly one of debit and credit must be positive");
+                }
+            }
+            case INVOICES -> {
+                if (values[kind.index("customer_gstin")] == null && values[kind.index("customer_name")] == null) {
+                    throw new IllegalArgumentException("customer_gstin or customer_name is required");
+                }
+                int totalTax = kind.index("total_tax");
+                if (values[totalTax] == null) {
+                    values[totalTax] = orZero(values[kind.index("cgst_amount")])
+                        .add(orZero(values[kind.index("sgst_amount")]))
+                        .add(orZero(values[kind.index("igst_amount")]));
+                }
+                BigDecimal expected = ((BigDecimal) values[kind.index("subtotal")]).add((BigDecimal) values[totalTax]);
+                if (expected.compareTo((BigDecimal) values[kind.index("total_amount")]) != 0) {
+                    throw new IllegalArgumentException("total_amount is not subtotal + total_tax (" + expected + ")");
+                }
+            }
+            case INVOICE_LINES -> {
+                if ((Integer) values[kind.index("quantity")] <= 0) {
+                    throw new IllegalArgumentException("quantity must be positive");
+                }
+            }
+            case STOCK -> {
+                int type = kind.index("transaction_type");
+                String name = ((String) values[type]).toUpperCase(Locale.ROOT);
+                try {
+                    values[type] = TransactionType.valueOf(name).name();
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("transaction_type has unknown value " + values[type]);
+                }
+                int in = values[kind.index("quantity_in")] != null ? (Integer) values[kind.index("quantity_in")] : 0;
+                int out = values[kind.index("quantity_out")] != null ? (Integer) values[kind.index("quantity_out")] : 0;
+                if (in < 0 || out < 0 || in + out == 0) {
+                    throw new IllegalArgumentException("quantity_in or quantity_out must be positive");
+                }
+            }
+        }
+        return values;
+    }
+
+    private static Object convert(Field field, String raw) {
+        try {
+            return switch (field.type()) {
+                case TEXT -> raw;
+                case DATE -> date(raw);
+                case TIMESTAMP -> raw.length() <= 10 ? date(raw).atStartOfDay() : LocalDateTime.parse(raw.replace(' ', 'T'));
+                // Tally and spreadsheets write thousands separators
+                case DECIMAL -> new BigDecimal(raw.replace(",", "")).setScale(2, RoundingMode.UNNECESSARY);
+                case INT -> Integer.parseInt(raw);
+            };
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException(field.name() + " is not a valid amount: " + raw);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field.name() + " is not a valid date: " + raw);
+        }
+    }
+
+    // ISO dates, or day first as exported on Indian locales
+    private static LocalDate date(String raw) {
+        if (raw.length() == 10 && raw.charAt(4) == '-') {
+            return LocalDate.parse(raw);
+        }
+        return LocalDate.parse(raw.replace('/', '-').replace('.', '-'), DateTimeFormatter.ofPattern("d-M-uuuu"));
+    }
+
+    private static int signum(BigDecimal value) {
+        return value != null ? value.signum() : 0;
+    }
+
+    private static BigDecimal orZero(Object value) {
+        return value != null ? (BigDecimal) value : BigDecimal.ZERO;
+    }
+
+    private static boolean passed(String checkpoint, Step step) {
+        return checkpoint != null && Step.valueOf(checkpoint).ordinal() >= step.ordinal();
+    }
+
+    private MigrationJob requireJob(UUID tenantId, UUID jobId) {
+        return migrationJobRepository.findByJobIdAndTenantId(jobId, tenantId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Migration job not found"));
+    }
+
+    private static String createStageTable(UUID jobId, SourceKind kind) {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE IF NOT EXISTS ")
+            .append(stageTable(jobId, kind)).append(" (source_line BIGINT NOT NULL");
+        for (Field field : kind.fields) {
+            ddl.append(", ").append(field.name()).append(' ').append(field.type().sqlType);
+        }
+        return ddl.append(')').toString();
+    }
+
+    // Table names come from the job id and fixed kinds only, never from input
+    private static String stageTable(UUID jobId, String name) {
+        return STAGING_SCHEMA + "." + name + "_" + jobId.toString().replace("-", "");
+    }
+
+    private static String stageTable(UUID jobId, SourceKind kind) {
+        return stageTable(jobId, kind.name().toLowerCase(Locale.ROOT));
+    }
+
+    /** Substitutes staging table names and references to the params CTE. */
+    private static String sql(String template, UUID jobId) {
+        String sql = template;
+        for (SourceKind kind : SourceKind.values()) {
+            sql = sql.replace("{" + kind.name().toLowerCase(Locale.ROOT) + "}", stageTable(jobId, kind));
+        }
+        sql = sql.replace("{journal_ids}", stageTable(jobId, "journal_ids"))
+            .replace("{invoice_ids}", stageTable(jobId, "invoice_ids"));
+        return sql.replace(":tenant", "(SELECT tenant_id FROM params)")
+            .replace(":user", "(SELECT user_id FROM params)")
+            .replace(":currency", "(SELECT currency FROM params)")
+            .replace(":source", "(SELECT source FROM params)");
+    }
+
+    private void dropStaging(UUID jobId) {
+        List<String> names = new ArrayList<>(List.of("journal_ids", "invoice_ids"));
+        for (SourceKind kind : SourceKind.values()) {
+            names.add(kind.name().toLowerCase(Locale.ROOT));
+        }
+        for (String name : names) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + stageTable(jobId, name));
+        }
+    }
+
+    // A commit lost in a crash is redone from the checkpoint, which commits with the same transaction
+    private void relaxCommit() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (Statement statement = con.createStatement()) {
+                statement.execute("SET LOCAL synchronous_commit = off");
+            }
+            return null;
+        });
+    }
+
+    private String nodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            try {
+                nodeId = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                nodeId = UUID.randomUUID().toString();
+            }
+        }
+        return nodeId;
+    }
+
+    private record Claimed(UUID jobId, UUID tenantId, UUID userId, String checkpoint, String sourceSystem) {
+    }
+
+    private static final class Chunk {
+        long read;
+        long staged;
+        int rejected;
+        boolean end;
+        final List<RowError> errors = new ArrayList<>();
+    }
+
+    /** The lease expired and another node took the job; this step must not commit. */
+    private static class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.SyncBatch;
+import com.erp.accounting.dto.SyncPushResult;
+import com.erp.accounting.dto.SyncPushResult.Result;
+import com.erp.accounting.dto.SyncPushResult.Status;
+import com.erp.accounting.dto.SyncWrite;
+import com.erp.accounting.entity.Customer;
+import com.erp.accounting.entity.InventoryBalance;
+import com.erp.accounting.entity.Invoice;
+import com.erp.accounting.entity.InvoiceLine;
+import com.erp.accounting.entity.Product;
+import com.erp.accounting.event.CatalogChangedEvent;
+import com.erp.accounting.repository.CustomerRepository;
+import com.erp.accounting.repository.InventoryBalanceRepository;
+import com.erp.accounting.repository.InvoiceRepository;
+import com.erp.accounting.repository.ProductRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync for offline-first mobile clients.
+ * <p>
+ * The database keeps one sync_log row per product, customer, invoice and stock balance, stamped
+ * with a per-tenant token that increases in commit order (see 028_mobile_sync.sql). A pull returns
+ * the entities of the subscribed types whose token is above the client's, each with its current
+ * state or as a tombstone, so an entity rewritten ten times while a device was away is sent once.
+ * <p>
+ * Devices push the writes they made offline in batches. Each write is applied in its own
+ * transaction: customers are created, updated or deleted when the device saw the latest version
+ * (baseToken), otherwise the server copy wins and is returned as a CONFLICT; invoices can only be
+ * created, since issued invoices change through payments and credit notes on the server.
+ * Products and balances are read-only on devices.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MobileSyncService {
+
+    public enum EntityType { PRODUCTS, CUSTOMERS, INVOICES, BALANCES }
+
+    private static final String STATE =
+        "SELECT seq, purged_through FROM accounting.sync_state WHERE tenant_id = ?";
+
+    private static final String LOG =
+        "SELECT entity_type, entity_id, sync_seq, deleted FROM accounting.sync_log " +
+        "WHERE tenant_id = ? AND entity_type = ANY (?) AND sync_seq > ? AND sync_seq <= ? AND (? OR NOT deleted) " +
+        "ORDER BY sync_seq, entity_type, entity_id LIMIT ?";
+
+    private static final String ENTITY_TOKEN =
+        "SELECT sync_seq FROM accounting.sync_log WHERE tenant_id = ? AND entity_type = ? AND entity_id = ?";
+
+    // Locks the customer so the token read below is the one of its last committed write
+    private static final String LOCK_CUSTOMER =
+        "SELECT COALESCE(l.sync_seq, 0) FROM accounting.customers c " +
+        "LEFT JOIN accounting.sync_log l ON l.tenant_id = c.tenant_id AND l.entity_type = 'CUSTOMERS' " +
+        "AND l.entity_id = c.customer_id WHERE c.customer_id = ? AND c.tenant_id = ? FOR UPDATE OF c";
+
+    private static final String APPLIED =
+        "SELECT entity_id FROM accounting.sync_device_writes WHERE tenant_id = ? AND device_id = ? AND mutation_id = ?";
+
+    private static final String RECORD =
+        "INSERT INTO accounting.sync_device_writes (tenant_id, device_id, mutation_id, entity_type, entity_id) " +
+        "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String PURGE =
+        "WITH purged AS (DELETE FROM accounting.sync_log WHERE deleted AND changed_at < ? " +
+        "RETURNING tenant_id, sync_seq) " +
+        "UPDATE accounting.sync_state s SET purged_through = GREATEST(s.purged_through, p.seq) " +
+        "FROM (SELECT tenant_id, max(sync_seq) AS seq FROM purged GROUP BY tenant_id) p WHERE s.tenant_id = p.tenant_id";
+
+    private record LogRow(EntityType type, UUID id, long seq, boolean deleted) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final InventoryBalanceRepository inventoryBalanceRepository;
+    private final InvoiceService invoiceService;
+
+    @Value("${erp.sync.batch-size:500}")
+    private int defaultBatchSize;
+
+    @Value("${erp.sync.max-batch-size:2000}")
+    private int maxBatchSize;
+
+    @Value("${erp.sync.max-writes:200}")
+    private int maxWrites;
+
+    @Value("${erp.sync.tombstone-retention-days:90}")
+    private int tombstoneRetentionDays;
+
+    /**
+     * Up to limit changes of the given types after since (0 for a first sync). A transaction's
+     * changes are never split across batches, so one batch may exceed limit by the size of a
+     * single large write. A token is only meaningful for the set of types it was issued for.
+     * The head, the log and the entities are read in one snapshot, on one node when reads go to
+     * replicas, so the token never runs ahead of the changes returned with it.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncBatch changes(UUID tenantId, long since, Set<EntityType> types, Integer limit) {
+        Set<EntityType> subscribed = types == null || types.isEmpty() ? EnumSet.allOf(EntityType.class) : types;
+        int size = Math.max(1, Math.min(limit != null ? limit : defaultBatchSize, maxBatchSize));
+        long[] state = state(tenantId);
+        long head = state[0];
+        boolean full = since > head || since < state[1];
+        long from = full ? 0L : since;
+        if (!full && since == head) {
+            return new SyncBatch(tenantId, since, head, false, false, List.of());
+        }
+
+        // A client starting from scratch has nothing to delete
+        boolean tombstones = from > 0;
+        List<LogRow> rows = log(tenantId, subscribed, from, Long.MAX_VALUE, tombstones, size + 1);
+        boolean more = rows.size() > size;
+        if (more) {
+            long next = rows.get(size).seq();
+            rows = rows.subList(0, size);
+            if (rows.get(size - 1).seq() == next) {
+                List<LogRow> complete = rows.stream().filter(r -> r.seq() < next).toList();
+                rows = complete.isEmpty() ? log(tenantId, subscribed, next - 1, next, tombstones, Integer.MAX_VALUE) : complete;
+            }
+        }
+        long token = rows.isEmpty() ? from : rows.get(rows.size() - 1).seq();
+        if (!more) {
+            // Tokens are handed out in commit order, so nothing at or below head is still to come
+            token = Math.max(token, head);
+        }
+        return new SyncBatch(tenantId, since, token, full, more, changes(rows));
+    }
+
+    /** Applies a device's offline writes in order, each on its own so one conflict does not hold back the rest. */
+    public SyncPushResult apply(UUID tenantId, String deviceId, List<SyncWrite> writes) {
+        if (deviceId == null || deviceId.isBlank() || deviceId.length() > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "deviceId is required (at most 100 characters)");
+        }
+        if (writes.size() > maxWrites) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "At most " + maxWrites + " writes per batch");
+        }
+        List<Result> results = new ArrayList<>(writes.size());
+        for (SyncWrite write : writes) {
+            results.add(apply(tenantId, deviceId, write));
+        }
+        return new SyncPushResult(tenantId, results);
+    }
+
+    /** Drops tombstones (and the record of applied device writes) older than the retention period. */
+    @Scheduled(cron = "${erp.sync.purge-cron:0 15 4 * * *}")
+    public void purgeTombstones() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(tombstoneRetentionDays));
+        int tenants = jdbcTemplate.update(PURGE, cutoff);
+        int writes = jdbcTemplate.update("DELETE FROM accounting.sync_device_writes WHERE applied_at < ?", cutoff);
+        log.info("Sync purge: tombstones of {} tenants, {} device writes older than {}", tenants, writes, cutoff);
+    }
+
+    private long[] state(UUID tenantId) {
+        List<long[]> state = jdbcTemplate.query(STATE, (rs, i) -> new long[] {rs.getLong(1), rs.getLong(2)}, tenantId);
+        return state.isEmpty() ? new long[] {0L, 0L} : state.get(0);
+    }
+
+    private List<LogRow> log(UUID tenantId, Set<EntityType> types, long after, long through, boolean tombstones, int limit) {
+        String[] names = types.stream().map(Enum::name).toArray(String[]::new);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOG);
+            ps.setObject(1, tenantId);
+            ps.setArray(2, con.createArrayOf("varchar", names));
+            ps.setLong(3, after);
+            ps.setLong(4, through);
+            ps.setBoolean(5, tombstones);
+            ps.setInt(6, limit);
+            return ps;
+        }, (rs, i) -> new LogRow(EntityType.valueOf(rs.getString(1)), rs.getObject(2, UUID.class),
+            rs.getLong(3), rs.getBoolean(4)));
+    }
+
+    // Loads current state per type in one query each; an entity deleted since the log read is skipped,
+    // its tombstone comes with a later token
+    private List<SyncBatch.Change> changes(List<LogRow> rows) {
+        Map<EntityType, List<UUID>> ids = new EnumMap<>(EntityType.class);
+        for (LogRow row : rows) {
+            if (!row.deleted()) {
+                ids.computeIfAbsent(row.type(), t -> new ArrayList<>()).add(row.id());
+            }
+        }
+        Map<EntityType, Map<UUID, Object>> loaded = new EnumMap<>(EntityType.class);
+        ids.forEach((type, list) -> loaded.put(type, load(type, list)));
+
+        List<SyncBatch.Change> changes = new ArrayList<>(rows.size());
+        for (LogRow row : rows) {
+            if (row.deleted()) {
+                changes.add(new SyncBatch.Change(row.type().name(), row.id(), row.seq(), Boolean.TRUE, null));
+                continue;
+            }
+            Object data = loaded.get(row.type()).get(row.id());
+            if (data != null) {
+                changes.add(new SyncBatch.Change(row.type().name(), row.id(), row.seq(), null, data));
+            }
+        }
+        return changes;
+    }
+
+    private Map<UUID, Object> load(EntityType type, Collection<UUID> ids) {
+        return switch (type) {
+            case PRODUCTS -> byId(productRepository.findAllById(ids), Product::getProductId);
+            case CUSTOMERS -> byId(customerRepository.findAllById(ids), Customer::getCustomerId);
+            case INVOICES -> byId(invoiceRepository.findAllById(ids), Invoice::getInvoiceId);
+            case BALANCES -> byId(inventoryBalanceRepository.findAllById(ids), InventoryBalance::getBalanceId);
+        };
+    }
+
+    private static <T> Map<UUID, Object> byId(List<T> entities, Function<T, UUID> id) {
+        return entities.stream().collect(Collectors.toMap(id, e -> e, (a, b) -> a, HashMap::new));
+    }
+
+    private Result apply(UUID tenantId, String deviceId, SyncWrite write) {
+        String mutationId = write.mutationId();
+        if (mutationId == null || mutationId.isBlank() || mutationId.length() > 100) {
+            return new Result(mutationId, Status.REJECTED, write.id(), null, null, "mutationId is required (at most 100 characters)");
+        }
+        EntityType type;
+        try {
+            type = EntityType.valueOf(String.valueOf(write.type()));
+        } catch (IllegalArgumentException e) {
+            return new Result(mutationId, Status.REJECTED, write.id(), null, null, "Unknown type " + write.type());
+        }
+        Result result;
+        try {
+            result = transactionTemplate.execute(status -> {
+                List<UUID> applied = jdbcTemplate.queryForList(APPLIED, UUID.class, tenantId, deviceId, mutationId);
+                if (!applied.isEmpty()) {
+                    return new Result(mutationId, Status.DUPLICATE, applied.get(0), null, null, null);
+                }
+                Result outcome = switch (type) {
+                    case CUSTOMERS -> writeCustomer(tenantId, deviceId, write);
+                    case INVOICES -> writeInvoice(tenantId, deviceId, write);
+                    case PRODUCTS, BALANCES -> new Result(mutationId, Status.REJECTED, write.id(), null, null,
+                        type + " are read-only on devices");
+                };
+                if (outcome.status() == Status.APPLIED) {
+                    jdbcTemplate.update(RECORD, tenantId, deviceId, mutationId, type.name(), outcome.id());
+                }
+                return outcome;
+            });
+        } catch (ResponseStatusException e) {
+            return new Result(mutationId, Status.REJECTED, write.id(), null, null, e.getReason());
+        } catch (DataAccessException | IllegalArgumentException e) {
+            // Constraint violations (duplicate invoice number, customer still invoiced) and unreadable data
+            return new Result(mutationId, Status.REJECTED, write.id(), null, null,
+                NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        if ((result.status() == Status.APPLIED || result.status() == Status.DUPLICATE) && result.id() != null) {
+            // Tokens are assigned at commit, so the entity's new token is only readable now
+            List<Long> token = jdbcTemplate.queryForList(ENTITY_TOKEN, Long.class, tenantId, type.name(), result.id());
+            return new Result(mutationId, result.status(), result.id(), token.isEmpty() ? null : token.get(0), null, null);
+        }
+        return result;
+    }
+
+    private Result writeCustomer(UUID tenantId, String deviceId, SyncWrite write) {
+        String mutationId = write.mutationId();
+        if (write.id() == null) {
+            if (write.delete()) {
+                return new Result(mutationId, Status.REJECTED, null, null, null, "delete needs an id");
+            }
+            Customer customer = objectMapper.convertValue(data(write), Customer.class);
+            customer.setCustomerId(null);
+            customer.setTenantId(tenantId);
+            Customer saved = customerRepository.saveAndFlush(customer);
+            eventPublisher.publishEvent(new CatalogChangedEvent(tenantId, saved));
+            return new Result(mutationId, Status.APPLIED, saved.getCustomerId(), null, null, null);
+        }
+
+        List<Long> current = jdbcTemplate.queryForList(LOCK_CUSTOMER, Long.class, write.id(), tenantId);
+        if (current.isEmpty()) {
+            // Already deleted on the server: a delete has nothing left to do, an edit has nothing to apply to
+            return write.delete()
+                ? new Result(mutationId, Status.APPLIED, write.id(), null, null, null)
+                : new Result(mutationId, Status.CONFLICT, write.id(), null, null, "Deleted on the server");
+        }
+        long token = current.get(0);
+        if (write.baseToken() == null || token > write.baseToken()) {
+            return new Result(mutationId, Status.CONFLICT, write.id(), token,
+                customerRepository.findById(write.id()).orElse(null), "Changed on the server since token " + write.baseToken());
+        }
+        if (write.delete()) {
+            customerRepository.deleteById(write.id());
+            customerRepository.flush();
+            eventPublisher.publishEvent(new CatalogChangedEvent(tenantId, null));
+            return new Result(mutationId, Status.APPLIED, write.id(), null, null, null);
+        }
+        Customer customer = customerRepository.findById(write.id()).orElseThrow();
+        try {
+            objectMapper.updateValue(customer, data(write));
+        } catch (JsonMappingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage(), e);
+        }
+        customer.setCustomerId(write.id());
+        customer.setTenantId(tenantId);
+        Customer saved = customerRepository.saveAndFlush(customer);
+        eventPublisher.publishEvent(new CatalogChangedEvent(tenantId, saved));
+        return new Result(mutationId, Status.APPLIED, saved.getCustomerId(), null, null, null);
+    }
+
+    // An invoice for a customer created offline names it by the mutationId of that create (customerRef),
+    // which may have been applied in this batch or an earlier one
+    private Result writeInvoice(UUID tenantId, String deviceId, SyncWrite write) {
+        String mutationId = write.mutationId();
+        if (write.id() != null || write.delete()) {
+            return new Result(mutationId, Status.REJECTED, write.id(), null, null,
+                "Invoices can only be created offline");
+        }
+        Map<String, Object> data = new LinkedHashMap<>(data(write));
+        Object lines = data.remove("lines");
+        Object customerRef = data.remove("customerRef");
+        if (customerRef != null && data.get("customerId") == null) {
+            List<UUID> customer = jdbcTemplate.queryForList(APPLIED, UUID.class, tenantId, deviceId, customerRef.toString());
+            if (customer.isEmpty()) {
+                return new Result(mutationId, Status.REJECTED, null, null, null, "Unknown customerRef " + customerRef);
+            }
+            data.put("customerId", customer.get(0));
+        }
+        Invoice invoice = objectMapper.convertValue(data, Invoice.class);
+        invoice.setInvoiceId(null);
+        invoice.setTenantId(tenantId);
+        if (invoice.getCustomerId() == null
+            || customerRepository.findById(invoice.getCustomerId()).filter(c -> c.getTenantId().equals(tenantId)).isEmpty()) {
+            return new Result(mutationId, Status.REJECTED, null, null, null, "Customer not found");
+        }
+        List<InvoiceLine> invoiceLines = lines == null ? List.of()
+            : objectMapper.convertValue(lines, new TypeReference<List<InvoiceLine>>() { });
+        invoiceLines.forEach(line -> line.setLineId(null));
+        Invoice saved = invoiceService.create(invoice, invoiceLines);
+        invoiceRepository.flush();
+        return new Result(mutationId, Status.APPLIED, saved.getInvoiceId(), null, null, null);
+    }
+
+    private static Map<String, Object> data(SyncWrite write) {
+        if (write.data() == null) {
+            throw new IllegalArgumentException("data is required");
+        }
+        return write.data();
+    }
+}
@@ -0,0 +1,284 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.GoodsReceiptRequest;
+import com.erp.accounting.dto.PurchaseOrderRequest;
+import com.erp.accounting.dto.SupplierInvoiceRequest;
+import com.erp.accounting.entity.GoodsReceipt;
+import com.erp.accounting.entity.GoodsReceiptLine;
+import com.erp.accounting.entity.InventoryLedger;
+import com.erp.accounting.entity.POStatus;
+import com.erp.accounting.entity.PurchaseOrder;
+import com.erp.accounting.entity.PurchaseOrderLine;
+import com.erp.accounting.entity.SupplierInvoice;
+import com.erp.accounting.entity.SupplierInvoiceLine;
+import com.erp.accounting.entity.TransactionType;
+import com.erp.accounting.repository.GoodsReceiptLineRepository;
+import com.erp.accounting.repository.GoodsReceiptRepository;
+import com.erp.accounting.repository.PurchaseOrderLineRepository;
+import com.erp.accounting.repository.PurchaseOrderRepository;
+import com.erp.accounting.repository.SupplierInvoiceLineRepository;
+import com.erp.accounting.repository.SupplierInvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Purchase order lifecycle: creating orders, manual status changes, goods receipts (which put
+ * the stock into inventory_ledger) and supplier invoices. Matching the three is done in bulk by
+ * {@link ThreeWayMatchService}. Every write locks the PO header first.
+ */
+@Service
+@RequiredArgsConstructor
+public class PurchaseOrderService {
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    // The only transitions made by hand; RECEIVED and INVOICED follow from receipts and matching
+    private static final Map<POStatus, POStatus> MANUAL_TRANSITIONS = Map.of(
+        POStatus.DRAFT, POStatus.CONFIRMED,
+        POStatus.INVOICED, POStatus.PAID);
+
+    private static final Set<POStatus> OPEN = Set.of(POStatus.CONFIRMED, POStatus.RECEIVED);
+
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderLineRepository purchaseOrderLineRepository;
+    private final GoodsReceiptRepository goodsReceiptRepository;
+    private final GoodsReceiptLineRepository goodsReceiptLineRepository;
+    private final SupplierInvoiceRepository supplierInvoiceRepository;
+    private final SupplierInvoiceLineRepository supplierInvoiceLineRepository;
+    private final InventoryBatchService inventoryBatchService;
+
+    @Transactional
+    public PurchaseOrder create(PurchaseOrderRequest request) {
+        PurchaseOrder order = request.order();
+        if (order == null || order.getTenantId() == null || order.getSupplierId() == null
+                || order.getPoNumber() == null || order.getPoNumber().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tenantId, supplierId and poNumber are required");
+        }
+        List<PurchaseOrderLine> lines = request.lines();
+        if (lines == null || lines.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A purchase order needs at least one line");
+        }
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        for (int i = 0; i < lines.size(); i++) {
+            PurchaseOrderLine line = lines.get(i);
+            if (line.getProductId() == null || line.getQuantityOrdered() == null || line.getQuantityOrdered() <= 0
+                    || line.getUnitPrice() == null || line.getUnitPrice().signum() < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Line " + (i + 1) + " needs a productId, a positive quantityOrdered and a unitPrice");
+            }
+            line.setLineId(null);
+            if (line.getLineNumber() == null) {
+                line.setLineNumber(i + 1);
+            }
+            line.setLineTotal(line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantityOrdered()))
+                .setScale(2, RoundingMode.HALF_UP));
+            line.setGstAmount(line.getGstRate() != null
+                ? line.getLineTotal().multiply(line.getGstRate()).divide(HUNDRED, 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+            subtotal = subtotal.add(line.getLineTotal());
+            tax = tax.add(line.getGstAmount());
+        }
+
+        order.setPoId(null);
+        order.setSubtotal(subtotal);
+        order.setTotalTax(tax);
+        order.setTotalAmount(subtotal.add(tax));
+        order.setStatus(POStatus.DRAFT);
+        order.setGoodsReceivedQty(0);
+        order.setIsPosted(false);
+        if (order.getPoDate() == null) {
+            order.setPoDate(LocalDate.now());
+        }
+        PurchaseOrder saved;
+        try {
+            saved = purchaseOrderRepository.saveAndFlush(order);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "PO number " + order.getPoNumber() + " already exists");
+        }
+        lines.forEach(line -> line.setPoId(saved.getPoId()));
+        purchaseOrderLineRepository.saveAll(lines);
+        return saved;
+    }
+
+    /** DRAFT → CONFIRMED and INVOICED → PAID; anything else is driven by receipts and matching. */
+    @Transactional
+    public PurchaseOrder updateStatus(UUID poId, POStatus status) {
+        PurchaseOrder order = lockOrder(poId);
+        if (MANUAL_TRANSITIONS.get(order.getStatus()) != status) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Cannot move a " + order.getStatus() + " purchase order to " + status);
+        }
+        order.setStatus(status);
+        return purchaseOrderRepository.save(order);
+    }
+
+    /**
+     * Records a goods receipt: one PURCHASE movement per line at the PO unit price, the received
+     * quantities on the PO lines, and RECEIVED once every line has arrived in full. Over-delivery
+     * is accepted here and reported by the matcher.
+     */
+    @Transactional
+    public GoodsReceipt receive(UUID poId, GoodsReceiptRequest request) {
+        PurchaseOrder order = lockOrder(poId);
+        if (!OPEN.contains(order.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Goods can only be received against a confirmed purchase order, not " + order.getStatus());
+        }
+        GoodsReceipt receipt = request.receipt();
+        List<GoodsReceiptLine> lines = request.lines();
+        if (receipt == null || receipt.getReceiptNumber() == null || receipt.getReceiptNumber().isBlank()
+                || lines == null || lines.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "receiptNumber and at least one line are required");
+        }
+
+        Map<UUID, PurchaseOrderLine> poLines = new HashMap<>();
+        Map<UUID, Integer> received = new HashMap<>();
+        for (PurchaseOrderLine line : purchaseOrderLineRepository.findByPoIdOrderByLineNumber(poId)) {
+            poLines.put(line.getLineId(), line);
+            received.put(line.getLineId(), line.getQuantityReceived() != null ? line.getQuantityReceived() : 0);
+        }
+
+        receipt.setReceiptId(null);
+        receipt.setTenantId(order.getTenantId());
+        receipt.setPoId(poId);
+        if (receipt.getReceiptDate() == null) {
+            receipt.setReceiptDate(LocalDate.now());
+        }
+        GoodsReceipt saved;
+        try {
+            saved = goodsReceiptRepository.saveAndFlush(receipt);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Receipt number " + receipt.getReceiptNumber() + " already exists");
+        }
+
+        int total = 0;
+        for (GoodsReceiptLine line : lines) {
+            PurchaseOrderLine poLine = poLines.get(line.getPoLineId());
+            if (poLine == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "poLineId " + line.getPoLineId() + " is not a line of this purchase order");
+            }
+            if (line.getQuantityReceived() == null || line.getQuantityReceived() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "quantityReceived must be positive");
+            }
+            InventoryLedger movement = inventoryBatchService.recordMovement(InventoryLedger.builder()
+                .tenantId(order.getTenantId())
+                .productId(poLine.getProductId())
+                .transactionType(TransactionType.PURCHASE)
+                .quantityIn(line.getQuantityReceived())
+                .quantityOut(0)
+                .unitCost(poLine.getUnitPrice())
+                .batchNumber(line.getBatchNumber())
+                .expiryDate(line.getExpiryDate())
+                .referenceId(saved.getReceiptId().toString())
+                .referenceType("GOODS_RECEIPT")
+                .build());
+            line.setReceiptLineId(null);
+            line.setReceiptId(saved.getReceiptId());
+            line.setPoId(poId);
+            line.setProductId(poLine.getProductId());
+            line.setLedgerId(movement.getLedgerId());
+            purchaseOrderLineRepository.addReceived(poLine.getLineId(), line.getQuantityReceived());
+            received.merge(poLine.getLineId(), line.getQuantityReceived(), Integer::sum);
+            total += line.getQuantityReceived();
+        }
+        goodsReceiptLineRepository.saveAll(lines);
+
+        order.setGoodsReceivedQty((order.getGoodsReceivedQty() != null ? order.getGoodsReceivedQty() : 0) + total);
+        boolean complete = poLines.values().stream()
+            .allMatch(poLine -> received.get(poLine.getLineId()) >= poLine.getQuantityOrdered());
+        if (complete) {
+            order.setStatus(POStatus.RECEIVED);
+        }
+        purchaseOrderRepository.save(order);
+        return saved;
+    }
+
+    /**
+     * Records a supplier's bill against an open PO. Amounts are taken as billed, since the point is
+     * to compare them with the order; only missing line totals and header sums are filled in.
+     */
+    @Transactional
+    public SupplierInvoice addSupplierInvoice(UUID poId, SupplierInvoiceRequest request) {
+        PurchaseOrder order = lockOrder(poId);
+        if (!OPEN.contains(order.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Supplier invoices can only be recorded against an open purchase order, not " + order.getStatus());
+        }
+        SupplierInvoice invoice = request.invoice();
+        List<SupplierInvoiceLine> lines = request.lines();
+        if (invoice == null || invoice.getInvoiceNumber() == null || invoice.getInvoiceNumber().isBlank()
+                || lines == null || lines.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invoiceNumber and at least one line are required");
+        }
+        if (invoice.getSupplierId() != null && !invoice.getSupplierId().equals(order.getSupplierId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invoice supplier does not match the purchase order");
+        }
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines.size(); i++) {
+            SupplierInvoiceLine line = lines.get(i);
+            if (line.getProductId() == null || line.getQuantity() == null || line.getQuantity() <= 0
+                    || line.getUnitPrice() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Line " + (i + 1) + " needs a productId, a positive quantity and a unitPrice");
+            }
+            line.setLineId(null);
+            line.setPoId(poId);
+            if (line.getLineNumber() == null) {
+                line.setLineNumber(i + 1);
+            }
+            if (line.getLineTotal() == null) {
+                line.setLineTotal(line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity()))
+                    .setScale(2, RoundingMode.HALF_UP));
+            }
+            subtotal = subtotal.add(line.getLineTotal());
+        }
+
+        invoice.setSupplierInvoiceId(null);
+        invoice.setTenantId(order.getTenantId());
+        invoice.setSupplierId(order.getSupplierId());
+        invoice.setPoId(poId);
+        if (invoice.getInvoiceDate() == null) {
+            invoice.setInvoiceDate(LocalDate.now());
+        }
+        if (invoice.getSubtotal() == null) {
+            invoice.setSubtotal(subtotal);
+        }
+        if (invoice.getTotalTax() == null) {
+            invoice.setTotalTax(BigDecimal.ZERO);
+        }
+        if (invoice.getTotalAmount() == null) {
+            invoice.setTotalAmount(invoice.getSubtotal().add(invoice.getTotalTax()));
+        }
+        SupplierInvoice saved;
+        try {
+            saved = supplierInvoiceRepository.saveAndFlush(invoice);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Invoice " + invoice.getInvoiceNumber() + " from this supplier is already recorded");
+        }
+        lines.forEach(line -> line.setSupplierInvoiceId(saved.getSupplierInvoiceId()));
+        supplierInvoiceLineRepository.saveAll(lines);
+        return saved;
+    }
+
+    private PurchaseOrder lockOrder(UUID poId) {
+        return purchaseOrderRepository.findByIdForUpdate(poId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Purchase order not found"));
+    }
+}
@@ -0,0 +1,234 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.RecurringRunResult;
+import com.erp.accounting.entity.RecurrenceFrequency;
+import com.erp.accounting.entity.RecurringDocumentType;
+import com.erp.accounting.entity.RecurringTemplate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates due recurring documents on every node, sharing the work through leases in
+ * recurring_templates.
+ * <p>
+ * Each worker claims up to {@code erp.recurring.batch-size} due templates in one statement
+ * (FOR UPDATE SKIP LOCKED, so concurrent claimers never wait on each other) and generates their
+ * occurrences in a single transaction. The transaction also advances each template and releases
+ * its lease, guarded by the claim token. A node that dies mid-batch rolls back and the templates
+ * become claimable when the lease expires. An occurrence row keyed by (template, date) is
+ * inserted before the document, so a late duplicate claimer skips work already committed.
+ * If a batch fails, its templates are retried one per transaction. Templates that still fail
+ * are released with an exponential back-off and their error is recorded.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecurringDocumentScheduler {
+    private static final String CLAIM =
+        "UPDATE accounting.recurring_templates SET lease_owner = ?, lease_expires_at = now() + make_interval(secs => ?) " +
+        "WHERE template_id IN (SELECT template_id FROM accounting.recurring_templates " +
+        "WHERE is_active AND next_run_date <= ? AND (lease_expires_at IS NULL OR lease_expires_at < now()) " +
+        "ORDER BY next_run_date LIMIT ? FOR UPDATE SKIP LOCKED) " +
+        "RETURNING template_id, tenant_id, document_type, name, number_prefix, frequency, interval_count, " +
+        "start_date, end_date, payload::text AS payload, next_run_date, occurrence_count";
+
+    private static final String INSERT_OCCURRENCE =
+        "INSERT INTO accounting.recurring_occurrences (template_id, occurrence_date, tenant_id) VALUES (?, ?, ?) " +
+        "ON CONFLICT (template_id, occurrence_date) DO NOTHING";
+
+    private static final String COMPLETE =
+        "UPDATE accounting.recurring_templates SET next_run_date = ?, occurrence_count = ?, " +
+        "last_run_date = COALESCE(?, last_run_date), is_active = ?, lease_owner = NULL, lease_expires_at = NULL, " +
+        "failure_count = 0, last_error = NULL WHERE template_id = ? AND lease_owner = ?";
+
+    // Back-off doubles per consecutive failure, capped at one day
+    private static final String FAIL =
+        "UPDATE accounting.recurring_templates SET lease_owner = NULL, " +
+        "lease_expires_at = now() + make_interval(mins => LEAST(power(2, LEAST(failure_count, 11))::int, 1440)), " +
+        "failure_count = failure_count + 1, last_error = ? WHERE template_id = ? AND lease_owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RecurringDocumentService recurringDocumentService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${erp.recurring.batch-size:200}")
+    private int batchSize;
+
+    @Value("${erp.recurring.workers:4}")
+    private int workers;
+
+    @Value("${erp.recurring.lease-seconds:300}")
+    private int leaseSeconds;
+
+    // Bounds one template's catch-up per transaction; the rest is claimed again straight away
+    @Value("${erp.recurring.max-catch-up:366}")
+    private int maxCatchUp;
+
+    @Value("${erp.recurring.node-id:}")
+    private String nodeId;
+
+    @Scheduled(fixedDelayString = "${erp.recurring.poll-interval-ms:60000}",
+               initialDelayString = "${erp.recurring.poll-interval-ms:60000}")
+    public void runDue() {
+        RecurringRunResult result = run(LocalDate.now());
+        if (result.templatesProcessed() > 0) {
+            log.info("Recurring documents: {} templates, {} documents, {} failed in {} ms",
+                result.templatesProcessed(), result.documentsGenerated(), result.failedTemplates(), result.elapsedMs());
+        }
+    }
+
+    /** Generates every occurrence due on or before asOf that this node manages to claim. */
+    public RecurringRunResult run(LocalDate asOf) {
+        long start = System.currentTimeMillis();
+        List<Future<int[]>> futures = new ArrayList<>(workers);
+        int[] totals = new int[3];
+        try (ExecutorService pool = Executors.newFixedThreadPool(workers)) {
+            for (int i = 0; i < workers; i++) {
+                futures.add(pool.submit(() -> drain(asOf)));
+            }
+            for (Future<int[]> future : futures) {
+                int[] counts = future.get();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += counts[i];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recurring document run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Recurring document run failed", e.getCause());
+        }
+        return new RecurringRunResult(asOf, totals[0], totals[1], totals[2], System.currentTimeMillis() - start);
+    }
+
+    // One worker: claim and process batches until nothing due is left unclaimed
+    private int[] drain(LocalDate asOf) {
+        int[] counts = new int[3];
+        while (true) {
+            String leaseToken = nodeId() + ":" + UUID.randomUUID();
+            List<RecurringTemplate> batch = jdbcTemplate.query(CLAIM, this::template,
+                leaseToken, leaseSeconds, Date.valueOf(asOf), batchSize);
+            if (batch.isEmpty()) {
+                return counts;
+            }
+            counts[0] += batch.size();
+            try {
+                Integer generated = transactionTemplate.execute(status -> {
+                    int n = 0;
+                    for (RecurringTemplate template : batch) {
+                        n += process(template, asOf, leaseToken);
+                    }
+                    return n;
+                });
+                counts[1] += generated != null ? generated : 0;
+            } catch (RuntimeException batchFailure) {
+                log.warn("Recurring batch of {} failed ({}); retrying templates one by one",
+                    batch.size(), batchFailure.getMessage());
+                for (RecurringTemplate template : batch) {
+                    try {
+                        Integer generated = transactionTemplate.execute(status -> process(template, asOf, leaseToken));
+                        counts[1] += generated != null ? generated : 0;
+                    } catch (LeaseLostException e) {
+                        log.warn("Lease on recurring template {} expired before commit", template.getTemplateId());
+                    } catch (RuntimeException e) {
+                        counts[2]++;
+                        log.error("Recurring template {} failed", template.getTemplateId(), e);
+                        jdbcTemplate.update(FAIL, String.valueOf(e.getMessage()), template.getTemplateId(), leaseToken);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Generates a claimed template's due occurrences and releases it; runs in the batch transaction. */
+    private int process(RecurringTemplate template, LocalDate asOf, String leaseToken) {
+        LocalDate next = template.getNextRunDate();
+        int index = template.getOccurrenceCount();
+        LocalDate lastRun = null;
+        int generated = 0;
+        while (!next.isAfter(asOf) && !pastEnd(template, next) && index - template.getOccurrenceCount() < maxCatchUp) {
+            Date date = Date.valueOf(next);
+            if (jdbcTemplate.update(INSERT_OCCURRENCE, template.getTemplateId(), date, template.getTenantId()) == 1) {
+                UUID documentId = recurringDocumentService.generate(template, next);
+                jdbcTemplate.update("UPDATE accounting.recurring_occurrences SET document_id = ?, document_number = ? " +
+                    "WHERE template_id = ? AND occurrence_date = ?",
+                    documentId, recurringDocumentService.documentNumber(template, next), template.getTemplateId(), date);
+                generated++;
+            }
+            lastRun = next;
+            index++;
+            next = recurringDocumentService.occurrenceDate(template, index);
+        }
+        int released = jdbcTemplate.update(COMPLETE, Date.valueOf(next), index,
+            lastRun != null ? Date.valueOf(lastRun) : null, !pastEnd(template, next), template.getTemplateId(), leaseToken);
+        if (released == 0) {
+            throw new LeaseLostException();
+        }
+        return generated;
+    }
+
+    private static boolean pastEnd(RecurringTemplate template, LocalDate date) {
+        return template.getEndDate() != null && date.isAfter(template.getEndDate());
+    }
+
+    private RecurringTemplate template(ResultSet rs, int rowNum) throws SQLException {
+        Date endDate = rs.getDate("end_date");
+        try {
+            return RecurringTemplate.builder()
+                .templateId(rs.getObject("template_id", UUID.class))
+                .tenantId(rs.getObject("tenant_id", UUID.class))
+                .documentType(RecurringDocumentType.valueOf(rs.getString("document_type")))
+                .name(rs.getString("name"))
+                .numberPrefix(rs.getString("number_prefix"))
+                .frequency(RecurrenceFrequency.valueOf(rs.getString("frequency")))
+                .intervalCount(rs.getInt("interval_count"))
+                .startDate(rs.getDate("start_date").toLocalDate())
+                .endDate(endDate != null ? endDate.toLocalDate() : null)
+                .payload(objectMapper.readTree(rs.getString("payload")))
+                .nextRunDate(rs.getDate("next_run_date").toLocalDate())
+                .occurrenceCount(rs.getInt("occurrence_count"))
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Unreadable payload on recurring template " + rs.getString("template_id"), e);
+        }
+    }
+
+    private String nodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            try {
+                nodeId = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                nodeId = UUID.randomUUID().toString();
+            }
+        }
+        return nodeId;
+    }
+
+    /** The claim expired and another worker took the template; this transaction must not commit. */
+    private static class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super("Recurring template lease lost", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.JournalPostingRequest;
+import com.erp.accounting.dto.RecurringInvoice;
+import com.erp.accounting.entity.Invoice;
+import com.erp.accounting.entity.InvoiceStatus;
+import com.erp.accounting.entity.JournalEntry;
+import com.erp.accounting.entity.Posting;
+import com.erp.accounting.entity.RecurringDocumentType;
+import com.erp.accounting.entity.RecurringTemplate;
+import com.erp.accounting.repository.RecurringTemplateRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Recurring journal and invoice templates: validation, the occurrence calendar and turning one
+ * occurrence into a posted journal or an invoice. Scheduling and claiming live in
+ * {@link RecurringDocumentScheduler}.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecurringDocumentService {
+    private final RecurringTemplateRepository recurringTemplateRepository;
+    private final JournalPostingService journalPostingService;
+    private final InvoiceService invoiceService;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public RecurringTemplate createTemplate(RecurringTemplate template) {
+        if (template.getTenantId() == null || template.getDocumentType() == null || template.getFrequency() == null
+                || template.getStartDate() == null || template.getPayload() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "tenantId, documentType, frequency, startDate and payload are required");
+        }
+        if (template.getNumberPrefix() == null || template.getNumberPrefix().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "numberPrefix is required");
+        }
+        if (template.getIntervalCount() == null) {
+            template.setIntervalCount(1);
+        } else if (template.getIntervalCount() < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "intervalCount must be positive");
+        }
+        if (template.getEndDate() != null && template.getEndDate().isBefore(template.getStartDate())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "endDate is before startDate");
+        }
+        // Fail now rather than on the first run
+        if (template.getDocumentType() == RecurringDocumentType.JOURNAL) {
+            JournalPostingRequest request = journalPayload(template);
+            if (request.entry() == null || request.postings() == null || request.postings().size() < 2) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A journal template needs an entry and at least two postings");
+            }
+        } else if (invoicePayload(template).invoice() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "An invoice template needs an invoice");
+        }
+
+        template.setTemplateId(null);
+        template.setNextRunDate(template.getStartDate());
+        template.setOccurrenceCount(0);
+        template.setIsActive(true);
+        try {
+            return recurringTemplateRepository.saveAndFlush(template);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "numberPrefix " + template.getNumberPrefix()
+                + " is already used by another " + template.getDocumentType() + " template");
+        }
+    }
+
+    /** Pauses or resumes a template; a resumed template catches up on the dates it missed. */
+    @Transactional
+    public boolean setActive(UUID templateId, boolean active) {
+        return recurringTemplateRepository.setActive(templateId, active) > 0;
+    }
+
+    /**
+     * Date of the index-th occurrence (0-based). Always counted from startDate, so monthly
+     * templates starting on the 31st land on each month's last day instead of drifting.
+     */
+    public LocalDate occurrenceDate(RecurringTemplate template, int index) {
+        long steps = (long) index * template.getIntervalCount();
+        LocalDate start = template.getStartDate();
+        return switch (template.getFrequency()) {
+            case DAILY -> start.plusDays(steps);
+            case WEEKLY -> start.plusWeeks(steps);
+            case MONTHLY -> start.plusMonths(steps);
+            case QUARTERLY -> start.plusMonths(steps * 3);
+            case YEARLY -> start.plusYears(steps);
+        };
+    }
+
+    public String documentNumber(RecurringTemplate template, LocalDate date) {
+        return template.getNumberPrefix() + "-" + date.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    /**
+     * Creates the document for one occurrence in the caller's transaction and returns its id.
+     * The payload is deserialized afresh each time, so nothing is shared between occurrences.
+     */
+    public UUID generate(RecurringTemplate template, LocalDate date) {
+        String number = documentNumber(template, date);
+        if (template.getDocumentType() == RecurringDocumentType.JOURNAL) {
+            JournalPostingRequest request = journalPayload(template);
+            JournalEntry entry = request.entry();
+            entry.setJournalId(null);
+            entry.setTenantId(template.getTenantId());
+            entry.setEntryNumber(number);
+            entry.setEntryDate(date);
+            if (entry.getDescription() == null) {
+                entry.setDescription(template.getName());
+            }
+            for (Posting posting : request.postings()) {
+                posting.setPostingId(null);
+            }
+            return journalPostingService.post(request).getJournalId();
+        }
+
+        RecurringInvoice payload = invoicePayload(template);
+        Invoice invoice = payload.invoice();
+        invoice.setInvoiceId(null);
+        invoice.setTenantId(template.getTenantId());
+        invoice.setInvoiceNumber(number);
+        invoice.setInvoiceDate(date);
+        if (payload.dueInDays() != null) {
+            invoice.setDueDate(date.plusDays(payload.dueInDays()));
+        }
+        if (invoice.getStatus() == null) {
+            invoice.setStatus(InvoiceStatus.SENT);
+        }
+        invoice.setAmountPaid(BigDecimal.ZERO);
+        invoice.setOutstanding(invoice.getTotalAmount());
+        if (payload.lines() != null) {
+            payload.lines().forEach(line -> line.setLineId(null));
+        }
+        return invoiceService.create(invoice, payload.lines()).getInvoiceId();
+    }
+
+    private JournalPostingRequest journalPayload(RecurringTemplate template) {
+        return readPayload(template, JournalPostingRequest.class);
+    }
+
+    private RecurringInvoice invoicePayload(RecurringTemplate template) {
+        return readPayload(template, RecurringInvoice.class);
+    }
+
+    private <T> T readPayload(RecurringTemplate template, Class<T> type) {
+        try {
+            return objectMapper.treeToValue(template.getPayload(), type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Template payload is not a valid " + type.getSimpleName() + ": " + e.getMessage());
+        }
+    }
+}
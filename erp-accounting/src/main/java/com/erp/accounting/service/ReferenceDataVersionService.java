@@ -0,0 +1,103 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ReferenceDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Version counters for reference data (chart of accounts, products, tenants).
+ * <p>
+ * The database bumps reference_data_versions once per writing transaction and stamps each written
+ * row with that version (see 020_reference_data_versions.sql), so a counter read is enough to tell
+ * whether a client's copy is current. Controllers turn the counter into a strong ETag and answer
+ * a matching If-None-Match with 304 before running the list query. The counter and the rows are
+ * read in one read-only snapshot, so a body is exactly the version its ETag names even when reads
+ * are spread over replicas.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataVersionService {
+    /** tenant_id under which the global tenants list is versioned */
+    public static final UUID GLOBAL = new UUID(0L, 0L);
+
+    public enum Dataset { ACCOUNTS, PRODUCTS, TENANTS }
+
+    /** A dataset's ETag and its rows; rows is null when the client's If-None-Match already names the ETag. */
+    public record Listing<T>(String etag, List<T> rows) {
+        public boolean notModified() {
+            return rows == null;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Current version of a tenant's dataset; 0 if it has never been written. */
+    public long currentVersion(UUID tenantId, Dataset dataset) {
+        List<Long> versions = jdbcTemplate.queryForList(
+            "SELECT version FROM accounting.reference_data_versions WHERE tenant_id = ? AND dataset = ?",
+            Long.class, tenantId, dataset.name());
+        return versions.isEmpty() ? 0L : versions.get(0);
+    }
+
+    public String etag(UUID tenantId, Dataset dataset) {
+        return etag(tenantId, dataset, currentVersion(tenantId, dataset));
+    }
+
+    public static String etag(UUID tenantId, Dataset dataset, long version) {
+        return "\"" + dataset.name().toLowerCase(Locale.ROOT) + "-" + tenantId + "-" + version + "\"";
+    }
+
+    /** Current ETag of a tenant's dataset and, unless ifNoneMatch matches it, the rows from list. */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public <T> Listing<T> list(UUID tenantId, Dataset dataset, String ifNoneMatch, Supplier<List<T>> list) {
+        String etag = etag(tenantId, dataset);
+        return new Listing<>(etag, matches(ifNoneMatch, etag) ? null : list.get());
+    }
+
+    /**
+     * Rows of a tenant's dataset written after since, fetched with changedSince (row_version > n,
+     * ordered by row_version). A client that is already current costs one counter read.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public <T> ReferenceDelta<T> delta(UUID tenantId, Dataset dataset, long since,
+                                       LongFunction<List<T>> changedSince, ToLongFunction<T> rowVersion) {
+        long version = currentVersion(tenantId, dataset);
+        if (since == version) {
+            return new ReferenceDelta<>(dataset.name(), since, version, false, List.of());
+        }
+        boolean full = since > version;
+        // Rows written before versioning existed carry row_version 0
+        List<T> changes = changedSince.apply(full ? -1L : since);
+        if (!changes.isEmpty()) {
+            // Versions are assigned in commit order, so a newer committed version is complete too
+            version = Math.max(version, rowVersion.applyAsLong(changes.get(changes.size() - 1)));
+        }
+        return new ReferenceDelta<>(dataset.name(), since, version, full, changes);
+    }
+
+    /** True if an If-None-Match header value lists the given ETag (or is "*"). */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,239 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.entity.Customer;
+import com.erp.accounting.entity.Product;
+import com.erp.accounting.event.CatalogChangedEvent;
+import com.erp.accounting.repository.CustomerRepository;
+import com.erp.accounting.repository.ProductRepository;
+import com.erp.accounting.service.ReferenceDataVersionService.Dataset;
+import com.erp.accounting.util.TypeaheadIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Per-tenant typeahead indexes for POS product and customer lookup.
+ * <p>
+ * A tenant's index is built from the database on its first search and then kept current from
+ * committed write events, so keystroke searches rarely query the database. Events that arrive
+ * while an index is being built are applied to it once the build finishes. Bulk changes drop the
+ * tenant's indexes and the next search rebuilds them.
+ * <p>
+ * Writes committed on another node raise no event here. A product index is stamped with the
+ * tenant's PRODUCTS reference-data version and rebuilt when a search finds the version has moved,
+ * checking at most every {@code erp.search.version-check-seconds} (local writes move it too).
+ * Customers have no version counter, so every index is also rebuilt once it is
+ * {@code erp.search.index-ttl-seconds} old, which bounds how long a remote write, or a record
+ * moved away from the tenant on another node, can be missed. Indexes not searched for that long
+ * are dropped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexService {
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final ReferenceDataVersionService referenceDataVersionService;
+    private final Indexes<Product> productIndexes =
+        new Indexes<>("product", this::loadProducts, SearchIndexService::index, this::productVersion);
+    private final Indexes<Customer> customerIndexes =
+        new Indexes<>("customer", this::loadCustomers, SearchIndexService::index, null);
+
+    @Value("${erp.search.max-results:20}")
+    private int maxResults;
+
+    @Value("${erp.search.index-ttl-seconds:600}")
+    private long indexTtlSeconds;
+
+    @Value("${erp.search.version-check-seconds:5}")
+    private long versionCheckSeconds;
+
+    public List<Product> searchProducts(UUID tenantId, String query, int limit) {
+        return productIndexes.get(tenantId).search(query, Math.min(limit, maxResults));
+    }
+
+    public List<Customer> searchCustomers(UUID tenantId, String query, int limit) {
+        return customerIndexes.get(tenantId).search(query, Math.min(limit, maxResults));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.record() instanceof Product product) {
+            if (event.previousTenantId() != null) {
+                productIndexes.apply(event.previousTenantId(), index -> index.remove(product.getProductId()));
+            }
+            productIndexes.apply(event.tenantId(), index -> index(index, product));
+        } else if (event.record() instanceof Customer customer) {
+            if (event.previousTenantId() != null) {
+                customerIndexes.apply(event.previousTenantId(), index -> index.remove(customer.getCustomerId()));
+            }
+            customerIndexes.apply(event.tenantId(), index -> index(index, customer));
+        } else {
+            productIndexes.drop(event.tenantId());
+            customerIndexes.drop(event.tenantId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${erp.search.index-ttl-seconds:600}", timeUnit = TimeUnit.SECONDS)
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(indexTtlSeconds);
+        productIndexes.evictIdle(cutoff);
+        customerIndexes.evictIdle(cutoff);
+    }
+
+    private List<Product> loadProducts(UUID tenantId) {
+        return productRepository.findByTenantId(tenantId);
+    }
+
+    private List<Customer> loadCustomers(UUID tenantId) {
+        return customerRepository.findByTenantId(tenantId);
+    }
+
+    private long productVersion(UUID tenantId) {
+        return referenceDataVersionService.currentVersion(tenantId, Dataset.PRODUCTS);
+    }
+
+    private static void index(TypeaheadIndex<Product> index, Product product) {
+        if (Boolean.FALSE.equals(product.getIsActive())) {
+            index.remove(product.getProductId());
+        } else {
+            index.put(product.getProductId(), product, product.getProductName(), product.getProductCode(), product.getHsnCode());
+        }
+    }
+
+    private static void index(TypeaheadIndex<Customer> index, Customer customer) {
+        if (Boolean.FALSE.equals(customer.getIsActive())) {
+            index.remove(customer.getCustomerId());
+        } else {
+            index.put(customer.getCustomerId(), customer, customer.getCustomerName(), customer.getGstin(), customer.getPhone());
+        }
+    }
+
+    // An index with the version it was built at and when it was built and last found current (System.nanoTime)
+    private record Built<T>(TypeaheadIndex<T> index, long version, long builtAt, long checkedAt) {
+    }
+
+    /** One tenant's index of one kind; the monitor guards built and pending. */
+    private static final class Slot<T> {
+        final Object buildLock = new Object();
+        volatile Built<T> built;
+        // Non-null while a build runs: changes to apply to the new index once it is loaded
+        List<Consumer<TypeaheadIndex<T>>> pending;
+        volatile long lastUsed = System.nanoTime();
+    }
+
+    /** Indexes of one kind for every tenant that has searched recently. */
+    private final class Indexes<T> {
+        private final String kind;
+        private final Function<UUID, List<T>> load;
+        private final BiConsumer<TypeaheadIndex<T>, T> put;
+        // Null when the data has no version counter
+        private final ToLongFunction<UUID> version;
+        private final Map<UUID, Slot<T>> slots = new ConcurrentHashMap<>();
+
+        Indexes(String kind, Function<UUID, List<T>> load, BiConsumer<TypeaheadIndex<T>, T> put,
+                ToLongFunction<UUID> version) {
+            this.kind = kind;
+            this.load = load;
+            this.put = put;
+            this.version = version;
+        }
+
+        TypeaheadIndex<T> get(UUID tenantId) {
+            Slot<T> slot = slots.computeIfAbsent(tenantId, id -> new Slot<>());
+            slot.lastUsed = System.nanoTime();
+            Built<T> built = slot.built;
+            if (built != null && isCurrent(tenantId, slot, built)) {
+                return built.index();
+            }
+            // One build per tenant at a time; the map is never locked while the database is read
+            synchronized (slot.buildLock) {
+                Built<T> latest = slot.built;
+                if (latest != null && latest != built) {
+                    return latest.index();
+                }
+                return build(tenantId, slot);
+            }
+        }
+
+        void apply(UUID tenantId, Consumer<TypeaheadIndex<T>> change) {
+            Slot<T> slot = slots.get(tenantId);
+            if (slot == null) {
+                return;
+            }
+            synchronized (slot) {
+                if (slot.pending != null) {
+                    slot.pending.add(change);
+                }
+                if (slot.built != null) {
+                    change.accept(slot.built.index());
+                }
+            }
+        }
+
+        // A build still running for a dropped slot finishes into the detached slot, which is never read again
+        void drop(UUID tenantId) {
+            slots.remove(tenantId);
+        }
+
+        void evictIdle(long cutoff) {
+            slots.entrySet().removeIf(e -> e.getValue().lastUsed < cutoff);
+        }
+
+        private boolean isCurrent(UUID tenantId, Slot<T> slot, Built<T> built) {
+            long now = System.nanoTime();
+            if (now - built.builtAt() > TimeUnit.SECONDS.toNanos(indexTtlSeconds)) {
+                return false;
+            }
+            if (version == null || now - built.checkedAt() <= TimeUnit.SECONDS.toNanos(versionCheckSeconds)) {
+                return true;
+            }
+            if (version.applyAsLong(tenantId) != built.version()) {
+                return false;
+            }
+            synchronized (slot) {
+                if (slot.built == built) {
+                    slot.built = new Built<>(built.index(), built.version(), built.builtAt(), now);
+                }
+            }
+            return true;
+        }
+
+        private TypeaheadIndex<T> build(UUID tenantId, Slot<T> slot) {
+            synchronized (slot) {
+                slot.pending = new ArrayList<>();
+            }
+            TypeaheadIndex<T> index = new TypeaheadIndex<>();
+            try {
+                // Read before the rows, so a write in between leaves the index older than its stamp, never newer
+                long builtVersion = version != null ? version.applyAsLong(tenantId) : 0L;
+                load.apply(tenantId).forEach(row -> put.accept(index, row));
+                synchronized (slot) {
+                    slot.pending.forEach(change -> change.accept(index));
+                    long now = System.nanoTime();
+                    slot.built = new Built<>(index, builtVersion, now, now);
+                }
+            } finally {
+                synchronized (slot) {
+                    slot.pending = null;
+                }
+            }
+            log.debug("Built {} search index for tenant {} with {} entries", kind, tenantId, index.size());
+            return index;
+        }
+    }
+}
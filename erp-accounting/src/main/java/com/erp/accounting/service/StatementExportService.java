@@ -0,0 +1,309 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.entity.Customer;
+import com.erp.accounting.entity.Tenant;
+import com.erp.accounting.repository.CustomerRepository;
+import com.erp.accounting.repository.TenantRepository;
+import com.erp.accounting.util.CsvStatementWriter;
+import com.erp.accounting.util.PdfStatementWriter;
+import com.erp.accounting.util.StatementWriter;
+import com.erp.accounting.util.StatementWriter.Column;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Customer statements and account ledgers as CSV or PDF.
+ * <p>
+ * The opening balance is one aggregate query; the entries are then read through a server-side
+ * cursor and written to the response as they arrive, carrying the running balance along. Heap use
+ * is one fetch batch plus one PDF page whatever the period, so multi-year exports are safe.
+ * Account ledgers reaching into archived periods take the archived rows' totals into the opening
+ * balance and merge the archived entries, read a month at a time, into the stream by date.
+ * Amounts are in the tenant's base currency. A receipt against a foreign-currency invoice is in
+ * that invoice's currency and is converted at the invoice's rate.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatementExportService {
+    // Receipts against an invoice are in its currency; i is the invoice, if any
+    private static final String PAYMENT_BASE_AMOUNT = "ROUND(p.amount * COALESCE(i.exchange_rate, 1), 2)";
+
+    private static final String CUSTOMER_OPENING =
+        "SELECT COALESCE((SELECT SUM(COALESCE(base_total_amount, total_amount)) FROM accounting.invoices " +
+        "WHERE tenant_id = ? AND customer_id = ? AND status <> 'DRAFT' AND invoice_date < ?), 0) - " +
+        "COALESCE((SELECT SUM(" + PAYMENT_BASE_AMOUNT + ") FROM accounting.payments_received p " +
+        "LEFT JOIN accounting.invoices i ON i.invoice_id = p.invoice_id " +
+        "WHERE p.tenant_id = ? AND p.customer_id = ? AND p.payment_date < ?), 0)";
+
+    // Invoices before payments on the same day, as they would be read on paper
+    private static final String CUSTOMER_ENTRIES =
+        "SELECT invoice_date AS entry_date, 0 AS kind, 'INVOICE' AS entry_type, invoice_number AS reference, " +
+        "CASE WHEN due_date IS NULL THEN '' ELSE 'Due ' || due_date::text END AS description, " +
+        "COALESCE(base_total_amount, total_amount) AS debit, NULL::numeric AS credit " +
+        "FROM accounting.invoices WHERE tenant_id = ? AND customer_id = ? AND status <> 'DRAFT' " +
+        "AND invoice_date BETWEEN ? AND ? " +
+        "UNION ALL " +
+        "SELECT p.payment_date, 1, 'PAYMENT', p.reference_number, p.payment_mode::text, NULL, " + PAYMENT_BASE_AMOUNT + " " +
+        "FROM accounting.payments_received p LEFT JOIN accounting.invoices i ON i.invoice_id = p.invoice_id " +
+        "WHERE p.tenant_id = ? AND p.customer_id = ? AND p.payment_date BETWEEN ? AND ? " +
+        "ORDER BY entry_date, kind, reference";
+
+    private static final String ACCOUNT =
+        "SELECT account_code, account_name, normal_balance::text AS normal_balance " +
+        "FROM accounting.chart_of_accounts WHERE account_id = ? AND tenant_id = ?";
+
+    private static final String LEDGER_OPENING =
+        "SELECT COALESCE(SUM(CASE WHEN entry_type::text = ? THEN amount ELSE -amount END), 0) " +
+        "FROM accounting.general_ledger WHERE tenant_id = ? AND account_id = ? AND transaction_date < ?";
+
+    private static final String LEDGER_ENTRIES =
+        "SELECT transaction_date AS entry_date, entry_type::text AS entry_type, " +
+        "COALESCE(reference_type || ' ' || reference_id, reference_id, '') AS reference, " +
+        "COALESCE(description, '') AS description, " +
+        "CASE WHEN entry_type = 'DEBIT' THEN amount END AS debit, " +
+        "CASE WHEN entry_type = 'CREDIT' THEN amount END AS credit " +
+        "FROM accounting.general_ledger WHERE tenant_id = ? AND account_id = ? " +
+        "AND transaction_date BETWEEN ? AND ? ORDER BY transaction_date, created_at, gl_id";
+
+    private static final List<Column> COLUMNS = List.of(
+        new Column("Date", 10, false),
+        new Column("Type", 8, false),
+        new Column("Reference", 30, false),
+        new Column("Description", 40, false),
+        new Column("Debit", 16, true),
+        new Column("Credit", 16, true),
+        new Column("Balance", 17, true));
+
+    public enum Format {
+        CSV(MediaType.parseMediaType("text/csv"), "csv"),
+        PDF(MediaType.APPLICATION_PDF, "pdf");
+
+        public final MediaType mediaType;
+        public final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final TenantRepository tenantRepository;
+    private final CustomerRepository customerRepository;
+    private final LedgerArchiveService ledgerArchiveService;
+
+    @Value("${erp.statement.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Checks the request and returns the body to stream; lookups fail here, with a proper status,
+     * rather than after the response has started.
+     */
+    public StreamingResponseBody customerStatement(UUID tenantId, UUID customerId, LocalDate from, LocalDate to,
+                                                   Format format) {
+        checkPeriod(from, to);
+        Tenant tenant = tenant(tenantId);
+        Customer customer = customerRepository.findById(customerId)
+            .filter(c -> c.getTenantId().equals(tenantId))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found"));
+        List<String> title = List.of(
+            "Statement of account - " + tenant.getBusinessName(),
+            "Customer: " + customer.getCustomerName() + (customer.getGstin() != null ? " (GSTIN " + customer.getGstin() + ")" : ""),
+            "Period: " + from + " to " + to + "    Currency: " + tenant.getCurrency());
+
+        return out -> stream(out, format, title,
+            () -> jdbcTemplate.queryForObject(CUSTOMER_OPENING, BigDecimal.class,
+                tenantId, customerId, Date.valueOf(from), tenantId, customerId, Date.valueOf(from)),
+            BalanceSign.DEBIT, Stream::empty, CUSTOMER_ENTRIES,
+            tenantId, customerId, Date.valueOf(from), Date.valueOf(to), tenantId, customerId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /** As {@link #customerStatement}, for the general ledger entries of one account. */
+    public StreamingResponseBody accountLedger(UUID tenantId, UUID accountId, LocalDate from, LocalDate to, Format format) {
+        checkPeriod(from, to);
+        Tenant tenant = tenant(tenantId);
+        Map<String, Object> account = jdbcTemplate.queryForList(ACCOUNT, accountId, tenantId).stream()
+            .findFirst()
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found"));
+        String normalBalance = (String) account.get("normal_balance");
+        List<String> title = List.of(
+            "Account ledger - " + tenant.getBusinessName(),
+            "Account: " + account.get("account_code") + " " + account.get("account_name") + " (normal balance " + normalBalance + ")",
+            "Period: " + from + " to " + to + "    Currency: " + tenant.getCurrency());
+
+        BalanceSign sign = BalanceSign.valueOf(normalBalance);
+        return out -> stream(out, format, title,
+            () -> {
+                BigDecimal archived = ledgerArchiveService.archivedNet(tenantId, accountId, from);
+                return jdbcTemplate.queryForObject(LEDGER_OPENING, BigDecimal.class,
+                    normalBalance, tenantId, accountId, Date.valueOf(from))
+                    .add(sign == BalanceSign.DEBIT ? archived : archived.negate());
+            },
+            sign,
+            () -> ledgerArchiveService.archived(tenantId, LedgerArchiveService.Dataset.GENERAL_LEDGER, accountId, from, to)
+                .map(StatementExportService::archivedEntry),
+            LEDGER_ENTRIES, tenantId, accountId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    // A debit-normal balance grows with debits, a credit-normal one with credits
+    private enum BalanceSign {
+        DEBIT, CREDIT
+    }
+
+    private record Entry(LocalDate date, String type, String reference, String description, BigDecimal debit,
+                         BigDecimal credit) {
+    }
+
+    /** Merges archived entries (in date order) ahead of hot rows of the same or a later date. */
+    private void stream(OutputStream out, Format format, List<String> title, Supplier<BigDecimal> opening,
+                        BalanceSign sign, Supplier<Stream<Entry>> archived, String sql, Object... params)
+            throws IOException {
+        StatementWriter writer = format == Format.PDF ? new PdfStatementWriter(out) : new CsvStatementWriter(out);
+        writer.begin(title, COLUMNS);
+
+        // The cursor only streams inside a transaction; otherwise the driver buffers the whole result.
+        // One snapshot keeps the opening balance consistent with the entries that follow it.
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        try {
+            snapshot.executeWithoutResult(status -> {
+                BigDecimal[] balance = {opening.get()};
+                BigDecimal[] debits = {BigDecimal.ZERO};
+                BigDecimal[] credits = {BigDecimal.ZERO};
+                write(writer, total("Opening balance", balance[0], null, null));
+                try (Stream<Entry> archivedEntries = archived.get()) {
+                    Iterator<Entry> pending = archivedEntries.iterator();
+                    Entry[] next = {pending.hasNext() ? pending.next() : null};
+                    Consumer<Entry> emit = entry -> {
+                        BigDecimal change = nz(entry.debit()).subtract(nz(entry.credit()));
+                        balance[0] = balance[0].add(sign == BalanceSign.DEBIT ? change : change.negate());
+                        debits[0] = debits[0].add(nz(entry.debit()));
+                        credits[0] = credits[0].add(nz(entry.credit()));
+                        write(writer, cells(entry, balance[0]));
+                    };
+                    jdbcTemplate.query(con -> {
+                        PreparedStatement ps = con.prepareStatement(sql);
+                        ps.setFetchSize(fetchSize);
+                        for (int i = 0; i < params.length; i++) {
+                            ps.setObject(i + 1, params[i]);
+                        }
+                        return ps;
+                    }, (RowCallbackHandler) rs -> {
+                        Entry entry = entry(rs);
+                        while (next[0] != null && !next[0].date().isAfter(entry.date())) {
+                            emit.accept(next[0]);
+                            next[0] = pending.hasNext() ? pending.next() : null;
+                        }
+                        emit.accept(entry);
+                    });
+                    while (next[0] != null) {
+                        emit.accept(next[0]);
+                        next[0] = pending.hasNext() ? pending.next() : null;
+                    }
+                }
+                write(writer, total("Closing balance", balance[0], debits[0], credits[0]));
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.end();
+    }
+
+    private static Entry entry(ResultSet rs) throws SQLException {
+        return new Entry(rs.getDate("entry_date").toLocalDate(), rs.getString("entry_type"), rs.getString("reference"),
+            rs.getString("description"), rs.getBigDecimal("debit"), rs.getBigDecimal("credit"));
+    }
+
+    // Same columns as LEDGER_ENTRIES, from an archived general ledger row
+    private static Entry archivedEntry(JsonNode row) {
+        String type = row.get("entryType").asText();
+        BigDecimal amount = row.get("amount").decimalValue();
+        String referenceId = row.path("referenceId").asText(null);
+        String referenceType = row.path("referenceType").asText(null);
+        String reference = referenceId == null ? "" : referenceType == null ? referenceId : referenceType + " " + referenceId;
+        return new Entry(LocalDate.parse(row.get("transactionDate").asText()), type, reference,
+            row.path("description").asText(""), "DEBIT".equals(type) ? amount : null, "CREDIT".equals(type) ? amount : null);
+    }
+
+    private static List<String> cells(Entry entry, BigDecimal balance) {
+        List<String> cells = new ArrayList<>(COLUMNS.size());
+        cells.add(entry.date().toString());
+        cells.add(entry.type());
+        cells.add(entry.reference());
+        cells.add(entry.description());
+        cells.add(amount(entry.debit()));
+        cells.add(amount(entry.credit()));
+        cells.add(amount(balance));
+        return cells;
+    }
+
+    private static List<String> total(String label, BigDecimal balance, BigDecimal debits, BigDecimal credits) {
+        List<String> cells = new ArrayList<>(COLUMNS.size());
+        cells.add("");
+        cells.add("");
+        cells.add("");
+        cells.add(label);
+        cells.add(amount(debits));
+        cells.add(amount(credits));
+        cells.add(amount(balance));
+        return cells;
+    }
+
+    private static void write(StatementWriter writer, List<String> cells) {
+        try {
+            writer.row(cells);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String amount(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP).toPlainString() : "";
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private Tenant tenant(UUID tenantId) {
+        return tenantRepository.findById(tenantId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tenant not found"));
+    }
+
+    private static void checkPeriod(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+    }
+}
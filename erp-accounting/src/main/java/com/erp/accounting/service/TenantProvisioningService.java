@@ -0,0 +1,43 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.ProvisioningResult;
+import com.erp.accounting.entity.Tenant;
+import com.erp.accounting.repository.ChartOfAccountsRepository;
+import com.erp.accounting.repository.TenantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates tenants together with their chart of accounts, cloned from coa_templates
+ * by business type in one INSERT ... SELECT rather than one API call per account.
+ */
+@Service
+@RequiredArgsConstructor
+public class TenantProvisioningService {
+    private final TenantRepository tenantRepository;
+    private final ChartOfAccountsRepository chartOfAccountsRepository;
+
+    @Transactional
+    public ProvisioningResult provision(List<Tenant> tenants) {
+        if (tenants.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No tenants to provision");
+        }
+        for (Tenant tenant : tenants) {
+            if (tenant.getBusinessType() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "businessType is required to pick a chart-of-accounts template");
+            }
+        }
+        // Flush so the tenant rows are visible to the native clone statement
+        List<UUID> tenantIds = tenantRepository.saveAllAndFlush(tenants).stream()
+            .map(Tenant::getTenantId)
+            .toList();
+        int accounts = chartOfAccountsRepository.cloneTemplates(tenantIds);
+        return new ProvisioningResult(tenantIds, accounts);
+    }
+}
@@ -0,0 +1,305 @@
+package com.erp.accounting.service;
+
+import com.erp.accounting.dto.POLineMatch;
+import com.erp.accounting.dto.ThreeWayMatchResult;
+import com.erp.accounting.entity.POMatchStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Nightly three-way match of purchase orders against goods receipts and supplier invoices.
+ * <p>
+ * Open POs (CONFIRMED or RECEIVED) are paged by id and matched in batches of
+ * {@code erp.procurement.match-batch-size} on a pool of workers. Each batch is one transaction:
+ * lock the batch's PO headers, stream its PO lines, receipt lines and supplier invoice lines
+ * with one {@code po_id = ANY(?)} scan each, and hash-join them in memory on (po_id, product_id).
+ * Supplier invoices name products rather than our PO lines, hence the product key. The outcomes
+ * are upserted into po_match_results with two batched statements, and POs whose lines all match
+ * move to INVOICED. Cost is three index scans per batch, independent of how many lines a PO has.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ThreeWayMatchService {
+    private static final String OPEN_PAGE =
+        "SELECT po_id FROM accounting.purchase_orders WHERE status IN ('CONFIRMED', 'RECEIVED') AND po_id > ? " +
+        "ORDER BY po_id LIMIT ?";
+
+    // Same lock as PurchaseOrderService, so a receipt or invoice cannot land mid-match
+    private static final String LOCK_OPEN =
+        "SELECT po_id, tenant_id FROM accounting.purchase_orders WHERE po_id = ANY (?) " +
+        "AND status IN ('CONFIRMED', 'RECEIVED') FOR UPDATE";
+
+    private static final String ORDERED =
+        "SELECT po_id, product_id, quantity_ordered, line_total FROM accounting.po_lines WHERE po_id = ANY (?)";
+
+    private static final String RECEIVED =
+        "SELECT po_id, product_id, quantity_received FROM accounting.goods_receipt_lines WHERE po_id = ANY (?)";
+
+    private static final String INVOICED =
+        "SELECT po_id, product_id, quantity, line_total FROM accounting.supplier_invoice_lines WHERE po_id = ANY (?)";
+
+    private static final String UPSERT_RESULT =
+        "INSERT INTO accounting.po_match_results (po_id, product_id, tenant_id, quantity_ordered, quantity_received, " +
+        "quantity_invoiced, ordered_unit_price, invoiced_amount, status, reason, matched_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now()) ON CONFLICT (po_id, product_id) DO UPDATE SET " +
+        "quantity_ordered = EXCLUDED.quantity_ordered, quantity_received = EXCLUDED.quantity_received, " +
+        "quantity_invoiced = EXCLUDED.quantity_invoiced, ordered_unit_price = EXCLUDED.ordered_unit_price, " +
+        "invoiced_amount = EXCLUDED.invoiced_amount, status = EXCLUDED.status, reason = EXCLUDED.reason, " +
+        "matched_at = EXCLUDED.matched_at";
+
+    private static final String UPDATE_ORDER =
+        "UPDATE accounting.purchase_orders SET match_status = ?, matched_at = now(), " +
+        "status = CASE WHEN ? THEN 'INVOICED' ELSE status END WHERE po_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${erp.procurement.match-batch-size:500}")
+    private int batchSize;
+
+    @Value("${erp.procurement.match-workers:4}")
+    private int workers;
+
+    // Allowed over/under on received vs ordered and on invoiced vs received
+    @Value("${erp.procurement.quantity-tolerance-percent:0}")
+    private BigDecimal quantityTolerancePercent;
+
+    // Billed amount vs received quantity at the PO price: the larger of the two tolerances applies
+    @Value("${erp.procurement.price-tolerance-percent:2}")
+    private BigDecimal priceTolerancePercent;
+
+    @Value("${erp.procurement.amount-tolerance:1.00}")
+    private BigDecimal amountTolerance;
+
+    @Scheduled(cron = "${erp.procurement.match-cron:0 0 2 * * *}")
+    public void matchNightly() {
+        ThreeWayMatchResult result = matchOpenOrders();
+        log.info("Three-way match: {} POs, {} matched, {} awaiting, {} exceptions in {} ms", result.purchaseOrders(),
+            result.matched(), result.awaiting(), result.exceptions(), result.elapsedMs());
+    }
+
+    public ThreeWayMatchResult matchOpenOrders() {
+        long start = System.currentTimeMillis();
+        List<Future<int[]>> futures = new ArrayList<>();
+        int[] totals = new int[4];
+        try (ExecutorService pool = Executors.newFixedThreadPool(workers)) {
+            UUID after = new UUID(0, 0);
+            while (true) {
+                List<UUID> page = jdbcTemplate.queryForList(OPEN_PAGE, UUID.class, after, batchSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                after = page.get(page.size() - 1);
+                UUID[] batch = page.toArray(UUID[]::new);
+                futures.add(pool.submit(() -> matchBatch(batch)));
+            }
+            for (Future<int[]> future : futures) {
+                int[] counts = future.get();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += counts[i];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Three-way match interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Three-way match failed", e.getCause());
+        }
+        return new ThreeWayMatchResult(totals[0], totals[1], totals[2], totals[3], System.currentTimeMillis() - start);
+    }
+
+    public List<POLineMatch> getResults(UUID poId) {
+        return jdbcTemplate.query("SELECT * FROM accounting.po_match_results WHERE po_id = ? ORDER BY product_id",
+            this::lineMatch, poId);
+    }
+
+    /** Lines needing attention for a tenant; served by idx_po_match_exceptions. */
+    public List<POLineMatch> getExceptions(UUID tenantId) {
+        return jdbcTemplate.query("SELECT * FROM accounting.po_match_results WHERE tenant_id = ? " +
+            "AND status IN ('QUANTITY_MISMATCH', 'PRICE_MISMATCH', 'UNORDERED_ITEM') ORDER BY matched_at DESC, po_id",
+            this::lineMatch, tenantId);
+    }
+
+    /** Matches one batch in its own transaction; returns {POs, matched, awaiting, exceptions}. */
+    private int[] matchBatch(UUID[] poIds) {
+        int[] counts = transactionTemplate.execute(status -> {
+            Map<UUID, UUID> tenants = new HashMap<>();
+            jdbcTemplate.query(con -> arrayStatement(con, LOCK_OPEN, poIds),
+                (RowCallbackHandler) rs -> tenants.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)));
+            if (tenants.isEmpty()) {
+                return new int[4];
+            }
+            UUID[] locked = tenants.keySet().toArray(UUID[]::new);
+
+            // Build: one accumulator per (po_id, product_id), filled from all three sides
+            Map<LineKey, LineTotals> lines = new HashMap<>();
+            jdbcTemplate.query(con -> arrayStatement(con, ORDERED, locked), (RowCallbackHandler) rs -> {
+                LineTotals totals = lines.computeIfAbsent(key(rs), k -> new LineTotals());
+                totals.onOrder = true;
+                totals.ordered += rs.getInt(3);
+                totals.orderedAmount = totals.orderedAmount.add(rs.getBigDecimal(4));
+            });
+            jdbcTemplate.query(con -> arrayStatement(con, RECEIVED, locked), (RowCallbackHandler) rs ->
+                lines.computeIfAbsent(key(rs), k -> new LineTotals()).received += rs.getInt(3));
+            jdbcTemplate.query(con -> arrayStatement(con, INVOICED, locked), (RowCallbackHandler) rs -> {
+                LineTotals totals = lines.computeIfAbsent(key(rs), k -> new LineTotals());
+                totals.invoiced += rs.getInt(3);
+                totals.invoicedAmount = totals.invoicedAmount.add(rs.getBigDecimal(4));
+            });
+
+            // Probe: judge each key and keep the worst outcome per PO
+            List<Object[]> results = new ArrayList<>(lines.size());
+            Map<UUID, POMatchStatus> worst = new HashMap<>();
+            for (Map.Entry<LineKey, LineTotals> entry : lines.entrySet()) {
+                LineKey key = entry.getKey();
+                LineTotals totals = entry.getValue();
+                Outcome outcome = judge(totals);
+                results.add(new Object[] {key.poId(), key.productId(), tenants.get(key.poId()), totals.ordered,
+                    totals.received, totals.invoiced, totals.unitPrice(), totals.invoicedAmount,
+                    outcome.status().name(), outcome.reason()});
+                worst.merge(key.poId(), outcome.status(), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+            }
+            jdbcTemplate.batchUpdate(UPSERT_RESULT, results);
+
+            int[] batchCounts = new int[4];
+            List<Object[]> orders = new ArrayList<>(worst.size());
+            for (Map.Entry<UUID, POMatchStatus> entry : worst.entrySet()) {
+                POMatchStatus poStatus = entry.getValue();
+                orders.add(new Object[] {poStatus.name(), poStatus == POMatchStatus.MATCHED, entry.getKey()});
+                batchCounts[0]++;
+                if (poStatus == POMatchStatus.MATCHED) {
+                    batchCounts[1]++;
+                } else if (poStatus.compareTo(POMatchStatus.AWAITING_RECEIPT) <= 0) {
+                    batchCounts[2]++;
+                } else {
+                    batchCounts[3]++;
+                }
+            }
+            jdbcTemplate.batchUpdate(UPDATE_ORDER, orders);
+            return batchCounts;
+        });
+        return counts != null ? counts : new int[4];
+    }
+
+    /**
+     * Tolerance rules, most severe first: billed for more than arrived, more arrived than ordered,
+     * billed amount off the PO price, then the waiting states. Quantities compare within
+     * quantity-tolerance-percent; amounts within the larger of price-tolerance-percent and
+     * amount-tolerance.
+     */
+    private Outcome judge(LineTotals totals) {
+        if (!totals.onOrder) {
+            return new Outcome(POMatchStatus.UNORDERED_ITEM,
+                "Billed " + totals.invoiced + " of a product that is not on the order");
+        }
+        if (above(totals.invoiced, totals.received)) {
+            return new Outcome(POMatchStatus.QUANTITY_MISMATCH,
+                "Billed " + totals.invoiced + " but received " + totals.received);
+        }
+        if (above(totals.received, totals.ordered)) {
+            return new Outcome(POMatchStatus.QUANTITY_MISMATCH,
+                "Received " + totals.received + " but ordered " + totals.ordered);
+        }
+        if (totals.invoiced > 0) {
+            BigDecimal expected = totals.orderedAmount.multiply(BigDecimal.valueOf(totals.invoiced))
+                .divide(BigDecimal.valueOf(totals.ordered), 2, RoundingMode.HALF_UP);
+            BigDecimal allowed = expected.multiply(priceTolerancePercent).movePointLeft(2).max(amountTolerance);
+            if (totals.invoicedAmount.subtract(expected).abs().compareTo(allowed) > 0) {
+                return new Outcome(POMatchStatus.PRICE_MISMATCH,
+                    "Billed " + totals.invoicedAmount + " but " + totals.invoiced + " at the PO price is " + expected);
+            }
+        }
+        if (below(totals.received, totals.ordered)) {
+            return new Outcome(POMatchStatus.AWAITING_RECEIPT,
+                "Received " + totals.received + " of " + totals.ordered);
+        }
+        if (below(totals.invoiced, totals.received)) {
+            return new Outcome(POMatchStatus.AWAITING_INVOICE,
+                "Billed " + totals.invoiced + " of " + totals.received + " received");
+        }
+        return new Outcome(POMatchStatus.MATCHED, null);
+    }
+
+    // quantity is more than reference plus the tolerance
+    private boolean above(int quantity, int reference) {
+        BigDecimal upper = BigDecimal.valueOf(reference).multiply(BigDecimal.valueOf(100).add(quantityTolerancePercent))
+            .movePointLeft(2);
+        return BigDecimal.valueOf(quantity).compareTo(upper) > 0;
+    }
+
+    // quantity is less than reference minus the tolerance
+    private boolean below(int quantity, int reference) {
+        BigDecimal lower = BigDecimal.valueOf(reference).multiply(BigDecimal.valueOf(100).subtract(quantityTolerancePercent))
+            .movePointLeft(2);
+        return BigDecimal.valueOf(quantity).compareTo(lower) < 0;
+    }
+
+    private static PreparedStatement arrayStatement(Connection con, String sql, UUID[] ids)
+            throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql);
+        ps.setArray(1, con.createArrayOf("uuid", ids));
+        return ps;
+    }
+
+    private static LineKey key(ResultSet rs) throws SQLException {
+        return new LineKey(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class));
+    }
+
+    private POLineMatch lineMatch(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp matchedAt = rs.getTimestamp("matched_at");
+        return new POLineMatch(
+            rs.getObject("po_id", UUID.class),
+            rs.getObject("product_id", UUID.class),
+            rs.getInt("quantity_ordered"),
+            rs.getInt("quantity_received"),
+            rs.getInt("quantity_invoiced"),
+            rs.getBigDecimal("ordered_unit_price"),
+            rs.getBigDecimal("invoiced_amount"),
+            POMatchStatus.valueOf(rs.getString("status")),
+            rs.getString("reason"),
+            matchedAt != null ? matchedAt.toLocalDateTime() : null);
+    }
+
+    private record LineKey(UUID poId, UUID productId) {
+    }
+
+    private record Outcome(POMatchStatus status, String reason) {
+    }
+
+    /** Ordered, received and invoiced totals for one (po_id, product_id). */
+    private static class LineTotals {
+        boolean onOrder;
+        int ordered;
+        BigDecimal orderedAmount = BigDecimal.ZERO;
+        int received;
+        int invoiced;
+        BigDecimal invoicedAmount = BigDecimal.ZERO;
+
+        BigDecimal unitPrice() {
+            return ordered > 0 ? orderedAmount.divide(BigDecimal.valueOf(ordered), 2, RoundingMode.HALF_UP) : null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.erp.accounting.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one archive segment file: a gzip member per key (account or product) holding that key's
+ * rows as JSON lines. Rows must arrive grouped by key and, within a key, in date order. Each
+ * block's offset, length and CRC-32 are returned so it can be read back on its own; the SHA-256
+ * covers the whole file.
+ */
+public class ArchiveSegmentWriter implements Closeable {
+
+    public record Block(UUID keyId, LocalDate firstDate, LocalDate lastDate, int rows, long offset, int length,
+                        long crc32, BigDecimal totalIn, BigDecimal totalOut) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final CountingStream file;
+    private final MessageDigest digest;
+    private final List<Block> blocks = new ArrayList<>();
+    private GZIPOutputStream gzip;
+    private CRC32 crc;
+    private long blockStart;
+    private UUID keyId;
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+    private int blockRows;
+    private BigDecimal totalIn;
+    private BigDecimal totalOut;
+    private long rows;
+
+    public ArchiveSegmentWriter(Path path, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        this.file = new CountingStream(new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(path)), digest));
+    }
+
+    public void add(UUID key, LocalDate date, BigDecimal in, BigDecimal out, Map<String, Object> row) throws IOException {
+        if (!key.equals(keyId)) {
+            endBlock();
+            keyId = key;
+            firstDate = date;
+            blockRows = 0;
+            totalIn = BigDecimal.ZERO;
+            totalOut = BigDecimal.ZERO;
+            blockStart = file.count;
+            crc = new CRC32();
+            gzip = new GZIPOutputStream(new BlockStream(file, crc), 1 << 16);
+        }
+        gzip.write(objectMapper.writeValueAsBytes(row));
+        gzip.write('\n');
+        lastDate = date;
+        blockRows++;
+        totalIn = totalIn.add(in);
+        totalOut = totalOut.add(out);
+        rows++;
+    }
+
+    public List<Block> blocks() {
+        return blocks;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long bytes() {
+        return file.count;
+    }
+
+    /** Completes the file; the hex SHA-256 is only valid after this. */
+    public String finish() throws IOException {
+        endBlock();
+        file.flush();
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private void endBlock() throws IOException {
+        if (gzip == null) {
+            return;
+        }
+        gzip.finish();
+        blocks.add(new Block(keyId, firstDate, lastDate, blockRows, blockStart, Math.toIntExact(file.count - blockStart),
+            crc.getValue(), totalIn, totalOut));
+        gzip = null;
+    }
+
+    private static class CountingStream extends FilterOutputStream {
+        private long count;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    // Checksums one block's compressed bytes; finishing the gzip member leaves the file open
+    private static class BlockStream extends FilterOutputStream {
+        private final CRC32 crc;
+
+        BlockStream(OutputStream out, CRC32 crc) {
+            super(out);
+            this.crc = crc;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc.update(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            crc.update(b, off, len);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.erp.accounting.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Write-once storage for archive segment files. Objects are stored whole under a unique key and
+ * read back whole or by byte range, which maps onto an object store's PUT and ranged GET.
+ */
+public interface ArchiveStore {
+
+    void put(String key, Path file) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    byte[] read(String key, long offset, int length) throws IOException;
+
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,85 @@
+package com.erp.accounting.util;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Streams rows into one COPY ... FROM STDIN in PostgreSQL text format. Rows are encoded into a
+ * reusable buffer that is sent whenever it fills, so memory stays bounded however many rows are
+ * copied. Call {@link #finish()} to complete the COPY or {@link #cancel()} to abandon it; a
+ * connection can only run one COPY at a time.
+ */
+public class CopyWriter {
+    private static final int FLUSH_BYTES = 1 << 16;
+
+    private final CopyIn copyIn;
+    private final StringBuilder pending = new StringBuilder(FLUSH_BYTES + 1024);
+    private long rows;
+
+    public CopyWriter(CopyManager copyManager, String sql) throws SQLException {
+        this.copyIn = copyManager.copyIn(sql);
+    }
+
+    /** Appends one row; null is written as NULL. */
+    public void row(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                pending.append('\t');
+            }
+            append(values[i]);
+        }
+        pending.append('\n');
+        rows++;
+        if (pending.length() >= FLUSH_BYTES) {
+            flush();
+        }
+    }
+
+    /** Sends what is left and completes the COPY; returns the rows written. */
+    public long finish() throws SQLException {
+        flush();
+        copyIn.endCopy();
+        return rows;
+    }
+
+    public void cancel() throws SQLException {
+        if (copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        byte[] bytes = pending.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        pending.setLength(0);
+    }
+
+    private void append(Object value) {
+        if (value == null) {
+            pending.append("\\N");
+        } else if (value instanceof Boolean b) {
+            pending.append(b ? 't' : 'f');
+        } else if (value instanceof LocalDateTime t) {
+            pending.append(t.toLocalDate()).append(' ').append(t.toLocalTime());
+        } else if (value instanceof String s) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '\\' -> pending.append("\\\\");
+                    case '\t' -> pending.append("\\t");
+                    case '\n' -> pending.append("\\n");
+                    case '\r' -> pending.append("\\r");
+                    default -> pending.append(c);
+                }
+            }
+        } else {
+            pending.append(value);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.erp.accounting.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal streaming RFC 4180 reader: one record in memory at a time.
+ * Handles quoted fields with embedded commas, quotes ("") and line breaks.
+ */
+public class CsvReader implements Closeable {
+    private final BufferedReader reader;
+    private final char delimiter;
+    private final StringBuilder field = new StringBuilder();
+    private long lineNumber = 0;
+    private long recordLine = 0;
+
+    public CsvReader(Reader reader) {
+        this(reader, ',');
+    }
+
+    public CsvReader(Reader reader, char delimiter) {
+        this.reader = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+        this.delimiter = delimiter;
+    }
+
+    /** Returns the next record, or null at end of input. Blank lines are skipped. */
+    public List<String> next() throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.isBlank()) {
+            lineNumber++;
+            line = reader.readLine();
+        }
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        recordLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (quoted) {
+                    // quoted field continues on the next physical line
+                    String more = reader.readLine();
+                    if (more == null) {
+                        throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                    }
+                    lineNumber++;
+                    field.append('\n');
+                    line = more;
+                    i = 0;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    /** Physical line on which the last record returned by {@link #next()} started (1-based). */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    /** Maps lower-cased, trimmed header names to their column index. */
+    public static Map<String, Integer> indexHeader(List<String> header) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            index.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,53 @@
+package com.erp.accounting.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/** RFC 4180 output with a header row; the counterpart of {@link CsvReader}. Title lines are omitted. */
+public class CsvStatementWriter implements StatementWriter {
+    private final BufferedWriter writer;
+
+    public CsvStatementWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+    }
+
+    @Override
+    public void begin(List<String> title, List<Column> columns) throws IOException {
+        row(columns.stream().map(Column::name).toList());
+    }
+
+    @Override
+    public void row(List<String> cells) throws IOException {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(cells.get(i));
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void end() throws IOException {
+        writer.flush();
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,62 @@
+package com.erp.accounting.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link ArchiveStore} on a directory, local or a mounted bucket. Files are copied in under a
+ * temporary name and moved into place, so a key is either absent or complete.
+ */
+public class FileArchiveStore implements ArchiveStore {
+    private final Path root;
+
+    public FileArchiveStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public void put(String key, Path file) throws IOException {
+        Path target = path(key);
+        Path partial = target.resolveSibling(target.getFileName() + ".partial");
+        Files.createDirectories(target.getParent());
+        Files.copy(file, partial, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(path(key));
+    }
+
+    @Override
+    public byte[] read(String key, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(path(key), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Archive object " + key + " ends before byte " + (offset + length));
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(path(key));
+    }
+
+    private Path path(String key) {
+        return root.resolve(key);
+    }
+}
@@ -0,0 +1,189 @@
+package com.erp.accounting.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal PDF 1.4 writer for tabular statements: A4 landscape, Courier, fixed-width columns.
+ * Each page is written out as soon as it is full, so memory is one page of text plus an offset
+ * per object for the cross-reference table. Text is Latin-1; other characters print as '?'.
+ */
+public class PdfStatementWriter implements StatementWriter {
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT = 3;
+    private static final int PAGE_WIDTH = 842;
+    private static final int PAGE_HEIGHT = 595;
+    private static final int MARGIN = 36;
+    private static final int FONT_SIZE = 8;
+    private static final int LEADING = 10;
+    private static final int LINES_PER_PAGE = (PAGE_HEIGHT - 2 * MARGIN) / LEADING - 1;
+
+    private final CountingStream out;
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> pageObjects = new ArrayList<>();
+    private final StringBuilder page = new StringBuilder();
+    private List<String> pageHeader = List.of();
+    private List<Column> columns = List.of();
+    private int linesOnPage;
+
+    public PdfStatementWriter(OutputStream out) {
+        this.out = new CountingStream(new BufferedOutputStream(out, 8192));
+    }
+
+    @Override
+    public void begin(List<String> title, List<Column> columns) throws IOException {
+        this.columns = columns;
+        List<String> header = new ArrayList<>(title);
+        header.add("");
+        header.add(format(columns.stream().map(Column::name).toList(), true));
+        header.add("-".repeat(header.get(header.size() - 1).length()));
+        this.pageHeader = header;
+
+        write("%PDF-1.4\n%âãÏÓ\n");
+        // Catalog and page tree are written last, once the pages are known
+        offsets.add(0L);
+        offsets.add(0L);
+        object(FONT, "<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>");
+        startPage();
+    }
+
+    @Override
+    public void row(List<String> cells) throws IOException {
+        if (linesOnPage >= LINES_PER_PAGE) {
+            finishPage();
+            startPage();
+        }
+        line(format(cells, false));
+    }
+
+    @Override
+    public void end() throws IOException {
+        finishPage();
+
+        StringBuilder kids = new StringBuilder();
+        for (int pageObject : pageObjects) {
+            kids.append(pageObject).append(" 0 R ");
+        }
+        object(PAGES, "<< /Type /Pages /Kids [" + kids + "] /Count " + pageObjects.size() + " >>");
+        object(CATALOG, "<< /Type /Catalog /Pages " + PAGES + " 0 R >>");
+
+        long xref = out.count;
+        StringBuilder table = new StringBuilder("xref\n0 ").append(offsets.size() + 1).append('\n');
+        table.append("0000000000 65535 f \n");
+        for (long offset : offsets) {
+            table.append(String.format("%010d 00000 n \n", offset));
+        }
+        table.append("trailer\n<< /Size ").append(offsets.size() + 1).append(" /Root ").append(CATALOG)
+            .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+        write(table.toString());
+        out.flush();
+    }
+
+    private void startPage() {
+        page.setLength(0);
+        linesOnPage = 0;
+        page.append("BT\n/F1 ").append(FONT_SIZE).append(" Tf\n").append(LEADING).append(" TL\n")
+            .append(MARGIN).append(' ').append(PAGE_HEIGHT - MARGIN).append(" Td\n");
+        for (String header : pageHeader) {
+            line(header);
+        }
+    }
+
+    private void finishPage() throws IOException {
+        page.append("1 0 0 1 ").append(PAGE_WIDTH - MARGIN - 60).append(' ').append(MARGIN / 2)
+            .append(" Tm\n(Page ").append(pageObjects.size() + 1).append(") Tj\nET\n");
+        byte[] content = page.toString().getBytes(StandardCharsets.ISO_8859_1);
+        int contentObject = offsets.size() + 1;
+        object(contentObject, "<< /Length " + content.length + " >>\nstream\n", content, "\nendstream");
+
+        int pageObject = offsets.size() + 1;
+        object(pageObject, "<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT +
+            "] /Resources << /Font << /F1 " + FONT + " 0 R >> >> /Contents " + contentObject + " 0 R >>");
+        pageObjects.add(pageObject);
+    }
+
+    private void line(String text) {
+        page.append('(');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                page.append('\\').append(c);
+            } else if (c < 32 || c > 255) {
+                page.append('?');
+            } else {
+                page.append(c);
+            }
+        }
+        page.append(") Tj T*\n");
+        linesOnPage++;
+    }
+
+    private String format(List<String> cells, boolean header) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            String cell = i < cells.size() && cells.get(i) != null ? cells.get(i) : "";
+            if (cell.length() > column.width()) {
+                cell = cell.substring(0, column.width());
+            }
+            String padding = " ".repeat(column.width() - cell.length());
+            if (i > 0) {
+                line.append("  ");
+            }
+            line.append(column.numeric() && !header ? padding + cell : cell + padding);
+        }
+        return line.toString().stripTrailing();
+    }
+
+    private void object(int number, String body) throws IOException {
+        object(number, body, null, null);
+    }
+
+    private void object(int number, String head, byte[] stream, String tail) throws IOException {
+        while (offsets.size() < number) {
+            offsets.add(0L);
+        }
+        offsets.set(number - 1, out.count);
+        write(number + " 0 obj\n" + head);
+        if (stream != null) {
+            out.write(stream);
+            write(tail);
+        }
+        write("\nendobj\n");
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private final OutputStream delegate;
+        private long count;
+
+        CountingStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.erp.accounting.util;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Column store of one tenant's postings with a roaring bitmap per dimension value and per month.
+ * <p>
+ * Postings are numbered 0..n-1 in the order they are added (chain order). Filters become bitmap
+ * unions (values of one axis) and intersections (across axes and with the period); the matching
+ * ordinals are then read once from the amount and axis columns to sum into pivot cells. Not
+ * thread-safe; the caller serialises {@link #add} against {@link #slice}.
+ */
+public class PostingBitmapIndex {
+    /** Axes in the order tags are passed to {@link #add}: account, branch, cost centre, project. */
+    public static final int AXES = 4;
+
+    /** Sums of the postings with one combination of row and column values; null means untagged. */
+    public record Cell(UUID row, UUID column, long debitCents, long creditCents, int postings) {
+    }
+
+    private final List<List<UUID>> values = new ArrayList<>(AXES);
+    private final List<Map<UUID, Integer>> ordinals = new ArrayList<>(AXES);
+    private final List<List<RoaringBitmap>> bitmaps = new ArrayList<>(AXES);
+    // Keyed by year * 12 + month - 1, so a period is a sub-map
+    private final TreeMap<Integer, RoaringBitmap> months = new TreeMap<>();
+    private final int[][] tags = new int[AXES][];
+    // Debits positive, credits negative
+    private long[] cents;
+    private int[] days;
+    private int size;
+    private long lastSeq;
+
+    public PostingBitmapIndex() {
+        for (int axis = 0; axis < AXES; axis++) {
+            values.add(new ArrayList<>());
+            ordinals.add(new HashMap<>());
+            bitmaps.add(new ArrayList<>());
+            tags[axis] = new int[1024];
+        }
+        cents = new long[1024];
+        days = new int[1024];
+    }
+
+    /** Adds the posting with chain sequence seq; tags holds one value (or null) per axis. */
+    public void add(long seq, UUID[] tags, boolean debit, BigDecimal amount, LocalDate date) {
+        if (size == cents.length) {
+            int capacity = size + (size >> 1);
+            cents = Arrays.copyOf(cents, capacity);
+            days = Arrays.copyOf(days, capacity);
+            for (int axis = 0; axis < AXES; axis++) {
+                this.tags[axis] = Arrays.copyOf(this.tags[axis], capacity);
+            }
+        }
+        int ordinal = size++;
+        for (int axis = 0; axis < AXES; axis++) {
+            int value = tags[axis] == null ? -1 : valueOrdinal(axis, tags[axis]);
+            this.tags[axis][ordinal] = value;
+            if (value >= 0) {
+                bitmaps.get(axis).get(value).add(ordinal);
+            }
+        }
+        long amountCents = amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        cents[ordinal] = debit ? amountCents : -amountCents;
+        days[ordinal] = (int) date.toEpochDay();
+        months.computeIfAbsent(monthKey(date), k -> new RoaringBitmap()).add(ordinal);
+        lastSeq = seq;
+    }
+
+    /** Chain sequence of the last posting added; 0 when empty. */
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Recompresses runs after a bulk load; appends leave bitmaps in array/bitmap containers. */
+    public void optimize() {
+        for (List<RoaringBitmap> axis : bitmaps) {
+            axis.forEach(RoaringBitmap::runOptimize);
+        }
+        months.values().forEach(RoaringBitmap::runOptimize);
+    }
+
+    /**
+     * Sums postings dated from..to (inclusive) that carry one of the given values on every
+     * filtered axis, grouped by their value on rowAxis and columnAxis (-1 for no columns).
+     */
+    public List<Cell> slice(int rowAxis, int columnAxis, LocalDate from, LocalDate to, Map<Integer, ? extends Collection<UUID>> filters) {
+        List<RoaringBitmap> terms = new ArrayList<>();
+        Collection<RoaringBitmap> period = months.subMap(monthKey(from), true, monthKey(to), true).values();
+        if (period.isEmpty()) {
+            return List.of();
+        }
+        terms.add(FastAggregation.or(period.toArray(new RoaringBitmap[0])));
+        for (Map.Entry<Integer, ? extends Collection<UUID>> filter : filters.entrySet()) {
+            List<RoaringBitmap> selected = new ArrayList<>();
+            for (UUID value : filter.getValue()) {
+                Integer ordinal = ordinals.get(filter.getKey()).get(value);
+                if (ordinal != null) {
+                    selected.add(bitmaps.get(filter.getKey()).get(ordinal));
+                }
+            }
+            if (selected.isEmpty()) {
+                return List.of();
+            }
+            terms.add(FastAggregation.or(selected.toArray(new RoaringBitmap[0])));
+        }
+        RoaringBitmap matched = terms.size() == 1 ? terms.get(0) : FastAggregation.and(terms.toArray(new RoaringBitmap[0]));
+
+        // Month bitmaps cover whole months; only a period starting or ending mid-month needs the day column
+        boolean clip = from.getDayOfMonth() != 1 || to.getDayOfMonth() != to.lengthOfMonth();
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int columns = columnAxis < 0 ? 1 : values.get(columnAxis).size() + 1;
+        int cells = (values.get(rowAxis).size() + 1) * columns;
+        long[] debit = new long[cells];
+        long[] credit = new long[cells];
+        int[] count = new int[cells];
+        int[] rowTags = tags[rowAxis];
+        int[] columnTags = columnAxis < 0 ? null : tags[columnAxis];
+        IntIterator it = matched.getIntIterator();
+        while (it.hasNext()) {
+            int ordinal = it.next();
+            if (clip && (days[ordinal] < fromDay || days[ordinal] > toDay)) {
+                continue;
+            }
+            int cell = (rowTags[ordinal] + 1) * columns + (columnTags == null ? 0 : columnTags[ordinal] + 1);
+            long amount = cents[ordinal];
+            if (amount >= 0) {
+                debit[cell] += amount;
+            } else {
+                credit[cell] -= amount;
+            }
+            count[cell]++;
+        }
+
+        List<Cell> result = new ArrayList<>();
+        for (int cell = 0; cell < cells; cell++) {
+            if (count[cell] > 0) {
+                result.add(new Cell(value(rowAxis, cell / columns - 1),
+                    columnAxis < 0 ? null : value(columnAxis, cell % columns - 1), debit[cell], credit[cell], count[cell]));
+            }
+        }
+        return result;
+    }
+
+    private int valueOrdinal(int axis, UUID value) {
+        return ordinals.get(axis).computeIfAbsent(value, v -> {
+            values.get(axis).add(v);
+            bitmaps.get(axis).add(new RoaringBitmap());
+            return values.get(axis).size() - 1;
+        });
+    }
+
+    private UUID value(int axis, int ordinal) {
+        return ordinal < 0 ? null : values.get(axis).get(ordinal);
+    }
+
+    private static int monthKey(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+}
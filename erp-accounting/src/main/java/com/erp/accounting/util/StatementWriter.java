@@ -0,0 +1,21 @@
+package com.erp.accounting.util;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Row-at-a-time sink for statements and ledgers. Implementations hold at most one page of
+ * output and never close the underlying stream.
+ */
+public interface StatementWriter {
+
+    record Column(String name, int width, boolean numeric) {
+    }
+
+    /** Starts the document; the title lines head every page where the format has pages. */
+    void begin(List<String> title, List<Column> columns) throws IOException;
+
+    void row(List<String> cells) throws IOException;
+
+    void end() throws IOException;
+}
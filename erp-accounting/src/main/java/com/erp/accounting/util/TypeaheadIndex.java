@@ -0,0 +1,299 @@
+package com.erp.accounting.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory typeahead over a few text fields per entry.
+ * <p>
+ * Fields are lower-cased and split into terms (each word, plus the whole field with separators
+ * removed so "PRD-0012" matches "prd00"). Terms go into a prefix trie for search-as-you-type;
+ * word trigrams go into an inverted index for fuzzy matches when prefixes find too little.
+ * Reads take a shared lock, so concurrent searches do not block each other.
+ */
+public class TypeaheadIndex<T> {
+    // Minimum trigram similarity; pg_trgm's default threshold
+    private static final double MIN_SIMILARITY = 0.3;
+    // Upper bound on prefix candidates examined before multi-word filtering
+    private static final int MAX_PREFIX_CANDIDATES = 1000;
+    // Fuzzy matching only rescores the entries sharing the most trigrams with the query
+    private static final int MIN_SHARED_TRIGRAMS = 2;
+    private static final int MAX_FUZZY_CANDIDATES = 200;
+
+    private final Node root = new Node();
+    private final Map<String, Set<UUID>> trigrams = new HashMap<>();
+    private final Map<UUID, Entry<T>> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(UUID id, T value, String... fields) {
+        Set<String> terms = new HashSet<>();
+        for (String field : fields) {
+            terms.addAll(terms(field));
+        }
+        Set<String> grams = new HashSet<>();
+        for (String term : terms) {
+            grams.addAll(trigrams(term));
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            entries.put(id, new Entry<>(value, terms, grams));
+            for (String term : terms) {
+                node(term, true).ids().add(id);
+            }
+            for (String gram : grams) {
+                trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entries where every query word is a prefix of one of the entry's terms (exact term matches
+     * first, then shorter completions), topped up with trigram matches for typos.
+     */
+    public List<T> search(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String compact = String.join("", words);
+        String seed = words.stream().max((a, b) -> Integer.compare(a.length(), b.length())).orElseThrow();
+
+        lock.readLock().lock();
+        try {
+            LinkedHashSet<UUID> exact = new LinkedHashSet<>();
+            LinkedHashSet<UUID> hits = new LinkedHashSet<>();
+            Set<UUID> candidates = new LinkedHashSet<>(prefixMatches(compact));
+            candidates.addAll(prefixMatches(seed));
+            for (UUID id : candidates) {
+                Set<String> terms = entries.get(id).terms();
+                if (terms.contains(compact)) {
+                    exact.add(id);
+                } else if (words.stream().allMatch(word -> terms.stream().anyMatch(term -> term.startsWith(word)))) {
+                    hits.add(id);
+                }
+            }
+            exact.addAll(hits);
+            if (exact.size() < limit) {
+                exact.addAll(fuzzyMatches(words, limit - exact.size(), exact));
+            }
+            List<T> results = new ArrayList<>(Math.min(limit, exact.size()));
+            for (UUID id : exact) {
+                if (results.size() == limit) {
+                    break;
+                }
+                results.add(entries.get(id).value());
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Breadth-first below the prefix node, so shorter completions come first
+    private Set<UUID> prefixMatches(String prefix) {
+        Node start = node(prefix, false);
+        if (start == null) {
+            return Set.of();
+        }
+        Set<UUID> found = new LinkedHashSet<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty() && found.size() < MAX_PREFIX_CANDIDATES) {
+            Node node = queue.poll();
+            if (node.ids != null) {
+                for (UUID id : node.ids) {
+                    if (found.size() == MAX_PREFIX_CANDIDATES) {
+                        return found;
+                    }
+                    found.add(id);
+                }
+            }
+            if (node.children != null) {
+                queue.addAll(node.children.values());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Entries sharing trigrams with the query, scored per query word by the best trigram
+     * similarity against any of the entry's terms (like pg_trgm word_similarity) and averaged.
+     */
+    private List<UUID> fuzzyMatches(List<String> words, int limit, Set<UUID> exclude) {
+        List<Set<String>> wordGrams = new ArrayList<>(words.size());
+        Set<String> queryGrams = new HashSet<>();
+        for (String word : words) {
+            Set<String> grams = trigrams(word);
+            wordGrams.add(grams);
+            queryGrams.addAll(grams);
+        }
+        Map<UUID, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (UUID id : trigrams.getOrDefault(gram, Set.of())) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+        List<Map.Entry<UUID, Integer>> candidates = new ArrayList<>();
+        for (Map.Entry<UUID, Integer> hit : shared.entrySet()) {
+            if (hit.getValue() >= MIN_SHARED_TRIGRAMS && !exclude.contains(hit.getKey())) {
+                candidates.add(hit);
+            }
+        }
+        candidates.sort(Map.Entry.<UUID, Integer>comparingByValue().reversed());
+
+        List<Map.Entry<UUID, Double>> scored = new ArrayList<>();
+        for (int i = 0; i < candidates.size() && i < MAX_FUZZY_CANDIDATES; i++) {
+            UUID id = candidates.get(i).getKey();
+            double total = 0;
+            for (Set<String> grams : wordGrams) {
+                double best = 0;
+                for (String term : entries.get(id).terms()) {
+                    best = Math.max(best, similarity(grams, trigrams(term)));
+                }
+                total += best;
+            }
+            double score = total / wordGrams.size();
+            if (score >= MIN_SIMILARITY) {
+                scored.add(Map.entry(id, score));
+            }
+        }
+        scored.sort(Map.Entry.<UUID, Double>comparingByValue().reversed());
+        List<UUID> ids = new ArrayList<>(Math.min(limit, scored.size()));
+        for (int i = 0; i < scored.size() && i < limit; i++) {
+            ids.add(scored.get(i).getKey());
+        }
+        return ids;
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        int common = 0;
+        for (String gram : a) {
+            if (b.contains(gram)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    private void removeLocked(UUID id) {
+        Entry<T> old = entries.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String term : old.terms()) {
+            Node node = node(term, false);
+            if (node != null && node.ids != null) {
+                node.ids.remove(id);
+            }
+        }
+        for (String gram : old.grams()) {
+            Set<UUID> ids = trigrams.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    trigrams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private Node node(String term, boolean create) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            Node child = node.children != null ? node.children.get(c) : null;
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                if (node.children == null) {
+                    node.children = new HashMap<>(4);
+                }
+                child = new Node();
+                node.children.put(c, child);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> terms(String field) {
+        List<String> words = words(field);
+        if (words.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> terms = new HashSet<>(words);
+        terms.add(String.join("", words));
+        return terms;
+    }
+
+    // Padded like pg_trgm: "  ab " yields "  a", " ab", "ab "
+    private static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record Entry<T>(T value, Set<String> terms, Set<String> grams) {
+    }
+
+    private static final class Node {
+        private Map<Character, Node> children;
+        private Set<UUID> ids;
+
+        Set<UUID> ids() {
+            if (ids == null) {
+                ids = new HashSet<>(2);
+            }
+            return ids;
+        }
+    }
+}
@@ -1,25 +1,41 @@
 package com.erp.accounting.controller;
 
+import com.erp.accounting.dto.*;
 import com.erp.accounting.entity.*;
 import com.erp.accounting.repository.*;
+import com.erp.accounting.service.MigrationLoaderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcBuilderCustomizer;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "erp.rate-limit.trusted-proxies=192.0.2.10")
 @AutoConfigureMockMvc
 @DisplayName("REST Controller Integration Tests")
 class RestControllerTests {
@@ -39,11 +55,41 @@ class RestControllerTests {
     @Autowired
     private JournalEntryRepository journalEntryRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+    
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+    
+    @Autowired
+    private MigrationLoaderService migrationLoaderService;
+    
     private UUID testTenantId;
     private UUID testAccountId;
     
+    // The rate limiter keys anonymous callers by address, so each test calls from its own
+    private static final AtomicInteger CLIENTS = new AtomicInteger();
+    private static volatile String clientAddress = "127.0.0.1";
+    
+    @TestConfiguration
+    static class ClientAddressConfig {
+        @Bean
+        MockMvcBuilderCustomizer perTestClientAddress() {
+            return builder -> builder.defaultRequest(get("/").with(request -> {
+                request.setRemoteAddr(clientAddress);
+                return request;
+            }));
+        }
+    }
+    
     @BeforeEach
     void setUp() {
+        int client = CLIENTS.incrementAndGet();
+        clientAddress = "10.0." + (client / 256) + "." + (client % 256);
+        
         // Create test tenant
         Tenant tenant = Tenant.builder()
             .tenantId(UUID.randomUUID())
@@ -115,6 +161,70 @@ class RestControllerTests {
             .andExpect(jsonPath("$.gstin").value("27AAPCS5678H1Z0"));
     }
     
+    @Test
+    @DisplayName("POST /api/v1/tenants/{id}/import/accounts - Invalid CSV rows are reported, nothing imported")
+    void testImportAccountsRejectsInvalidRows() throws Exception {
+        String csv = "account_code,account_name,account_type\n"
+            + "2010,Short-term Loans,LIABILITY\n"
+            + "2020,Broken Row,NOT_A_TYPE\n";
+        
+        mockMvc.perform(post("/api/v1/tenants/" + testTenantId + "/import/accounts")
+            .contentType("text/csv")
+            .content(csv))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.rowsRead").value(2))
+            .andExpect(jsonPath("$.rowsImported").value(0))
+            .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/tenants/provision + import - Template chart is cloned, existing rows are skipped")
+    void testProvisionAndImport() throws Exception {
+        Tenant tenant = Tenant.builder()
+            .businessName("Provisioned Retail")
+            .businessType(BusinessType.RETAILER)
+            .gstin("27AAPCS9012H1Z0")
+            .currency("INR")
+            .build();
+        String created = mockMvc.perform(post("/api/v1/tenants/provision")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(tenant)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.tenantIds", hasSize(1)))
+            // 24 common template accounts plus 2 for retailers
+            .andExpect(jsonPath("$.accountsCreated").value(26))
+            .andReturn().getResponse().getContentAsString();
+        String tenantId = objectMapper.readTree(created).get("tenantIds").get(0).asText();
+
+        // 1000 comes from the template
+        mockMvc.perform(post("/api/v1/tenants/" + tenantId + "/import/accounts")
+            .contentType("text/csv")
+            .content("account_code,account_name,account_type\n1000,Cash,ASSET\n2010,Short-term Loans,LIABILITY\n"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.rowsRead").value(2))
+            .andExpect(jsonPath("$.rowsImported").value(1));
+
+        String customers = "customer_name,customer_type,gstin\n"
+            + "Sharma Traders,RETAILER,27AABCS1111H1Z5\n"
+            + "Walk-in Counter,RETAILER,\n";
+        mockMvc.perform(post("/api/v1/tenants/" + tenantId + "/import/customers")
+            .contentType("text/csv")
+            .content(customers))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.rowsImported").value(2));
+        mockMvc.perform(post("/api/v1/tenants/" + tenantId + "/import/customers")
+            .contentType("text/csv")
+            .content(customers))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.rowsRead").value(2))
+            .andExpect(jsonPath("$.rowsImported").value(0));
+        mockMvc.perform(post("/api/v1/tenants/" + tenantId + "/import/customers")
+            .contentType("text/csv")
+            .content(customers + "Sharma Traders Pvt Ltd,RETAILER,27AABCS1111H1Z5\n"))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.errors[0].line").value(4));
+    }
+
     // ========================================================================
     // JOURNAL ENTRY ENDPOINT TESTS
     // ========================================================================
@@ -161,6 +271,494 @@ class RestControllerTests {
             .andExpect(jsonPath("$.status").value("DRAFT"));
     }
     
+    @Test
+    @DisplayName("POST /api/v1/journal-entries/post - Foreign-currency legs are booked in base currency")
+    void testPostForeignCurrencyJournal() throws Exception {
+        FxRate usdInr = FxRate.builder()
+            .baseCurrency("USD")
+            .quoteCurrency("INR")
+            .rateDate(LocalDate.now().minusDays(1))
+            .rate(new BigDecimal("83.25000000"))
+            .build();
+        mockMvc.perform(post("/api/v1/fx/rates")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(java.util.List.of(usdInr))))
+            .andExpect(status().isOk());
+        
+        JournalEntry entry = JournalEntry.builder()
+            .tenantId(testTenantId)
+            .entryNumber("JE-2026-0002")
+            .entryDate(LocalDate.now())
+            .description("USD receipt")
+            .build();
+        Posting debit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.DEBIT)
+            .transactionCurrency("USD")
+            .transactionAmount(new BigDecimal("100.00"))
+            .build();
+        Posting credit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.CREDIT)
+            .amount(new BigDecimal("8325.00"))
+            .build();
+        
+        mockMvc.perform(post("/api/v1/journal-entries/post")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new JournalPostingRequest(entry, java.util.List.of(debit, credit)))))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.status").value("POSTED"))
+            .andExpect(jsonPath("$.totalDebit").value(8325.00));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/journal-entries/post - A journal balanced in USD absorbs base rounding")
+    void testPostForeignCurrencyJournalRounding() throws Exception {
+        FxRate usdInr = FxRate.builder()
+            .baseCurrency("usd")
+            .quoteCurrency("inr")
+            .rateDate(LocalDate.now().minusDays(11))
+            .rate(new BigDecimal("83.12345678"))
+            .build();
+        mockMvc.perform(post("/api/v1/fx/rates")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(java.util.List.of(usdInr))))
+            .andExpect(status().isOk());
+
+        JournalEntry entry = JournalEntry.builder()
+            .tenantId(testTenantId)
+            .entryNumber("JE-2026-0010")
+            .entryDate(LocalDate.now().minusDays(10))
+            .description("USD split")
+            .build();
+        List<Posting> postings = new ArrayList<>();
+        for (String amount : List.of("33.33", "33.33", "33.34")) {
+            postings.add(Posting.builder()
+                .accountId(testAccountId)
+                .postingType(PostingType.DEBIT)
+                .transactionCurrency("USD")
+                .transactionAmount(new BigDecimal(amount))
+                .build());
+        }
+        postings.add(Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.CREDIT)
+            .transactionCurrency("USD")
+            .transactionAmount(new BigDecimal("100.00"))
+            .build());
+
+        // Legs convert to 2770.50 + 2770.50 + 2771.34 = 8312.34 against 8312.35; the credit takes the cent
+        mockMvc.perform(post("/api/v1/journal-entries/post")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new JournalPostingRequest(entry, postings))))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.totalDebit").value(8312.34))
+            .andExpect(jsonPath("$.totalCredit").value(8312.34));
+    }
+    
+    @Test
+    @DisplayName("POST /api/v1/audit/ledger-chain/verify - Posted legs form a valid hash chain")
+    void testVerifyLedgerChain() throws Exception {
+        JournalEntry entry = JournalEntry.builder()
+            .tenantId(testTenantId)
+            .entryNumber("JE-2026-0003")
+            .description("Cash transfer")
+            .build();
+        Posting debit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.DEBIT)
+            .amount(new BigDecimal("500.00"))
+            .build();
+        Posting credit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.CREDIT)
+            .amount(new BigDecimal("500.00"))
+            .build();
+        mockMvc.perform(post("/api/v1/journal-entries/post")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new JournalPostingRequest(entry, java.util.List.of(debit, credit)))))
+            .andExpect(status().isCreated());
+        
+        mockMvc.perform(post("/api/v1/audit/ledger-chain/verify")
+            .param("tenantId", testTenantId.toString())
+            .param("full", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].valid").value(true))
+            .andExpect(jsonPath("$[0].rowsVerified").value(2));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/audit/consistency/run - Invoice totals and stock that disagree are reported, then resolved")
+    void testConsistencyCheck() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.customers (customer_id, tenant_id, customer_name, customer_type) " +
+            "VALUES (?, ?, 'Check Traders', 'RETAILER')", customerId, testTenantId);
+        UUID invoiceId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.invoices (invoice_id, tenant_id, customer_id, invoice_number, " +
+            "subtotal, total_tax, total_amount, status) VALUES (?, ?, ?, 'CC-0001', 100.00, 18.00, 120.00, 'SENT')",
+            invoiceId, testTenantId, customerId);
+        UUID productId = createProduct("CC-STOCK", "Checked Stock");
+        receive(productId, "CC-B1", LocalDate.now().plusMonths(6), 10, new BigDecimal("20.00"));
+
+        mockMvc.perform(post("/api/v1/audit/consistency/run")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(4)))
+            .andExpect(jsonPath("$[?(@.check == 'INVOICE_TOTALS')].found").value(hasItem(1)))
+            .andExpect(jsonPath("$[?(@.check == 'INVENTORY_BALANCE')].found").value(hasItem(0)))
+            .andExpect(jsonPath("$[?(@.check == 'INVENTORY_BALANCE')].error").value(hasItem(nullValue())));
+        mockMvc.perform(get("/api/v1/audit/consistency/diffs")
+            .param("tenantId", testTenantId.toString())
+            .param("check", "INVOICE_TOTALS"))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].entityKey").value(invoiceId.toString()))
+            .andExpect(jsonPath("$[0].attribute").value("total_amount"))
+            .andExpect(jsonPath("$[0].expected").value(118.0))
+            .andExpect(jsonPath("$[0].actual").value(120.0));
+
+        // The incremental run picks the corrected invoice up through its updated_at
+        jdbcTemplate.update("UPDATE accounting.invoices SET total_amount = 118.00 WHERE invoice_id = ?", invoiceId);
+        mockMvc.perform(post("/api/v1/audit/consistency/run")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(jsonPath("$[?(@.check == 'INVOICE_TOTALS')].resolved").value(hasItem(1)));
+        mockMvc.perform(get("/api/v1/audit/consistency/diffs")
+            .param("tenantId", testTenantId.toString())
+            .param("check", "INVOICE_TOTALS"))
+            .andExpect(jsonPath("$", hasSize(0)));
+
+        jdbcTemplate.update("UPDATE accounting.inventory_balance SET quantity_on_hand = 7, last_updated = now() " +
+            "WHERE tenant_id = ? AND product_id = ?", testTenantId, productId);
+        mockMvc.perform(post("/api/v1/audit/consistency/run")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(jsonPath("$[?(@.check == 'INVENTORY_BALANCE')].found").value(hasItem(1)));
+        mockMvc.perform(get("/api/v1/audit/consistency/diffs")
+            .param("tenantId", testTenantId.toString())
+            .param("check", "INVENTORY_BALANCE"))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].entityKey").value(productId.toString()))
+            .andExpect(jsonPath("$[0].attribute").value("quantity_on_hand"))
+            .andExpect(jsonPath("$[0].expected").value(10.0))
+            .andExpect(jsonPath("$[0].actual").value(7.0));
+    }
+
+    @Test
+    @DisplayName("PUT /api/v1/tenants/{id}/migrations/{jobId}/files/journals - Staged history is loaded in steps")
+    void testHistoricalMigration() throws Exception {
+        jdbcTemplate.update("INSERT INTO accounting.users (tenant_id, first_name, email, role) " +
+            "VALUES (?, 'Owner', 'owner@test.example', 'OWNER')", testTenantId);
+        jdbcTemplate.update("INSERT INTO accounting.chart_of_accounts (tenant_id, account_code, account_name, " +
+            "account_type, normal_balance) VALUES (?, '4000', 'Sales', 'REVENUE', 'CREDIT')", testTenantId);
+
+        String created = mockMvc.perform(post("/api/v1/tenants/" + testTenantId + "/migrations")
+            .param("sourceSystem", "TALLY"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.status").value("STAGING"))
+            .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(created).get("jobId").asText();
+        String migration = "/api/v1/tenants/" + testTenantId + "/migrations/" + jobId;
+
+        String csv = "entry_number,entry_date,account_code,debit,credit,description\n" +
+            "JV-0001,01-04-2023,1010,\"1,180.00\",,Cash sale\n" +
+            "JV-0001,01-04-2023,4000,,1180.00,Cash sale\n";
+        mockMvc.perform(put(migration + "/files/journals")
+            .contentType("text/csv")
+            .content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowsStaged").value(2));
+        UUID productId = createProduct("MIG-001", "Migrated Stock");
+        String stock = "transaction_date,product_code,transaction_type,quantity_in,quantity_out,unit_cost,batch_number\n" +
+            "2023-04-01,MIG-001,PURCHASE,20,,15.00,B1\n" +
+            "2023-04-02,MIG-001,SALE,,5,15.00,B1\n";
+        mockMvc.perform(put(migration + "/files/stock")
+            .contentType("text/csv")
+            .content(stock))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowsStaged").value(2));
+        mockMvc.perform(post(migration + "/start"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        assertTrue(migrationLoaderService.runNext());
+        mockMvc.perform(get(migration))
+            .andExpect(jsonPath("$.job.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.job.checkpoint").value("REBUILD"));
+        assertEquals(new BigDecimal("1180.00"), jdbcTemplate.queryForObject("SELECT total_debit FROM " +
+            "accounting.journal_entries WHERE tenant_id = ? AND entry_number = 'JV-0001'", BigDecimal.class, testTenantId));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM accounting.general_ledger WHERE tenant_id = ?",
+            Integer.class, testTenantId));
+        // Rebuilt stock reaches the product balance and the dashboard
+        assertEquals(15, jdbcTemplate.queryForObject("SELECT quantity_on_hand FROM accounting.inventory_balance " +
+            "WHERE tenant_id = ? AND product_id = ?", Integer.class, testTenantId, productId));
+        assertEquals(new BigDecimal("225.00"), jdbcTemplate.queryForObject("SELECT stock_value FROM " +
+            "accounting.tenant_kpi_summary WHERE tenant_id = ?", BigDecimal.class, testTenantId));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/archive/run - Closed-period ledger rows move to cold storage and still read back and roll up")
+    void testArchiveClosedPeriod() throws Exception {
+        JournalEntry entry = JournalEntry.builder()
+            .tenantId(testTenantId)
+            .entryNumber("JE-2023-0001")
+            .entryDate(LocalDate.of(2023, 4, 1))
+            .description("Opening float")
+            .build();
+        Posting debit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.DEBIT)
+            .amount(new BigDecimal("250.00"))
+            .build();
+        Posting credit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.CREDIT)
+            .amount(new BigDecimal("250.00"))
+            .build();
+        mockMvc.perform(post("/api/v1/journal-entries/post")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new JournalPostingRequest(entry, java.util.List.of(debit, credit)))))
+            .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/v1/archive/run")
+            .param("tenantId", testTenantId.toString())
+            .param("through", "2024-01-01"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.postingRows").value(2))
+            .andExpect(jsonPath("$.generalLedgerRows").value(2))
+            .andExpect(jsonPath("$.postingsStopped").doesNotExist());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM accounting.general_ledger WHERE tenant_id = ?",
+            Integer.class, testTenantId));
+
+        mockMvc.perform(get("/api/v1/general-ledger")
+            .param("tenantId", testTenantId.toString())
+            .param("accountId", testAccountId.toString())
+            .param("from", "2023-01-01"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].transactionDate").value("2023-04-01"))
+            .andExpect(jsonPath("$[0].amount").value(250.00));
+        // Roll-ups count archived rows through their block totals
+        mockMvc.perform(get("/api/v1/chart-of-accounts/" + testAccountId + "/rollup")
+            .param("from", "2023-01-01"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalDebit").value(250.00))
+            .andExpect(jsonPath("$.totalCredit").value(250.00));
+        mockMvc.perform(get("/api/v1/chart-of-accounts/tree")
+            .param("tenantId", testTenantId.toString())
+            .param("to", "2023-04-30"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.accountCode == '1010')].totalDebit").value(hasItem(250.0)));
+        mockMvc.perform(post("/api/v1/audit/ledger-chain/verify")
+            .param("tenantId", testTenantId.toString())
+            .param("full", "true"))
+            .andExpect(jsonPath("$[0].valid").value(true))
+            .andExpect(jsonPath("$[0].rowsVerified").value(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/budgets/variance - Actuals follow posts and raise threshold alerts")
+    void testBudgetVarianceAndAlerts() throws Exception {
+        ChartOfAccounts travel = chartOfAccountsRepository.save(ChartOfAccounts.builder()
+            .accountId(UUID.randomUUID())
+            .tenantId(testTenantId)
+            .accountCode("6010")
+            .accountName("Travel")
+            .accountType(AccountType.EXPENSE)
+            .isActive(true)
+            .build());
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        Budget budget = Budget.builder()
+            .tenantId(testTenantId)
+            .accountId(travel.getAccountId())
+            .periodMonth(month.plusDays(4))
+            .amount(new BigDecimal("1000.00"))
+            .alertThresholdPct(new BigDecimal("80"))
+            .build();
+        mockMvc.perform(put("/api/v1/budgets")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(budget)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.periodMonth").value(month.toString()));
+
+        JournalEntry entry = JournalEntry.builder()
+            .tenantId(testTenantId)
+            .entryNumber("JE-BUD-0001")
+            .entryDate(month)
+            .description("Client visit")
+            .build();
+        Posting debit = Posting.builder()
+            .accountId(travel.getAccountId())
+            .postingType(PostingType.DEBIT)
+            .amount(new BigDecimal("850.00"))
+            .build();
+        Posting credit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.CREDIT)
+            .amount(new BigDecimal("850.00"))
+            .build();
+        mockMvc.perform(post("/api/v1/journal-entries/post")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new JournalPostingRequest(entry, List.of(debit, credit)))))
+            .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/budgets/variance")
+            .param("tenantId", testTenantId.toString())
+            .param("from", month.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].accountCode").value("6010"))
+            .andExpect(jsonPath("$[0].actual").value(850.00))
+            .andExpect(jsonPath("$[0].variance").value(150.00))
+            .andExpect(jsonPath("$[0].utilisationPct").value(85.00));
+        mockMvc.perform(get("/api/v1/budgets/alerts")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].thresholdPct").value(80.00))
+            .andExpect(jsonPath("$[0].actual").value(850.00));
+
+        // Cutting the budget below the actual raises the over-budget alert straight away
+        budget.setAmount(new BigDecimal("800.00"));
+        mockMvc.perform(put("/api/v1/budgets")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(budget)))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/budgets/alerts")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(jsonPath("$[*].thresholdPct", containsInAnyOrder(80.00, 100.00)));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/dimensions/pivot - Postings sum by branch and account")
+    void testDimensionPivot() throws Exception {
+        ChartOfAccounts marketing = chartOfAccountsRepository.save(ChartOfAccounts.builder()
+            .accountId(UUID.randomUUID())
+            .tenantId(testTenantId)
+            .accountCode("6020")
+            .accountName("Marketing")
+            .accountType(AccountType.EXPENSE)
+            .isActive(true)
+            .build());
+        List<UUID> branches = new ArrayList<>();
+        for (String code : List.of("NORTH", "SOUTH")) {
+            Dimension branch = new Dimension();
+            branch.setTenantId(testTenantId);
+            branch.setDimensionType(DimensionType.BRANCH);
+            branch.setCode(code);
+            branch.setName(code + " branch");
+            String created = mockMvc.perform(post("/api/v1/dimensions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(branch)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+            branches.add(UUID.fromString(objectMapper.readTree(created).get("dimensionId").asText()));
+        }
+
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        JournalEntry entry = JournalEntry.builder()
+            .tenantId(testTenantId)
+            .entryNumber("JE-DIM-0001")
+            .entryDate(month)
+            .description("Regional campaigns")
+            .build();
+        List<Posting> postings = List.of(
+            Posting.builder().accountId(marketing.getAccountId()).postingType(PostingType.DEBIT)
+                .amount(new BigDecimal("300.00")).branchId(branches.get(0)).build(),
+            Posting.builder().accountId(marketing.getAccountId()).postingType(PostingType.DEBIT)
+                .amount(new BigDecimal("200.00")).branchId(branches.get(1)).build(),
+            Posting.builder().accountId(testAccountId).postingType(PostingType.CREDIT)
+                .amount(new BigDecimal("500.00")).build());
+        mockMvc.perform(post("/api/v1/journal-entries/post")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new JournalPostingRequest(entry, postings))))
+            .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/dimensions/pivot")
+            .param("tenantId", testTenantId.toString())
+            .param("rows", "BRANCH")
+            .param("columns", "ACCOUNT")
+            .param("from", month.toString())
+            .param("to", month.withDayOfMonth(month.lengthOfMonth()).toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cells[?(@.row == '" + branches.get(0) + "')].debit").value(contains(300.00)))
+            .andExpect(jsonPath("$.cells[?(@.row == '" + branches.get(1) + "')].column")
+                .value(contains(marketing.getAccountId().toString())))
+            .andExpect(jsonPath("$.cells[?(@.row == '" + branches.get(1) + "')].net").value(contains(200.00)));
+        mockMvc.perform(get("/api/v1/dimensions/pivot")
+            .param("tenantId", testTenantId.toString())
+            .param("rows", "ACCOUNT")
+            .param("from", month.toString())
+            .param("to", month.withDayOfMonth(month.lengthOfMonth()).toString())
+            .param("branchId", branches.get(0).toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.postings").value(1))
+            .andExpect(jsonPath("$.cells[0].row").value(marketing.getAccountId().toString()));
+
+        // A tag must be one of the tenant's values of that dimension
+        JournalEntry mistagged = JournalEntry.builder()
+            .tenantId(testTenantId)
+            .entryNumber("JE-DIM-0002")
+            .entryDate(month)
+            .build();
+        mockMvc.perform(post("/api/v1/journal-entries/post")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new JournalPostingRequest(mistagged, List.of(
+                Posting.builder().accountId(marketing.getAccountId()).postingType(PostingType.DEBIT)
+                    .amount(BigDecimal.TEN).projectId(branches.get(0)).build(),
+                Posting.builder().accountId(testAccountId).postingType(PostingType.CREDIT)
+                    .amount(BigDecimal.TEN).build())))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/recurring-templates/run - Monthly journal catches up once per due date")
+    void testRecurringJournalTemplate() throws Exception {
+        JournalEntry entry = JournalEntry.builder()
+            .description("Office rent")
+            .build();
+        Posting debit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.DEBIT)
+            .amount(new BigDecimal("45000.00"))
+            .build();
+        Posting credit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.CREDIT)
+            .amount(new BigDecimal("45000.00"))
+            .build();
+        RecurringTemplate template = RecurringTemplate.builder()
+            .tenantId(testTenantId)
+            .documentType(RecurringDocumentType.JOURNAL)
+            .name("Office rent")
+            .numberPrefix("RENT")
+            .frequency(RecurrenceFrequency.MONTHLY)
+            .startDate(LocalDate.now().minusMonths(2))
+            .payload(objectMapper.valueToTree(new JournalPostingRequest(entry, List.of(debit, credit))))
+            .build();
+
+        String created = mockMvc.perform(post("/api/v1/recurring-templates")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(template)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String templateId = objectMapper.readTree(created).get("templateId").asText();
+
+        mockMvc.perform(post("/api/v1/recurring-templates/run"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.documentsGenerated").value(greaterThanOrEqualTo(3)));
+        // A second pass finds nothing due for this template
+        mockMvc.perform(post("/api/v1/recurring-templates/run"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/recurring-templates/" + templateId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.occurrenceCount").value(3))
+            .andExpect(jsonPath("$.nextRunDate").value(LocalDate.now().minusMonths(2).plusMonths(3).toString()));
+        mockMvc.perform(get("/api/v1/journal-entries")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.entryNumber =~ /RENT-.*/)]", hasSize(3)))
+            .andExpect(jsonPath("$[*].status", everyItem(is("POSTED"))));
+    }
+
     // ========================================================================
     // CHART OF ACCOUNTS ENDPOINT TESTS
     // ========================================================================
@@ -203,6 +801,81 @@ class RestControllerTests {
             .andExpect(jsonPath("$.accountName").value("Bank Account"));
     }
     
+    @Test
+    @DisplayName("POST /api/v1/chart-of-accounts - Child account appears under its parent in the tree")
+    void testAccountTree() throws Exception {
+        ChartOfAccounts child = ChartOfAccounts.builder()
+            .tenantId(testTenantId)
+            .accountCode("1011")
+            .accountName("Petty Cash")
+            .accountType(AccountType.ASSET)
+            .parentAccountId(testAccountId)
+            .isActive(true)
+            .build();
+        
+        mockMvc.perform(post("/api/v1/chart-of-accounts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(child)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.parentAccountId").value(testAccountId.toString()))
+            .andExpect(jsonPath("$.hierarchyLevel").value(1));
+        
+        mockMvc.perform(get("/api/v1/chart-of-accounts/tree")
+            .param("tenantId", testTenantId.toString())
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].accountCode").value("1010"))
+            .andExpect(jsonPath("$[0].children[0].accountCode").value("1011"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/chart-of-accounts - 304 until the tenant's accounts change, then a delta")
+    void testChartOfAccountsConditionalGet() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/chart-of-accounts")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/chart-of-accounts")
+            .param("tenantId", testTenantId.toString())
+            .header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        String delta = mockMvc.perform(get("/api/v1/chart-of-accounts/changes")
+            .param("tenantId", testTenantId.toString())
+            .param("since", "0"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes[*].accountCode", hasItem("1010")))
+            .andReturn().getResponse().getContentAsString();
+        long version = objectMapper.readTree(delta).get("version").asLong();
+
+        ChartOfAccounts account = ChartOfAccounts.builder()
+            .tenantId(testTenantId)
+            .accountCode("1040")
+            .accountName("Cash in Transit")
+            .accountType(AccountType.ASSET)
+            .isActive(true)
+            .build();
+        mockMvc.perform(post("/api/v1/chart-of-accounts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(account)))
+            .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/chart-of-accounts")
+            .param("tenantId", testTenantId.toString())
+            .header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", not(etag)));
+
+        mockMvc.perform(get("/api/v1/chart-of-accounts/changes")
+            .param("tenantId", testTenantId.toString())
+            .param("since", Long.toString(version)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes", hasSize(1)))
+            .andExpect(jsonPath("$.changes[0].accountCode").value("1040"));
+    }
+
     // ========================================================================
     // GENERAL LEDGER ENDPOINT TESTS
     // ========================================================================
@@ -226,6 +899,91 @@ class RestControllerTests {
             .andExpect(jsonPath("$", isA(java.util.List.class)));
     }
     
+    // ========================================================================
+    // PRODUCT ENDPOINT TESTS
+    // ========================================================================
+    
+    @Test
+    @DisplayName("GET /api/v1/products/search - Prefix and misspelt queries find a new product")
+    void testSearchProducts() throws Exception {
+        Product product = Product.builder()
+            .tenantId(testTenantId)
+            .productCode("PRD-0012")
+            .productName("Amul Butter 500g")
+            .hsnCode("0405")
+            .costPrice(new BigDecimal("240.00"))
+            .sellingPrice(new BigDecimal("275.00"))
+            .gstRate(new BigDecimal("12.00"))
+            .unitOfMeasure("PIECE")
+            .isActive(true)
+            .build();
+        mockMvc.perform(post("/api/v1/products")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(product)))
+            .andExpect(status().isCreated());
+        
+        mockMvc.perform(get("/api/v1/products/search")
+            .param("tenantId", testTenantId.toString())
+            .param("q", "amul bu"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].productCode").value("PRD-0012"));
+        
+        mockMvc.perform(get("/api/v1/products/search")
+            .param("tenantId", testTenantId.toString())
+            .param("q", "buttr"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].productName").value("Amul Butter 500g"));
+    }
+
+    @Test
+    @DisplayName("PUT /api/v1/products/{id} - A product moved to another tenant leaves the old tenant's search")
+    void testSearchProductMovedToAnotherTenant() throws Exception {
+        Product product = Product.builder()
+            .tenantId(testTenantId)
+            .productCode("PRD-0077")
+            .productName("Britannia Marie Gold")
+            .costPrice(new BigDecimal("30.00"))
+            .sellingPrice(new BigDecimal("35.00"))
+            .gstRate(new BigDecimal("18.00"))
+            .unitOfMeasure("PIECE")
+            .isActive(true)
+            .build();
+        String created = mockMvc.perform(post("/api/v1/products")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(product)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        Product moved = objectMapper.readValue(created, Product.class);
+        mockMvc.perform(get("/api/v1/products/search")
+            .param("tenantId", testTenantId.toString())
+            .param("q", "britannia"))
+            .andExpect(jsonPath("$[0].productCode").value("PRD-0077"));
+
+        UUID otherTenantId = tenantRepository.save(Tenant.builder()
+            .businessName("Branch Store")
+            .businessType(BusinessType.RETAILER)
+            .gstin("27" + UUID.randomUUID().toString().replace("-", "").substring(0, 13).toUpperCase())
+            .currency("INR")
+            .countryCode("IN")
+            .isActive(true)
+            .build()).getTenantId();
+        moved.setTenantId(otherTenantId);
+        mockMvc.perform(put("/api/v1/products/" + moved.getProductId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(moved)))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/products/search")
+            .param("tenantId", testTenantId.toString())
+            .param("q", "britannia"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/v1/products/search")
+            .param("tenantId", otherTenantId.toString())
+            .param("q", "britannia"))
+            .andExpect(jsonPath("$[0].productCode").value("PRD-0077"));
+    }
+
     // ========================================================================
     // INVOICE ENDPOINT TESTS
     // ========================================================================
@@ -249,6 +1007,143 @@ class RestControllerTests {
             .andExpect(jsonPath("$", isA(java.util.List.class)));
     }
     
+    // ========================================================================
+    // EXPORT ENDPOINT TESTS
+    // ========================================================================
+    
+    @Test
+    @DisplayName("POST /api/v1/exports/{dataset}/incremental - Writes an Arrow file and advances the watermark")
+    void testIncrementalExport() throws Exception {
+        mockMvc.perform(post("/api/v1/exports/GENERAL_LEDGER/incremental")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.dataset").value("GENERAL_LEDGER"))
+            .andExpect(jsonPath("$.file").value(endsWith(".arrow")))
+            .andExpect(jsonPath("$.exportedThrough").exists())
+            .andExpect(jsonPath("$.exportedThroughTxid").isNumber());
+    }
+    
+    // ========================================================================
+    // BANK RECONCILIATION ENDPOINT TESTS
+    // ========================================================================
+    
+    @Test
+    @DisplayName("POST /api/v1/bank-reconciliation/statements + /match - Unmatched lines go to review")
+    void testImportAndMatchStatement() throws Exception {
+        String csv = "date,description,reference,amount\n"
+            + "2026-01-15,NEFT from unknown party,UTR0001,1500.00\n";
+        
+        mockMvc.perform(post("/api/v1/bank-reconciliation/statements")
+            .param("tenantId", testTenantId.toString())
+            .param("format", "CSV")
+            .contentType("text/csv")
+            .content(csv))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.linesImported").value(1));
+        
+        mockMvc.perform(post("/api/v1/bank-reconciliation/match")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.linesProcessed").value(1))
+            .andExpect(jsonPath("$.sentToReview").value(1));
+    }
+    
+    @Test
+    @DisplayName("POST /api/v1/bank-reconciliation/match - Lines match GL rows of their bank's cash account")
+    void testMatchStatementToLedger() throws Exception {
+        ChartOfAccounts sales = chartOfAccountsRepository.save(ChartOfAccounts.builder()
+            .tenantId(testTenantId)
+            .accountCode("4010")
+            .accountName("Sales")
+            .accountType(AccountType.REVENUE)
+            .isActive(true)
+            .build());
+        UUID bankId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.bank_accounts (bank_id, tenant_id, account_name, bank_name, " +
+            "account_number, ifsc_code, cash_gl_account_id) VALUES (?, ?, 'Current', 'Test Bank', '0001', 'TEST0000001', ?)",
+            bankId, testTenantId, testAccountId);
+        
+        JournalEntry entry = JournalEntry.builder()
+            .tenantId(testTenantId)
+            .entryNumber("JE-2026-0004")
+            .entryDate(LocalDate.now())
+            .description("Counter sale")
+            .build();
+        Posting debit = Posting.builder()
+            .accountId(testAccountId)
+            .postingType(PostingType.DEBIT)
+            .amount(new BigDecimal("750.00"))
+            .build();
+        Posting credit = Posting.builder()
+            .accountId(sales.getAccountId())
+            .postingType(PostingType.CREDIT)
+            .amount(new BigDecimal("750.00"))
+            .build();
+        mockMvc.perform(post("/api/v1/journal-entries/post")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new JournalPostingRequest(entry, java.util.List.of(debit, credit)))))
+            .andExpect(status().isCreated());
+        
+        String csv = "date,description,reference,amount\n"
+            + LocalDate.now().plusDays(1) + ",Cash deposit,DEP0001,750.00\n";
+        mockMvc.perform(post("/api/v1/bank-reconciliation/statements")
+            .param("tenantId", testTenantId.toString())
+            .param("bankId", bankId.toString())
+            .param("format", "CSV")
+            .contentType("text/csv")
+            .content(csv))
+            .andExpect(status().isCreated());
+        
+        // No glAccountId: the bank account's cash GL account is used
+        mockMvc.perform(post("/api/v1/bank-reconciliation/match")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.matchedToLedger").value(1))
+            .andExpect(jsonPath("$.sentToReview").value(0));
+    }
+    
+    @Test
+    @DisplayName("POST /api/v1/bank-reconciliation/match - Base-currency receipts settle foreign-currency invoices")
+    void testMatchForeignCurrencyInvoice() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.customers (customer_id, tenant_id, customer_name, customer_type) " +
+            "VALUES (?, ?, 'Export Buyer', 'RETAILER')", customerId, testTenantId);
+        String insertInvoice = "INSERT INTO accounting.invoices (invoice_id, tenant_id, customer_id, invoice_number, " +
+            "invoice_date, subtotal, total_tax, total_amount, currency_code, exchange_rate, base_total_amount, " +
+            "outstanding, status) VALUES (?, ?, ?, ?, ?, ?, 0, ?, 'USD', 83.25, ?, ?, 'SENT')";
+        UUID partPaid = UUID.randomUUID();
+        jdbcTemplate.update(insertInvoice, partPaid, testTenantId, customerId, "EX-0001", LocalDate.now().minusDays(5),
+            new BigDecimal("100.00"), new BigDecimal("100.00"), new BigDecimal("8325.00"), new BigDecimal("100.00"));
+        UUID byAmount = UUID.randomUUID();
+        jdbcTemplate.update(insertInvoice, byAmount, testTenantId, customerId, "EX-0002", LocalDate.now().minusDays(5),
+            new BigDecimal("50.00"), new BigDecimal("50.00"), new BigDecimal("4162.50"), new BigDecimal("50.00"));
+        
+        // INR receipts at 83.25: USD 40 + USD 60 quoted against EX-0001, USD 50 found by EX-0002's INR amount
+        String csv = "date,description,reference,amount\n"
+            + LocalDate.now().minusDays(3) + ",Part payment,EX-0001,3330.00\n"
+            + LocalDate.now().minusDays(2) + ",Balance payment,EX-0001,4995.00\n"
+            + LocalDate.now() + ",Wire from Export Buyer,W-778,4162.50\n";
+        mockMvc.perform(post("/api/v1/bank-reconciliation/statements")
+            .param("tenantId", testTenantId.toString())
+            .param("format", "CSV")
+            .contentType("text/csv")
+            .content(csv))
+            .andExpect(status().isCreated());
+        
+        mockMvc.perform(post("/api/v1/bank-reconciliation/match")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.matchedToInvoices").value(3));
+        
+        for (Object[] expected : new Object[][] {{partPaid, "100.00"}, {byAmount, "50.00"}}) {
+            Map<String, Object> invoice = jdbcTemplate.queryForMap(
+                "SELECT amount_paid, outstanding, status FROM accounting.invoices WHERE invoice_id = ?", expected[0]);
+            assertEquals(0, new BigDecimal((String) expected[1]).compareTo((BigDecimal) invoice.get("amount_paid")));
+            assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) invoice.get("outstanding")));
+            assertEquals("PAID", invoice.get("status"));
+        }
+    }
+    
     // ========================================================================
     // INVENTORY ENDPOINT TESTS
     // ========================================================================
@@ -271,6 +1166,495 @@ class RestControllerTests {
             .andExpect(jsonPath("$", isA(java.util.List.class)));
     }
     
+    @Test
+    @DisplayName("POST /api/v1/inventory/allocate - FEFO draws the earliest-expiring batch first")
+    void testAllocateFefo() throws Exception {
+        UUID productId = createProduct("PRD-FEFO", "Paneer 200g");
+        LocalDate today = LocalDate.now();
+        receive(productId, "B-LATE", today.plusDays(90), 10, new BigDecimal("50.00"));
+        receive(productId, "B-SOON", today.plusDays(10), 6, new BigDecimal("40.00"));
+
+        mockMvc.perform(get("/api/v1/inventory/batches/expiring")
+            .param("tenantId", testTenantId.toString())
+            .param("days", "30"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].batchNumber").value("B-SOON"))
+            .andExpect(jsonPath("$[0].quantityOnHand").value(6));
+
+        FefoAllocationRequest request = new FefoAllocationRequest(
+            testTenantId, productId, 8, TransactionType.SALE, "SO-2", "SALES_ORDER");
+        mockMvc.perform(post("/api/v1/inventory/allocate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].batchNumber").value("B-SOON"))
+            .andExpect(jsonPath("$[0].quantity").value(6))
+            .andExpect(jsonPath("$[1].batchNumber").value("B-LATE"))
+            .andExpect(jsonPath("$[1].quantity").value(2));
+
+        mockMvc.perform(get("/api/v1/inventory/batches")
+            .param("tenantId", testTenantId.toString())
+            .param("productId", productId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.batchNumber == 'B-SOON')].quantityOnHand").value(contains(0)))
+            .andExpect(jsonPath("$[?(@.batchNumber == 'B-LATE')].quantityOnHand").value(contains(8)));
+        // 10 x 50 + 6 x 40 in, 6 x 40 + 2 x 50 out
+        mockMvc.perform(get("/api/v1/inventory/balance")
+            .param("tenantId", testTenantId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].quantityOnHand").value(8))
+            .andExpect(jsonPath("$[0].inventoryValue").value(400.00));
+    }
+
+    private void receive(UUID productId, String batchNumber, LocalDate expiry, int quantity, BigDecimal unitCost) throws Exception {
+        InventoryLedger movement = InventoryLedger.builder()
+            .tenantId(testTenantId)
+            .productId(productId)
+            .transactionType(TransactionType.PURCHASE)
+            .quantityIn(quantity)
+            .quantityOut(0)
+            .unitCost(unitCost)
+            .batchNumber(batchNumber)
+            .expiryDate(expiry)
+            .build();
+        mockMvc.perform(post("/api/v1/inventory/movements")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(movement)))
+            .andExpect(status().isCreated());
+    }
+    
+    @Test
+    @DisplayName("POST /api/v1/inventory/allocate - FEFO allocation without stock returns 409")
+    void testAllocateFefoWithoutStock() throws Exception {
+        FefoAllocationRequest request = new FefoAllocationRequest(
+            testTenantId, UUID.randomUUID(), 5, TransactionType.SALE, "SO-1", "SALES_ORDER");
+        
+        mockMvc.perform(post("/api/v1/inventory/allocate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isConflict());
+    }
+    
+    // ========================================================================
+    // PURCHASE ORDER ENDPOINT TESTS
+    // ========================================================================
+    
+    @Test
+    @DisplayName("POST /api/v1/purchase-orders/match - Receipt and bill are matched against the order")
+    void testPurchaseOrderThreeWayMatch() throws Exception {
+        UUID supplierId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.suppliers (supplier_id, tenant_id, supplier_name, gstin) " +
+            "VALUES (?, ?, 'Dairy Supplies', ?)", supplierId, testTenantId,
+            supplierId.toString().replace("-", "").substring(0, 15).toUpperCase());
+        UUID butter = createProduct("PO-BUTTER", "Butter 500g");
+        UUID ghee = createProduct("PO-GHEE", "Ghee 1L");
+        
+        PurchaseOrder order = PurchaseOrder.builder()
+            .tenantId(testTenantId)
+            .supplierId(supplierId)
+            .poNumber("PO-1001")
+            .build();
+        List<PurchaseOrderLine> lines = List.of(
+            PurchaseOrderLine.builder().productId(butter).quantityOrdered(10).unitPrice(new BigDecimal("240.00")).build(),
+            PurchaseOrderLine.builder().productId(ghee).quantityOrdered(5).unitPrice(new BigDecimal("600.00")).build());
+        String created = mockMvc.perform(post("/api/v1/purchase-orders")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new PurchaseOrderRequest(order, lines))))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.status").value("DRAFT"))
+            .andExpect(jsonPath("$.subtotal").value(5400.00))
+            .andReturn().getResponse().getContentAsString();
+        String poId = objectMapper.readTree(created).get("poId").asText();
+        
+        // Goods cannot arrive before the order is confirmed
+        GoodsReceiptRequest receipt = new GoodsReceiptRequest(
+            GoodsReceipt.builder().receiptNumber("GRN-1001").build(),
+            new ArrayList<>());
+        String poLines = mockMvc.perform(get("/api/v1/purchase-orders/" + poId + "/lines"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        for (var line : objectMapper.readTree(poLines)) {
+            receipt.lines().add(GoodsReceiptLine.builder()
+                .poLineId(UUID.fromString(line.get("lineId").asText()))
+                .quantityReceived(line.get("quantityOrdered").asInt())
+                .build());
+        }
+        mockMvc.perform(post("/api/v1/purchase-orders/" + poId + "/receipts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(receipt)))
+            .andExpect(status().isConflict());
+        
+        mockMvc.perform(put("/api/v1/purchase-orders/" + poId + "/status").param("status", "CONFIRMED"))
+            .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/purchase-orders/" + poId + "/receipts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(receipt)))
+            .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/v1/inventory/movements").param("tenantId", testTenantId.toString()))
+            .andExpect(jsonPath("$[?(@.referenceType == 'GOODS_RECEIPT')]", hasSize(2)))
+            .andExpect(jsonPath("$[*].transactionType", everyItem(is("PURCHASE"))));
+        
+        // Ghee is billed 3% over the order price, beyond the 2% tolerance
+        SupplierInvoiceRequest bill = new SupplierInvoiceRequest(
+            SupplierInvoice.builder().invoiceNumber("DS/7781").build(),
+            List.of(
+                SupplierInvoiceLine.builder().productId(butter).quantity(10).unitPrice(new BigDecimal("240.00")).build(),
+                SupplierInvoiceLine.builder().productId(ghee).quantity(5).unitPrice(new BigDecimal("618.00")).build()));
+        mockMvc.perform(post("/api/v1/purchase-orders/" + poId + "/supplier-invoices")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(bill)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.totalAmount").value(5490.00));
+        
+        mockMvc.perform(post("/api/v1/purchase-orders/match"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.exceptions").value(greaterThanOrEqualTo(1)));
+        mockMvc.perform(get("/api/v1/purchase-orders/" + poId + "/match"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.productId == '" + butter + "')].status").value(contains("MATCHED")))
+            .andExpect(jsonPath("$[?(@.productId == '" + ghee + "')].status").value(contains("PRICE_MISMATCH")));
+        mockMvc.perform(get("/api/v1/purchase-orders/" + poId))
+            .andExpect(jsonPath("$.status").value("RECEIVED"))
+            .andExpect(jsonPath("$.matchStatus").value("PRICE_MISMATCH"));
+    }
+    
+    @Test
+    @DisplayName("POST /api/v1/b2b-sync/dispatch - An invoice to another tenant becomes its supplier bill")
+    void testB2BInvoiceMirroredToBuyer() throws Exception {
+        String buyerGstin = "29" + UUID.randomUUID().toString().replace("-", "").substring(0, 13).toUpperCase();
+        UUID buyerId = tenantRepository.save(Tenant.builder()
+            .businessName("Buyer Retail")
+            .businessType(BusinessType.RETAILER)
+            .gstin(buyerGstin)
+            .currency("INR")
+            .countryCode("IN")
+            .isActive(true)
+            .build()).getTenantId();
+        UUID customerId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.customers (customer_id, tenant_id, customer_name, customer_type, gstin) " +
+            "VALUES (?, ?, 'Buyer Retail', 'RETAILER', ?)", customerId, testTenantId, buyerGstin);
+        
+        Invoice invoice = Invoice.builder()
+            .tenantId(testTenantId)
+            .customerId(customerId)
+            .invoiceNumber("B2B-0001")
+            .invoiceDate(LocalDate.now())
+            .subtotal(new BigDecimal("1000.00"))
+            .totalTax(new BigDecimal("180.00"))
+            .totalAmount(new BigDecimal("1180.00"))
+            .status(InvoiceStatus.SENT)
+            .build();
+        mockMvc.perform(post("/api/v1/invoices")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(invoice)))
+            .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/v1/b2b-sync").param("tenantId", testTenantId.toString()))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].syncStatus").value("PENDING"));
+        
+        mockMvc.perform(post("/api/v1/b2b-sync/dispatch"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.delivered").value(greaterThanOrEqualTo(1)));
+        String received = mockMvc.perform(get("/api/v1/b2b-sync")
+            .param("tenantId", buyerId.toString())
+            .param("role", "buyer"))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].syncStatus").value("ACKNOWLEDGED"))
+            .andExpect(jsonPath("$[0].buyerDocumentId").isNotEmpty())
+            .andExpect(jsonPath("$[0].variance").value(0.0))
+            .andReturn().getResponse().getContentAsString();
+        String syncId = objectMapper.readTree(received).get(0).get("syncId").asText();
+        
+        B2BAcknowledgement ack = new B2BAcknowledgement(buyerId, List.of(UUID.fromString(syncId)), List.of(), null);
+        mockMvc.perform(post("/api/v1/b2b-sync/acknowledgements")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(ack)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.updated").value(1));
+        mockMvc.perform(get("/api/v1/b2b-sync/" + syncId))
+            .andExpect(jsonPath("$.syncStatus").value("COMPLETED"));
+    }
+    
+    private UUID createProduct(String code, String name) throws Exception {
+        Product product = Product.builder()
+            .tenantId(testTenantId)
+            .productCode(code)
+            .productName(name)
+            .hsnCode("0405")
+            .costPrice(new BigDecimal("240.00"))
+            .sellingPrice(new BigDecimal("275.00"))
+            .gstRate(new BigDecimal("12.00"))
+            .unitOfMeasure("PIECE")
+            .isActive(true)
+            .build();
+        String created = mockMvc.perform(post("/api/v1/products")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(product)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return UUID.fromString(objectMapper.readTree(created).get("productId").asText());
+    }
+
+    // ========================================================================
+    // STATEMENT EXPORT TESTS
+    // ========================================================================
+
+    @Test
+    @DisplayName("GET /api/v1/customers/{id}/statement - Streams entries with a running balance")
+    void testCustomerStatementCsv() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.customers (customer_id, tenant_id, customer_name, customer_type) " +
+            "VALUES (?, ?, 'Statement Traders', 'RETAILER')", customerId, testTenantId);
+        LocalDate day = LocalDate.now().minusDays(10);
+        jdbcTemplate.update("INSERT INTO accounting.invoices (tenant_id, customer_id, invoice_number, invoice_date, " +
+            "subtotal, total_amount, status) VALUES (?, ?, 'ST-0001', ?, 500.00, 500.00, 'SENT')",
+            testTenantId, customerId, day.minusDays(30));
+        jdbcTemplate.update("INSERT INTO accounting.invoices (tenant_id, customer_id, invoice_number, invoice_date, " +
+            "subtotal, total_amount, status) VALUES (?, ?, 'ST-0002', ?, 1000.00, 1000.00, 'SENT')",
+            testTenantId, customerId, day);
+        jdbcTemplate.update("INSERT INTO accounting.payments_received (tenant_id, customer_id, payment_date, amount, " +
+            "payment_mode, reference_number) VALUES (?, ?, ?, 400.00, 'UPI', 'UTR-1')",
+            testTenantId, customerId, day.plusDays(1));
+        UUID usdInvoiceId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.invoices (invoice_id, tenant_id, customer_id, invoice_number, " +
+            "invoice_date, subtotal, total_amount, status, currency_code, exchange_rate, base_total_amount) " +
+            "VALUES (?, ?, ?, 'ST-0003', ?, 10.00, 10.00, 'SENT', 'USD', 83.25, 832.50)",
+            usdInvoiceId, testTenantId, customerId, day.plusDays(2));
+        jdbcTemplate.update("INSERT INTO accounting.payments_received (tenant_id, customer_id, invoice_id, payment_date, " +
+            "amount, payment_mode, reference_number) VALUES (?, ?, ?, ?, 4.00, 'UPI', 'UTR-2')",
+            testTenantId, customerId, usdInvoiceId, day.plusDays(3));
+
+        var pending = mockMvc.perform(get("/api/v1/customers/" + customerId + "/statement")
+                .param("tenantId", testTenantId.toString())
+                .param("from", day.minusDays(1).toString())
+                .param("to", LocalDate.now().toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(pending))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", startsWith("text/csv")))
+            .andReturn().getResponse().getContentAsString();
+
+        String[] lines = csv.split("\r\n");
+        assertEquals("Date,Type,Reference,Description,Debit,Credit,Balance", lines[0]);
+        assertEquals(",,,Opening balance,,,500.00", lines[1]);
+        assertTrue(lines[2].startsWith(day + ",INVOICE,ST-0002,"));
+        assertTrue(lines[2].endsWith(",1000.00,,1500.00"));
+        assertEquals(day.plusDays(1) + ",PAYMENT,UTR-1,UPI,,400.00,1100.00", lines[3]);
+        assertTrue(lines[4].startsWith(day.plusDays(2) + ",INVOICE,ST-0003,"));
+        assertTrue(lines[4].endsWith(",832.50,,1932.50"));
+        // USD 4.00 against the USD invoice, at its rate
+        assertEquals(day.plusDays(3) + ",PAYMENT,UTR-2,UPI,,333.00,1599.50", lines[5]);
+        assertEquals(",,,Closing balance,1832.50,733.00,1599.50", lines[6]);
+
+        mockMvc.perform(get("/api/v1/customers/" + customerId + "/statement")
+                .param("tenantId", UUID.randomUUID().toString())
+                .param("from", day.toString())
+                .param("to", day.toString()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET/POST /api/v1/sync - Deltas with tombstones, offline writes with conflicts and retries")
+    void testMobileDeltaSync() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.customers (customer_id, tenant_id, customer_name, customer_type) " +
+            "VALUES (?, ?, 'Field Traders', 'RETAILER')", customerId, testTenantId);
+        String first = mockMvc.perform(get("/api/v1/sync")
+                .param("tenantId", testTenantId.toString())
+                .param("types", "CUSTOMERS"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.more").value(false))
+            .andExpect(jsonPath("$.changes[*].data.customerName", hasItem("Field Traders")))
+            .andReturn().getResponse().getContentAsString();
+        long token = objectMapper.readTree(first).get("token").asLong();
+
+        List<Map<String, Object>> writes = List.of(
+            Map.of("mutationId", "m1", "type", "CUSTOMERS", "id", customerId, "baseToken", token,
+                "data", Map.of("phone", "9876543210")),
+            Map.of("mutationId", "m2", "type", "CUSTOMERS", "id", customerId, "baseToken", token,
+                "data", Map.of("phone", "9000000000")),
+            Map.of("mutationId", "m3", "type", "CUSTOMERS",
+                "data", Map.of("customerName", "New Outlet", "customerType", "RETAILER")),
+            Map.of("mutationId", "m4", "type", "INVOICES", "data", Map.of("customerRef", "m3",
+                "invoiceNumber", "MOB-0001", "subtotal", 250, "totalAmount", 250, "status", "DRAFT")),
+            Map.of("mutationId", "m5", "type", "PRODUCTS", "data", Map.of("productName", "x")));
+        String pushed = mockMvc.perform(post("/api/v1/sync")
+                .param("tenantId", testTenantId.toString())
+                .param("deviceId", "device-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(writes)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.results[*].status", contains("APPLIED", "CONFLICT", "APPLIED", "APPLIED", "REJECTED")))
+            .andExpect(jsonPath("$.results[1].data.phone").value("9876543210"))
+            .andReturn().getResponse().getContentAsString();
+        String newCustomerId = objectMapper.readTree(pushed).get("results").get(2).get("id").asText();
+
+        // A batch resent after a dropped connection is not applied twice
+        mockMvc.perform(post("/api/v1/sync")
+                .param("tenantId", testTenantId.toString())
+                .param("deviceId", "device-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(writes.subList(2, 4))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.results[*].status", contains("DUPLICATE", "DUPLICATE")))
+            .andExpect(jsonPath("$.results[0].id").value(newCustomerId));
+
+        jdbcTemplate.update("DELETE FROM accounting.customers WHERE customer_id = ?", customerId);
+        mockMvc.perform(get("/api/v1/sync")
+                .param("tenantId", testTenantId.toString())
+                .param("since", Long.toString(token))
+                .param("types", "CUSTOMERS", "INVOICES"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.full").value(false))
+            .andExpect(jsonPath("$.changes", hasSize(3)))
+            .andExpect(jsonPath("$.changes[?(@.id == '" + customerId + "')].deleted").value(contains(true)))
+            .andExpect(jsonPath("$.changes[?(@.type == 'INVOICES')].data.invoiceNumber").value(contains("MOB-0001")))
+            .andExpect(jsonPath("$.changes[?(@.id == '" + newCustomerId + "')].data.customerName").value(contains("New Outlet")));
+
+        // Stock movements maintain inventory_balance, whose rows sync as BALANCES
+        UUID productId = createProduct("SYNC-001", "Synced Stock");
+        receive(productId, "SY-B1", LocalDate.now().plusMonths(6), 12, new BigDecimal("10.00"));
+        mockMvc.perform(get("/api/v1/sync")
+                .param("tenantId", testTenantId.toString())
+                .param("types", "BALANCES"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes[?(@.data.productId == '" + productId + "')].data.quantityOnHand").value(contains(12)));
+    }
+
+    // ========================================================================
+    // DASHBOARD ENDPOINT TESTS
+    // ========================================================================
+    
+    @Test
+    @DisplayName("GET /api/v1/dashboard/kpis?tenantId={id} - KPI snapshot for a new tenant")
+    void testGetDashboardKpis() throws Exception {
+        mockMvc.perform(get("/api/v1/dashboard/kpis")
+            .param("tenantId", testTenantId.toString())
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.tenantId").value(testTenantId.toString()))
+            .andExpect(jsonPath("$.outstandingReceivables").value(0))
+            .andExpect(jsonPath("$.topCustomers", hasSize(0)));
+    }
+    
+    @Test
+    @DisplayName("GET /api/v1/dashboard/kpis - Receivables follow invoices and their payments in base currency")
+    void testDashboardKpisAfterPayment() throws Exception {
+        FxRate usdInr = FxRate.builder()
+            .baseCurrency("USD")
+            .quoteCurrency("INR")
+            .rateDate(LocalDate.now().minusDays(1))
+            .rate(new BigDecimal("83.25000000"))
+            .build();
+        mockMvc.perform(post("/api/v1/fx/rates")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(java.util.List.of(usdInr))))
+            .andExpect(status().isOk());
+        UUID customerId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounting.customers (customer_id, tenant_id, customer_name, customer_type) " +
+            "VALUES (?, ?, 'Export Buyer', 'RETAILER')", customerId, testTenantId);
+        Invoice invoice = Invoice.builder()
+            .tenantId(testTenantId)
+            .customerId(customerId)
+            .invoiceNumber("KPI-0001")
+            .invoiceDate(LocalDate.now())
+            .subtotal(new BigDecimal("100.00"))
+            .totalAmount(new BigDecimal("100.00"))
+            .currencyCode("USD")
+            .status(InvoiceStatus.SENT)
+            .build();
+        mockMvc.perform(post("/api/v1/invoices")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(invoice)))
+            .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/v1/dashboard/kpis").param("tenantId", testTenantId.toString()))
+            .andExpect(jsonPath("$.outstandingReceivables").value(8325.00))
+            .andExpect(jsonPath("$.topCustomers[0].amount").value(8325.00));
+        
+        // INR 3330.00 is USD 40.00 at the invoice's rate
+        mockMvc.perform(post("/api/v1/bank-reconciliation/statements")
+            .param("tenantId", testTenantId.toString())
+            .param("format", "CSV")
+            .contentType("text/csv")
+            .content("date,description,reference,amount\n" + LocalDate.now() + ",Part payment,KPI-0001,3330.00\n"))
+            .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/bank-reconciliation/match").param("tenantId", testTenantId.toString()))
+            .andExpect(jsonPath("$.matchedToInvoices").value(1));
+        mockMvc.perform(get("/api/v1/dashboard/kpis").param("tenantId", testTenantId.toString()))
+            .andExpect(jsonPath("$.outstandingReceivables").value(4995.00));
+        
+        mockMvc.perform(post("/api/v1/dashboard/kpis/rebuild").param("tenantId", testTenantId.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.outstandingReceivables").value(4995.00))
+            .andExpect(jsonPath("$.stockValue").value(0));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/dashboard/kpis - A client over its report burst gets 429 with Retry-After")
+    void testReportRateLimit() throws Exception {
+        int rejected = 0;
+        for (int i = 0; i < 15; i++) {
+            // A tenant id of the caller's choosing does not buy a fresh budget
+            String tenant = UUID.randomUUID().toString();
+            var response = mockMvc.perform(get("/api/v1/dashboard/kpis")
+                    .with(clientAddress("203.0.113.7"))
+                    .header("X-Tenant-Id", tenant)
+                    .param("tenantId", tenant)
+                    .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+            if (response.getStatus() == 429) {
+                rejected++;
+                assertTrue(Integer.parseInt(response.getHeader("Retry-After")) >= 1);
+            }
+        }
+        assertTrue(rejected > 0);
+
+        // Other clients keep their own budget
+        mockMvc.perform(get("/api/v1/dashboard/kpis")
+            .with(clientAddress("203.0.113.8"))
+            .param("tenantId", testTenantId.toString())
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/dashboard/kpis - Tenants behind the gateway get their own budgets")
+    void testGatewayTenantRateLimit() throws Exception {
+        String busy = UUID.randomUUID().toString();
+        int rejected = 0;
+        for (int i = 0; i < 15; i++) {
+            int status = mockMvc.perform(get("/api/v1/dashboard/kpis")
+                    .with(clientAddress("192.0.2.10"))
+                    .header("X-Gateway-Tenant-Id", busy)
+                    .param("tenantId", testTenantId.toString())
+                    .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus();
+            if (status == 429) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0);
+
+        // Another tenant through the same gateway address is not held back
+        mockMvc.perform(get("/api/v1/dashboard/kpis")
+            .with(clientAddress("192.0.2.10"))
+            .header("X-Gateway-Tenant-Id", testTenantId.toString())
+            .param("tenantId", testTenantId.toString())
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor clientAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
     // ========================================================================
     // HEALTH ENDPOINT TESTS
     // ========================================================================
@@ -286,6 +1670,93 @@ class RestControllerTests {
             .andExpect(jsonPath("$.version").exists());
     }
     
+    // ========================================================================
+    // CONTENT NEGOTIATION TESTS
+    // ========================================================================
+
+    @Test
+    @DisplayName("GET /api/v1/chart-of-accounts - Accept: application/cbor returns CBOR")
+    void testCborResponse() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/v1/chart-of-accounts")
+            .param("tenantId", testTenantId.toString())
+            .accept("application/cbor"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/cbor"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        ChartOfAccounts[] accounts = cborConverter.getObjectMapper().readValue(body, ChartOfAccounts[].class);
+        assertEquals("Cash", accounts[0].getAccountName());
+        assertEquals(testTenantId, accounts[0].getTenantId());
+    }
+
+    @Test
+    @DisplayName("CBOR and Smile: exact BigDecimal round trip and smaller payloads than JSON")
+    void testBinaryFormatsAgainstJson() throws Exception {
+        List<Posting> postings = new ArrayList<>();
+        UUID journalId = UUID.randomUUID();
+        for (int i = 0; i < 100; i++) {
+            postings.add(Posting.builder()
+                .postingId(UUID.randomUUID())
+                .tenantId(testTenantId)
+                .journalId(journalId)
+                .accountId(testAccountId)
+                .postingType(i % 2 == 0 ? PostingType.DEBIT : PostingType.CREDIT)
+                .amount(new BigDecimal("1234.50").add(BigDecimal.valueOf(i)))
+                .transactionCurrency("USD")
+                .transactionAmount(new BigDecimal("14.80"))
+                .exchangeRate(new BigDecimal("83.41216000"))
+                .lineNumber(i + 1)
+                .build());
+        }
+
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", objectMapper);
+        mappers.put("cbor", cborConverter.getObjectMapper());
+        mappers.put("smile", smileConverter.getObjectMapper());
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] encoded = mapper.writeValueAsBytes(postings);
+            sizes.put(entry.getKey(), encoded.length);
+
+            Posting[] decoded = mapper.readValue(encoded, Posting[].class);
+            assertEquals(new BigDecimal("83.41216000"), decoded[0].getExchangeRate());
+            assertEquals(new BigDecimal("14.80"), decoded[0].getTransactionAmount());
+            assertEquals(postings.get(99).getPostingId(), decoded[99].getPostingId());
+        }
+        assertTrue(sizes.get("cbor") < sizes.get("json"));
+        assertTrue(sizes.get("smile") < sizes.get("json"));
+    }
+
+    // ========================================================================
+    // READ ROUTING TESTS
+    // ========================================================================
+    
+    @Test
+    @DisplayName("POST then GET - Writes return a consistency token that reads can send back")
+    void testConsistencyToken() throws Exception {
+        ChartOfAccounts account = ChartOfAccounts.builder()
+            .tenantId(testTenantId)
+            .accountCode("1030")
+            .accountName("Deposits")
+            .accountType(AccountType.ASSET)
+            .isActive(true)
+            .build();
+        
+        String token = mockMvc.perform(post("/api/v1/chart-of-accounts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(account)))
+            .andExpect(status().isCreated())
+            .andExpect(header().exists("X-Consistency-Token"))
+            .andReturn().getResponse().getHeader("X-Consistency-Token");
+        
+        mockMvc.perform(get("/api/v1/chart-of-accounts")
+            .param("tenantId", testTenantId.toString())
+            .header("X-Consistency-Token", token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].accountCode", hasItem("1030")));
+    }
+    
     // ========================================================================
     // ERROR HANDLING TESTS
     // ========================================================================
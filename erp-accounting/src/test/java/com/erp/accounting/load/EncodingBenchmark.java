@@ -0,0 +1,92 @@
+package com.erp.accounting.load;
+
+import com.erp.accounting.entity.Posting;
+import com.erp.accounting.entity.PostingType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encode and decode cost of a posting list in JSON, CBOR and Smile, the formats the API
+ * negotiates (see BinaryFormatsConfig), with the payload size of each.
+ * <p>
+ * Mappers are built the way BinaryFormatsConfig builds them, from Jackson2ObjectMapperBuilder
+ * without Boot's property customizations. Each format runs --warmup untimed rounds and then
+ * --iterations timed rounds of --postings postings.
+ * <p>
+ * Run from erp-accounting/:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.erp.accounting.load.EncodingBenchmark \
+ *     -Dexec.args="--postings=1000 --iterations=500"
+ * </pre>
+ */
+public class EncodingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        SyntheticDataGenerator.Options options = SyntheticDataGenerator.Options.parse(args);
+        int count = options.getInt("postings", 1000);
+        int warmup = options.getInt("warmup", 100);
+        int iterations = options.getInt("iterations", 500);
+
+        List<Posting> postings = postings(count);
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.json().factory(SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build()).build());
+
+        System.out.printf("%d postings, %d iterations%n", count, iterations);
+        System.out.printf("%-6s %10s %12s %12s%n", "format", "bytes", "encode us", "decode us");
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] encoded = mapper.writeValueAsBytes(postings);
+            for (int i = 0; i < warmup; i++) {
+                mapper.readValue(mapper.writeValueAsBytes(postings), Posting[].class);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                mapper.writeValueAsBytes(postings);
+            }
+            long encodeNanos = (System.nanoTime() - start) / iterations;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                mapper.readValue(encoded, Posting[].class);
+            }
+            long decodeNanos = (System.nanoTime() - start) / iterations;
+            System.out.printf("%-6s %10d %12d %12d%n", entry.getKey(), encoded.length, encodeNanos / 1000, decodeNanos / 1000);
+        }
+    }
+
+    // Same shape as a foreign-currency journal: every leg carries a transaction amount and rate
+    private static List<Posting> postings(int count) {
+        UUID tenantId = UUID.randomUUID();
+        UUID journalId = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        List<Posting> postings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            postings.add(Posting.builder()
+                .postingId(UUID.randomUUID())
+                .tenantId(tenantId)
+                .journalId(journalId)
+                .accountId(accountId)
+                .postingType(i % 2 == 0 ? PostingType.DEBIT : PostingType.CREDIT)
+                .amount(new BigDecimal("1234.50").add(BigDecimal.valueOf(i)))
+                .transactionCurrency("USD")
+                .transactionAmount(new BigDecimal("14.80"))
+                .exchangeRate(new BigDecimal("83.41216000"))
+                .lineNumber(i + 1)
+                .build());
+        }
+        return postings;
+    }
+}
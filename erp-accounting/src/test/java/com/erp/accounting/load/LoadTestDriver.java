@@ -0,0 +1,329 @@
+package com.erp.accounting.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a weighted mix of REST calls against a running service and reports latency
+ * percentiles and throughput per scenario.
+ * <p>
+ * The driver is closed-loop: each of --concurrency virtual threads sends one request, waits for
+ * the response and sends the next, for --warmup seconds (not recorded) and then --duration
+ * seconds. Tenants come from GET /api/v1/tenants (only those whose name starts with --tenant-prefix,
+ * so generated tenants can be targeted) and are picked with the same skew as the generator, so a
+ * few tenants take most of the traffic. 429s from the rate limiter are counted apart from errors.
+ * The limiter keys anonymous callers by address, so the whole run shares one budget: start the
+ * service with erp.rate-limit.enabled=false to measure capacity rather than the limits.
+ * <p>
+ * Run from erp-accounting/ against a service holding generated data (see scripts/load-test.sh):
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.erp.accounting.load.LoadTestDriver \
+ *     -Dexec.args="--base-url=http://localhost:8085 --concurrency=64 --duration=120 \
+ *                  --mix=list-customers:30,search-products:30,dashboard:20,post-journal:20"
+ * </pre>
+ */
+public class LoadTestDriver {
+    private static final String DEFAULT_MIX = "list-invoices:10,list-customers:15,list-products:15,search-products:20,"
+        + "dashboard:10,coa-tree:10,statement:5,post-journal:15";
+    private static final String[] SEARCH_TERMS = {"item", "Grocery", "Dairy", "Beverages", "Care", "Household", "Snacks", "item 1"};
+
+    private final SyntheticDataGenerator.Options options;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Scenario> scenarios = new LinkedHashMap<>();
+    private final AtomicLong journalNumber = new AtomicLong();
+    private final String runTag = Long.toString(System.currentTimeMillis(), 36).toUpperCase();
+    private List<TenantData> tenants;
+    private int totalWeight;
+
+    LoadTestDriver(SyntheticDataGenerator.Options options) {
+        this.options = options;
+        this.baseUrl = options.get("base-url", "http://localhost:8085");
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestDriver(SyntheticDataGenerator.Options.parse(args)).run();
+    }
+
+    void run() throws Exception {
+        for (String entry : options.get("mix", DEFAULT_MIX).split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            if (!Scenario.NAMES.contains(parts[0])) {
+                throw new IllegalArgumentException("Unknown scenario " + parts[0] + ", expected one of " + Scenario.NAMES);
+            }
+            scenarios.put(parts[0], new Scenario(parts[0], weight));
+            totalWeight += weight;
+        }
+        tenants = loadTenants();
+        System.out.printf("%d tenants, %d workers, mix %s%n", tenants.size(), options.getInt("concurrency", 32), scenarios.keySet());
+
+        int concurrency = options.getInt("concurrency", 32);
+        long warmupNanos = Duration.ofSeconds(options.getInt("warmup", 15)).toNanos();
+        long durationNanos = Duration.ofSeconds(options.getInt("duration", 60)).toNanos();
+        long started = System.nanoTime();
+        long recordFrom = started + warmupNanos;
+        long stopAt = recordFrom + durationNanos;
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                long seed = options.getLong("seed", 42) * 31 + i;
+                workers.submit(() -> work(new SplittableRandom(seed), recordFrom, stopAt));
+            }
+        }
+        report(durationNanos / 1e9);
+    }
+
+    private void work(SplittableRandom random, long recordFrom, long stopAt) {
+        while (System.nanoTime() < stopAt) {
+            Scenario scenario = pick(random);
+            TenantData tenant = tenants.get(skewed(random, tenants.size()));
+            HttpRequest request = scenario.request(this, tenant, random);
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                status = -1;
+            }
+            long end = System.nanoTime();
+            if (start >= recordFrom && end <= stopAt) {
+                scenario.record(status, end - start);
+            }
+        }
+    }
+
+    private Scenario pick(SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios.values()) {
+            roll -= scenario.weight;
+            if (roll < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    // Roughly 80% of picks land on the first 20% of indexes, as in the generator
+    private static int skewed(SplittableRandom random, int size) {
+        return random.nextInt(5) < 4 ? random.nextInt(Math.max(1, size / 5)) : random.nextInt(size);
+    }
+
+    private List<TenantData> loadTenants() throws Exception {
+        String prefix = options.get("tenant-prefix", "Load Test");
+        int limit = options.getInt("tenants", Integer.MAX_VALUE);
+        List<UUID> ids = new ArrayList<>();
+        for (JsonNode tenant : get("/api/v1/tenants")) {
+            if (tenant.path("businessName").asText().startsWith(prefix) && tenant.path("isActive").asBoolean(true)
+                    && ids.size() < limit) {
+                ids.add(UUID.fromString(tenant.get("tenantId").asText()));
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No tenants named '" + prefix + "...'; run SyntheticDataGenerator first");
+        }
+        // Customers and accounts are needed to build statement and journal requests
+        List<TenantData> loaded = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            List<UUID> customers = new ArrayList<>();
+            for (JsonNode customer : get("/api/v1/customers?tenantId=" + id)) {
+                customers.add(UUID.fromString(customer.get("customerId").asText()));
+            }
+            Map<String, UUID> accounts = new LinkedHashMap<>();
+            for (JsonNode account : get("/api/v1/chart-of-accounts?tenantId=" + id)) {
+                accounts.put(account.get("accountCode").asText(), UUID.fromString(account.get("accountId").asText()));
+            }
+            loaded.add(new TenantData(id, customers, accounts.get("1010"), accounts.get("5300")));
+        }
+        return loaded;
+    }
+
+    private JsonNode get(String path) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest journal(TenantData tenant, SplittableRandom random) {
+        if (tenant.bank == null || tenant.expense == null) {
+            throw new IllegalStateException("Tenant " + tenant.id + " has no 1010/5300 accounts");
+        }
+        String amount = SyntheticDataGenerator.money(100_00L + random.nextInt(10_000_00));
+        ObjectNode body = objectMapper.createObjectNode();
+        body.putObject("entry")
+            .put("tenantId", tenant.id.toString())
+            .put("entryNumber", "LT-" + runTag + "-" + journalNumber.incrementAndGet())
+            .put("entryDate", LocalDate.now().toString())
+            .put("description", "Load test expense");
+        ArrayNode legs = body.putArray("postings");
+        legs.addObject().put("accountId", tenant.expense.toString()).put("postingType", "DEBIT").put("amount", amount);
+        legs.addObject().put("accountId", tenant.bank.toString()).put("postingType", "CREDIT").put("amount", amount);
+        return request("/api/v1/journal-entries/post")
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build();
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%n%-16s %9s %8s %6s %6s %9s %9s %9s %9s %9s%n",
+            "scenario", "ok", "429", "err", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram all = new Histogram();
+        long ok = 0;
+        for (Scenario scenario : scenarios.values()) {
+            scenario.print(seconds);
+            all.add(scenario.latency);
+            ok += scenario.ok.sum();
+        }
+        System.out.printf("%-16s %9d %8s %6s %6.0f %9.1f %9.1f %9.1f %9.1f %9.1f%n", "total", ok, "", "",
+            ok / seconds, all.percentile(50), all.percentile(90), all.percentile(99), all.percentile(99.9), all.max());
+    }
+
+    private record TenantData(UUID id, List<UUID> customers, UUID bank, UUID expense) {
+    }
+
+    /** One entry of the mix, with its own counters. */
+    private static final class Scenario {
+        static final List<String> NAMES = List.of("list-invoices", "list-customers", "list-products", "search-products",
+            "dashboard", "coa-tree", "statement", "post-journal");
+
+        final String name;
+        final int weight;
+        final LongAdder ok = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final Histogram latency = new Histogram();
+
+        Scenario(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        HttpRequest request(LoadTestDriver driver, TenantData tenant, SplittableRandom random) {
+            UUID tenantId = tenant.id;
+            return switch (name) {
+                case "list-invoices" -> driver.request("/api/v1/invoices?tenantId=" + tenantId).GET().build();
+                case "list-customers" -> driver.request("/api/v1/customers?tenantId=" + tenantId).GET().build();
+                case "list-products" -> driver.request("/api/v1/products?tenantId=" + tenantId).GET().build();
+                case "search-products" -> driver.request("/api/v1/products/search?tenantId=" + tenantId + "&q="
+                    + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)].replace(" ", "%20")).GET().build();
+                case "dashboard" -> driver.request("/api/v1/dashboard/kpis?tenantId=" + tenantId).GET().build();
+                case "coa-tree" -> driver.request("/api/v1/chart-of-accounts/tree?tenantId=" + tenantId).GET().build();
+                case "statement" -> {
+                    if (tenant.customers.isEmpty()) {
+                        yield driver.request("/api/v1/customers?tenantId=" + tenantId).GET().build();
+                    }
+                    UUID customer = tenant.customers.get(skewed(random, tenant.customers.size()));
+                    LocalDate to = LocalDate.now();
+                    yield driver.request("/api/v1/customers/" + customer + "/statement?tenantId=" + tenantId
+                        + "&from=" + to.minusDays(365) + "&to=" + to).GET().build();
+                }
+                case "post-journal" -> driver.journal(tenant, random);
+                default -> throw new IllegalStateException("Unknown scenario " + name);
+            };
+        }
+
+        void record(int status, long nanos) {
+            if (status == 429) {
+                throttled.increment();
+                return;
+            }
+            if (status >= 200 && status < 400) {
+                ok.increment();
+                latency.record(nanos);
+            } else {
+                errors.increment();
+            }
+        }
+
+        void print(double seconds) {
+            System.out.printf("%-16s %9d %8d %6d %6.0f %9.1f %9.1f %9.1f %9.1f %9.1f%n", name, ok.sum(), throttled.sum(),
+                errors.sum(), ok.sum() / seconds, latency.percentile(50), latency.percentile(90), latency.percentile(99),
+                latency.percentile(99.9), latency.max());
+        }
+    }
+
+    /**
+     * Latency histogram with log-spaced buckets, 16 per doubling of microseconds, so a reported
+     * percentile is within about 4.5% of the true value. Recording is lock-free.
+     */
+    static final class Histogram {
+        private static final int PER_OCTAVE = 16;
+        private static final int BUCKETS = 27 * PER_OCTAVE;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            long micros = Math.max(1, nanos / 1000);
+            int bucket = (int) Math.min(BUCKETS - 1, Math.floor(Math.log(micros) / Math.log(2) * PER_OCTAVE));
+            counts.incrementAndGet(bucket);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void add(Histogram other) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.addAndGet(i, other.counts.get(i));
+            }
+            maxNanos.accumulateAndGet(other.maxNanos.get(), Math::max);
+        }
+
+        /** Upper bound of the bucket holding the given percentile, in milliseconds. */
+        double percentile(double percent) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += counts.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percent / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(Math.pow(2, (i + 1) / (double) PER_OCTAVE) / 1000, max());
+                }
+            }
+            return max();
+        }
+
+        double max() {
+            return maxNanos.get() / 1e6;
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package com.erp.accounting.load;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fills the accounting schema with synthetic tenants for load and scaling tests.
+ * <p>
+ * Each tenant gets an owner, a chart of accounts, customers, products, opening stock, invoices
+ * with lines and their journals (postings and GL rows), payments, expense journals and stock
+ * movements with per-product and batch balances. Amounts agree the way the services write them, so the
+ * consistency checker and the posting chain verifier pass on generated data.
+ * <p>
+ * Rows go through COPY ... FROM STDIN. A connection can only run one COPY at a time, so each
+ * tenant is generated in chunks of invoices: a chunk's rows are buffered per table and copied
+ * in foreign-key order. Workers take one tenant at a time, on their own connection and in one
+ * transaction per tenant. Output is deterministic for a given --seed and --run-tag.
+ * <p>
+ * Run from erp-accounting/ against a migrated database (see scripts/load-test.sh):
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.erp.accounting.load.SyntheticDataGenerator \
+ *     -Dexec.args="--url=jdbc:postgresql://localhost:5432/erp --user=erp --password=erp --tenants=200"
+ * </pre>
+ * An invoice with three lines accounts for about 15 rows, so 200 tenants of 5000 invoices is
+ * roughly 15 million rows.
+ */
+public class SyntheticDataGenerator {
+    private static final String[] TABLES = {
+        "tenants", "users", "chart_of_accounts", "customers", "products", "journal_entries", "invoices",
+        "invoice_lines", "postings", "general_ledger", "payments_received", "inventory_ledger", "inventory_balance",
+        "inventory_batch_balance"
+    };
+    private static final String[] CITIES = {"Mumbai", "Pune", "Bengaluru", "Chennai", "Delhi", "Hyderabad", "Kolkata", "Jaipur"};
+    private static final String[] CATEGORIES = {"Grocery", "Dairy", "Beverages", "Personal Care", "Household", "Snacks"};
+    private static final int[] GST_RATES = {0, 5, 12, 18};
+    private static final String[] PAYMENT_MODES = {"CASH", "UPI", "BANK_TRANSFER", "CHEQUE", "CARD"};
+
+    // Chart of accounts: code, name, type, normal balance
+    private static final String[][] ACCOUNTS = {
+        {"1000", "Cash", "ASSET", "DEBIT"},
+        {"1010", "Bank", "ASSET", "DEBIT"},
+        {"1100", "Accounts Receivable", "ASSET", "DEBIT"},
+        {"1200", "Inventory", "ASSET", "DEBIT"},
+        {"2000", "Accounts Payable", "LIABILITY", "CREDIT"},
+        {"2100", "GST Payable", "LIABILITY", "CREDIT"},
+        {"3000", "Owner's Capital", "EQUITY", "CREDIT"},
+        {"4000", "Sales", "REVENUE", "CREDIT"},
+        {"5000", "Cost of Goods Sold", "EXPENSE", "DEBIT"},
+        {"5100", "Rent", "EXPENSE", "DEBIT"},
+        {"5200", "Salaries", "EXPENSE", "DEBIT"},
+        {"5300", "Utilities", "EXPENSE", "DEBIT"}
+    };
+    private static final int CASH = 0, BANK = 1, AR = 2, INVENTORY = 3, GST = 5, CAPITAL = 6, SALES = 7, RENT = 9;
+
+    private final Options options;
+    private final Map<String, LongAdder> rows = new ConcurrentHashMap<>();
+
+    SyntheticDataGenerator(Options options) {
+        this.options = options;
+        for (String table : TABLES) {
+            rows.put(table, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new SyntheticDataGenerator(Options.parse(args)).run();
+    }
+
+    void run() throws Exception {
+        int tenants = options.getInt("tenants", 50);
+        int workers = options.getInt("workers", 4);
+        long seed = options.getLong("seed", 42);
+        String runTag = options.get("run-tag", randomTag());
+        long started = System.nanoTime();
+        System.out.printf("Generating %d tenants (run tag %s, seed %d) with %d workers%n", tenants, runTag, seed, workers);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(workers)) {
+            List<Future<?>> futures = new ArrayList<>(tenants);
+            for (int i = 0; i < tenants; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    try (Connection connection = connect()) {
+                        new TenantGenerator(connection, new SplittableRandom(seed * 1_000_003 + index), runTag, index).generate();
+                        connection.commit();
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).get();
+                if ((i + 1) % Math.max(1, tenants / 20) == 0) {
+                    System.out.printf("  %d/%d tenants, %,d rows%n", i + 1, tenants, total());
+                }
+            }
+        }
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            for (String table : TABLES) {
+                statement.execute("ANALYZE accounting." + table);
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        rows.forEach((table, count) -> System.out.printf("  %-24s %,14d%n", table, count.sum()));
+        System.out.printf("%,d rows in %.1f s (%,.0f rows/s)%n", total(), seconds, total() / seconds);
+    }
+
+    private long total() {
+        return rows.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(
+            options.get("url", "jdbc:postgresql://localhost:5432/erp"), options.get("user", "erp"), options.get("password", "erp"));
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private static String randomTag() {
+        StringBuilder tag = new StringBuilder();
+        SplittableRandom random = new SplittableRandom();
+        for (int i = 0; i < 4; i++) {
+            tag.append((char) ('A' + random.nextInt(26)));
+        }
+        return tag.toString();
+    }
+
+    /** Generates one tenant on one connection; not thread-safe. */
+    private final class TenantGenerator {
+        private final CopyManager copyManager;
+        private final SplittableRandom random;
+        private final String runTag;
+        private final int index;
+        private final UUID tenantId;
+        private final UUID userId;
+        private final UUID[] accounts = new UUID[ACCOUNTS.length];
+        private final LocalDate firstDay;
+        private final int days;
+
+        private UUID[] customers;
+        private UUID[] products;
+        private long[] prices;
+        private int[] gstRates;
+        private long[] costs;
+        private String[] batches;
+        private LocalDate[] expiries;
+        private long[] stock;
+        private int journalNumber;
+
+        private final CopyBuffer journals = new CopyBuffer("journal_entries",
+            "journal_id, tenant_id, entry_number, entry_date, reference_type, reference_id, description, status, " +
+            "total_debit, total_credit, is_balanced, posted_at, created_by, created_at, updated_at");
+        private final CopyBuffer invoices = new CopyBuffer("invoices",
+            "invoice_id, tenant_id, customer_id, invoice_number, invoice_date, due_date, subtotal, cgst_amount, " +
+            "sgst_amount, total_tax, total_amount, status, amount_paid, outstanding, payment_terms, is_posted, posted_at, " +
+            "journal_id, currency_code, exchange_rate, base_total_amount, created_at, updated_at");
+        private final CopyBuffer invoiceLines = new CopyBuffer("invoice_lines",
+            "line_id, invoice_id, product_id, line_number, quantity, unit_price, line_total, gst_rate, gst_amount, created_at");
+        private final CopyBuffer postings = new CopyBuffer("postings",
+            "posting_id, tenant_id, journal_id, account_id, posting_type, amount, transaction_currency, " +
+            "transaction_amount, exchange_rate, line_number, line_description, created_at");
+        private final CopyBuffer ledger = new CopyBuffer("general_ledger",
+            "gl_id, tenant_id, account_id, transaction_date, posting_date, entry_type, amount, transaction_currency, " +
+            "transaction_amount, exchange_rate, description, reference_id, reference_type, journal_id, is_posted, " +
+            "created_at, posted_at");
+        private final CopyBuffer payments = new CopyBuffer("payments_received",
+            "payment_id, tenant_id, customer_id, invoice_id, payment_date, amount, payment_mode, reference_number, journal_id, created_at");
+        private final CopyBuffer movements = new CopyBuffer("inventory_ledger",
+            "ledger_id, tenant_id, product_id, transaction_date, transaction_type, quantity_in, quantity_out, unit_cost, " +
+            "batch_number, expiry_date, reference_id, reference_type, created_at, created_by");
+        // Parents before children
+        private final List<CopyBuffer> chunkOrder = List.of(journals, invoices, invoiceLines, postings, ledger, payments, movements);
+
+        TenantGenerator(Connection connection, SplittableRandom random, String runTag, int index) throws SQLException {
+            this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            this.random = random;
+            this.runTag = runTag;
+            this.index = index;
+            this.tenantId = uuid();
+            this.userId = uuid();
+            this.days = options.getInt("days", 730);
+            this.firstDay = LocalDate.now().minusDays(days);
+        }
+
+        void generate() throws Exception {
+            masterData();
+            openingStock();
+
+            int invoiceCount = options.getInt("invoices", 5000);
+            int expenseCount = options.getInt("expenses", invoiceCount / 20);
+            int chunk = options.getInt("chunk", 1000);
+            for (int from = 0; from < invoiceCount; from += chunk) {
+                int to = Math.min(invoiceCount, from + chunk);
+                for (int i = from; i < to; i++) {
+                    invoice(i, firstDay.plusDays((long) i * days / invoiceCount));
+                }
+                // Spread expenses over the same days as this chunk's invoices
+                long firstExpense = (long) from * expenseCount / invoiceCount;
+                long lastExpense = (long) to * expenseCount / invoiceCount;
+                for (long e = firstExpense; e < lastExpense; e++) {
+                    expense(firstDay.plusDays(e * days / expenseCount));
+                }
+                flushChunk();
+            }
+            balances();
+        }
+
+        private void masterData() throws SQLException {
+            String city = CITIES[random.nextInt(CITIES.length)];
+            CopyBuffer tenant = new CopyBuffer("tenants",
+                "tenant_id, business_name, business_type, business_category, gstin, address, phone, email, " +
+                "fiscal_year_start, currency, country_code, is_active");
+            String[] types = {"RETAILER", "WHOLESALER", "DISTRIBUTOR", "MANUFACTURER"};
+            tenant.row(tenantId, "Load Test " + runTag + " " + index, types[index % types.length], CATEGORIES[index % CATEGORIES.length],
+                "27" + runTag + String.format("%09d", index), "{\"city\": \"" + city + "\", \"state\": \"MH\"}",
+                phone(), "owner" + index + "@" + runTag.toLowerCase() + ".example", LocalDate.of(firstDay.getYear(), 4, 1), "INR", "IN", true);
+            tenant.copy();
+
+            CopyBuffer user = new CopyBuffer("users", "user_id, tenant_id, first_name, last_name, email, role");
+            user.row(userId, "Owner", String.valueOf(index), "owner" + index + "@" + runTag.toLowerCase() + ".example", "OWNER");
+            user.copy();
+
+            CopyBuffer chart = new CopyBuffer("chart_of_accounts",
+                "account_id, tenant_id, account_code, account_name, account_type, normal_balance");
+            for (int i = 0; i < ACCOUNTS.length; i++) {
+                accounts[i] = uuid();
+                chart.row(accounts[i], tenantId, ACCOUNTS[i][0], ACCOUNTS[i][1], ACCOUNTS[i][2], ACCOUNTS[i][3]);
+            }
+            chart.copy();
+
+            int customerCount = options.getInt("customers", 200);
+            customers = new UUID[customerCount];
+            CopyBuffer customerRows = new CopyBuffer("customers",
+                "customer_id, tenant_id, customer_name, customer_type, phone, email, credit_limit, payment_terms, gst_status");
+            for (int i = 0; i < customerCount; i++) {
+                customers[i] = uuid();
+                customerRows.row(customers[i], tenantId, "Customer " + i + " " + CITIES[random.nextInt(CITIES.length)],
+                    i % 5 == 0 ? "DISTRIBUTOR" : "RETAILER", phone(), "c" + i + "@customer.example",
+                    money(100_000_00L * (1 + random.nextInt(10))), "NET_30", i % 3 == 0 ? "REGISTERED" : "UNREGISTERED");
+            }
+            customerRows.copy();
+
+            int productCount = options.getInt("products", 500);
+            products = new UUID[productCount];
+            prices = new long[productCount];
+            costs = new long[productCount];
+            gstRates = new int[productCount];
+            CopyBuffer productRows = new CopyBuffer("products",
+                "product_id, tenant_id, product_code, product_name, category, hsn_code, cost_price, selling_price, gst_rate, unit_of_measure");
+            for (int i = 0; i < productCount; i++) {
+                products[i] = uuid();
+                costs[i] = 10_00L + random.nextInt(2000_00);
+                prices[i] = costs[i] + costs[i] * (5 + random.nextInt(30)) / 100;
+                gstRates[i] = GST_RATES[random.nextInt(GST_RATES.length)];
+                productRows.row(products[i], tenantId, String.format("P%05d", i), CATEGORIES[i % CATEGORIES.length] + " item " + i,
+                    CATEGORIES[i % CATEGORIES.length], String.format("%04d", 1000 + random.nextInt(9000)),
+                    money(costs[i]), money(prices[i]), gstRates[i] + ".00", "PIECE");
+            }
+            productRows.copy();
+        }
+
+        // One batch per product, bought on the first day and paid for by the owner
+        private void openingStock() throws SQLException {
+            int invoiceCount = options.getInt("invoices", 5000);
+            long perProduct = 2L * invoiceCount * 3 * 5 / products.length + 100;
+            batches = new String[products.length];
+            expiries = new LocalDate[products.length];
+            stock = new long[products.length];
+            long value = 0;
+            for (int i = 0; i < products.length; i++) {
+                batches[i] = "B" + runTag + String.format("%05d", i);
+                expiries[i] = firstDay.plusDays(days + 90 + random.nextInt(365));
+                stock[i] = perProduct;
+                value += perProduct * costs[i];
+                movement(i, firstDay.atTime(8, 0), "PURCHASE", perProduct, 0, "OPENING");
+            }
+            journal(firstDay, "OPENING_STOCK", null, "Opening stock", new int[] {INVENTORY, CAPITAL}, new long[] {value, -value});
+            flushChunk();
+        }
+
+        private void invoice(int number, LocalDate date) {
+            UUID invoiceId = uuid();
+            UUID customerId = customers[skewed(customers.length)];
+            String invoiceNumber = String.format("INV-%07d", number + 1);
+            LocalDateTime createdAt = date.atTime(9 + random.nextInt(9), random.nextInt(60), random.nextInt(60));
+
+            int lineCount = 1 + random.nextInt(5);
+            long subtotal = 0;
+            long tax = 0;
+            for (int line = 1; line <= lineCount; line++) {
+                int product = skewed(products.length);
+                int quantity = 1 + random.nextInt(9);
+                long lineTotal = prices[product] * quantity;
+                long gst = lineTotal * gstRates[product] / 100;
+                subtotal += lineTotal;
+                tax += gst;
+                invoiceLines.row(uuid(), invoiceId, products[product], line, quantity, money(prices[product]),
+                    money(lineTotal), gstRates[product] + ".00", money(gst), createdAt);
+                if (stock[product] < quantity) {
+                    long topUp = 1000;
+                    movement(product, createdAt.minusHours(1), "PURCHASE", topUp, 0, "RESTOCK");
+                    stock[product] += topUp;
+                }
+                stock[product] -= quantity;
+                movement(product, createdAt, "SALE", 0, quantity, invoiceNumber);
+            }
+            long total = subtotal + tax;
+            UUID journalId = journal(date, "INVOICE", invoiceNumber, "Sales invoice " + invoiceNumber,
+                tax > 0 ? new int[] {AR, SALES, GST} : new int[] {AR, SALES},
+                tax > 0 ? new long[] {total, -subtotal, -tax} : new long[] {total, -subtotal});
+
+            // Older invoices are mostly paid, recent ones mostly open
+            boolean paid = date.isBefore(LocalDate.now().minusDays(30)) ? random.nextInt(10) < 9 : random.nextInt(10) < 2;
+            String status = paid ? "PAID" : date.plusDays(30).isBefore(LocalDate.now()) ? "OVERDUE" : "SENT";
+            invoices.row(invoiceId, tenantId, customerId, invoiceNumber, date, date.plusDays(30), money(subtotal),
+                money(tax / 2), money(tax - tax / 2), money(tax), money(total), status, money(paid ? total : 0),
+                money(paid ? 0 : total), "NET_30", true, createdAt, journalId, "INR", "1", money(total), createdAt, createdAt);
+            if (paid) {
+                LocalDate paidOn = date.plusDays(random.nextInt(30));
+                if (paidOn.isAfter(LocalDate.now())) {
+                    paidOn = LocalDate.now();
+                }
+                String reference = "PAY-" + invoiceNumber;
+                UUID paymentJournal = journal(paidOn, "PAYMENT", reference, "Receipt against " + invoiceNumber,
+                    new int[] {BANK, AR}, new long[] {total, -total});
+                payments.row(uuid(), tenantId, customerId, invoiceId, paidOn, money(total),
+                    PAYMENT_MODES[random.nextInt(PAYMENT_MODES.length)], reference, paymentJournal, paidOn.atTime(18, 0));
+            }
+        }
+
+        private void expense(LocalDate date) {
+            int account = RENT + random.nextInt(3);
+            long amount = 5_000_00L + random.nextInt(100_000_00);
+            journal(date, "EXPENSE", null, ACCOUNTS[account][1] + " for " + date.getMonth(),
+                new int[] {account, random.nextInt(4) == 0 ? CASH : BANK}, new long[] {amount, -amount});
+        }
+
+        /** Writes a posted journal with its postings and GL rows; positive amounts debit, negative credit. */
+        private UUID journal(LocalDate date, String referenceType, String referenceId, String description,
+                             int[] legAccounts, long[] amounts) {
+            UUID journalId = uuid();
+            LocalDateTime at = date.atTime(20, 0);
+            long debit = 0;
+            for (long amount : amounts) {
+                debit += Math.max(0, amount);
+            }
+            journals.row(journalId, tenantId, String.format("JV-%08d", ++journalNumber), date, referenceType, referenceId,
+                description, "POSTED", money(debit), money(debit), true, at, userId, at, at);
+            for (int i = 0; i < legAccounts.length; i++) {
+                String side = amounts[i] >= 0 ? "DEBIT" : "CREDIT";
+                String amount = money(Math.abs(amounts[i]));
+                postings.row(uuid(), tenantId, journalId, accounts[legAccounts[i]], side, amount, "INR", amount, "1",
+                    i + 1, description, at);
+                ledger.row(uuid(), tenantId, accounts[legAccounts[i]], date, date, side, amount, "INR", amount, "1",
+                    description, referenceId, referenceType, journalId, true, at, at);
+            }
+            return journalId;
+        }
+
+        private void movement(int product, LocalDateTime at, String type, long in, long out, String reference) {
+            movements.row(uuid(), tenantId, products[product], at, type, in, out, money(costs[product]), batches[product],
+                expiries[product], reference, type.equals("SALE") ? "INVOICE" : "STOCK", at, userId);
+        }
+
+        // Every movement of a product is at its cost, so its stock value is cost x quantity on hand
+        private void balances() throws SQLException {
+            CopyBuffer productBalances = new CopyBuffer("inventory_balance",
+                "tenant_id, product_id, quantity_on_hand, inventory_value, last_updated");
+            CopyBuffer batchBalances = new CopyBuffer("inventory_batch_balance",
+                "tenant_id, product_id, batch_number, expiry_date, quantity_on_hand, unit_cost, last_movement_date");
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < products.length; i++) {
+                productBalances.row(tenantId, products[i], stock[i], money(stock[i] * costs[i]), now);
+                batchBalances.row(tenantId, products[i], batches[i], expiries[i], stock[i], money(costs[i]), now);
+            }
+            productBalances.copy();
+            batchBalances.copy();
+        }
+
+        private void flushChunk() throws SQLException {
+            for (CopyBuffer buffer : chunkOrder) {
+                buffer.copy();
+            }
+        }
+
+        // Roughly 80% of picks land on the first 20% of indexes
+        private int skewed(int size) {
+            return random.nextInt(5) < 4 ? random.nextInt(Math.max(1, size / 5)) : random.nextInt(size);
+        }
+
+        private UUID uuid() {
+            long high = (random.nextLong() & ~0xF000L) | 0x4000L;
+            long low = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            return new UUID(high, low);
+        }
+
+        private String phone() {
+            return "9" + String.format("%09d", random.nextInt(1_000_000_000));
+        }
+
+        /** Rows of one table in COPY text format, sent with {@link #copy()}. */
+        private final class CopyBuffer {
+            private final String table;
+            private final String sql;
+            private final Buffer buffer = new Buffer();
+            private final StringBuilder line = new StringBuilder(256);
+            private long pending;
+
+            CopyBuffer(String table, String columns) {
+                this.table = table;
+                this.sql = "COPY accounting." + table + " (" + columns + ") FROM STDIN";
+            }
+
+            void row(Object... values) {
+                line.setLength(0);
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        line.append('\t');
+                    }
+                    append(values[i]);
+                }
+                line.append('\n');
+                byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                buffer.write(bytes, 0, bytes.length);
+                pending++;
+            }
+
+            void copy() throws SQLException {
+                if (pending == 0) {
+                    return;
+                }
+                CopyIn copyIn = copyManager.copyIn(sql);
+                try {
+                    copyIn.writeToCopy(buffer.bytes(), 0, buffer.size());
+                    copyIn.endCopy();
+                } finally {
+                    if (copyIn.isActive()) {
+                        copyIn.cancelCopy();
+                    }
+                }
+                rows.get(table).add(pending);
+                buffer.reset();
+                pending = 0;
+            }
+
+            private void append(Object value) {
+                if (value == null) {
+                    line.append("\\N");
+                } else if (value instanceof Boolean b) {
+                    line.append(b ? 't' : 'f');
+                } else if (value instanceof LocalDateTime t) {
+                    line.append(t.toLocalDate()).append(' ').append(t.toLocalTime());
+                } else if (value instanceof String s) {
+                    for (int i = 0; i < s.length(); i++) {
+                        char c = s.charAt(i);
+                        switch (c) {
+                            case '\\' -> line.append("\\\\");
+                            case '\t' -> line.append("\\t");
+                            case '\n' -> line.append("\\n");
+                            case '\r' -> line.append("\\r");
+                            default -> line.append(c);
+                        }
+                    }
+                } else {
+                    line.append(value);
+                }
+            }
+        }
+    }
+
+    // Exposes the backing array so a chunk is sent without another copy
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(1 << 16);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+
+    static String money(long paise) {
+        long abs = Math.abs(paise);
+        return (paise < 0 ? "-" : "") + abs / 100 + "." + (abs % 100 < 10 ? "0" : "") + abs % 100;
+    }
+
+    /** --key=value arguments. */
+    record Options(Map<String, String> values) {
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --key=value, got " + arg);
+                }
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+            return new Options(values);
+        }
+
+        String get(String key, String defaultValue) {
+            return values.getOrDefault(key, defaultValue);
+        }
+
+        int getInt(String key, int defaultValue) {
+            return values.containsKey(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+        }
+
+        long getLong(String key, long defaultValue) {
+            return values.containsKey(key) ? Long.parseLong(values.get(key)) : defaultValue;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- ============================================================================
+-- BATCH-LEVEL INVENTORY BALANCES (schema: accounting)
+-- ============================================================================
+-- inventory_ledger records batch_number / expiry_date per movement, but stock
+-- was only aggregated per product. This table keeps one running balance per
+-- (tenant, product, batch) so FEFO allocation and near-expiry alerts never
+-- have to scan the ledger.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE inventory_batch_balance (
+    batch_balance_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    product_id UUID NOT NULL REFERENCES products(product_id),
+    batch_number VARCHAR(100) NOT NULL,
+    expiry_date DATE,
+    quantity_on_hand INT NOT NULL DEFAULT 0,
+    unit_cost DECIMAL(15, 2),
+    last_movement_date TIMESTAMP,
+    last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(tenant_id, product_id, batch_number),
+    CHECK (quantity_on_hand >= 0)
+);
+
+-- FEFO: earliest-expiring batches of one product with stock left
+CREATE INDEX idx_batch_fefo ON inventory_batch_balance(tenant_id, product_id, expiry_date)
+    WHERE quantity_on_hand > 0;
+
+-- Expiry index: "what expires in the next N days", per tenant or platform-wide
+CREATE INDEX idx_batch_expiry ON inventory_batch_balance(expiry_date, tenant_id)
+    WHERE quantity_on_hand > 0 AND expiry_date IS NOT NULL;
+
+COMMENT ON TABLE inventory_batch_balance IS 'Running stock per batch - maintained from inventory_ledger movements, drives FEFO picking and expiry alerts';
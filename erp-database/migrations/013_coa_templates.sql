@@ -0,0 +1,69 @@
+-- ============================================================================
+-- CHART-OF-ACCOUNTS TEMPLATES (schema: accounting)
+-- ============================================================================
+-- Standard account sets cloned into a new tenant's chart_of_accounts with a
+-- single INSERT ... SELECT during provisioning. Rows with business_type NULL
+-- apply to every business type; typed rows are added on top.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE coa_templates (
+    template_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    business_type business_type_enum,
+    account_code VARCHAR(20) NOT NULL,
+    account_name VARCHAR(255) NOT NULL,
+    account_description TEXT,
+    account_type account_type_enum NOT NULL,
+    account_subtype VARCHAR(100),
+    normal_balance balance_type_enum NOT NULL,
+    gst_applicable BOOLEAN DEFAULT FALSE,
+    default_gst_rate DECIMAL(5, 2),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX idx_coa_templates_code ON coa_templates(COALESCE(business_type::text, '*'), account_code);
+COMMENT ON TABLE coa_templates IS 'Chart-of-accounts templates per business type, cloned on tenant provisioning';
+
+INSERT INTO coa_templates (business_type, account_code, account_name, account_type, account_subtype, normal_balance, gst_applicable, default_gst_rate) VALUES
+    -- Common to all business types
+    (NULL, '1000', 'Cash in Hand',              'ASSET',     'Current Asset',       'DEBIT',  FALSE, NULL),
+    (NULL, '1010', 'Bank Accounts',             'ASSET',     'Current Asset',       'DEBIT',  FALSE, NULL),
+    (NULL, '1100', 'Accounts Receivable',       'ASSET',     'Current Asset',       'DEBIT',  FALSE, NULL),
+    (NULL, '1200', 'Inventory',                 'ASSET',     'Current Asset',       'DEBIT',  FALSE, NULL),
+    (NULL, '1300', 'Input CGST',                'ASSET',     'Tax Receivable',      'DEBIT',  FALSE, NULL),
+    (NULL, '1310', 'Input SGST',                'ASSET',     'Tax Receivable',      'DEBIT',  FALSE, NULL),
+    (NULL, '1320', 'Input IGST',                'ASSET',     'Tax Receivable',      'DEBIT',  FALSE, NULL),
+    (NULL, '1500', 'Fixed Assets',              'ASSET',     'Non-Current Asset',   'DEBIT',  FALSE, NULL),
+    (NULL, '1510', 'Accumulated Depreciation',  'ASSET',     'Contra Asset',        'CREDIT', FALSE, NULL),
+    (NULL, '2000', 'Accounts Payable',          'LIABILITY', 'Current Liability',   'CREDIT', FALSE, NULL),
+    (NULL, '2100', 'Output CGST',               'LIABILITY', 'Tax Payable',         'CREDIT', FALSE, NULL),
+    (NULL, '2110', 'Output SGST',               'LIABILITY', 'Tax Payable',         'CREDIT', FALSE, NULL),
+    (NULL, '2120', 'Output IGST',               'LIABILITY', 'Tax Payable',         'CREDIT', FALSE, NULL),
+    (NULL, '2200', 'TDS Payable',               'LIABILITY', 'Tax Payable',         'CREDIT', FALSE, NULL),
+    (NULL, '3000', 'Owner''s Capital',          'EQUITY',    'Capital',             'CREDIT', FALSE, NULL),
+    (NULL, '3100', 'Retained Earnings',         'EQUITY',    'Reserves',            'CREDIT', FALSE, NULL),
+    (NULL, '4000', 'Sales Revenue',             'REVENUE',   'Operating Revenue',   'CREDIT', TRUE,  18.00),
+    (NULL, '4100', 'Other Income',              'REVENUE',   'Non-Operating',       'CREDIT', FALSE, NULL),
+    (NULL, '5000', 'Cost of Goods Sold',        'EXPENSE',   'Direct Expense',      'DEBIT',  FALSE, NULL),
+    (NULL, '6000', 'Salaries and Wages',        'EXPENSE',   'Operating Expense',   'DEBIT',  FALSE, NULL),
+    (NULL, '6100', 'Rent',                      'EXPENSE',   'Operating Expense',   'DEBIT',  TRUE,  18.00),
+    (NULL, '6200', 'Utilities',                 'EXPENSE',   'Operating Expense',   'DEBIT',  FALSE, NULL),
+    (NULL, '6300', 'Depreciation',              'EXPENSE',   'Operating Expense',   'DEBIT',  FALSE, NULL),
+    (NULL, '6400', 'Bank Charges',              'EXPENSE',   'Operating Expense',   'DEBIT',  FALSE, NULL),
+    -- Retailers
+    ('RETAILER',     '4010', 'Counter Sales',              'REVENUE', 'Operating Revenue', 'CREDIT', TRUE,  18.00),
+    ('RETAILER',     '6500', 'Store Expenses',             'EXPENSE', 'Operating Expense', 'DEBIT',  FALSE, NULL),
+    -- Wholesalers
+    ('WHOLESALER',   '4020', 'Wholesale Sales',            'REVENUE', 'Operating Revenue', 'CREDIT', TRUE,  18.00),
+    ('WHOLESALER',   '6510', 'Freight Outward',            'EXPENSE', 'Operating Expense', 'DEBIT',  TRUE,  5.00),
+    -- Manufacturers
+    ('MANUFACTURER', '1210', 'Raw Materials',              'ASSET',   'Current Asset',     'DEBIT',  FALSE, NULL),
+    ('MANUFACTURER', '1220', 'Work in Progress',           'ASSET',   'Current Asset',     'DEBIT',  FALSE, NULL),
+    ('MANUFACTURER', '1230', 'Finished Goods',             'ASSET',   'Current Asset',     'DEBIT',  FALSE, NULL),
+    ('MANUFACTURER', '5100', 'Direct Labour',              'EXPENSE', 'Direct Expense',    'DEBIT',  FALSE, NULL),
+    ('MANUFACTURER', '5200', 'Factory Overheads',          'EXPENSE', 'Direct Expense',    'DEBIT',  FALSE, NULL),
+    -- Distributors
+    ('DISTRIBUTOR',  '4030', 'Distribution Sales',         'REVENUE', 'Operating Revenue', 'CREDIT', TRUE,  18.00),
+    ('DISTRIBUTOR',  '4110', 'Trade Scheme Income',        'REVENUE', 'Non-Operating',     'CREDIT', FALSE, NULL),
+    ('DISTRIBUTOR',  '6520', 'Freight Inward',             'EXPENSE', 'Operating Expense', 'DEBIT',  TRUE,  5.00);
@@ -0,0 +1,99 @@
+-- ============================================================================
+-- CHART-OF-ACCOUNTS HIERARCHY CLOSURE TABLE (schema: accounting)
+-- ============================================================================
+-- chart_of_accounts.parent_account_id gives the tree; account_closure holds
+-- every (ancestor, descendant) pair with its depth, including depth-0 self
+-- rows, so a roll-up over any subtree is one indexed join to general_ledger
+-- instead of a recursive query. Triggers keep it in step with parent changes
+-- from every write path (JPA, template cloning, CSV import).
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE account_closure (
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    ancestor_id UUID NOT NULL REFERENCES chart_of_accounts(account_id) ON DELETE CASCADE,
+    descendant_id UUID NOT NULL REFERENCES chart_of_accounts(account_id) ON DELETE CASCADE,
+    depth INT NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+CREATE INDEX idx_closure_descendant ON account_closure(descendant_id, depth);
+CREATE INDEX idx_closure_tenant ON account_closure(tenant_id, ancestor_id);
+COMMENT ON TABLE account_closure IS 'Transitive closure of the chart-of-accounts tree - roll-ups are a single join';
+
+-- Roll-ups join closure descendants to GL rows by account and date
+CREATE INDEX idx_gl_account_date ON general_ledger(account_id, transaction_date);
+
+-- Backfill from existing parent pointers
+INSERT INTO account_closure (tenant_id, ancestor_id, descendant_id, depth)
+WITH RECURSIVE paths AS (
+    SELECT tenant_id, account_id AS ancestor_id, account_id AS descendant_id, 0 AS depth
+    FROM chart_of_accounts
+    UNION ALL
+    SELECT p.tenant_id, p.ancestor_id, c.account_id, p.depth + 1
+    FROM paths p
+    JOIN chart_of_accounts c ON c.parent_account_id = p.descendant_id
+)
+SELECT tenant_id, ancestor_id, descendant_id, depth FROM paths;
+
+UPDATE chart_of_accounts a
+SET hierarchy_level = (SELECT MAX(depth) FROM account_closure c WHERE c.descendant_id = a.account_id);
+
+-- Level of the row itself, before it is written
+CREATE OR REPLACE FUNCTION account_level_function() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.parent_account_id IS NULL THEN
+        NEW.hierarchy_level = 0;
+    ELSE
+        SELECT hierarchy_level + 1 INTO NEW.hierarchy_level
+        FROM chart_of_accounts WHERE account_id = NEW.parent_account_id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION account_closure_insert_function() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO account_closure (tenant_id, ancestor_id, descendant_id, depth)
+    SELECT NEW.tenant_id, ancestor_id, NEW.account_id, depth + 1
+    FROM account_closure WHERE descendant_id = NEW.parent_account_id
+    UNION ALL
+    SELECT NEW.tenant_id, NEW.account_id, NEW.account_id, 0;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Re-parents a whole subtree: drop paths from old ancestors, splice in new ones
+CREATE OR REPLACE FUNCTION account_closure_move_function() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.parent_account_id IS NOT NULL AND EXISTS (
+        SELECT 1 FROM account_closure WHERE ancestor_id = NEW.account_id AND descendant_id = NEW.parent_account_id
+    ) THEN
+        RAISE EXCEPTION 'Account % cannot be moved under its own descendant %', NEW.account_id, NEW.parent_account_id;
+    END IF;
+
+    DELETE FROM account_closure
+    WHERE descendant_id IN (SELECT descendant_id FROM account_closure WHERE ancestor_id = NEW.account_id)
+      AND ancestor_id IN (SELECT ancestor_id FROM account_closure WHERE descendant_id = NEW.account_id AND ancestor_id <> NEW.account_id);
+
+    INSERT INTO account_closure (tenant_id, ancestor_id, descendant_id, depth)
+    SELECT NEW.tenant_id, p.ancestor_id, s.descendant_id, p.depth + s.depth + 1
+    FROM account_closure p
+    CROSS JOIN account_closure s
+    WHERE p.descendant_id = NEW.parent_account_id AND s.ancestor_id = NEW.account_id;
+
+    UPDATE chart_of_accounts
+    SET hierarchy_level = hierarchy_level + (NEW.hierarchy_level - OLD.hierarchy_level)
+    WHERE account_id IN (SELECT descendant_id FROM account_closure WHERE ancestor_id = NEW.account_id AND depth > 0);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER chart_level_trigger BEFORE INSERT OR UPDATE OF parent_account_id ON chart_of_accounts
+    FOR EACH ROW EXECUTE FUNCTION account_level_function();
+CREATE TRIGGER chart_closure_insert_trigger AFTER INSERT ON chart_of_accounts
+    FOR EACH ROW EXECUTE FUNCTION account_closure_insert_function();
+CREATE TRIGGER chart_closure_move_trigger AFTER UPDATE OF parent_account_id ON chart_of_accounts
+    FOR EACH ROW WHEN (OLD.parent_account_id IS DISTINCT FROM NEW.parent_account_id)
+    EXECUTE FUNCTION account_closure_move_function();
@@ -0,0 +1,33 @@
+-- ============================================================================
+-- BANK STATEMENT LINES AND RECONCILIATION QUEUE (schema: accounting)
+-- ============================================================================
+-- Imported bank statement lines (CSV, MT940, CAMT.053). The matcher pairs
+-- PENDING lines with open invoices or general_ledger rows; lines it cannot
+-- pair with confidence move to REVIEW for an accountant to resolve.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE bank_statement_lines (
+    line_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    bank_id UUID REFERENCES bank_accounts(bank_id),
+    import_id UUID NOT NULL,
+    value_date DATE NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    description VARCHAR(500),
+    reference VARCHAR(140),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    matched_type VARCHAR(20),
+    matched_id UUID,
+    match_rule VARCHAR(50),
+    matched_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CHECK (status IN ('PENDING', 'MATCHED', 'REVIEW', 'IGNORED')),
+    CHECK (matched_type IS NULL OR matched_type IN ('INVOICE', 'GENERAL_LEDGER'))
+);
+
+CREATE INDEX idx_statement_tenant_status ON bank_statement_lines(tenant_id, status, value_date);
+CREATE INDEX idx_statement_matched ON bank_statement_lines(matched_type, matched_id) WHERE matched_id IS NOT NULL;
+CREATE INDEX idx_statement_import ON bank_statement_lines(import_id);
+COMMENT ON TABLE bank_statement_lines IS 'Imported bank statement lines - signed amount, credit positive - with their reconciliation match';
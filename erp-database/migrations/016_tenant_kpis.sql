@@ -0,0 +1,39 @@
+-- ============================================================================
+-- PRECOMPUTED DASHBOARD KPIs (schema: accounting)
+-- ============================================================================
+-- Compact per-tenant aggregates behind the web/mobile dashboards. They are
+-- updated incrementally by the service as invoices, payments and stock
+-- movements are written, and can be rebuilt per tenant from the base tables.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE tenant_kpi_summary (
+    tenant_id UUID PRIMARY KEY REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    outstanding_ar DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    stock_value DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+COMMENT ON TABLE tenant_kpi_summary IS 'Per-tenant point-in-time KPIs: receivables and stock value';
+
+CREATE TABLE tenant_kpi_daily (
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    kpi_date DATE NOT NULL,
+    sales_amount DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    invoice_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (tenant_id, kpi_date)
+);
+COMMENT ON TABLE tenant_kpi_daily IS 'Per-tenant daily sales totals from issued invoices';
+
+CREATE TABLE tenant_kpi_rank (
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    dimension VARCHAR(20) NOT NULL,
+    entity_id UUID NOT NULL,
+    amount DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (tenant_id, dimension, entity_id),
+    CHECK (dimension IN ('CUSTOMER', 'PRODUCT'))
+);
+
+-- Top-N is an index range scan
+CREATE INDEX idx_kpi_rank_top ON tenant_kpi_rank(tenant_id, dimension, amount DESC);
+COMMENT ON TABLE tenant_kpi_rank IS 'Running totals for top-N lists: customer sales value, product units sold';
@@ -0,0 +1,58 @@
+-- ============================================================================
+-- MULTI-CURRENCY LEDGER (schema: accounting)
+-- ============================================================================
+-- Postings, GL rows and invoices keep their existing amount columns in the
+-- tenant's base currency (tenants.currency) and gain the transaction currency,
+-- the transaction-currency amount and the rate used. Rates live in fx_rates
+-- and are served to the service from an in-memory, date-indexed cache.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE fx_rates (
+    rate_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    base_currency VARCHAR(3) NOT NULL,
+    quote_currency VARCHAR(3) NOT NULL,
+    rate_date DATE NOT NULL,
+    rate DECIMAL(18, 8) NOT NULL,
+    source VARCHAR(50),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(base_currency, quote_currency, rate_date),
+    CHECK (rate > 0)
+);
+COMMENT ON TABLE fx_rates IS '1 unit of base_currency = rate units of quote_currency, effective from rate_date';
+
+ALTER TABLE postings
+    ADD COLUMN transaction_currency VARCHAR(3),
+    ADD COLUMN transaction_amount DECIMAL(15, 2),
+    ADD COLUMN exchange_rate DECIMAL(18, 8) DEFAULT 1;
+
+ALTER TABLE general_ledger
+    ADD COLUMN transaction_currency VARCHAR(3),
+    ADD COLUMN transaction_amount DECIMAL(15, 2),
+    ADD COLUMN exchange_rate DECIMAL(18, 8) DEFAULT 1;
+
+-- Invoice money columns stay in the invoice currency; base_* carry the tenant-currency value
+ALTER TABLE invoices
+    ADD COLUMN currency_code VARCHAR(3),
+    ADD COLUMN exchange_rate DECIMAL(18, 8) DEFAULT 1,
+    ADD COLUMN base_total_amount DECIMAL(15, 2),
+    ADD COLUMN revaluation_rate DECIMAL(18, 8);
+
+CREATE INDEX idx_invoices_currency ON invoices(currency_code, tenant_id) WHERE currency_code IS NOT NULL;
+
+CREATE TABLE fx_revaluations (
+    revaluation_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    invoice_id UUID NOT NULL REFERENCES invoices(invoice_id) ON DELETE CASCADE,
+    revaluation_date DATE NOT NULL,
+    currency_code VARCHAR(3) NOT NULL,
+    previous_rate DECIMAL(18, 8) NOT NULL,
+    new_rate DECIMAL(18, 8) NOT NULL,
+    outstanding_amount DECIMAL(15, 2) NOT NULL,
+    gain_loss DECIMAL(15, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_fx_reval_tenant_date ON fx_revaluations(tenant_id, revaluation_date);
+COMMENT ON TABLE fx_revaluations IS 'Period-end unrealised FX gain/loss on open foreign-currency receivables, in base currency';
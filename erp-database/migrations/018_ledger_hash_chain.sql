@@ -0,0 +1,125 @@
+-- ============================================================================
+-- TAMPER-EVIDENT POSTINGS (schema: accounting)
+-- ============================================================================
+-- Each tenant's postings form a hash chain: row_hash = sha256 of the row's
+-- canonical fields plus the previous row's hash. The chain is extended by a
+-- BEFORE INSERT trigger, so the application pays no extra round-trip; the
+-- head row per tenant serialises appends. Chained columns cannot be updated.
+--
+-- Canonical payload (must match LedgerChainVerifier):
+--   tenant_id|chain_seq|journal_id|account_id|posting_type|amount|
+--   transaction_currency|transaction_amount|exchange_rate|line_number|prev_hash
+-- with NULLs rendered as empty strings.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+ALTER TABLE postings
+    ADD COLUMN chain_seq BIGINT,
+    ADD COLUMN prev_hash VARCHAR(64),
+    ADD COLUMN row_hash VARCHAR(64);
+
+CREATE TABLE ledger_chain_head (
+    tenant_id UUID PRIMARY KEY REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    last_seq BIGINT NOT NULL DEFAULT 0,
+    last_hash VARCHAR(64) NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+COMMENT ON TABLE ledger_chain_head IS 'Tip of each tenant''s posting hash chain';
+
+-- One row per verified segment; end_hash is the row_hash of the segment's last posting
+CREATE TABLE ledger_chain_checkpoints (
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    segment_no BIGINT NOT NULL,
+    first_seq BIGINT NOT NULL,
+    last_seq BIGINT NOT NULL,
+    end_hash VARCHAR(64) NOT NULL,
+    verified_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, segment_no)
+);
+COMMENT ON TABLE ledger_chain_checkpoints IS 'Verified chain segments; re-verification resumes after the last one';
+
+CREATE OR REPLACE FUNCTION posting_chain_hash(p postings) RETURNS VARCHAR(64) AS $$
+    SELECT encode(sha256(convert_to(
+        p.tenant_id::text || '|' || p.chain_seq::text || '|' || p.journal_id::text || '|' ||
+        p.account_id::text || '|' || p.posting_type::text || '|' || p.amount::text || '|' ||
+        COALESCE(p.transaction_currency, '') || '|' || COALESCE(p.transaction_amount::text, '') || '|' ||
+        COALESCE(p.exchange_rate::text, '') || '|' || p.line_number::text || '|' || p.prev_hash,
+        'UTF8')), 'hex');
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Backfill existing postings in insertion order
+DO $$
+DECLARE
+    r postings;
+    v_tenant UUID := NULL;
+    v_seq BIGINT;
+    v_hash VARCHAR(64);
+BEGIN
+    FOR r IN SELECT * FROM postings ORDER BY tenant_id, created_at, journal_id, line_number LOOP
+        IF v_tenant IS DISTINCT FROM r.tenant_id THEN
+            IF v_tenant IS NOT NULL THEN
+                INSERT INTO ledger_chain_head (tenant_id, last_seq, last_hash) VALUES (v_tenant, v_seq, v_hash);
+            END IF;
+            v_tenant := r.tenant_id;
+            v_seq := 0;
+            v_hash := repeat('0', 64);
+        END IF;
+        v_seq := v_seq + 1;
+        r.chain_seq := v_seq;
+        r.prev_hash := v_hash;
+        v_hash := posting_chain_hash(r);
+        UPDATE postings SET chain_seq = v_seq, prev_hash = r.prev_hash, row_hash = v_hash
+        WHERE posting_id = r.posting_id;
+    END LOOP;
+    IF v_tenant IS NOT NULL THEN
+        INSERT INTO ledger_chain_head (tenant_id, last_seq, last_hash) VALUES (v_tenant, v_seq, v_hash);
+    END IF;
+END $$;
+
+ALTER TABLE postings
+    ALTER COLUMN chain_seq SET NOT NULL,
+    ALTER COLUMN prev_hash SET NOT NULL,
+    ALTER COLUMN row_hash SET NOT NULL;
+
+-- Also the verifier's scan order
+CREATE UNIQUE INDEX idx_postings_chain ON postings(tenant_id, chain_seq);
+
+CREATE OR REPLACE FUNCTION posting_chain_function() RETURNS TRIGGER AS $$
+DECLARE
+    v_seq BIGINT;
+    v_hash VARCHAR(64);
+BEGIN
+    SELECT last_seq, last_hash INTO v_seq, v_hash
+    FROM ledger_chain_head WHERE tenant_id = NEW.tenant_id FOR UPDATE;
+    IF NOT FOUND THEN
+        INSERT INTO ledger_chain_head (tenant_id, last_seq, last_hash)
+        VALUES (NEW.tenant_id, 0, repeat('0', 64)) ON CONFLICT (tenant_id) DO NOTHING;
+        SELECT last_seq, last_hash INTO v_seq, v_hash
+        FROM ledger_chain_head WHERE tenant_id = NEW.tenant_id FOR UPDATE;
+    END IF;
+
+    NEW.chain_seq := v_seq + 1;
+    NEW.prev_hash := v_hash;
+    NEW.row_hash := posting_chain_hash(NEW);
+
+    UPDATE ledger_chain_head SET last_seq = NEW.chain_seq, last_hash = NEW.row_hash, updated_at = now()
+    WHERE tenant_id = NEW.tenant_id;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER posting_chain_trigger
+BEFORE INSERT ON postings
+FOR EACH ROW EXECUTE FUNCTION posting_chain_function();
+
+CREATE OR REPLACE FUNCTION posting_immutable_function() RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'Posting % is chained and cannot be modified', OLD.posting_id
+        USING ERRCODE = 'integrity_constraint_violation';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER posting_immutable_trigger
+BEFORE UPDATE ON postings
+FOR EACH ROW EXECUTE FUNCTION posting_immutable_function();
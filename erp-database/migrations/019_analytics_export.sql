@@ -0,0 +1,26 @@
+-- ============================================================================
+-- ANALYTICS EXPORT WATERMARKS (schema: accounting)
+-- ============================================================================
+-- Columnar exports for erp-ml read the OLTP tables incrementally by
+-- created_at. The watermark is the created_at upper bound of the last
+-- successful export per tenant and dataset.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE analytics_export_watermarks (
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    dataset VARCHAR(30) NOT NULL,
+    exported_through TIMESTAMP NOT NULL,
+    last_file VARCHAR(500),
+    last_row_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, dataset),
+    CHECK (dataset IN ('GENERAL_LEDGER', 'INVOICE_LINES', 'INVENTORY_LEDGER'))
+);
+
+-- Incremental range scans per tenant
+CREATE INDEX idx_gl_tenant_created ON general_ledger(tenant_id, created_at);
+CREATE INDEX idx_inventory_tenant_created ON inventory_ledger(tenant_id, created_at);
+CREATE INDEX idx_invoice_lines_created ON invoice_lines(invoice_id, created_at);
+CREATE INDEX idx_invoices_tenant_date ON invoices(tenant_id, invoice_date);
@@ -0,0 +1,111 @@
+-- ============================================================================
+-- REFERENCE DATA VERSIONS (schema: accounting)
+-- ============================================================================
+-- Chart of accounts, products and tenants are read far more often than they
+-- change. Each (tenant, dataset) has a version counter that is bumped once per
+-- writing transaction; every row written stores the version it was written
+-- under in row_version. The API turns the counter into an ETag and serves
+-- "rows with row_version > n" as a delta.
+--
+-- The counter row stays locked until the writer commits, so versions are
+-- handed out in commit order: once a reader sees version n, every row with
+-- row_version <= n is already visible.
+--
+-- Tenants are a global list and use the nil UUID as their tenant_id.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE reference_data_versions (
+    tenant_id UUID NOT NULL,
+    dataset VARCHAR(30) NOT NULL,
+    version BIGINT NOT NULL,
+    last_txid BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, dataset),
+    CHECK (dataset IN ('ACCOUNTS', 'PRODUCTS', 'TENANTS'))
+);
+COMMENT ON TABLE reference_data_versions IS 'Per-tenant change counters behind reference-data ETags and deltas';
+
+CREATE OR REPLACE FUNCTION bump_reference_version(p_tenant UUID, p_dataset VARCHAR) RETURNS BIGINT AS $$
+DECLARE
+    v_version BIGINT;
+    v_txid BIGINT;
+BEGIN
+    SELECT version, last_txid INTO v_version, v_txid
+    FROM reference_data_versions WHERE tenant_id = p_tenant AND dataset = p_dataset FOR UPDATE;
+    -- Every row of one transaction shares a version, so bulk writes bump the counter once
+    IF FOUND AND v_txid = txid_current() THEN
+        RETURN v_version;
+    END IF;
+    INSERT INTO reference_data_versions (tenant_id, dataset, version, last_txid)
+    VALUES (p_tenant, p_dataset, 1, txid_current())
+    ON CONFLICT (tenant_id, dataset) DO UPDATE
+        SET version = reference_data_versions.version + 1, last_txid = EXCLUDED.last_txid, updated_at = now()
+    RETURNING version INTO v_version;
+    RETURN v_version;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE chart_of_accounts ADD COLUMN row_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN row_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE tenants ADD COLUMN row_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_chart_tenant_version ON chart_of_accounts(tenant_id, row_version);
+CREATE INDEX idx_products_tenant_version ON products(tenant_id, row_version);
+CREATE INDEX idx_tenants_version ON tenants(row_version);
+
+CREATE OR REPLACE FUNCTION chart_version_function() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.row_version := bump_reference_version(NEW.tenant_id, 'ACCOUNTS');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION products_version_function() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.row_version := bump_reference_version(NEW.tenant_id, 'PRODUCTS');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION tenants_version_function() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.row_version := bump_reference_version('00000000-0000-0000-0000-000000000000', 'TENANTS');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER chart_version_trigger
+BEFORE INSERT OR UPDATE ON chart_of_accounts
+FOR EACH ROW EXECUTE FUNCTION chart_version_function();
+
+CREATE TRIGGER products_version_trigger
+BEFORE INSERT OR UPDATE ON products
+FOR EACH ROW EXECUTE FUNCTION products_version_function();
+
+CREATE TRIGGER tenants_version_trigger
+BEFORE INSERT OR UPDATE ON tenants
+FOR EACH ROW EXECUTE FUNCTION tenants_version_function();
+
+-- Deleted rows cannot appear in a delta; bump the counter so ETags still change
+CREATE OR REPLACE FUNCTION reference_delete_function() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM bump_reference_version(
+        CASE WHEN TG_ARGV[0] = 'TENANTS' THEN '00000000-0000-0000-0000-000000000000'::uuid ELSE OLD.tenant_id END,
+        TG_ARGV[0]);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER chart_version_delete_trigger
+AFTER DELETE ON chart_of_accounts
+FOR EACH ROW EXECUTE FUNCTION reference_delete_function('ACCOUNTS');
+
+CREATE TRIGGER products_version_delete_trigger
+AFTER DELETE ON products
+FOR EACH ROW EXECUTE FUNCTION reference_delete_function('PRODUCTS');
+
+CREATE TRIGGER tenants_version_delete_trigger
+AFTER DELETE ON tenants
+FOR EACH ROW EXECUTE FUNCTION reference_delete_function('TENANTS');
@@ -0,0 +1,60 @@
+-- ============================================================================
+-- RECURRING JOURNALS AND INVOICES (schema: accounting)
+-- ============================================================================
+-- A template holds a journal (JournalPostingRequest) or invoice (RecurringInvoice)
+-- payload and a schedule. Every node runs the scheduler; due templates are
+-- claimed in batches by setting a lease (FOR UPDATE SKIP LOCKED), so nodes share
+-- the work without a broker and a crashed node's batch is picked up once its
+-- lease expires. recurring_occurrences is the idempotency record: one row per
+-- template and date, written in the same transaction as the document.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE recurring_templates (
+    template_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    document_type VARCHAR(20) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    number_prefix VARCHAR(30) NOT NULL,
+    frequency VARCHAR(20) NOT NULL,
+    interval_count INT NOT NULL DEFAULT 1,
+    start_date DATE NOT NULL,
+    end_date DATE,
+    payload JSONB NOT NULL,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    -- Schedule state, advanced by the scheduler
+    next_run_date DATE NOT NULL,
+    occurrence_count INT NOT NULL DEFAULT 0,
+    last_run_date DATE,
+    -- Claim state; an expired lease is free to take
+    lease_owner VARCHAR(100),
+    lease_expires_at TIMESTAMP,
+    failure_count INT NOT NULL DEFAULT 0,
+    last_error TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Document numbers are number_prefix-yyyyMMdd, so prefixes must not collide
+    UNIQUE(tenant_id, document_type, number_prefix),
+    CHECK (document_type IN ('JOURNAL', 'INVOICE')),
+    CHECK (frequency IN ('DAILY', 'WEEKLY', 'MONTHLY', 'QUARTERLY', 'YEARLY')),
+    CHECK (interval_count > 0)
+);
+COMMENT ON TABLE recurring_templates IS 'Recurring journal and invoice templates with their schedule and claim lease';
+
+CREATE INDEX idx_recurring_due ON recurring_templates(next_run_date) WHERE is_active;
+CREATE INDEX idx_recurring_tenant ON recurring_templates(tenant_id);
+
+CREATE TABLE recurring_occurrences (
+    template_id UUID NOT NULL REFERENCES recurring_templates(template_id) ON DELETE CASCADE,
+    occurrence_date DATE NOT NULL,
+    tenant_id UUID NOT NULL,
+    document_id UUID,
+    document_number VARCHAR(50),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (template_id, occurrence_date)
+);
+COMMENT ON TABLE recurring_occurrences IS 'One row per generated document; guards against generating an occurrence twice';
+
+CREATE TRIGGER recurring_templates_audit_trigger BEFORE UPDATE ON recurring_templates
+FOR EACH ROW EXECUTE FUNCTION audit_trigger_function();
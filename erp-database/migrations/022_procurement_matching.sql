@@ -0,0 +1,114 @@
+-- ============================================================================
+-- PURCHASE ORDER LIFECYCLE AND THREE-WAY MATCHING (schema: accounting)
+-- ============================================================================
+-- purchase_orders/po_lines come from 010. Goods receipts record what arrived
+-- against a PO (each receipt line also writes a PURCHASE row to
+-- inventory_ledger); supplier invoices record what the supplier billed.
+-- The nightly matcher compares ordered, received and invoiced quantities and
+-- amounts per (po_id, product_id) and keeps the latest outcome in
+-- po_match_results. A PO whose lines all match moves to INVOICED.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+-- status was a po_status_enum; VARCHAR + CHECK like the newer tables, so JPA can bind it as a string
+ALTER TABLE purchase_orders ALTER COLUMN status DROP DEFAULT;
+ALTER TABLE purchase_orders ALTER COLUMN status TYPE VARCHAR(20) USING status::text;
+ALTER TABLE purchase_orders ALTER COLUMN status SET DEFAULT 'DRAFT';
+ALTER TABLE purchase_orders ADD CONSTRAINT purchase_orders_status_check
+    CHECK (status IN ('DRAFT', 'CONFIRMED', 'RECEIVED', 'INVOICED', 'PAID'));
+
+-- updated_at is also what po_audit_trigger (010) writes; without it every PO update failed
+ALTER TABLE purchase_orders
+    ADD COLUMN match_status VARCHAR(20),
+    ADD COLUMN matched_at TIMESTAMP,
+    ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+
+-- The matcher pages through open POs by id across all tenants
+CREATE INDEX idx_po_open ON purchase_orders(po_id) WHERE status IN ('CONFIRMED', 'RECEIVED');
+CREATE INDEX idx_po_lines_po_product ON po_lines(po_id, product_id);
+
+CREATE TABLE goods_receipts (
+    receipt_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    po_id UUID NOT NULL REFERENCES purchase_orders(po_id) ON DELETE CASCADE,
+    receipt_number VARCHAR(50) NOT NULL,
+    receipt_date DATE NOT NULL DEFAULT CURRENT_DATE,
+    notes TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(tenant_id, receipt_number)
+);
+COMMENT ON TABLE goods_receipts IS 'Goods received notes (GRN) against purchase orders';
+
+CREATE INDEX idx_goods_receipts_po ON goods_receipts(po_id);
+
+CREATE TABLE goods_receipt_lines (
+    receipt_line_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    receipt_id UUID NOT NULL REFERENCES goods_receipts(receipt_id) ON DELETE CASCADE,
+    po_id UUID NOT NULL REFERENCES purchase_orders(po_id) ON DELETE CASCADE,
+    po_line_id UUID NOT NULL REFERENCES po_lines(line_id),
+    product_id UUID NOT NULL REFERENCES products(product_id),
+    quantity_received INT NOT NULL CHECK (quantity_received > 0),
+    batch_number VARCHAR(100),
+    expiry_date DATE,
+    ledger_id UUID,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+COMMENT ON TABLE goods_receipt_lines IS 'Quantities received per PO line; ledger_id is the inventory_ledger movement';
+
+-- po_id is denormalised from the header so the matcher reads a batch of POs in one index scan
+CREATE INDEX idx_goods_receipt_lines_po ON goods_receipt_lines(po_id);
+
+CREATE TABLE supplier_invoices (
+    supplier_invoice_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    supplier_id UUID NOT NULL REFERENCES suppliers(supplier_id),
+    po_id UUID NOT NULL REFERENCES purchase_orders(po_id) ON DELETE CASCADE,
+    invoice_number VARCHAR(50) NOT NULL,
+    invoice_date DATE NOT NULL DEFAULT CURRENT_DATE,
+    due_date DATE,
+    subtotal DECIMAL(15, 2) NOT NULL,
+    total_tax DECIMAL(15, 2) DEFAULT 0,
+    total_amount DECIMAL(15, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(tenant_id, supplier_id, invoice_number)
+);
+COMMENT ON TABLE supplier_invoices IS 'Bills received from suppliers against purchase orders - AP before payment';
+
+CREATE INDEX idx_supplier_invoices_po ON supplier_invoices(po_id);
+
+CREATE TABLE supplier_invoice_lines (
+    line_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    supplier_invoice_id UUID NOT NULL REFERENCES supplier_invoices(supplier_invoice_id) ON DELETE CASCADE,
+    po_id UUID NOT NULL REFERENCES purchase_orders(po_id) ON DELETE CASCADE,
+    product_id UUID NOT NULL REFERENCES products(product_id),
+    line_number INT NOT NULL,
+    quantity INT NOT NULL CHECK (quantity > 0),
+    unit_price DECIMAL(15, 2) NOT NULL,
+    line_total DECIMAL(15, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+COMMENT ON TABLE supplier_invoice_lines IS 'Billed quantities and prices; matched to PO lines by product';
+
+CREATE INDEX idx_supplier_invoice_lines_po ON supplier_invoice_lines(po_id);
+
+CREATE TABLE po_match_results (
+    po_id UUID NOT NULL REFERENCES purchase_orders(po_id) ON DELETE CASCADE,
+    product_id UUID NOT NULL,
+    tenant_id UUID NOT NULL,
+    quantity_ordered INT NOT NULL DEFAULT 0,
+    quantity_received INT NOT NULL DEFAULT 0,
+    quantity_invoiced INT NOT NULL DEFAULT 0,
+    ordered_unit_price DECIMAL(15, 2),
+    invoiced_amount DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    status VARCHAR(20) NOT NULL,
+    reason TEXT,
+    matched_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (po_id, product_id),
+    CHECK (status IN ('MATCHED', 'AWAITING_RECEIPT', 'AWAITING_INVOICE',
+                      'QUANTITY_MISMATCH', 'PRICE_MISMATCH', 'UNORDERED_ITEM'))
+);
+COMMENT ON TABLE po_match_results IS 'Latest three-way match outcome per PO and product, rewritten by each matcher run';
+
+CREATE INDEX idx_po_match_exceptions ON po_match_results(tenant_id)
+    WHERE status IN ('QUANTITY_MISMATCH', 'PRICE_MISMATCH', 'UNORDERED_ITEM');
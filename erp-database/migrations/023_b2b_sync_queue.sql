@@ -0,0 +1,47 @@
+-- ============================================================================
+-- INTER-TENANT B2B DOCUMENT SYNC (schema: accounting)
+-- ============================================================================
+-- When a seller tenant invoices a customer whose GSTIN belongs to another
+-- tenant, the invoice is queued in b2b_sync_map in the seller's transaction
+-- (an outbox row). Dispatchers on every node claim due rows in batches with a
+-- lease (FOR UPDATE SKIP LOCKED, as for recurring_templates) and create the
+-- matching supplier invoice in the buyer tenant. Failed deliveries are
+-- retried with exponential back-off, then REJECTED.
+--
+-- PENDING      queued, waiting for delivery (next_attempt_at)
+-- ACKNOWLEDGED buyer document created (buyer_document_id)
+-- COMPLETED    buyer accepted the document
+-- REJECTED     delivery gave up, or the buyer refused the document
+-- ============================================================================
+
+SET search_path TO accounting;
+
+ALTER TABLE b2b_sync_map ALTER COLUMN sync_status DROP DEFAULT;
+ALTER TABLE b2b_sync_map ALTER COLUMN sync_status TYPE VARCHAR(20) USING sync_status::text;
+ALTER TABLE b2b_sync_map ALTER COLUMN sync_status SET DEFAULT 'PENDING';
+ALTER TABLE b2b_sync_map ADD CONSTRAINT b2b_sync_map_status_check
+    CHECK (sync_status IN ('PENDING', 'ACKNOWLEDGED', 'REJECTED', 'COMPLETED'));
+
+ALTER TABLE b2b_sync_map
+    ADD COLUMN buyer_document_id UUID,
+    ADD COLUMN attempts INT NOT NULL DEFAULT 0,
+    ADD COLUMN next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ADD COLUMN last_error TEXT,
+    ADD COLUMN lease_owner VARCHAR(100),
+    ADD COLUMN lease_expires_at TIMESTAMP,
+    ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- One sync per seller invoice, so a replayed event cannot queue it twice
+    ADD CONSTRAINT b2b_sync_map_seller_invoice_key UNIQUE (seller_tenant_id, seller_invoice_id);
+
+CREATE INDEX idx_b2b_due ON b2b_sync_map(next_attempt_at) WHERE sync_status = 'PENDING';
+
+CREATE TRIGGER b2b_sync_map_audit_trigger BEFORE UPDATE ON b2b_sync_map
+FOR EACH ROW EXECUTE FUNCTION audit_trigger_function();
+
+-- A seller is a supplier in every buyer tenant it sells to, so GSTIN is unique per tenant only
+ALTER TABLE suppliers DROP CONSTRAINT suppliers_gstin_key;
+ALTER TABLE suppliers ADD CONSTRAINT suppliers_tenant_gstin_key UNIQUE (tenant_id, gstin);
+
+-- Mirrored bills arrive without a buyer PO; the three-way matcher only reads bills with one
+ALTER TABLE supplier_invoices ALTER COLUMN po_id DROP NOT NULL;
+ALTER TABLE supplier_invoice_lines ALTER COLUMN po_id DROP NOT NULL;
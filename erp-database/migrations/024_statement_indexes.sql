@@ -0,0 +1,13 @@
+-- ============================================================================
+-- STATEMENT AND LEDGER EXPORTS (schema: accounting)
+-- ============================================================================
+-- Customer statements and account ledgers are streamed in date order from a
+-- cursor. These indexes let both the opening-balance aggregate and the entry
+-- scan read one customer's (or account's) rows in order instead of sorting
+-- years of history. general_ledger already has idx_gl_account_date.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE INDEX idx_invoices_customer_date ON invoices(customer_id, invoice_date);
+CREATE INDEX idx_payment_rec_customer_date ON payments_received(customer_id, payment_date);
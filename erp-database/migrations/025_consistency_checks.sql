@@ -0,0 +1,63 @@
+-- ============================================================================
+-- LEDGER CONSISTENCY CHECKS (schema: accounting)
+-- ============================================================================
+-- ConsistencyCheckService compares stored aggregates with the rows they are
+-- derived from, one set-based statement per tenant and check:
+--
+-- JOURNAL_TOTALS     journal_entries.total_debit/total_credit vs postings
+-- GL_POSTINGS        general_ledger vs postings, per journal, account and side
+-- INVOICE_TOTALS     invoice subtotal/total_tax vs invoice_lines, and
+--                    total_amount vs subtotal + total_tax
+-- INVENTORY_BALANCE  inventory_balance.quantity_on_hand vs inventory_ledger,
+--                    archived movements through their block totals (027)
+--
+-- Discrepancies stay open in consistency_diffs until a later run finds the
+-- entity consistent again. Incremental runs only recheck entities with rows
+-- created or updated since the tenant's watermark for that check; deletes are
+-- only seen by full runs.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE consistency_diffs (
+    diff_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    check_name VARCHAR(30) NOT NULL,
+    entity_key VARCHAR(100) NOT NULL,
+    attribute VARCHAR(100) NOT NULL,
+    -- expected is derived from the detail rows, actual is the stored aggregate
+    expected DECIMAL(18, 2),
+    actual DECIMAL(18, 2),
+    first_seen_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_seen_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    resolved_at TIMESTAMP,
+    CHECK (check_name IN ('JOURNAL_TOTALS', 'GL_POSTINGS', 'INVOICE_TOTALS', 'INVENTORY_BALANCE'))
+);
+
+-- One open diff per entity attribute; also serves the open-diffs listing
+CREATE UNIQUE INDEX idx_consistency_diffs_open ON consistency_diffs(tenant_id, check_name, entity_key, attribute)
+    WHERE resolved_at IS NULL;
+COMMENT ON TABLE consistency_diffs IS 'Aggregates that disagree with their detail rows, open until a run finds them consistent';
+
+CREATE TABLE consistency_check_watermarks (
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    check_name VARCHAR(30) NOT NULL,
+    checked_through TIMESTAMP NOT NULL,
+    last_run_at TIMESTAMP NOT NULL,
+    last_found INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (tenant_id, check_name)
+);
+
+-- journal_entries had no trigger, so updated_at did not move on edits
+CREATE TRIGGER journal_entries_audit_trigger BEFORE UPDATE ON journal_entries
+FOR EACH ROW EXECUTE FUNCTION audit_trigger_function();
+
+-- Change scans for incremental runs; inventory_ledger(tenant_id, created_at)
+-- is idx_inventory_tenant_created from 019
+CREATE INDEX idx_journal_tenant_updated ON journal_entries(tenant_id, updated_at);
+CREATE INDEX idx_postings_tenant_created ON postings(tenant_id, created_at);
+CREATE INDEX idx_gl_journal ON general_ledger(journal_id) WHERE journal_id IS NOT NULL;
+CREATE INDEX idx_invoices_tenant_updated ON invoices(tenant_id, updated_at);
+CREATE INDEX idx_invoice_lines_created_at ON invoice_lines(created_at);
+CREATE INDEX idx_inventory_tenant_product ON inventory_ledger(tenant_id, product_id);
+CREATE INDEX idx_balance_tenant_updated ON inventory_balance(tenant_id, last_updated);
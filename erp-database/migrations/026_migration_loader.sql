@@ -0,0 +1,79 @@
+-- ============================================================================
+-- HISTORICAL DATA MIGRATION LOADER (schema: accounting)
+-- ============================================================================
+-- MigrationLoaderService onboards a tenant's history from a legacy system
+-- (Tally, spreadsheet exports) in three stages:
+--
+-- 1. STAGING  CSV files are streamed with COPY into per-job tables in schema
+--             migration_staging, which have no indexes while loading. Each
+--             chunk commits with its checkpoint in migration_files, so a
+--             re-sent file resumes after the last staged record. The tables
+--             are logged so staged rows survive a crash with their checkpoint.
+-- 2. QUEUED   A node claims the job with a lease (FOR UPDATE SKIP LOCKED, as
+--             for b2b_sync_map), builds the staging indexes and runs the
+--             set-based validations in parallel.
+-- 3. RUNNING  Each target table is filled with one INSERT ... SELECT per step;
+--             the step and its checkpoint (migration_jobs.checkpoint) commit
+--             together, so a job picked up after a crash resumes at the next
+--             step. Balances and KPIs are rebuilt last.
+--
+-- Any row or validation error fails the job before anything is written.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE SCHEMA IF NOT EXISTS migration_staging;
+
+CREATE TABLE migration_jobs (
+    job_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    source_system VARCHAR(50),
+    status VARCHAR(20) NOT NULL DEFAULT 'STAGING',
+    -- Last step committed by the runner
+    checkpoint VARCHAR(30),
+    created_by UUID NOT NULL REFERENCES users(user_id),
+    error_count INT NOT NULL DEFAULT 0,
+    last_error TEXT,
+    lease_owner VARCHAR(100),
+    lease_expires_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    CHECK (status IN ('STAGING', 'QUEUED', 'RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+-- One migration in flight per tenant
+CREATE UNIQUE INDEX idx_migration_jobs_active ON migration_jobs(tenant_id)
+    WHERE status IN ('STAGING', 'QUEUED', 'RUNNING');
+CREATE INDEX idx_migration_jobs_runnable ON migration_jobs(created_at)
+    WHERE status IN ('QUEUED', 'RUNNING');
+
+CREATE TRIGGER migration_jobs_audit_trigger BEFORE UPDATE ON migration_jobs
+FOR EACH ROW EXECUTE FUNCTION audit_trigger_function();
+
+COMMENT ON TABLE migration_jobs IS 'Bulk history loads, resumable from checkpoint';
+
+CREATE TABLE migration_files (
+    job_id UUID NOT NULL REFERENCES migration_jobs(job_id) ON DELETE CASCADE,
+    kind VARCHAR(20) NOT NULL,
+    -- Source records consumed so far, staged or rejected; a re-sent file skips this many
+    rows_read BIGINT NOT NULL DEFAULT 0,
+    rows_staged BIGINT NOT NULL DEFAULT 0,
+    completed_at TIMESTAMP,
+    PRIMARY KEY (job_id, kind),
+    CHECK (kind IN ('JOURNALS', 'INVOICES', 'INVOICE_LINES', 'STOCK'))
+);
+
+CREATE TABLE migration_errors (
+    error_id BIGSERIAL PRIMARY KEY,
+    job_id UUID NOT NULL REFERENCES migration_jobs(job_id) ON DELETE CASCADE,
+    kind VARCHAR(20) NOT NULL,
+    -- STAGE for unparseable rows, otherwise the validation that failed
+    check_name VARCHAR(30) NOT NULL,
+    source_line BIGINT,
+    message TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_migration_errors_job ON migration_errors(job_id, kind, source_line);
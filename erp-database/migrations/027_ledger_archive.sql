@@ -0,0 +1,71 @@
+-- ============================================================================
+-- COLD-STORAGE ARCHIVE OF CLOSED-PERIOD LEDGER ROWS (schema: accounting)
+-- ============================================================================
+-- LedgerArchiveService moves general_ledger, postings and inventory_ledger
+-- rows older than erp.archive.retention-months out of the hot tables into
+-- segment files (one per tenant, dataset and month). A segment holds one
+-- gzip block of JSON rows per account (or product), sorted by date. Each
+-- block's position and totals are indexed here, so a read for one account
+-- fetches only its blocks, and opening balances need no file at all.
+--
+-- The file is written and read back against its SHA-256 before the hot rows
+-- are deleted; the delete and the segment rows commit together.
+--
+-- Postings leave as a prefix of the tenant's hash chain that has just been
+-- rehashed. ledger_archive_state keeps the seq and hash at the end of that
+-- prefix, from which LedgerChainVerifier resumes. General ledger rows of a
+-- journal are archived only once all of its postings are.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE ledger_archive_state (
+    tenant_id UUID PRIMARY KEY REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    -- Every archived row is dated before this; reads from this date on skip the archive
+    archived_through DATE NOT NULL,
+    chain_seq BIGINT NOT NULL DEFAULT 0,
+    chain_hash VARCHAR(64) NOT NULL DEFAULT repeat('0', 64),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+COMMENT ON TABLE ledger_archive_state IS 'Archive cut-off and archived posting chain prefix per tenant';
+
+CREATE TABLE archive_segments (
+    segment_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    dataset VARCHAR(20) NOT NULL,
+    period_month DATE NOT NULL,
+    first_date DATE NOT NULL,
+    last_date DATE NOT NULL,
+    row_count BIGINT NOT NULL,
+    byte_size BIGINT NOT NULL,
+    sha256 VARCHAR(64) NOT NULL,
+    object_key VARCHAR(500) NOT NULL UNIQUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CHECK (dataset IN ('GENERAL_LEDGER', 'POSTINGS', 'INVENTORY_LEDGER'))
+);
+
+-- Rows arriving late for an archived month go into a further segment for that month
+CREATE INDEX idx_archive_segments_range ON archive_segments(tenant_id, dataset, first_date, last_date);
+
+CREATE TABLE archive_segment_keys (
+    segment_id UUID NOT NULL REFERENCES archive_segments(segment_id) ON DELETE CASCADE,
+    tenant_id UUID NOT NULL,
+    dataset VARCHAR(20) NOT NULL,
+    -- account_id, or product_id for INVENTORY_LEDGER
+    key_id UUID NOT NULL,
+    first_date DATE NOT NULL,
+    last_date DATE NOT NULL,
+    row_count INT NOT NULL,
+    block_offset BIGINT NOT NULL,
+    block_length INT NOT NULL,
+    block_crc32 BIGINT NOT NULL,
+    -- Debits and credits, or quantities in and out
+    total_in NUMERIC(18, 2) NOT NULL,
+    total_out NUMERIC(18, 2) NOT NULL,
+    PRIMARY KEY (segment_id, key_id)
+);
+
+CREATE INDEX idx_archive_keys_lookup ON archive_segment_keys(tenant_id, dataset, key_id, first_date);
+
+-- Set once every posting of the journal is archived; consistency checks skip these journals
+ALTER TABLE journal_entries ADD COLUMN archived_at TIMESTAMP;
@@ -0,0 +1,128 @@
+-- ============================================================================
+-- MOBILE DELTA SYNC (schema: accounting)
+-- ============================================================================
+-- Offline-first clients keep a local copy of a tenant's products, customers,
+-- invoices and stock balances and catch up with "what changed after token n".
+--
+-- sync_log holds one row per synced entity: the sequence number of its last
+-- write and whether that write was a delete (a tombstone). Rewriting an entity
+-- moves its row forward, so a delta never repeats superseded versions and the
+-- log stays the size of the synced tables plus recent tombstones.
+--
+-- Sequence numbers come from a per-tenant counter, once per transaction, like
+-- reference_data_versions (020). The log is written by deferred constraint
+-- triggers, so the counter is only locked for the moment between the trigger
+-- and commit: numbers are still handed out in commit order (a client that saw
+-- n has seen everything <= n) without serialising a tenant's whole write
+-- transactions behind each other.
+--
+-- Tombstones older than erp.sync.tombstone-retention-days are purged and
+-- purged_through records the last purged number; a client whose token is older
+-- than that must start again from 0.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE sync_state (
+    -- No foreign key: deleting a tenant cascades to synced rows whose log triggers run at commit
+    tenant_id UUID PRIMARY KEY,
+    seq BIGINT NOT NULL,
+    last_txid BIGINT NOT NULL,
+    purged_through BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+COMMENT ON TABLE sync_state IS 'Per-tenant sync token counter and tombstone purge horizon';
+
+CREATE TABLE sync_log (
+    tenant_id UUID NOT NULL,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id UUID NOT NULL,
+    sync_seq BIGINT NOT NULL,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, entity_type, entity_id),
+    CHECK (entity_type IN ('PRODUCTS', 'CUSTOMERS', 'INVOICES', 'BALANCES'))
+);
+COMMENT ON TABLE sync_log IS 'Latest write per synced entity, ordered by sync token; deleted rows are tombstones';
+
+CREATE INDEX idx_sync_log_seq ON sync_log(tenant_id, sync_seq);
+CREATE INDEX idx_sync_log_tombstones ON sync_log(changed_at) WHERE deleted;
+
+-- Offline writes already applied, so a batch resent after a dropped connection is not applied twice
+CREATE TABLE sync_device_writes (
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    device_id VARCHAR(100) NOT NULL,
+    mutation_id VARCHAR(100) NOT NULL,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id UUID NOT NULL,
+    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, device_id, mutation_id)
+);
+
+CREATE INDEX idx_sync_device_writes_applied ON sync_device_writes(applied_at);
+
+CREATE OR REPLACE FUNCTION next_sync_seq(p_tenant UUID) RETURNS BIGINT AS $$
+DECLARE
+    v_seq BIGINT;
+    v_txid BIGINT;
+BEGIN
+    SELECT seq, last_txid INTO v_seq, v_txid FROM sync_state WHERE tenant_id = p_tenant FOR UPDATE;
+    IF FOUND AND v_txid = txid_current() THEN
+        RETURN v_seq;
+    END IF;
+    INSERT INTO sync_state (tenant_id, seq, last_txid)
+    VALUES (p_tenant, 1, txid_current())
+    ON CONFLICT (tenant_id) DO UPDATE
+        SET seq = sync_state.seq + 1, last_txid = EXCLUDED.last_txid, updated_at = now()
+    RETURNING seq INTO v_seq;
+    RETURN v_seq;
+END;
+$$ LANGUAGE plpgsql;
+
+-- TG_ARGV: entity type, primary key column
+CREATE OR REPLACE FUNCTION sync_log_function() RETURNS TRIGGER AS $$
+DECLARE
+    v_row JSONB;
+BEGIN
+    IF TG_OP = 'UPDATE' AND OLD IS NOT DISTINCT FROM NEW THEN
+        RETURN NULL;
+    END IF;
+    v_row := to_jsonb(CASE WHEN TG_OP = 'DELETE' THEN OLD ELSE NEW END);
+    INSERT INTO sync_log (tenant_id, entity_type, entity_id, sync_seq, deleted, changed_at)
+    VALUES ((v_row ->> 'tenant_id')::uuid, TG_ARGV[0], (v_row ->> TG_ARGV[1])::uuid,
+            next_sync_seq((v_row ->> 'tenant_id')::uuid), TG_OP = 'DELETE', now())
+    ON CONFLICT (tenant_id, entity_type, entity_id) DO UPDATE
+        SET sync_seq = EXCLUDED.sync_seq, deleted = EXCLUDED.deleted, changed_at = EXCLUDED.changed_at;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE CONSTRAINT TRIGGER products_sync_trigger
+AFTER INSERT OR UPDATE OR DELETE ON products
+DEFERRABLE INITIALLY DEFERRED
+FOR EACH ROW EXECUTE FUNCTION sync_log_function('PRODUCTS', 'product_id');
+
+CREATE CONSTRAINT TRIGGER customers_sync_trigger
+AFTER INSERT OR UPDATE OR DELETE ON customers
+DEFERRABLE INITIALLY DEFERRED
+FOR EACH ROW EXECUTE FUNCTION sync_log_function('CUSTOMERS', 'customer_id');
+
+CREATE CONSTRAINT TRIGGER invoices_sync_trigger
+AFTER INSERT OR UPDATE OR DELETE ON invoices
+DEFERRABLE INITIALLY DEFERRED
+FOR EACH ROW EXECUTE FUNCTION sync_log_function('INVOICES', 'invoice_id');
+
+CREATE CONSTRAINT TRIGGER inventory_balance_sync_trigger
+AFTER INSERT OR UPDATE OR DELETE ON inventory_balance
+DEFERRABLE INITIALLY DEFERRED
+FOR EACH ROW EXECUTE FUNCTION sync_log_function('BALANCES', 'balance_id');
+
+-- Existing rows enter the log at token 1 so a first sync from 0 returns them
+INSERT INTO sync_log (tenant_id, entity_type, entity_id, sync_seq)
+SELECT tenant_id, 'PRODUCTS', product_id, 1 FROM products
+UNION ALL SELECT tenant_id, 'CUSTOMERS', customer_id, 1 FROM customers
+UNION ALL SELECT tenant_id, 'INVOICES', invoice_id, 1 FROM invoices
+UNION ALL SELECT tenant_id, 'BALANCES', balance_id, 1 FROM inventory_balance;
+
+INSERT INTO sync_state (tenant_id, seq, last_txid)
+SELECT DISTINCT tenant_id, 1, 0 FROM sync_log;
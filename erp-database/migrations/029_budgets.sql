@@ -0,0 +1,142 @@
+-- ============================================================================
+-- BUDGETS AND INCREMENTAL ACTUALS (schema: accounting)
+-- ============================================================================
+-- account_period_actuals holds debit and credit totals per account and month.
+-- A statement-level trigger on general_ledger folds every insert into it, one
+-- upsert per (account, month) touched, whatever the write path (journal
+-- posting, migration loader, FX revaluation). general_ledger is append-only;
+-- rows moved to the archive (027) are deleted without touching the totals.
+--
+-- budgets hold an amount per account and month. A budget on a parent account
+-- covers its whole subtree through account_closure (014), so budget-vs-actual
+-- for a chart is one join of budgets, closure and actuals rather than a scan
+-- of the ledger.
+--
+-- When a post takes a budget's actual to its alert threshold (and again at
+-- 100%), a row is added to budget_alerts; each threshold alerts once.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE account_period_actuals (
+    account_id UUID NOT NULL REFERENCES chart_of_accounts(account_id) ON DELETE CASCADE,
+    period_month DATE NOT NULL,
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    debit DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    credit DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (account_id, period_month)
+);
+
+CREATE INDEX idx_actuals_tenant_period ON account_period_actuals(tenant_id, period_month);
+COMMENT ON TABLE account_period_actuals IS 'Monthly debit/credit totals per account, kept by a general_ledger trigger';
+
+CREATE TABLE budgets (
+    budget_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    account_id UUID NOT NULL REFERENCES chart_of_accounts(account_id) ON DELETE CASCADE,
+    period_month DATE NOT NULL,
+    amount DECIMAL(18, 2) NOT NULL,
+    alert_threshold_pct DECIMAL(5, 2) NOT NULL DEFAULT 80,
+    notes VARCHAR(500),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (account_id, period_month),
+    CHECK (amount >= 0),
+    CHECK (alert_threshold_pct > 0 AND alert_threshold_pct <= 100),
+    CHECK (period_month = date_trunc('month', period_month))
+);
+
+CREATE INDEX idx_budgets_tenant_period ON budgets(tenant_id, period_month);
+COMMENT ON TABLE budgets IS 'Budgeted amount per account (and its subtree) per month';
+
+CREATE TABLE budget_alerts (
+    alert_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    budget_id UUID NOT NULL REFERENCES budgets(budget_id) ON DELETE CASCADE,
+    tenant_id UUID NOT NULL,
+    account_id UUID NOT NULL,
+    period_month DATE NOT NULL,
+    threshold_pct DECIMAL(5, 2) NOT NULL,
+    budget_amount DECIMAL(18, 2) NOT NULL,
+    actual_amount DECIMAL(18, 2) NOT NULL,
+    raised_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    acknowledged_at TIMESTAMP,
+    UNIQUE (budget_id, threshold_pct)
+);
+
+CREATE INDEX idx_budget_alerts_open ON budget_alerts(tenant_id, raised_at) WHERE acknowledged_at IS NULL;
+
+-- Actual of an account's subtree for one month, signed by the account's normal side
+CREATE OR REPLACE FUNCTION budget_actual(p_account UUID, p_month DATE) RETURNS DECIMAL AS $$
+    SELECT COALESCE(SUM(CASE WHEN a.account_type IN ('ASSET', 'EXPENSE')
+                             THEN x.debit - x.credit ELSE x.credit - x.debit END), 0)
+    FROM chart_of_accounts a
+    JOIN account_closure c ON c.ancestor_id = a.account_id
+    JOIN account_period_actuals x ON x.account_id = c.descendant_id AND x.period_month = p_month
+    WHERE a.account_id = p_account;
+$$ LANGUAGE sql STABLE;
+
+-- Alerts for every threshold the given budgets have reached; already raised ones are left alone
+CREATE OR REPLACE FUNCTION raise_budget_alerts(p_budgets UUID[]) RETURNS INT AS $$
+DECLARE
+    v_raised INT;
+BEGIN
+    INSERT INTO budget_alerts (budget_id, tenant_id, account_id, period_month, threshold_pct, budget_amount, actual_amount)
+    SELECT b.budget_id, b.tenant_id, b.account_id, b.period_month, t.pct, b.amount, v.actual
+    FROM budgets b
+    CROSS JOIN LATERAL (SELECT budget_actual(b.account_id, b.period_month) AS actual) v
+    CROSS JOIN LATERAL (SELECT DISTINCT unnest(ARRAY[b.alert_threshold_pct, 100.00]) AS pct) t
+    WHERE b.budget_id = ANY (p_budgets) AND v.actual >= b.amount * t.pct / 100
+    ORDER BY b.budget_id, t.pct
+    ON CONFLICT (budget_id, threshold_pct) DO NOTHING;
+    GET DIAGNOSTICS v_raised = ROW_COUNT;
+    RETURN v_raised;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION gl_actuals_function() RETURNS TRIGGER AS $$
+BEGIN
+    -- Ordered so concurrent multi-account posts lock actuals rows in the same order
+    INSERT INTO account_period_actuals (account_id, period_month, tenant_id, debit, credit)
+    SELECT account_id, date_trunc('month', transaction_date)::date, tenant_id,
+           COALESCE(SUM(amount) FILTER (WHERE entry_type = 'DEBIT'), 0),
+           COALESCE(SUM(amount) FILTER (WHERE entry_type = 'CREDIT'), 0)
+    FROM new_rows
+    GROUP BY account_id, date_trunc('month', transaction_date), tenant_id
+    ORDER BY 1, 2
+    ON CONFLICT (account_id, period_month) DO UPDATE
+        SET debit = account_period_actuals.debit + EXCLUDED.debit,
+            credit = account_period_actuals.credit + EXCLUDED.credit,
+            updated_at = now();
+
+    -- Budgets on the posted accounts or any of their ancestors
+    PERFORM raise_budget_alerts(ARRAY(
+        SELECT DISTINCT b.budget_id
+        FROM (SELECT DISTINCT account_id, date_trunc('month', transaction_date)::date AS period_month FROM new_rows) n
+        JOIN account_closure c ON c.descendant_id = n.account_id
+        JOIN budgets b ON b.account_id = c.ancestor_id AND b.period_month = n.period_month));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER gl_actuals_trigger
+AFTER INSERT ON general_ledger
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION gl_actuals_function();
+
+-- Backfill from the hot ledger and from archived ledger blocks (totals per account per month segment)
+INSERT INTO account_period_actuals (account_id, period_month, tenant_id, debit, credit)
+SELECT account_id, period_month, tenant_id, SUM(debit), SUM(credit)
+FROM (
+    SELECT account_id, date_trunc('month', transaction_date)::date AS period_month, tenant_id,
+           CASE WHEN entry_type = 'DEBIT' THEN amount ELSE 0 END AS debit,
+           CASE WHEN entry_type = 'CREDIT' THEN amount ELSE 0 END AS credit
+    FROM general_ledger
+    UNION ALL
+    SELECT k.key_id, s.period_month, k.tenant_id, k.total_in, k.total_out
+    FROM archive_segment_keys k
+    JOIN archive_segments s ON s.segment_id = k.segment_id
+    WHERE k.dataset = 'GENERAL_LEDGER'
+) t
+WHERE EXISTS (SELECT 1 FROM chart_of_accounts a WHERE a.account_id = t.account_id)
+GROUP BY account_id, period_month, tenant_id;
@@ -0,0 +1,41 @@
+-- ============================================================================
+-- ANALYTICAL DIMENSIONS ON POSTINGS (schema: accounting)
+-- ============================================================================
+-- Branch, cost centre and project are first-class tags on postings and their
+-- general_ledger rows instead of conventions inside line_description. Each
+-- tenant keeps its own list of dimension values; a posting carries at most one
+-- value per dimension, and untagged postings stay valid.
+--
+-- Slice-and-dice reports do not query these columns: the service keeps an
+-- in-memory bitmap index per tenant over posting chain order (chain_seq, 018)
+-- and catches up on postings above the last sequence it has seen.
+--
+-- Tags are not part of the posting hash chain; existing row hashes are
+-- unchanged.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+CREATE TABLE dimensions (
+    dimension_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    dimension_type VARCHAR(20) NOT NULL,
+    code VARCHAR(50) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (tenant_id, dimension_type, code),
+    CHECK (dimension_type IN ('BRANCH', 'COST_CENTER', 'PROJECT'))
+);
+COMMENT ON TABLE dimensions IS 'Per-tenant values of the analytical dimensions postings can be tagged with';
+
+ALTER TABLE postings
+    ADD COLUMN branch_id UUID REFERENCES dimensions(dimension_id),
+    ADD COLUMN cost_center_id UUID REFERENCES dimensions(dimension_id),
+    ADD COLUMN project_id UUID REFERENCES dimensions(dimension_id);
+
+ALTER TABLE general_ledger
+    ADD COLUMN branch_id UUID REFERENCES dimensions(dimension_id),
+    ADD COLUMN cost_center_id UUID REFERENCES dimensions(dimension_id),
+    ADD COLUMN project_id UUID REFERENCES dimensions(dimension_id);
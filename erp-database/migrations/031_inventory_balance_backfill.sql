@@ -0,0 +1,35 @@
+-- ============================================================================
+-- PER-PRODUCT STOCK IN inventory_balance (schema: accounting)
+-- ============================================================================
+-- inventory_balance (010) is the per-product stock read by the inventory API,
+-- the dashboard KPIs, the consistency checker and mobile sync, but nothing
+-- wrote it. InventoryBatchService now applies every movement to it in the
+-- movement's transaction.
+--
+-- inventory_value is the sum of unit_cost x (quantity_in - quantity_out), the
+-- same basis as the dashboard stock value; uncosted movements add no value.
+--
+-- This brings the table in line with inventory_ledger once. Archive blocks
+-- (027) keep quantities but not values, so movements archived before this
+-- migration count towards quantity_on_hand only.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+INSERT INTO inventory_balance (tenant_id, product_id, quantity_on_hand, inventory_value, last_updated)
+SELECT tenant_id, product_id, SUM(quantity), SUM(value), now()
+FROM (
+    SELECT tenant_id, product_id, quantity_in - quantity_out AS quantity,
+           COALESCE(unit_cost * (quantity_in - quantity_out), 0) AS value
+    FROM inventory_ledger
+    UNION ALL
+    SELECT k.tenant_id, k.key_id, (k.total_in - k.total_out)::int, 0
+    FROM archive_segment_keys k
+    WHERE k.dataset = 'INVENTORY_LEDGER'
+) t
+WHERE EXISTS (SELECT 1 FROM products p WHERE p.product_id = t.product_id)
+GROUP BY tenant_id, product_id
+ON CONFLICT (tenant_id, product_id) DO UPDATE
+    SET quantity_on_hand = EXCLUDED.quantity_on_hand,
+        inventory_value = EXCLUDED.inventory_value,
+        last_updated = now();
@@ -0,0 +1,36 @@
+-- ============================================================================
+-- COMMIT-SAFE ANALYTICS EXPORT WATERMARKS (schema: accounting)
+-- ============================================================================
+-- Incremental exports (019) read rows by created_at behind a fixed lag. A row's
+-- created_at is taken when it is written, not when its transaction commits,
+-- so a transaction open longer than the lag could land behind a watermark that
+-- had already passed it, and its rows were never exported.
+--
+-- Exported rows now record the id of their inserting transaction. An export
+-- reads txid_snapshot_xmin(txid_current_snapshot()) - the oldest transaction
+-- still running - in the same snapshot as the rows: every id below it has
+-- committed or aborted, so rows in [exported_txid, horizon) are complete and
+-- the horizon is the next watermark.
+--
+-- The column is added without a default first so existing rows are not
+-- rewritten; they keep a NULL created_txid and are exported once by created_at
+-- on the first run after this migration.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+ALTER TABLE general_ledger ADD COLUMN created_txid BIGINT;
+ALTER TABLE general_ledger ALTER COLUMN created_txid SET DEFAULT txid_current();
+
+ALTER TABLE invoice_lines ADD COLUMN created_txid BIGINT;
+ALTER TABLE invoice_lines ALTER COLUMN created_txid SET DEFAULT txid_current();
+
+ALTER TABLE inventory_ledger ADD COLUMN created_txid BIGINT;
+ALTER TABLE inventory_ledger ALTER COLUMN created_txid SET DEFAULT txid_current();
+
+CREATE INDEX idx_gl_tenant_txid ON general_ledger(tenant_id, created_txid);
+CREATE INDEX idx_invoice_lines_txid ON invoice_lines(invoice_id, created_txid);
+CREATE INDEX idx_inventory_tenant_txid ON inventory_ledger(tenant_id, created_txid);
+
+-- NULL until a tenant's first export after this migration
+ALTER TABLE analytics_export_watermarks ADD COLUMN exported_txid BIGINT;
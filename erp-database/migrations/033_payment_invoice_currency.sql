@@ -0,0 +1,19 @@
+-- ============================================================================
+-- RECEIPTS AGAINST FOREIGN-CURRENCY INVOICES (schema: accounting)
+-- ============================================================================
+-- Invoice money columns are in the invoice currency (017), and so is a
+-- receipt's amount when it settles a foreign-currency invoice. Nothing tied a
+-- receipt to its invoice, so customer statements added invoice-currency
+-- receipts to base-currency invoice totals.
+--
+-- invoice_id names the invoice a receipt settles; its amount is then converted
+-- at that invoice's exchange_rate. Receipts without one are in base currency.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+ALTER TABLE payments_received ADD COLUMN invoice_id UUID REFERENCES invoices(invoice_id);
+
+CREATE INDEX idx_payment_rec_invoice ON payments_received(invoice_id) WHERE invoice_id IS NOT NULL;
+
+COMMENT ON COLUMN payments_received.invoice_id IS 'Invoice settled by this receipt; amount is in its currency';
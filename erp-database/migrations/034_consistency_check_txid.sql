@@ -0,0 +1,54 @@
+-- ============================================================================
+-- COMMIT-SAFE CONSISTENCY CHECK WATERMARKS (schema: accounting)
+-- ============================================================================
+-- Incremental consistency runs (025) rechecked entities with rows written
+-- after a clock watermark that trailed the clock by a fixed lag. A
+-- transaction open longer than the lag committed rows behind the watermark,
+-- and nothing rechecked them unless a full run was scheduled. This is the
+-- hazard 032 removed from the analytics export.
+--
+-- Scanned rows now carry the id of the transaction that last wrote them:
+-- created_txid on insert-only tables (032 added it to general_ledger,
+-- invoice_lines and inventory_ledger; postings gets it here), changed_txid set
+-- by trigger on tables that are updated. A run reads its horizon,
+-- txid_snapshot_xmin(txid_current_snapshot()), in the statement that checks;
+-- every transaction below it has finished, so the next run starts there.
+--
+-- Rows written before this migration have no id. The first run after it
+-- still takes them by their timestamp, once.
+-- ============================================================================
+
+SET search_path TO accounting;
+
+ALTER TABLE postings ADD COLUMN created_txid BIGINT;
+ALTER TABLE postings ALTER COLUMN created_txid SET DEFAULT txid_current();
+
+CREATE OR REPLACE FUNCTION set_changed_txid() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.changed_txid := txid_current();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE journal_entries ADD COLUMN changed_txid BIGINT;
+CREATE TRIGGER journal_entries_changed_txid BEFORE INSERT OR UPDATE ON journal_entries
+FOR EACH ROW EXECUTE FUNCTION set_changed_txid();
+
+ALTER TABLE invoices ADD COLUMN changed_txid BIGINT;
+CREATE TRIGGER invoices_changed_txid BEFORE INSERT OR UPDATE ON invoices
+FOR EACH ROW EXECUTE FUNCTION set_changed_txid();
+
+ALTER TABLE inventory_balance ADD COLUMN changed_txid BIGINT;
+CREATE TRIGGER inventory_balance_changed_txid BEFORE INSERT OR UPDATE ON inventory_balance
+FOR EACH ROW EXECUTE FUNCTION set_changed_txid();
+
+-- Change scans for incremental runs; general_ledger and inventory_ledger use
+-- the (tenant_id, created_txid) indexes from 032
+CREATE INDEX idx_postings_tenant_txid ON postings(tenant_id, created_txid);
+CREATE INDEX idx_invoice_lines_created_txid ON invoice_lines(created_txid);
+CREATE INDEX idx_journal_tenant_changed_txid ON journal_entries(tenant_id, changed_txid);
+CREATE INDEX idx_invoices_tenant_changed_txid ON invoices(tenant_id, changed_txid);
+CREATE INDEX idx_balance_tenant_changed_txid ON inventory_balance(tenant_id, changed_txid);
+
+-- NULL until a tenant's first run of the check after this migration
+ALTER TABLE consistency_check_watermarks ADD COLUMN checked_txid BIGINT;